@@ -18,6 +18,7 @@ import ru.tinkoff.piapi.contract.v1.*;
 import ru.tinkoff.piapi.core.stream.MarketDataStreamService;
 import ru.tinkoff.piapi.core.stream.OperationsStreamService;
 import ru.tinkoff.piapi.core.stream.OrdersStreamService;
+import ru.tinkoff.piapi.core.utils.Helpers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -42,6 +43,9 @@ public class InvestApi {
 
   static {
     props = loadProps();
+    var stacklessExceptions = Optional.ofNullable(System.getenv("TINKOFF_INVEST_API_STACKLESS_EXCEPTIONS"))
+      .orElseGet(() -> props.getProperty("ru.tinkoff.piapi.core.stackless-exceptions", "false"));
+    Helpers.setDefaultStacklessExceptions(Boolean.parseBoolean(stacklessExceptions));
   }
 
   private final Channel channel;
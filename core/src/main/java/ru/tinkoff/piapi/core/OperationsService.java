@@ -5,6 +5,7 @@ import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc.OperationsServiceBlock
 import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc.OperationsServiceStub;
 import ru.tinkoff.piapi.core.models.Portfolio;
 import ru.tinkoff.piapi.core.models.Positions;
+import ru.tinkoff.piapi.core.models.Result;
 import ru.tinkoff.piapi.core.models.WithdrawLimits;
 import ru.tinkoff.piapi.core.utils.DateUtils;
 import ru.tinkoff.piapi.core.utils.Helpers;
@@ -511,6 +512,34 @@ public class OperationsService {
       .thenApply(Positions::fromResponse);
   }
 
+  /**
+   * Получение (асинхронное) портфеля по счёту без исключений: ошибка возвращается как неудачный {@link Result}.
+   *
+   * @param accountId Идентификатор счёта.
+   * @return Результат получения портфеля.
+   */
+  @Nonnull
+  public CompletableFuture<Result<Portfolio>> getPortfolioResult(@Nonnull String accountId) {
+    var request = PortfolioRequest.newBuilder().setAccountId(accountId).build();
+    return Helpers.<PortfolioResponse>unaryAsyncResultCall(
+        observer -> operationsStub.getPortfolio(request, observer))
+      .thenApply(result -> result.map(Portfolio::fromResponse));
+  }
+
+  /**
+   * Получение (асинхронное) списка позиций по счёту без исключений: ошибка возвращается как неудачный {@link Result}.
+   *
+   * @param accountId Идентификатор счёта.
+   * @return Результат получения позиций.
+   */
+  @Nonnull
+  public CompletableFuture<Result<Positions>> getPositionsResult(@Nonnull String accountId) {
+    var request = PositionsRequest.newBuilder().setAccountId(accountId).build();
+    return Helpers.<PositionsResponse>unaryAsyncResultCall(
+        observer -> operationsStub.getPositions(request, observer))
+      .thenApply(result -> result.map(Positions::fromResponse));
+  }
+
   /**
    * Получение (синхронное) доступного остатка для вывода средств.
    *
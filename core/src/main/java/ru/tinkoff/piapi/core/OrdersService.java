@@ -3,6 +3,8 @@ package ru.tinkoff.piapi.core;
 import ru.tinkoff.piapi.contract.v1.*;
 import ru.tinkoff.piapi.contract.v1.OrdersServiceGrpc.OrdersServiceBlockingStub;
 import ru.tinkoff.piapi.contract.v1.OrdersServiceGrpc.OrdersServiceStub;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.models.Result;
 import ru.tinkoff.piapi.core.utils.DateUtils;
 import ru.tinkoff.piapi.core.utils.Helpers;
 
@@ -64,6 +66,29 @@ public class OrdersService {
         .build()));
   }
 
+  /**
+   * Выставление (синхронное) заявки с ценой в формате {@link Decimal}, без промежуточных BigDecimal.
+   *
+   * @param instrumentId figi / instrument_uid инструмента
+   * @param quantity количество лотов
+   * @param price цена (для лимитной заявки)
+   * @param direction покупка/продажа
+   * @param accountId id аккаунта
+   * @param type рыночная / лимитная заявка
+   * @param orderId уникальный идентификатор заявки
+   * @return Информация о выставлении поручения
+   */
+  @Nonnull
+  public PostOrderResponse postOrderSync(@Nonnull String instrumentId,
+                                         long quantity,
+                                         @Nonnull Decimal price,
+                                         @Nonnull OrderDirection direction,
+                                         @Nonnull String accountId,
+                                         @Nonnull OrderType type,
+                                         @Nullable String orderId) {
+    return postOrderSync(instrumentId, quantity, price.toQuotation(), direction, accountId, type, orderId);
+  }
+
   @Nonnull
   public Instant cancelOrderSync(@Nonnull String accountId,
                                  @Nonnull String orderId) {
@@ -134,6 +159,66 @@ public class OrdersService {
         observer));
   }
 
+  /**
+   * Выставление (асинхронное) заявки без исключений: ошибка возвращается как неудачный {@link Result}.
+   *
+   * @param instrumentId figi / instrument_uid инструмента
+   * @param quantity количество лотов
+   * @param price цена (для лимитной заявки)
+   * @param direction покупка/продажа
+   * @param accountId id аккаунта
+   * @param type рыночная / лимитная заявка
+   * @param orderId уникальный идентификатор заявки
+   * @return Результат выставления поручения
+   */
+  @Nonnull
+  public CompletableFuture<Result<PostOrderResponse>> postOrderResult(@Nonnull String instrumentId,
+                                                                      long quantity,
+                                                                      @Nonnull Quotation price,
+                                                                      @Nonnull OrderDirection direction,
+                                                                      @Nonnull String accountId,
+                                                                      @Nonnull OrderType type,
+                                                                      @Nullable String orderId) {
+    checkReadonly(readonlyMode);
+    var finalOrderId = orderId == null ? UUID.randomUUID().toString() : orderId;
+
+    return Helpers.unaryAsyncResultCall(
+      observer -> ordersStub.postOrder(
+        PostOrderRequest.newBuilder()
+          .setInstrumentId(instrumentId)
+          .setQuantity(quantity)
+          .setPrice(price)
+          .setDirection(direction)
+          .setAccountId(accountId)
+          .setOrderType(type)
+          .setOrderId(Helpers.preprocessInputOrderId(finalOrderId))
+          .build(),
+        observer));
+  }
+
+  /**
+   * Выставление (асинхронное) заявки с ценой в формате {@link Decimal}, без промежуточных BigDecimal.
+   *
+   * @param instrumentId figi / instrument_uid инструмента
+   * @param quantity количество лотов
+   * @param price цена (для лимитной заявки)
+   * @param direction покупка/продажа
+   * @param accountId id аккаунта
+   * @param type рыночная / лимитная заявка
+   * @param orderId уникальный идентификатор заявки
+   * @return Информация о выставлении поручения
+   */
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> postOrder(@Nonnull String instrumentId,
+                                                        long quantity,
+                                                        @Nonnull Decimal price,
+                                                        @Nonnull OrderDirection direction,
+                                                        @Nonnull String accountId,
+                                                        @Nonnull OrderType type,
+                                                        @Nullable String orderId) {
+    return postOrder(instrumentId, quantity, price.toQuotation(), direction, accountId, type, orderId);
+  }
+
   @Nonnull
   public CompletableFuture<Instant> cancelOrder(@Nonnull String accountId,
                                                 @Nonnull String orderId) {
@@ -228,4 +313,24 @@ public class OrdersService {
       .build();
     return unaryCall(() -> ordersBlockingStub.replaceOrder(request));
   }
+
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> replaceOrder(@Nonnull String accountId,
+                                                           long quantity,
+                                                           @Nonnull Decimal price,
+                                                           @Nullable String idempotencyKey,
+                                                           @Nonnull String orderId,
+                                                           @Nullable PriceType priceType) {
+    return replaceOrder(accountId, quantity, price.toQuotation(), idempotencyKey, orderId, priceType);
+  }
+
+  @Nonnull
+  public PostOrderResponse replaceOrderSync(@Nonnull String accountId,
+                                            long quantity,
+                                            @Nonnull Decimal price,
+                                            @Nullable String idempotencyKey,
+                                            @Nonnull String orderId,
+                                            @Nullable PriceType priceType) {
+    return replaceOrderSync(accountId, quantity, price.toQuotation(), idempotencyKey, orderId, priceType);
+  }
 }
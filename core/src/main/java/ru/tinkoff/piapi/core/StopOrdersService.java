@@ -13,6 +13,7 @@ import ru.tinkoff.piapi.contract.v1.StopOrderExpirationType;
 import ru.tinkoff.piapi.contract.v1.StopOrderType;
 import ru.tinkoff.piapi.contract.v1.StopOrdersServiceGrpc.StopOrdersServiceBlockingStub;
 import ru.tinkoff.piapi.contract.v1.StopOrdersServiceGrpc.StopOrdersServiceStub;
+import ru.tinkoff.piapi.core.models.Decimal;
 import ru.tinkoff.piapi.core.utils.DateUtils;
 import ru.tinkoff.piapi.core.utils.Helpers;
 
@@ -93,6 +94,31 @@ public class StopOrdersService {
       .getStopOrderId());
   }
 
+  @Nonnull
+  public String postStopOrderGoodTillCancelSync(@Nonnull String instrumentId,
+                                                long quantity,
+                                                @Nonnull Decimal price,
+                                                @Nonnull Decimal stopPrice,
+                                                @Nonnull StopOrderDirection direction,
+                                                @Nonnull String accountId,
+                                                @Nonnull StopOrderType type) {
+    return postStopOrderGoodTillCancelSync(instrumentId, quantity, price.toQuotation(), stopPrice.toQuotation(),
+      direction, accountId, type);
+  }
+
+  @Nonnull
+  public String postStopOrderGoodTillDateSync(@Nonnull String instrumentId,
+                                              long quantity,
+                                              @Nonnull Decimal price,
+                                              @Nonnull Decimal stopPrice,
+                                              @Nonnull StopOrderDirection direction,
+                                              @Nonnull String accountId,
+                                              @Nonnull StopOrderType type,
+                                              @Nonnull Instant expireDate) {
+    return postStopOrderGoodTillDateSync(instrumentId, quantity, price.toQuotation(), stopPrice.toQuotation(),
+      direction, accountId, type, expireDate);
+  }
+
   @Nonnull
   public List<StopOrder> getStopOrdersSync(@Nonnull String accountId) {
     checkSandbox(sandboxMode);
@@ -176,6 +202,31 @@ public class StopOrdersService {
       .thenApply(PostStopOrderResponse::getStopOrderId);
   }
 
+  @Nonnull
+  public CompletableFuture<String> postStopOrderGoodTillCancel(@Nonnull String instrumentId,
+                                                               long quantity,
+                                                               @Nonnull Decimal price,
+                                                               @Nonnull Decimal stopPrice,
+                                                               @Nonnull StopOrderDirection direction,
+                                                               @Nonnull String accountId,
+                                                               @Nonnull StopOrderType type) {
+    return postStopOrderGoodTillCancel(instrumentId, quantity, price.toQuotation(), stopPrice.toQuotation(),
+      direction, accountId, type);
+  }
+
+  @Nonnull
+  public CompletableFuture<String> postStopOrderGoodTillDate(@Nonnull String instrumentId,
+                                                             long quantity,
+                                                             @Nonnull Decimal price,
+                                                             @Nonnull Decimal stopPrice,
+                                                             @Nonnull StopOrderDirection direction,
+                                                             @Nonnull String accountId,
+                                                             @Nonnull StopOrderType type,
+                                                             @Nonnull Instant expireDate) {
+    return postStopOrderGoodTillDate(instrumentId, quantity, price.toQuotation(), stopPrice.toQuotation(),
+      direction, accountId, type, expireDate);
+  }
+
   @Nonnull
   public CompletableFuture<List<StopOrder>> getStopOrders(@Nonnull String accountId) {
     checkSandbox(sandboxMode);
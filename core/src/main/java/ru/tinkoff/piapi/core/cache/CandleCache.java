@@ -0,0 +1,343 @@
+package ru.tinkoff.piapi.core.cache;
+
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+import ru.tinkoff.piapi.contract.v1.HistoricCandle;
+import ru.tinkoff.piapi.core.MarketDataService;
+
+import javax.annotation.Nonnull;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import static ru.tinkoff.piapi.core.utils.ValidationUtils.checkFromTo;
+
+/**
+ * Кэш исторических свечей поверх {@link MarketDataService#getCandles}.
+ * <p>
+ * Для каждой пары инструмент + интервал запоминаются уже загруженные диапазоны времени,
+ * поэтому при повторных запросах с пересекающимися окнами у сервера запрашиваются только недостающие участки.
+ * Незавершённая (формирующаяся) свеча никогда не считается закэшированной и перезапрашивается при каждом обращении.
+ * <p>
+ * Размер кэша ограничен общим количеством хранимых свечей. При превышении лимита вытесняются
+ * все свечи инструмента, к которому дольше всего не было обращений.
+ */
+public class CandleCache {
+  private static final long MINUTE = 60_000;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long DAY = 24 * HOUR;
+
+  private final MarketDataService marketDataService;
+  private final long maxCandles;
+  private final Clock clock;
+  private final LinkedHashMap<String, Map<CandleInterval, IntervalCandles>> instruments =
+    new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+
+  public CandleCache(@Nonnull MarketDataService marketDataService, long maxCandles) {
+    this(marketDataService, maxCandles, Clock.systemUTC());
+  }
+
+  CandleCache(@Nonnull MarketDataService marketDataService, long maxCandles, @Nonnull Clock clock) {
+    if (maxCandles <= 0) {
+      throw new IllegalArgumentException("Размер кэша должен быть положительным числом.");
+    }
+    this.marketDataService = marketDataService;
+    this.maxCandles = maxCandles;
+    this.clock = clock;
+  }
+
+  /**
+   * Получение (синхронное) списка свечей по инструменту с использованием кэша.
+   *
+   * @param instrumentId идентификатор инструмента. Может принимать значение FIGI или uid
+   * @param from         Начало периода (по UTC).
+   * @param to           Окончание периода (по UTC).
+   * @param interval     Интервал свечей
+   * @return Список свечей
+   */
+  @Nonnull
+  public List<HistoricCandle> getCandlesSync(@Nonnull String instrumentId,
+                                             @Nonnull Instant from,
+                                             @Nonnull Instant to,
+                                             @Nonnull CandleInterval interval) {
+    checkFromTo(from, to);
+
+    var fromMillis = from.toEpochMilli();
+    var toMillis = to.toEpochMilli();
+    var gaps = missingRanges(instrumentId, interval, fromMillis, toMillis);
+    var result = storeAndRead(instrumentId, interval, fromMillis, toMillis, gaps,
+      fetchSync(instrumentId, interval, gaps));
+    if (result == null) {
+      // Закэшированная часть диапазона вытеснена во время загрузки: диапазон загружается целиком.
+      var all = List.<long[]>of(new long[]{fromMillis, toMillis});
+      result = storeAndRead(instrumentId, interval, fromMillis, toMillis, all,
+        fetchSync(instrumentId, interval, all));
+    }
+    return result;
+  }
+
+  /**
+   * Получение (асинхронное) списка свечей по инструменту с использованием кэша.
+   *
+   * @param instrumentId идентификатор инструмента. Может принимать значение FIGI или uid
+   * @param from         Начало периода (по UTC).
+   * @param to           Окончание периода (по UTC).
+   * @param interval     Интервал свечей
+   * @return Список свечей
+   */
+  @Nonnull
+  public CompletableFuture<List<HistoricCandle>> getCandles(@Nonnull String instrumentId,
+                                                            @Nonnull Instant from,
+                                                            @Nonnull Instant to,
+                                                            @Nonnull CandleInterval interval) {
+    checkFromTo(from, to);
+
+    var fromMillis = from.toEpochMilli();
+    var toMillis = to.toEpochMilli();
+    var gaps = missingRanges(instrumentId, interval, fromMillis, toMillis);
+    return fetch(instrumentId, interval, gaps)
+      .thenCompose(fetched -> {
+        var result = storeAndRead(instrumentId, interval, fromMillis, toMillis, gaps, fetched);
+        if (result != null) {
+          return CompletableFuture.completedFuture(result);
+        }
+        // Закэшированная часть диапазона вытеснена во время загрузки: диапазон загружается целиком.
+        var all = List.<long[]>of(new long[]{fromMillis, toMillis});
+        return fetch(instrumentId, interval, all)
+          .thenApply(candles -> storeAndRead(instrumentId, interval, fromMillis, toMillis, all, candles));
+      });
+  }
+
+  private List<List<HistoricCandle>> fetchSync(String instrumentId, CandleInterval interval, List<long[]> gaps) {
+    var result = new ArrayList<List<HistoricCandle>>(gaps.size());
+    for (var gap : gaps) {
+      result.add(marketDataService.getCandlesSync(
+        instrumentId, Instant.ofEpochMilli(gap[0]), Instant.ofEpochMilli(gap[1]), interval));
+    }
+    return result;
+  }
+
+  private CompletableFuture<List<List<HistoricCandle>>> fetch(String instrumentId,
+                                                             CandleInterval interval,
+                                                             List<long[]> gaps) {
+    var futures = new ArrayList<CompletableFuture<List<HistoricCandle>>>(gaps.size());
+    for (var gap : gaps) {
+      futures.add(marketDataService.getCandles(
+        instrumentId, Instant.ofEpochMilli(gap[0]), Instant.ofEpochMilli(gap[1]), interval));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+      .thenApply(ignored -> {
+        var result = new ArrayList<List<HistoricCandle>>(futures.size());
+        for (var future : futures) {
+          result.add(future.join());
+        }
+        return result;
+      });
+  }
+
+  /**
+   * Удаление из кэша всех свечей инструмента.
+   *
+   * @param instrumentId идентификатор инструмента.
+   */
+  public synchronized void invalidate(@Nonnull String instrumentId) {
+    var removed = instruments.remove(instrumentId);
+    if (removed != null) {
+      size -= count(removed);
+    }
+  }
+
+  /**
+   * Очистка кэша.
+   */
+  public synchronized void clear() {
+    instruments.clear();
+    size = 0;
+  }
+
+  /**
+   * @return Общее количество свечей в кэше.
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  synchronized List<long[]> missingRanges(String instrumentId, CandleInterval interval, long from, long to) {
+    var byInterval = instruments.get(instrumentId);
+    var candles = byInterval == null ? null : byInterval.get(interval);
+    if (candles == null) {
+      return from < to ? List.<long[]>of(new long[]{from, to}) : List.of();
+    }
+    return candles.missing(from, to);
+  }
+
+  /**
+   * Сохранение загруженных участков и чтение результата под одной блокировкой, чтобы вытеснение из параллельного
+   * запроса не удалило свечи между сохранением и чтением.
+   *
+   * @return Свечи за период или null, если часть периода вне загруженных участков была вытеснена после
+   * вычисления недостающих диапазонов.
+   */
+  private synchronized List<HistoricCandle> storeAndRead(String instrumentId,
+                                                         CandleInterval interval,
+                                                         long from,
+                                                         long to,
+                                                         List<long[]> gaps,
+                                                         List<List<HistoricCandle>> fetched) {
+    var candles = instruments
+      .computeIfAbsent(instrumentId, k -> new EnumMap<>(CandleInterval.class))
+      .computeIfAbsent(interval, IntervalCandles::new);
+    var now = clock.millis();
+    for (int i = 0; i < gaps.size(); i++) {
+      size += candles.put(gaps.get(i)[0], gaps.get(i)[1], now, fetched.get(i));
+    }
+    // Непокрытыми могут остаться только части загруженных участков, например незавершённая свеча.
+    for (var missing : candles.missing(from, to)) {
+      if (!contains(gaps, missing)) {
+        return null;
+      }
+    }
+    var result = new ArrayList<>(candles.candles.subMap(from, true, to, false).values());
+    evict();
+    return result;
+  }
+
+  private static boolean contains(List<long[]> gaps, long[] range) {
+    for (var gap : gaps) {
+      if (gap[0] <= range[0] && range[1] <= gap[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void evict() {
+    var iterator = instruments.values().iterator();
+    // Последний добавленный инструмент не вытесняется, даже если сам по себе превышает лимит.
+    while (size > maxCandles && instruments.size() > 1) {
+      size -= count(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  private static long count(Map<CandleInterval, IntervalCandles> byInterval) {
+    long count = 0;
+    for (var candles : byInterval.values()) {
+      count += candles.candles.size();
+    }
+    return count;
+  }
+
+  /**
+   * Свечи одного инструмента с одним интервалом и загруженные для них диапазоны времени.
+   */
+  private static class IntervalCandles {
+    private final CandleInterval interval;
+    private final NavigableMap<Long, HistoricCandle> candles = new TreeMap<>();
+    private final NavigableMap<Long, Long> ranges = new TreeMap<>();
+
+    IntervalCandles(CandleInterval interval) {
+      this.interval = interval;
+    }
+
+    List<long[]> missing(long from, long to) {
+      var result = new ArrayList<long[]>();
+      var cursor = from;
+      var floor = ranges.floorEntry(from);
+      if (floor != null && floor.getValue() > cursor) {
+        cursor = floor.getValue();
+      }
+      for (var range : ranges.subMap(from, false, to, false).entrySet()) {
+        if (range.getKey() > cursor) {
+          result.add(new long[]{cursor, range.getKey()});
+        }
+        cursor = Math.max(cursor, range.getValue());
+      }
+      if (cursor < to) {
+        result.add(new long[]{cursor, to});
+      }
+      return result;
+    }
+
+    /**
+     * @return Изменение количества хранимых свечей.
+     */
+    long put(long from, long to, long now, List<HistoricCandle> fetched) {
+      var before = candles.size();
+      // Свечи, которые были незавершёнными при прошлой загрузке, заменяются свежими данными.
+      candles.subMap(from, true, to, false).clear();
+      // Текущий интервал не считается загруженным, даже если свечи по нему ещё нет (например, не было сделок).
+      var coveredTo = Math.min(to, currentIntervalStart(interval, now));
+      for (var candle : fetched) {
+        var time = candle.getTime().getSeconds() * 1_000 + candle.getTime().getNanos() / 1_000_000;
+        candles.put(time, candle);
+        if (!candle.getIsComplete()) {
+          coveredTo = Math.min(coveredTo, time);
+        }
+      }
+      if (coveredTo > from) {
+        addRange(from, coveredTo);
+      }
+      return candles.size() - before;
+    }
+
+    /**
+     * Начало интервала свечи, содержащего момент now, или более ранний момент.
+     * Интервалы до часа выровнены по UTC. Выравнивание более длинных интервалов зависит от часового пояса биржи,
+     * поэтому для них берётся момент на длину интервала раньше now.
+     */
+    private static long currentIntervalStart(CandleInterval interval, long now) {
+      switch (interval) {
+        case CANDLE_INTERVAL_1_MIN:
+          return now - Math.floorMod(now, MINUTE);
+        case CANDLE_INTERVAL_2_MIN:
+          return now - Math.floorMod(now, 2 * MINUTE);
+        case CANDLE_INTERVAL_3_MIN:
+          return now - Math.floorMod(now, 3 * MINUTE);
+        case CANDLE_INTERVAL_5_MIN:
+          return now - Math.floorMod(now, 5 * MINUTE);
+        case CANDLE_INTERVAL_10_MIN:
+          return now - Math.floorMod(now, 10 * MINUTE);
+        case CANDLE_INTERVAL_15_MIN:
+          return now - Math.floorMod(now, 15 * MINUTE);
+        case CANDLE_INTERVAL_30_MIN:
+          return now - Math.floorMod(now, 30 * MINUTE);
+        case CANDLE_INTERVAL_HOUR:
+          return now - Math.floorMod(now, HOUR);
+        case CANDLE_INTERVAL_2_HOUR:
+          return now - 2 * HOUR;
+        case CANDLE_INTERVAL_4_HOUR:
+          return now - 4 * HOUR;
+        case CANDLE_INTERVAL_DAY:
+          return now - DAY;
+        case CANDLE_INTERVAL_WEEK:
+          return now - 7 * DAY;
+        default:
+          return now - 31 * DAY;
+      }
+    }
+
+    private void addRange(long from, long to) {
+      var start = from;
+      var end = to;
+      var floor = ranges.floorEntry(from);
+      if (floor != null && floor.getValue() >= from) {
+        start = floor.getKey();
+        end = Math.max(end, floor.getValue());
+      }
+      var overlapping = ranges.subMap(start, true, end, true);
+      for (var value : overlapping.values()) {
+        end = Math.max(end, value);
+      }
+      overlapping.clear();
+      ranges.put(start, end);
+    }
+  }
+}
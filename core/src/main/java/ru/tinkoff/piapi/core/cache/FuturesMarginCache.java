@@ -0,0 +1,224 @@
+package ru.tinkoff.piapi.core.cache;
+
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.InstrumentsService;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+import ru.tinkoff.piapi.core.utils.MapperUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш гарантийного обеспечения и стоимости шага цены фьючерсов.
+ * <p>
+ * Ответы {@link InstrumentsService#getFuturesMargin} хранятся по FIGI в течение заданного времени.
+ * Одновременные запросы одного фьючерса объединяются в один вызов. Для каждого фьючерса заранее
+ * вычисляются шаг цены и его стоимость в миллиардных долях, поэтому пересчёт цены из пунктов в деньги
+ * методом {@link #futuresPriceNanos} не создаёт объектов и не обращается к серверу.
+ */
+public class FuturesMarginCache {
+  private static final int PREWARM_PARALLELISM = 8;
+
+  private final InstrumentsService instrumentsService;
+  private final long ttlNanos;
+  private final LongSupplier nanoTime;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+  public FuturesMarginCache(@Nonnull InstrumentsService instrumentsService, @Nonnull Duration ttl) {
+    this(instrumentsService, ttl, System::nanoTime);
+  }
+
+  FuturesMarginCache(@Nonnull InstrumentsService instrumentsService,
+                     @Nonnull Duration ttl,
+                     @Nonnull LongSupplier nanoTime) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("Время жизни записей кэша должно быть положительным.");
+    }
+    this.instrumentsService = instrumentsService;
+    this.ttlNanos = ttl.toNanos();
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Получение (асинхронное) гарантийного обеспечения по фьючерсу. Запрос к серверу выполняется,
+   * только если в кэше нет актуальной записи.
+   *
+   * @param figi FIGI-идентификатор фьючерса.
+   * @return Размер гарантийного обеспечения по фьючерсу.
+   */
+  @Nonnull
+  public CompletableFuture<GetFuturesMarginResponse> getFuturesMargin(@Nonnull String figi) {
+    return entry(figi).thenApply(entry -> entry.response);
+  }
+
+  /**
+   * Получение (синхронное) гарантийного обеспечения по фьючерсу.
+   *
+   * @param figi FIGI-идентификатор фьючерса.
+   * @return Размер гарантийного обеспечения по фьючерсу.
+   */
+  @Nonnull
+  public GetFuturesMarginResponse getFuturesMarginSync(@Nonnull String figi) {
+    return entrySync(figi).response;
+  }
+
+  /**
+   * @param figi FIGI-идентификатор фьючерса.
+   * @return Актуальная запись кэша или null, если её нет. Запрос к серверу не выполняется.
+   */
+  @Nullable
+  public GetFuturesMarginResponse getIfPresent(@Nonnull String figi) {
+    var entry = freshEntry(figi);
+    return entry == null ? null : entry.response;
+  }
+
+  /**
+   * Расчет реальной стоимости фьючерса, см. {@link MapperUtils#futuresPrice(Quotation, GetFuturesMarginResponse)}.
+   * Если актуальных данных по фьючерсу нет в кэше, выполняется синхронный запрос к серверу.
+   *
+   * @param figi        FIGI-идентификатор фьючерса.
+   * @param pricePoints цена в пунктах.
+   * @return реальная стоимость фьючерса
+   */
+  @Nonnull
+  public BigDecimal futuresPrice(@Nonnull String figi, @Nonnull Quotation pricePoints) {
+    return BigDecimal.valueOf(futuresPriceNanos(entrySync(figi), pricePoints.getUnits(), pricePoints.getNano()), 9);
+  }
+
+  /**
+   * Расчет реальной стоимости фьючерса в миллиардных долях, см. {@link MapperUtils#futuresPriceNanos}.
+   * <p>
+   * Метод не обращается к серверу. Данные по фьючерсу должны быть заранее загружены методом {@link #prewarm}
+   * или {@link #getFuturesMargin}. Если актуальных данных нет, запускается их асинхронная загрузка
+   * и выбрасывается исключение.
+   *
+   * @param figi  FIGI-идентификатор фьючерса.
+   * @param units целая часть цены в пунктах.
+   * @param nano  дробная часть цены в пунктах.
+   * @return реальная стоимость фьючерса в миллиардных долях
+   * @throws IllegalStateException если актуальных данных по фьючерсу нет в кэше.
+   */
+  public long futuresPriceNanos(@Nonnull String figi, long units, int nano) {
+    var entry = freshEntry(figi);
+    if (entry == null) {
+      entry(figi);
+      throw new IllegalStateException("Нет актуальных данных о гарантийном обеспечении фьючерса " + figi + ".");
+    }
+    return futuresPriceNanos(entry, units, nano);
+  }
+
+  private static long futuresPriceNanos(Entry entry, long units, int nano) {
+    var pricePointsNanos = Math.addExact(Math.multiplyExact(units, 1_000_000_000L), nano);
+    return MapperUtils.futuresPriceNanos(pricePointsNanos, entry.minPriceIncrementAmountNanos,
+      entry.minPriceIncrementNanos);
+  }
+
+  /**
+   * Предварительная загрузка данных по всем фьючерсам, доступным для торговли через API.
+   *
+   * @return {@link CompletableFuture}, завершающийся после загрузки всех фьючерсов.
+   */
+  @Nonnull
+  public CompletableFuture<Void> prewarm() {
+    return instrumentsService.getTradableFutures()
+      .thenCompose(futures -> {
+        var figis = new ArrayList<String>(futures.size());
+        for (Future future : futures) {
+          if (future.getApiTradeAvailableFlag()) {
+            figis.add(future.getFigi());
+          }
+        }
+        return prewarm(figis);
+      });
+  }
+
+  /**
+   * Предварительная загрузка данных по заданным фьючерсам.
+   *
+   * @param figis FIGI-идентификаторы фьючерсов.
+   * @return {@link CompletableFuture}, завершающийся после загрузки всех фьючерсов.
+   */
+  @Nonnull
+  public CompletableFuture<Void> prewarm(@Nonnull Collection<String> figis) {
+    var limiter = new AsyncLimiter(PREWARM_PARALLELISM);
+    var calls = new ArrayList<CompletableFuture<Entry>>(figis.size());
+    for (var figi : figis) {
+      calls.add(limiter.submit(() -> entry(figi)));
+    }
+    return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]));
+  }
+
+  public void invalidate(@Nonnull String figi) {
+    entries.remove(figi);
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private Entry entrySync(String figi) {
+    var entry = freshEntry(figi);
+    if (entry == null) {
+      entry = new Entry(instrumentsService.getFuturesMarginSync(figi), nanoTime.getAsLong());
+      entries.put(figi, entry);
+    }
+    return entry;
+  }
+
+  private CompletableFuture<Entry> entry(String figi) {
+    var entry = freshEntry(figi);
+    if (entry != null) {
+      return CompletableFuture.completedFuture(entry);
+    }
+    var created = new CompletableFuture<Entry>();
+    var existing = loading.putIfAbsent(figi, created);
+    if (existing != null) {
+      return existing;
+    }
+    instrumentsService.getFuturesMargin(figi).whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        loading.remove(figi, created);
+        created.completeExceptionally(throwable);
+      } else {
+        var loaded = new Entry(response, nanoTime.getAsLong());
+        entries.put(figi, loaded);
+        loading.remove(figi, created);
+        created.complete(loaded);
+      }
+    });
+    return created;
+  }
+
+  private Entry freshEntry(String figi) {
+    var entry = entries.get(figi);
+    return entry != null && nanoTime.getAsLong() - entry.loadedAtNanos < ttlNanos ? entry : null;
+  }
+
+  private static class Entry {
+    private final GetFuturesMarginResponse response;
+    private final long minPriceIncrementNanos;
+    private final long minPriceIncrementAmountNanos;
+    private final long loadedAtNanos;
+
+    Entry(GetFuturesMarginResponse response, long loadedAtNanos) {
+      this.response = response;
+      this.minPriceIncrementNanos = MapperUtils.quotationToNanos(response.getMinPriceIncrement());
+      this.minPriceIncrementAmountNanos = MapperUtils.quotationToNanos(response.getMinPriceIncrementAmount());
+      this.loadedAtNanos = loadedAtNanos;
+    }
+  }
+}
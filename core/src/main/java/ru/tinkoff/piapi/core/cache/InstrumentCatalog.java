@@ -0,0 +1,280 @@
+package ru.tinkoff.piapi.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.Bond;
+import ru.tinkoff.piapi.contract.v1.Currency;
+import ru.tinkoff.piapi.contract.v1.Etf;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.Option;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.core.InstrumentsService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный справочник инструментов.
+ * <p>
+ * Загружает полные списки акций, облигаций, фондов, фьючерсов, валют и опционов параллельно
+ * и строит по ним индексы по FIGI, тикеру и классу, uid, positionUid и isin. Поиск по справочнику
+ * не обращается к серверу. Обновление справочника строит новый набор индексов и атомарно подменяет
+ * им текущий, поэтому чтение не требует блокировок.
+ */
+public class InstrumentCatalog implements AutoCloseable {
+  static final InstrumentIndex.Keys<Share> SHARE_KEYS = new InstrumentIndex.Keys<>(
+    Share::getFigi, Share::getTicker, Share::getClassCode, Share::getUid, Share::getPositionUid, Share::getIsin);
+  static final InstrumentIndex.Keys<Bond> BOND_KEYS = new InstrumentIndex.Keys<>(
+    Bond::getFigi, Bond::getTicker, Bond::getClassCode, Bond::getUid, Bond::getPositionUid, Bond::getIsin);
+  static final InstrumentIndex.Keys<Etf> ETF_KEYS = new InstrumentIndex.Keys<>(
+    Etf::getFigi, Etf::getTicker, Etf::getClassCode, Etf::getUid, Etf::getPositionUid, Etf::getIsin);
+  static final InstrumentIndex.Keys<Future> FUTURE_KEYS = new InstrumentIndex.Keys<>(
+    Future::getFigi, Future::getTicker, Future::getClassCode, Future::getUid, Future::getPositionUid, null);
+  static final InstrumentIndex.Keys<Currency> CURRENCY_KEYS = new InstrumentIndex.Keys<>(
+    Currency::getFigi, Currency::getTicker, Currency::getClassCode, Currency::getUid, Currency::getPositionUid,
+    Currency::getIsin);
+  static final InstrumentIndex.Keys<Option> OPTION_KEYS = new InstrumentIndex.Keys<>(
+    null, Option::getTicker, Option::getClassCode, Option::getUid, Option::getPositionUid, null);
+
+  private static final Logger logger = LoggerFactory.getLogger(InstrumentCatalog.class);
+
+  private final InstrumentsService instrumentsService;
+  private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  private ScheduledExecutorService scheduler;
+
+  public InstrumentCatalog(@Nonnull InstrumentsService instrumentsService) {
+    this.instrumentsService = instrumentsService;
+  }
+
+  /**
+   * Загрузка (асинхронная) справочника с сервера. Все списки инструментов запрашиваются параллельно.
+   * <p>
+   * При ошибке загрузки текущее состояние справочника не меняется.
+   *
+   * @return {@link CompletableFuture}, завершающийся после подмены справочника.
+   */
+  @Nonnull
+  public CompletableFuture<Void> refresh() {
+    var shares = instrumentsService.getAllShares();
+    var bonds = instrumentsService.getAllBonds();
+    var etfs = instrumentsService.getAllEtfs();
+    var futures = instrumentsService.getAllFutures();
+    var currencies = instrumentsService.getAllCurrencies();
+    var options = instrumentsService.getAllOptions();
+    return CompletableFuture.allOf(shares, bonds, etfs, futures, currencies, options)
+      .thenRun(() -> update(new Snapshot(
+        Instant.now(),
+        new InstrumentIndex<>(shares.join(), SHARE_KEYS),
+        new InstrumentIndex<>(bonds.join(), BOND_KEYS),
+        new InstrumentIndex<>(etfs.join(), ETF_KEYS),
+        new InstrumentIndex<>(futures.join(), FUTURE_KEYS),
+        new InstrumentIndex<>(currencies.join(), CURRENCY_KEYS),
+        new InstrumentIndex<>(options.join(), OPTION_KEYS))));
+  }
+
+  /**
+   * Загрузка (синхронная) справочника с сервера.
+   */
+  public void refreshSync() {
+    refresh().join();
+  }
+
+  /**
+   * Быстрый старт справочника из локального файла.
+   * <p>
+   * Если файл существует, справочник сразу заполняется его содержимым. Затем в фоне выполняется загрузка
+   * актуальных данных с сервера, после чего файл перезаписывается свежим состоянием справочника.
+   *
+   * @param file Путь к файлу справочника.
+   * @return {@link CompletableFuture}, завершающийся после сверки с сервером и сохранения файла.
+   */
+  @Nonnull
+  public CompletableFuture<Void> startFromSnapshot(@Nonnull Path file) {
+    loadSnapshot(file);
+    return refresh().thenRun(() -> saveSnapshot(file));
+  }
+
+  /**
+   * Загрузка справочника из локального файла, сохранённого методом {@link #saveSnapshot}.
+   *
+   * @param file Путь к файлу справочника.
+   * @return true, если справочник загружен; false, если файла нет или он не может быть прочитан.
+   */
+  public boolean loadSnapshot(@Nonnull Path file) {
+    if (!Files.exists(file)) {
+      return false;
+    }
+    try {
+      update(InstrumentCatalogSnapshot.read(file));
+      return true;
+    } catch (IOException e) {
+      logger.warn("Не удалось прочитать файл справочника инструментов {}.", file, e);
+      return false;
+    }
+  }
+
+  /**
+   * Сохранение текущего состояния справочника в локальный файл.
+   * <p>
+   * Файл перезаписывается атомарно, поэтому прерванная запись не портит ранее сохранённый справочник.
+   *
+   * @param file Путь к файлу справочника.
+   */
+  public void saveSnapshot(@Nonnull Path file) {
+    try {
+      InstrumentCatalogSnapshot.write(snapshot, file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Запуск периодического фонового обновления справочника.
+   *
+   * @param period Период обновления.
+   */
+  public synchronized void startAutoRefresh(@Nonnull Duration period) {
+    if (scheduler != null) {
+      throw new IllegalStateException("Фоновое обновление уже запущено.");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "instrument-catalog-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleAtFixedRate(
+      () -> refresh()
+        .exceptionally(throwable -> {
+          logger.warn("Не удалось обновить справочник инструментов.", throwable);
+          return null;
+        })
+        .join(),
+      period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Остановка фонового обновления справочника.
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  void update(@Nonnull Snapshot snapshot) {
+    this.snapshot = snapshot;
+    for (var listener : updateListeners) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        logger.warn("Ошибка в слушателе обновления справочника инструментов.", e);
+      }
+    }
+  }
+
+  /**
+   * @param listener Слушатель, вызываемый в потоке обновления после каждой подмены справочника.
+   */
+  void addUpdateListener(@Nonnull Runnable listener) {
+    updateListeners.add(listener);
+  }
+
+  void removeUpdateListener(@Nonnull Runnable listener) {
+    updateListeners.remove(listener);
+  }
+
+  Snapshot snapshot() {
+    return snapshot;
+  }
+
+  /**
+   * @return Время последней успешной загрузки справочника или null, если справочник ещё не загружался.
+   */
+  @Nullable
+  public Instant getLoadedAt() {
+    return snapshot.loadedAt;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Share> getShares() {
+    return snapshot.shares;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Bond> getBonds() {
+    return snapshot.bonds;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Etf> getEtfs() {
+    return snapshot.etfs;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Future> getFutures() {
+    return snapshot.futures;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Currency> getCurrencies() {
+    return snapshot.currencies;
+  }
+
+  @Nonnull
+  public InstrumentIndex<Option> getOptions() {
+    return snapshot.options;
+  }
+
+  /**
+   * Неизменяемое состояние справочника на момент загрузки.
+   */
+  static class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(
+      null,
+      InstrumentIndex.empty(SHARE_KEYS),
+      InstrumentIndex.empty(BOND_KEYS),
+      InstrumentIndex.empty(ETF_KEYS),
+      InstrumentIndex.empty(FUTURE_KEYS),
+      InstrumentIndex.empty(CURRENCY_KEYS),
+      InstrumentIndex.empty(OPTION_KEYS));
+
+    final Instant loadedAt;
+    final InstrumentIndex<Share> shares;
+    final InstrumentIndex<Bond> bonds;
+    final InstrumentIndex<Etf> etfs;
+    final InstrumentIndex<Future> futures;
+    final InstrumentIndex<Currency> currencies;
+    final InstrumentIndex<Option> options;
+
+    Snapshot(@Nullable Instant loadedAt,
+             @Nonnull InstrumentIndex<Share> shares,
+             @Nonnull InstrumentIndex<Bond> bonds,
+             @Nonnull InstrumentIndex<Etf> etfs,
+             @Nonnull InstrumentIndex<Future> futures,
+             @Nonnull InstrumentIndex<Currency> currencies,
+             @Nonnull InstrumentIndex<Option> options) {
+      this.loadedAt = loadedAt;
+      this.shares = shares;
+      this.bonds = bonds;
+      this.etfs = etfs;
+      this.futures = futures;
+      this.currencies = currencies;
+      this.options = options;
+    }
+  }
+}
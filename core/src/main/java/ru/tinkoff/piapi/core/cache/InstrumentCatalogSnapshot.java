@@ -0,0 +1,117 @@
+package ru.tinkoff.piapi.core.cache;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import ru.tinkoff.piapi.contract.v1.Bond;
+import ru.tinkoff.piapi.contract.v1.Currency;
+import ru.tinkoff.piapi.contract.v1.Etf;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.Option;
+import ru.tinkoff.piapi.contract.v1.Share;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сохранение справочника инструментов в локальный файл и загрузка из него.
+ * <p>
+ * Формат файла: сигнатура и версия, время загрузки справочника с сервера, затем для каждого типа инструментов
+ * их количество и сами инструменты в виде protobuf-сообщений, предварённых своей длиной.
+ */
+class InstrumentCatalogSnapshot {
+  private static final int MAGIC = 0x50494943;
+  private static final int VERSION = 1;
+
+  private InstrumentCatalogSnapshot() {
+  }
+
+  static void write(@Nonnull InstrumentCatalog.Snapshot snapshot, @Nonnull Path file) throws IOException {
+    var parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    var tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+    try {
+      try (var out = Files.newOutputStream(tmp)) {
+        var output = CodedOutputStream.newInstance(out, 64 * 1024);
+        output.writeFixed32NoTag(MAGIC);
+        output.writeUInt32NoTag(VERSION);
+        output.writeInt64NoTag(snapshot.loadedAt == null ? 0 : snapshot.loadedAt.getEpochSecond());
+        output.writeUInt32NoTag(snapshot.loadedAt == null ? 0 : snapshot.loadedAt.getNano());
+        writeAll(output, snapshot.shares.getAll());
+        writeAll(output, snapshot.bonds.getAll());
+        writeAll(output, snapshot.etfs.getAll());
+        writeAll(output, snapshot.futures.getAll());
+        writeAll(output, snapshot.currencies.getAll());
+        writeAll(output, snapshot.options.getAll());
+        output.flush();
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * @throws IOException если файл не может быть прочитан, в том числе если он обрезан или повреждён.
+   */
+  @Nonnull
+  static InstrumentCatalog.Snapshot read(@Nonnull Path file) throws IOException {
+    var size = Files.size(file);
+    try (var in = Files.newInputStream(file)) {
+      var input = CodedInputStream.newInstance(in, 64 * 1024);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      if (input.readFixed32() != MAGIC || input.readUInt32() != VERSION) {
+        throw new IOException("Неизвестный формат файла справочника " + file);
+      }
+      var loadedAtSeconds = input.readInt64();
+      var loadedAtNanos = input.readUInt32();
+      try {
+        return new InstrumentCatalog.Snapshot(
+          loadedAtSeconds == 0 ? null : Instant.ofEpochSecond(loadedAtSeconds, loadedAtNanos),
+          new InstrumentIndex<>(readAll(input, size, Share.parser()), InstrumentCatalog.SHARE_KEYS),
+          new InstrumentIndex<>(readAll(input, size, Bond.parser()), InstrumentCatalog.BOND_KEYS),
+          new InstrumentIndex<>(readAll(input, size, Etf.parser()), InstrumentCatalog.ETF_KEYS),
+          new InstrumentIndex<>(readAll(input, size, Future.parser()), InstrumentCatalog.FUTURE_KEYS),
+          new InstrumentIndex<>(readAll(input, size, Currency.parser()), InstrumentCatalog.CURRENCY_KEYS),
+          new InstrumentIndex<>(readAll(input, size, Option.parser()), InstrumentCatalog.OPTION_KEYS));
+      } catch (RuntimeException e) {
+        throw new IOException("Повреждённый файл справочника " + file, e);
+      }
+    }
+  }
+
+  private static void writeAll(CodedOutputStream output, List<? extends MessageLite> instruments) throws IOException {
+    output.writeUInt32NoTag(instruments.size());
+    for (var instrument : instruments) {
+      output.writeUInt32NoTag(instrument.getSerializedSize());
+      instrument.writeTo(output);
+    }
+  }
+
+  private static <T extends MessageLite> List<T> readAll(CodedInputStream input,
+                                                        long size,
+                                                        Parser<T> parser) throws IOException {
+    var count = input.readUInt32();
+    // Каждый инструмент занимает в файле хотя бы байт длины, поэтому количество не может превышать остаток файла.
+    if (count < 0 || count > size - input.getTotalBytesRead()) {
+      throw new IOException(
+        "Некорректное количество инструментов в файле справочника: " + Integer.toUnsignedString(count));
+    }
+    var instruments = new ArrayList<T>(count);
+    for (int i = 0; i < count; i++) {
+      var limit = input.pushLimit(input.readUInt32());
+      instruments.add(parser.parseFrom(input));
+      input.popLimit(limit);
+    }
+    return instruments;
+  }
+}
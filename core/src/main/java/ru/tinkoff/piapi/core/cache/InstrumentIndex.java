@@ -0,0 +1,134 @@
+package ru.tinkoff.piapi.core.cache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Неизменяемый набор инструментов одного типа с индексами по идентификаторам.
+ * <p>
+ * Все поиски выполняются по хэш-таблицам и не требуют выделения памяти.
+ * Пустые значения идентификаторов (например, isin у фьючерсов) в индексы не попадают.
+ *
+ * @param <T> Тип инструмента.
+ */
+public class InstrumentIndex<T> {
+  private final List<T> instruments;
+  private final Map<String, T> byFigi;
+  private final Map<String, T> byUid;
+  private final Map<String, T> byPositionUid;
+  private final Map<String, T> byIsin;
+  private final Map<String, Map<String, T>> byClassCodeAndTicker;
+
+  InstrumentIndex(@Nonnull List<T> instruments, @Nonnull Keys<T> keys) {
+    this.instruments = Collections.unmodifiableList(instruments);
+    this.byFigi = index(instruments, keys.figi);
+    this.byUid = index(instruments, keys.uid);
+    this.byPositionUid = index(instruments, keys.positionUid);
+    this.byIsin = index(instruments, keys.isin);
+    this.byClassCodeAndTicker = new HashMap<>();
+    for (var instrument : instruments) {
+      var ticker = keys.ticker.apply(instrument);
+      if (!ticker.isEmpty()) {
+        byClassCodeAndTicker
+          .computeIfAbsent(keys.classCode.apply(instrument), k -> new HashMap<>())
+          .put(ticker, instrument);
+      }
+    }
+  }
+
+  static <T> InstrumentIndex<T> empty(@Nonnull Keys<T> keys) {
+    return new InstrumentIndex<>(List.of(), keys);
+  }
+
+  private static <T> Map<String, T> index(List<T> instruments, Function<T, String> key) {
+    var index = new HashMap<String, T>(instruments.size() * 2);
+    if (key == null) {
+      return index;
+    }
+    for (var instrument : instruments) {
+      var value = key.apply(instrument);
+      if (!value.isEmpty()) {
+        index.put(value, instrument);
+      }
+    }
+    return index;
+  }
+
+  @Nullable
+  public T getByFigi(@Nonnull String figi) {
+    return byFigi.get(figi);
+  }
+
+  @Nullable
+  public T getByUid(@Nonnull String uid) {
+    return byUid.get(uid);
+  }
+
+  @Nullable
+  public T getByPositionUid(@Nonnull String positionUid) {
+    return byPositionUid.get(positionUid);
+  }
+
+  @Nullable
+  public T getByIsin(@Nonnull String isin) {
+    return byIsin.get(isin);
+  }
+
+  @Nullable
+  public T getByTicker(@Nonnull String ticker, @Nonnull String classCode) {
+    var tickers = byClassCodeAndTicker.get(classCode);
+    return tickers == null ? null : tickers.get(ticker);
+  }
+
+  /**
+   * Поиск по FIGI или uid инструмента - так же, как сервер трактует параметр instrument_id.
+   *
+   * @param instrumentId FIGI-идентификатор / uid инструмента.
+   * @return Инструмент или null, если он не найден.
+   */
+  @Nullable
+  public T getByInstrumentId(@Nonnull String instrumentId) {
+    var instrument = byUid.get(instrumentId);
+    return instrument != null ? instrument : byFigi.get(instrumentId);
+  }
+
+  @Nonnull
+  public List<T> getAll() {
+    return instruments;
+  }
+
+  public int size() {
+    return instruments.size();
+  }
+
+  /**
+   * Способы получения идентификаторов из инструмента конкретного типа.
+   */
+  static class Keys<T> {
+    private final Function<T, String> figi;
+    private final Function<T, String> ticker;
+    private final Function<T, String> classCode;
+    private final Function<T, String> uid;
+    private final Function<T, String> positionUid;
+    private final Function<T, String> isin;
+
+    Keys(@Nullable Function<T, String> figi,
+         @Nonnull Function<T, String> ticker,
+         @Nonnull Function<T, String> classCode,
+         @Nonnull Function<T, String> uid,
+         @Nonnull Function<T, String> positionUid,
+         @Nullable Function<T, String> isin) {
+      this.figi = figi;
+      this.ticker = ticker;
+      this.classCode = classCode;
+      this.uid = uid;
+      this.positionUid = positionUid;
+      this.isin = isin;
+    }
+  }
+}
@@ -0,0 +1,355 @@
+package ru.tinkoff.piapi.core.cache;
+
+import ru.tinkoff.piapi.contract.v1.Bond;
+import ru.tinkoff.piapi.contract.v1.Currency;
+import ru.tinkoff.piapi.contract.v1.Etf;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.InstrumentShort;
+import ru.tinkoff.piapi.contract.v1.InstrumentType;
+import ru.tinkoff.piapi.contract.v1.Option;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.core.InstrumentsService;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Локальный поиск инструментов по справочнику {@link InstrumentCatalog}.
+ * <p>
+ * Ищет регистронезависимо по тикеру, названию, isin, FIGI, uid и positionUid и возвращает результат в том же виде,
+ * что и {@link InstrumentsService#findInstrument}. Обращение к серверу выполняется, только если
+ * локально ничего не найдено. Индекс перестраивается один раз на каждое обновление справочника в потоке обновления,
+ * а не в потоках поиска. После использования поиск нужно закрыть, чтобы справочник перестал его обновлять.
+ */
+public class InstrumentSearch implements AutoCloseable {
+  private static final int NGRAM = 3;
+  private static final int[] NO_IDS = new int[0];
+
+  private final InstrumentCatalog catalog;
+  private final InstrumentsService instrumentsService;
+  private final Runnable updateListener = this::rebuild;
+  private volatile Index index = new Index(InstrumentCatalog.Snapshot.EMPTY);
+
+  public InstrumentSearch(@Nonnull InstrumentCatalog catalog, @Nonnull InstrumentsService instrumentsService) {
+    this.catalog = catalog;
+    this.instrumentsService = instrumentsService;
+    // Слушатель добавляется до построения индекса, чтобы не пропустить обновление справочника между ними.
+    catalog.addUpdateListener(updateListener);
+    rebuild();
+  }
+
+  /**
+   * Регистронезависимый поиск (синхронный) инструмента. При отсутствии локальных совпадений
+   * выполняется запрос к серверу.
+   *
+   * @param query полный или частичный figi/ticker/isin/uid/name инструмента.
+   * @return Список инструментов.
+   */
+  @Nonnull
+  public List<InstrumentShort> findInstrumentSync(@Nonnull String query) {
+    var found = search(query, Integer.MAX_VALUE);
+    return found.isEmpty() ? instrumentsService.findInstrumentSync(query) : found;
+  }
+
+  /**
+   * Регистронезависимый поиск (асинхронный) инструмента. При отсутствии локальных совпадений
+   * выполняется запрос к серверу.
+   *
+   * @param query полный или частичный figi/ticker/isin/uid/name инструмента.
+   * @return Список инструментов.
+   */
+  @Nonnull
+  public CompletableFuture<List<InstrumentShort>> findInstrument(@Nonnull String query) {
+    var found = search(query, Integer.MAX_VALUE);
+    return found.isEmpty() ? instrumentsService.findInstrument(query) : CompletableFuture.completedFuture(found);
+  }
+
+  /**
+   * Поиск только по локальному справочнику, без обращения к серверу.
+   * <p>
+   * Выше в выдаче стоят точные совпадения идентификаторов, затем совпадения по началу тикера,
+   * по началу названия или слова в названии и, наконец, вхождения подстроки.
+   *
+   * @param query полный или частичный figi/ticker/isin/uid/name инструмента.
+   * @param limit максимальное количество результатов.
+   * @return Список инструментов.
+   */
+  @Nonnull
+  public List<InstrumentShort> search(@Nonnull String query, int limit) {
+    var normalized = query.trim().toLowerCase(Locale.ROOT);
+    if (normalized.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    return index.search(normalized, limit);
+  }
+
+  /**
+   * Отписка от обновлений справочника. Поиск продолжает работать по последнему построенному индексу.
+   */
+  @Override
+  public void close() {
+    catalog.removeUpdateListener(updateListener);
+  }
+
+  /**
+   * Перестроение индекса в потоке обновления справочника. Поиск до завершения перестроения использует
+   * предыдущий индекс. Перестроения выполняются по очереди, и каждое строит индекс по актуальному справочнику,
+   * поэтому индекс всегда соответствует последнему обновлению.
+   */
+  private synchronized void rebuild() {
+    var snapshot = catalog.snapshot();
+    if (index.snapshot != snapshot) {
+      index = new Index(snapshot);
+    }
+  }
+
+  /**
+   * Индекс по n-граммам над нормализованными тикером, названием и идентификаторами инструмента.
+   */
+  private static class Index {
+    private final InstrumentCatalog.Snapshot snapshot;
+    private final InstrumentShort[] instruments;
+    private final String[] tickers;
+    private final String[] names;
+    private final String[] haystacks;
+    private final int[] allIds;
+    private final Map<String, int[]> ngrams = new HashMap<>();
+
+    Index(InstrumentCatalog.Snapshot snapshot) {
+      this.snapshot = snapshot;
+      var all = new ArrayList<InstrumentShort>();
+      snapshot.shares.getAll().forEach(share -> all.add(toShort(share)));
+      snapshot.bonds.getAll().forEach(bond -> all.add(toShort(bond)));
+      snapshot.etfs.getAll().forEach(etf -> all.add(toShort(etf)));
+      snapshot.futures.getAll().forEach(future -> all.add(toShort(future)));
+      snapshot.currencies.getAll().forEach(currency -> all.add(toShort(currency)));
+      snapshot.options.getAll().forEach(option -> all.add(toShort(option)));
+
+      instruments = all.toArray(new InstrumentShort[0]);
+      tickers = new String[instruments.length];
+      names = new String[instruments.length];
+      haystacks = new String[instruments.length];
+      allIds = new int[instruments.length];
+      var ngramLists = new HashMap<String, List<Integer>>();
+      for (int id = 0; id < instruments.length; id++) {
+        var instrument = instruments[id];
+        tickers[id] = instrument.getTicker().toLowerCase(Locale.ROOT);
+        names[id] = instrument.getName().toLowerCase(Locale.ROOT);
+        haystacks[id] = String.join("\n", tickers[id], names[id],
+          instrument.getIsin().toLowerCase(Locale.ROOT), instrument.getFigi().toLowerCase(Locale.ROOT),
+          instrument.getUid().toLowerCase(Locale.ROOT), instrument.getPositionUid().toLowerCase(Locale.ROOT));
+        allIds[id] = id;
+        var haystack = haystacks[id];
+        for (int i = 0; i + NGRAM <= haystack.length(); i++) {
+          add(ngramLists, haystack.substring(i, i + NGRAM), id);
+        }
+      }
+      ngramLists.forEach((key, ids) -> ngrams.put(key, toArray(ids)));
+    }
+
+    List<InstrumentShort> search(String query, int limit) {
+      var candidates = candidates(query);
+      var wordStart = " " + query;
+      var ranks = new long[candidates.length];
+      var count = 0;
+      for (var id : candidates) {
+        var rank = rank(id, query, wordStart);
+        if (rank >= 0) {
+          // Ранг в старших битах, идентификатор - в младших: сортировка массива упорядочивает по рангу.
+          ranks[count++] = ((long) rank << 32) | id;
+        }
+      }
+      Arrays.sort(ranks, 0, count);
+      var result = new ArrayList<InstrumentShort>(Math.min(count, limit));
+      for (int i = 0; i < count && result.size() < limit; i++) {
+        result.add(instruments[(int) ranks[i]]);
+      }
+      return result;
+    }
+
+    private int[] candidates(String query) {
+      if (query.length() < NGRAM) {
+        // Для коротких запросов n-граммы не применимы, проверяются все инструменты.
+        return allIds;
+      }
+      int[] best = null;
+      for (int i = 0; i + NGRAM <= query.length(); i++) {
+        var ids = ngrams.getOrDefault(query.substring(i, i + NGRAM), NO_IDS);
+        if (best == null || ids.length < best.length) {
+          best = ids;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * @return Ранг совпадения: чем меньше, тем выше в выдаче; -1, если инструмент не подходит.
+     */
+    private int rank(int id, String query, String wordStart) {
+      var instrument = instruments[id];
+      int rank;
+      if (tickers[id].equals(query)) {
+        rank = 0;
+      } else if (equalsIgnoreCase(instrument, query)) {
+        rank = 1;
+      } else if (tickers[id].startsWith(query)) {
+        rank = 2;
+      } else if (names[id].startsWith(query)) {
+        rank = 3;
+      } else if (names[id].contains(wordStart)) {
+        rank = 4;
+      } else if (haystacks[id].contains(query)) {
+        rank = 5;
+      } else {
+        return -1;
+      }
+      // Доступные для торговли через API инструменты выше недоступных.
+      return rank * 2 + (instrument.getApiTradeAvailableFlag() ? 0 : 1);
+    }
+
+    private static boolean equalsIgnoreCase(InstrumentShort instrument, String query) {
+      return instrument.getIsin().equalsIgnoreCase(query)
+        || instrument.getFigi().equalsIgnoreCase(query)
+        || instrument.getUid().equalsIgnoreCase(query)
+        || instrument.getPositionUid().equalsIgnoreCase(query);
+    }
+
+    private static void add(Map<String, List<Integer>> lists, String key, int id) {
+      var ids = lists.computeIfAbsent(key, k -> new ArrayList<>());
+      if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+        ids.add(id);
+      }
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+      var array = new int[ids.size()];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = ids.get(i);
+      }
+      return array;
+    }
+  }
+
+  private static InstrumentShort toShort(Share share) {
+    return InstrumentShort.newBuilder()
+      .setIsin(share.getIsin())
+      .setFigi(share.getFigi())
+      .setTicker(share.getTicker())
+      .setClassCode(share.getClassCode())
+      .setInstrumentType("share")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_SHARE)
+      .setName(share.getName())
+      .setUid(share.getUid())
+      .setPositionUid(share.getPositionUid())
+      .setApiTradeAvailableFlag(share.getApiTradeAvailableFlag())
+      .setForIisFlag(share.getForIisFlag())
+      .setForQualInvestorFlag(share.getForQualInvestorFlag())
+      .setWeekendFlag(share.getWeekendFlag())
+      .setFirst1MinCandleDate(share.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(share.getFirst1DayCandleDate())
+      .build();
+  }
+
+  private static InstrumentShort toShort(Bond bond) {
+    return InstrumentShort.newBuilder()
+      .setIsin(bond.getIsin())
+      .setFigi(bond.getFigi())
+      .setTicker(bond.getTicker())
+      .setClassCode(bond.getClassCode())
+      .setInstrumentType("bond")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_BOND)
+      .setName(bond.getName())
+      .setUid(bond.getUid())
+      .setPositionUid(bond.getPositionUid())
+      .setApiTradeAvailableFlag(bond.getApiTradeAvailableFlag())
+      .setForIisFlag(bond.getForIisFlag())
+      .setForQualInvestorFlag(bond.getForQualInvestorFlag())
+      .setWeekendFlag(bond.getWeekendFlag())
+      .setFirst1MinCandleDate(bond.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(bond.getFirst1DayCandleDate())
+      .build();
+  }
+
+  private static InstrumentShort toShort(Etf etf) {
+    return InstrumentShort.newBuilder()
+      .setIsin(etf.getIsin())
+      .setFigi(etf.getFigi())
+      .setTicker(etf.getTicker())
+      .setClassCode(etf.getClassCode())
+      .setInstrumentType("etf")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_ETF)
+      .setName(etf.getName())
+      .setUid(etf.getUid())
+      .setPositionUid(etf.getPositionUid())
+      .setApiTradeAvailableFlag(etf.getApiTradeAvailableFlag())
+      .setForIisFlag(etf.getForIisFlag())
+      .setForQualInvestorFlag(etf.getForQualInvestorFlag())
+      .setWeekendFlag(etf.getWeekendFlag())
+      .setFirst1MinCandleDate(etf.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(etf.getFirst1DayCandleDate())
+      .build();
+  }
+
+  private static InstrumentShort toShort(Future future) {
+    return InstrumentShort.newBuilder()
+      .setFigi(future.getFigi())
+      .setTicker(future.getTicker())
+      .setClassCode(future.getClassCode())
+      .setInstrumentType("futures")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_FUTURES)
+      .setName(future.getName())
+      .setUid(future.getUid())
+      .setPositionUid(future.getPositionUid())
+      .setApiTradeAvailableFlag(future.getApiTradeAvailableFlag())
+      .setForIisFlag(future.getForIisFlag())
+      .setForQualInvestorFlag(future.getForQualInvestorFlag())
+      .setWeekendFlag(future.getWeekendFlag())
+      .setFirst1MinCandleDate(future.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(future.getFirst1DayCandleDate())
+      .build();
+  }
+
+  private static InstrumentShort toShort(Currency currency) {
+    return InstrumentShort.newBuilder()
+      .setIsin(currency.getIsin())
+      .setFigi(currency.getFigi())
+      .setTicker(currency.getTicker())
+      .setClassCode(currency.getClassCode())
+      .setInstrumentType("currency")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_CURRENCY)
+      .setName(currency.getName())
+      .setUid(currency.getUid())
+      .setPositionUid(currency.getPositionUid())
+      .setApiTradeAvailableFlag(currency.getApiTradeAvailableFlag())
+      .setForIisFlag(currency.getForIisFlag())
+      .setForQualInvestorFlag(currency.getForQualInvestorFlag())
+      .setWeekendFlag(currency.getWeekendFlag())
+      .setFirst1MinCandleDate(currency.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(currency.getFirst1DayCandleDate())
+      .build();
+  }
+
+  private static InstrumentShort toShort(Option option) {
+    return InstrumentShort.newBuilder()
+      .setTicker(option.getTicker())
+      .setClassCode(option.getClassCode())
+      .setInstrumentType("option")
+      .setInstrumentKind(InstrumentType.INSTRUMENT_TYPE_OPTION)
+      .setName(option.getName())
+      .setUid(option.getUid())
+      .setPositionUid(option.getPositionUid())
+      .setApiTradeAvailableFlag(option.getApiTradeAvailableFlag())
+      .setForIisFlag(option.getForIisFlag())
+      .setForQualInvestorFlag(option.getForQualInvestorFlag())
+      .setWeekendFlag(option.getWeekendFlag())
+      .setFirst1MinCandleDate(option.getFirst1MinCandleDate())
+      .setFirst1DayCandleDate(option.getFirst1DayCandleDate())
+      .build();
+  }
+}
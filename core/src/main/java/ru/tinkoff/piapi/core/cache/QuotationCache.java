@@ -0,0 +1,122 @@
+package ru.tinkoff.piapi.core.cache;
+
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.models.Decimal;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш заранее построенных {@link Quotation} для сетки цен инструментов.
+ * <p>
+ * Для каждого зарегистрированного инструмента строится массив цен, кратных шагу цены, вокруг опорной цены.
+ * Получение цены из сетки не создаёт объектов, поэтому выставление заявки по такой цене не нагружает
+ * сборщик мусора. Цены вне сетки или не кратные шагу цены строятся заново при каждом вызове.
+ */
+public class QuotationCache {
+  private final int ticks;
+  private final ConcurrentHashMap<String, Grid> grids = new ConcurrentHashMap<>();
+
+  /**
+   * @param ticks Количество шагов цены в каждую сторону от опорной цены.
+   */
+  public QuotationCache(int ticks) {
+    if (ticks <= 0) {
+      throw new IllegalArgumentException("Количество шагов цены должно быть положительным числом.");
+    }
+    this.ticks = ticks;
+  }
+
+  /**
+   * Построение сетки цен инструмента. Повторная регистрация заменяет сетку, например при сильном
+   * движении цены.
+   *
+   * @param instrumentId      Идентификатор инструмента.
+   * @param minPriceIncrement Шаг цены инструмента.
+   * @param referencePrice    Опорная цена, вокруг которой строится сетка. Может быть отрицательной.
+   * @throws ArithmeticException если границы сетки не помещаются в диапазон цен.
+   */
+  public void register(@Nonnull String instrumentId,
+                       @Nonnull Quotation minPriceIncrement,
+                       @Nonnull Quotation referencePrice) {
+    var increment = Decimal.fromQuotation(minPriceIncrement).getNanos();
+    if (increment <= 0) {
+      throw new IllegalArgumentException("Шаг цены должен быть положительным.");
+    }
+    var reference = Decimal.fromQuotation(referencePrice).getNanos();
+    // Цена может быть отрицательной (например, у некоторых фьючерсов и спредов), поэтому сетка выравнивается
+    // по шагу цены вниз и не ограничивается нулём.
+    var aligned = reference - Math.floorMod(reference, increment);
+    var halfWidth = Math.multiplyExact(ticks, increment);
+    var from = Math.subtractExact(aligned, halfWidth);
+    var to = Math.addExact(aligned, halfWidth);
+    grids.put(instrumentId, new Grid(from, to, increment, Math.addExact(Math.multiplyExact(ticks, 2), 1)));
+  }
+
+  public void remove(@Nonnull String instrumentId) {
+    grids.remove(instrumentId);
+  }
+
+  /**
+   * @param instrumentId Идентификатор инструмента.
+   * @param units        Целая часть цены.
+   * @param nano         Дробная часть цены.
+   * @return Цена из сетки инструмента или новый объект, если цены в сетке нет.
+   */
+  @Nonnull
+  public Quotation get(@Nonnull String instrumentId, long units, int nano) {
+    var grid = grids.get(instrumentId);
+    if (grid != null) {
+      var quotation = grid.get(Math.addExact(Math.multiplyExact(units, 1_000_000_000L), nano));
+      if (quotation != null) {
+        return quotation;
+      }
+    }
+    return Quotation.newBuilder().setUnits(units).setNano(nano).build();
+  }
+
+  /**
+   * @param instrumentId Идентификатор инструмента.
+   * @param price        Цена.
+   * @return Цена из сетки инструмента или новый объект, если цены в сетке нет.
+   */
+  @Nonnull
+  public Quotation get(@Nonnull String instrumentId, @Nonnull Decimal price) {
+    var grid = grids.get(instrumentId);
+    if (grid != null) {
+      var quotation = grid.get(price.getNanos());
+      if (quotation != null) {
+        return quotation;
+      }
+    }
+    return price.toQuotation();
+  }
+
+  /**
+   * Неизменяемая сетка цен одного инструмента.
+   */
+  private static class Grid {
+    private final long fromNanos;
+    private final long toNanos;
+    private final long incrementNanos;
+    private final Quotation[] quotations;
+
+    Grid(long fromNanos, long toNanos, long incrementNanos, int size) {
+      this.fromNanos = fromNanos;
+      this.toNanos = toNanos;
+      this.incrementNanos = incrementNanos;
+      this.quotations = new Quotation[size];
+      for (int i = 0; i < size; i++) {
+        quotations[i] = Decimal.ofNanos(fromNanos + i * incrementNanos).toQuotation();
+      }
+    }
+
+    Quotation get(long nanos) {
+      if (nanos < fromNanos || nanos > toNanos) {
+        return null;
+      }
+      var offset = nanos - fromNanos;
+      return offset % incrementNanos == 0 ? quotations[(int) (offset / incrementNanos)] : null;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+package ru.tinkoff.piapi.core.cache;
+
+import com.google.protobuf.Timestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.TradingDay;
+import ru.tinkoff.piapi.contract.v1.TradingSchedule;
+import ru.tinkoff.piapi.core.InstrumentsService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальное расписание торгов всех торговых площадок.
+ * <p>
+ * Загружает расписания на несколько дней вперёд одним запросом и хранит торговые сессии
+ * (основную и вечернюю) каждой площадки в виде отсортированных массивов моментов начала и окончания.
+ * Проверка, идут ли торги, выполняется двоичным поиском без обращения к серверу.
+ * Обновление расписания атомарно подменяет текущее, поэтому чтение не требует блокировок.
+ */
+public class TradingScheduleCache implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TradingScheduleCache.class);
+  private static final Duration DEFAULT_HORIZON = Duration.ofDays(7);
+
+  private final InstrumentsService instrumentsService;
+  private final Duration horizon;
+  private volatile Map<String, Sessions> sessions = Map.of();
+  private volatile Instant loadedTo;
+  private ScheduledExecutorService scheduler;
+
+  public TradingScheduleCache(@Nonnull InstrumentsService instrumentsService) {
+    this(instrumentsService, DEFAULT_HORIZON);
+  }
+
+  /**
+   * @param instrumentsService Сервис инструментов.
+   * @param horizon            На сколько вперёд загружается расписание. Сервер ограничивает период запроса
+   *                           расписаний, поэтому значение не должно превышать двух недель.
+   */
+  public TradingScheduleCache(@Nonnull InstrumentsService instrumentsService, @Nonnull Duration horizon) {
+    if (horizon.isNegative() || horizon.isZero()) {
+      throw new IllegalArgumentException("Период загрузки расписания должен быть положительным.");
+    }
+    this.instrumentsService = instrumentsService;
+    this.horizon = horizon;
+  }
+
+  /**
+   * Загрузка (асинхронная) расписаний всех площадок начиная с предыдущих суток,
+   * чтобы учесть сессии, переходящие через полночь.
+   * <p>
+   * При ошибке загрузки текущее расписание не меняется.
+   *
+   * @return {@link CompletableFuture}, завершающийся после подмены расписания.
+   */
+  @Nonnull
+  public CompletableFuture<Void> refresh() {
+    var from = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS);
+    var to = from.plus(horizon).plus(1, ChronoUnit.DAYS);
+    return instrumentsService.getTradingSchedules(from, to)
+      .thenAccept(schedules -> update(schedules, to));
+  }
+
+  /**
+   * Загрузка (синхронная) расписаний всех площадок.
+   */
+  public void refreshSync() {
+    refresh().join();
+  }
+
+  /**
+   * Запуск ежедневного фонового обновления расписания.
+   */
+  public void startAutoRefresh() {
+    startAutoRefresh(Duration.ofDays(1));
+  }
+
+  /**
+   * Запуск периодического фонового обновления расписания.
+   *
+   * @param period Период обновления.
+   */
+  public synchronized void startAutoRefresh(@Nonnull Duration period) {
+    if (scheduler != null) {
+      throw new IllegalStateException("Фоновое обновление уже запущено.");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "trading-schedule-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleAtFixedRate(
+      () -> refresh()
+        .exceptionally(throwable -> {
+          logger.warn("Не удалось обновить расписание торгов.", throwable);
+          return null;
+        })
+        .join(),
+      period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Остановка фонового обновления расписания.
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  void update(@Nonnull List<TradingSchedule> schedules, @Nullable Instant loadedTo) {
+    var updated = new HashMap<String, Sessions>(schedules.size() * 2);
+    for (var schedule : schedules) {
+      updated.put(schedule.getExchange(), new Sessions(schedule.getDaysList()));
+    }
+    this.sessions = updated;
+    this.loadedTo = loadedTo;
+  }
+
+  /**
+   * @return Момент, до которого загружено расписание, или null, если расписание ещё не загружалось.
+   * Для более поздних моментов ответы кэша не достоверны.
+   */
+  @Nullable
+  public Instant getLoadedTo() {
+    return loadedTo;
+  }
+
+  /**
+   * @return Торговые площадки, расписание которых загружено.
+   */
+  @Nonnull
+  public Set<String> getExchanges() {
+    return Collections.unmodifiableSet(sessions.keySet());
+  }
+
+  /**
+   * Проверка, идут ли сейчас торги на площадке.
+   *
+   * @param exchange Наименование торговой площадки.
+   * @return true, если текущий момент попадает в основную или вечернюю сессию;
+   * false, если нет или расписание площадки неизвестно.
+   */
+  public boolean isTradingNow(@Nonnull String exchange) {
+    return isTrading(exchange, System.currentTimeMillis());
+  }
+
+  /**
+   * Проверка, идут ли торги на площадке в заданный момент.
+   *
+   * @param exchange Наименование торговой площадки.
+   * @param instant  Момент времени.
+   * @return true, если момент попадает в основную или вечернюю сессию;
+   * false, если нет или расписание площадки неизвестно.
+   */
+  public boolean isTrading(@Nonnull String exchange, @Nonnull Instant instant) {
+    return isTrading(exchange, instant.toEpochMilli());
+  }
+
+  /**
+   * @param exchange Наименование торговой площадки.
+   * @return Время начала ближайшей сессии после текущего момента или null, если в загруженном расписании
+   * её нет.
+   */
+  @Nullable
+  public Instant nextOpen(@Nonnull String exchange) {
+    return nextOpen(exchange, Instant.now());
+  }
+
+  /**
+   * @param exchange Наименование торговой площадки.
+   * @param instant  Момент времени.
+   * @return Время начала ближайшей сессии после заданного момента или null, если в загруженном расписании
+   * её нет.
+   */
+  @Nullable
+  public Instant nextOpen(@Nonnull String exchange, @Nonnull Instant instant) {
+    var exchangeSessions = sessions.get(exchange);
+    if (exchangeSessions == null) {
+      return null;
+    }
+    var millis = exchangeSessions.nextOpen(instant.toEpochMilli());
+    return millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis);
+  }
+
+  /**
+   * @param exchange Наименование торговой площадки.
+   * @param instant  Момент времени.
+   * @return Время окончания сессии, идущей в заданный момент, или null, если торги не идут.
+   */
+  @Nullable
+  public Instant currentClose(@Nonnull String exchange, @Nonnull Instant instant) {
+    var exchangeSessions = sessions.get(exchange);
+    if (exchangeSessions == null) {
+      return null;
+    }
+    var millis = exchangeSessions.currentClose(instant.toEpochMilli());
+    return millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis);
+  }
+
+  private boolean isTrading(String exchange, long epochMillis) {
+    var exchangeSessions = sessions.get(exchange);
+    return exchangeSessions != null && exchangeSessions.currentClose(epochMillis) != Long.MIN_VALUE;
+  }
+
+  /**
+   * Непересекающиеся торговые сессии площадки, упорядоченные по времени начала.
+   */
+  private static class Sessions {
+    private final long[] opens;
+    private final long[] closes;
+
+    Sessions(List<TradingDay> days) {
+      var intervals = new long[days.size() * 2][];
+      var count = 0;
+      for (var day : days) {
+        if (!day.getIsTradingDay()) {
+          continue;
+        }
+        if (day.hasStartTime() && day.hasEndTime()) {
+          intervals[count++] = new long[]{toMillis(day.getStartTime()), toMillis(day.getEndTime())};
+        }
+        if (day.hasEveningStartTime() && day.hasEveningEndTime()) {
+          intervals[count++] = new long[]{toMillis(day.getEveningStartTime()), toMillis(day.getEveningEndTime())};
+        }
+      }
+      Arrays.sort(intervals, 0, count, (a, b) -> Long.compare(a[0], b[0]));
+
+      // Соприкасающиеся и пересекающиеся сессии объединяются.
+      var opens = new long[count];
+      var closes = new long[count];
+      var size = 0;
+      for (int i = 0; i < count; i++) {
+        var open = intervals[i][0];
+        var close = intervals[i][1];
+        if (close <= open) {
+          continue;
+        }
+        if (size > 0 && open <= closes[size - 1]) {
+          closes[size - 1] = Math.max(closes[size - 1], close);
+        } else {
+          opens[size] = open;
+          closes[size] = close;
+          size++;
+        }
+      }
+      this.opens = Arrays.copyOf(opens, size);
+      this.closes = Arrays.copyOf(closes, size);
+    }
+
+    /**
+     * @return Окончание сессии, содержащей момент, или {@link Long#MIN_VALUE}, если такой нет.
+     */
+    long currentClose(long epochMillis) {
+      var index = lastOpenAtOrBefore(epochMillis);
+      return index >= 0 && epochMillis < closes[index] ? closes[index] : Long.MIN_VALUE;
+    }
+
+    /**
+     * @return Начало первой сессии строго после момента или {@link Long#MIN_VALUE}, если такой нет.
+     */
+    long nextOpen(long epochMillis) {
+      var index = lastOpenAtOrBefore(epochMillis) + 1;
+      return index < opens.length ? opens[index] : Long.MIN_VALUE;
+    }
+
+    private int lastOpenAtOrBefore(long epochMillis) {
+      var index = Arrays.binarySearch(opens, epochMillis);
+      return index >= 0 ? index : -index - 2;
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+      return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
+    }
+  }
+}
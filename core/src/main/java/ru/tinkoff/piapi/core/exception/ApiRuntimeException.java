@@ -1,16 +1,18 @@
 package ru.tinkoff.piapi.core.exception;
 
 import io.grpc.Metadata;
-import lombok.Getter;
+import io.grpc.StatusRuntimeException;
 
-@Getter
 public class ApiRuntimeException extends RuntimeException {
+  private static final Metadata.Key<String> TRACKING_ID_KEY =
+    Metadata.Key.of("x-tracking-id", Metadata.ASCII_STRING_MARSHALLER);
 
   private final Throwable throwable;
   private final String code;
   private final String message;
-  private final String trackingId;
-  private final Metadata metadata;
+  private volatile boolean metadataResolved;
+  private String trackingId;
+  private Metadata metadata;
 
   public ApiRuntimeException(String message, String code, String trackingId, Throwable throwable, Metadata metadata) {
     super(code + " " + message + " tracking_id " + trackingId, throwable);
@@ -19,5 +21,59 @@ public class ApiRuntimeException extends RuntimeException {
     this.message = message;
     this.code = code;
     this.trackingId = trackingId;
+    this.metadataResolved = true;
+  }
+
+  /**
+   * Исключение, метаданные и tracking id которого извлекаются из причины только при обращении к ним.
+   *
+   * @param message            Описание ошибки.
+   * @param code               Код ошибки.
+   * @param throwable          Исходное исключение.
+   * @param writableStackTrace false, чтобы не заполнять стек вызовов.
+   */
+  public ApiRuntimeException(String message, String code, Throwable throwable, boolean writableStackTrace) {
+    super(null, throwable, writableStackTrace, writableStackTrace);
+    this.throwable = throwable;
+    this.message = message;
+    this.code = code;
+  }
+
+  public Throwable getThrowable() {
+    return throwable;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  @Override
+  public String getMessage() {
+    return message;
+  }
+
+  public String getTrackingId() {
+    resolveMetadata();
+    return trackingId;
+  }
+
+  public Metadata getMetadata() {
+    resolveMetadata();
+    return metadata;
+  }
+
+  private void resolveMetadata() {
+    if (metadataResolved) {
+      return;
+    }
+    synchronized (this) {
+      if (!metadataResolved) {
+        if (throwable instanceof StatusRuntimeException) {
+          metadata = ((StatusRuntimeException) throwable).getTrailers();
+        }
+        trackingId = metadata == null ? null : metadata.get(TRACKING_ID_KEY);
+        metadataResolved = true;
+      }
+    }
   }
 }
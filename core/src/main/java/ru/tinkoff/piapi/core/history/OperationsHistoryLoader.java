@@ -0,0 +1,331 @@
+package ru.tinkoff.piapi.core.history;
+
+import com.google.protobuf.Timestamp;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorRequest;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorResponse;
+import ru.tinkoff.piapi.contract.v1.OperationItem;
+import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+import ru.tinkoff.piapi.core.utils.DateUtils;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static ru.tinkoff.piapi.core.utils.ValidationUtils.checkFromTo;
+
+/**
+ * Обход всех операций по счёту через GetOperationsByCursor без ручной работы с курсором.
+ * <p>
+ * Следующая страница запрашивается сразу после получения текущей, пока потребитель обрабатывает текущую.
+ * Методы {@code *Sliced} дополнительно разбивают период на независимые интервалы, которые загружаются
+ * параллельно с ограничением количества одновременных запросов и передаются потребителю по порядку.
+ * <p>
+ * Операции передаются в том же порядке, в котором их возвращает сервер - от новых к старым.
+ */
+public class OperationsHistoryLoader {
+  private static final Duration DEFAULT_SLICE = Duration.ofDays(30);
+  private static final int DEFAULT_LIMIT = 1000;
+
+  private final OperationsService operationsService;
+  private final AsyncLimiter limiter;
+  private final int parallelism;
+  private final Duration slice;
+
+  public OperationsHistoryLoader(@Nonnull OperationsService operationsService, int parallelism) {
+    this(operationsService, parallelism, DEFAULT_SLICE);
+  }
+
+  public OperationsHistoryLoader(@Nonnull OperationsService operationsService,
+                                 int parallelism,
+                                 @Nonnull Duration slice) {
+    if (slice.isNegative() || slice.isZero()) {
+      throw new IllegalArgumentException("Размер интервала должен быть положительным.");
+    }
+    this.operationsService = operationsService;
+    this.limiter = new AsyncLimiter(parallelism);
+    this.parallelism = parallelism;
+    this.slice = slice;
+  }
+
+  /**
+   * Последовательный обход всех страниц операций по счёту за период.
+   *
+   * @param accountId Идентификатор счёта клиента.
+   * @param from      Начало периода (по UTC).
+   * @param to        Окончание периода (по UTC).
+   * @return Итератор операций.
+   */
+  @Nonnull
+  public Iterator<OperationItem> iterator(@Nonnull String accountId, @Nonnull Instant from, @Nonnull Instant to) {
+    return iterator(request(accountId, from, to));
+  }
+
+  /**
+   * Последовательный обход всех страниц операций с фильтрами запроса.
+   *
+   * @param request Запрос с идентификатором счёта, периодом и фильтрами. Курсор запроса игнорируется.
+   * @return Итератор операций.
+   */
+  @Nonnull
+  public Iterator<OperationItem> iterator(@Nonnull GetOperationsByCursorRequest request) {
+    checkFromTo(DateUtils.timestampToInstant(request.getFrom()), DateUtils.timestampToInstant(request.getTo()));
+    return new PageIterator(request);
+  }
+
+  @Nonnull
+  public Stream<OperationItem> stream(@Nonnull String accountId, @Nonnull Instant from, @Nonnull Instant to) {
+    return stream(iterator(accountId, from, to));
+  }
+
+  @Nonnull
+  public Stream<OperationItem> stream(@Nonnull GetOperationsByCursorRequest request) {
+    return stream(iterator(request));
+  }
+
+  /**
+   * Обход операций за период, разбитый на интервалы, которые загружаются параллельно.
+   * Одновременно загружается не больше интервалов, чем указанная при создании параллельность.
+   *
+   * @param accountId Идентификатор счёта клиента.
+   * @param from      Начало периода (по UTC).
+   * @param to        Окончание периода (по UTC).
+   * @return Итератор операций.
+   */
+  @Nonnull
+  public Iterator<OperationItem> iteratorSliced(@Nonnull String accountId,
+                                                @Nonnull Instant from,
+                                                @Nonnull Instant to) {
+    return iteratorSliced(request(accountId, from, to));
+  }
+
+  /**
+   * Обход операций с фильтрами запроса за период, разбитый на интервалы, которые загружаются параллельно.
+   *
+   * @param request Запрос с идентификатором счёта, периодом и фильтрами. Курсор запроса игнорируется.
+   * @return Итератор операций.
+   */
+  @Nonnull
+  public Iterator<OperationItem> iteratorSliced(@Nonnull GetOperationsByCursorRequest request) {
+    var from = DateUtils.timestampToInstant(request.getFrom());
+    var to = DateUtils.timestampToInstant(request.getTo());
+    checkFromTo(from, to);
+    return new SlicedIterator(request, slice(from, to));
+  }
+
+  @Nonnull
+  public Stream<OperationItem> streamSliced(@Nonnull String accountId, @Nonnull Instant from, @Nonnull Instant to) {
+    return stream(iteratorSliced(accountId, from, to));
+  }
+
+  @Nonnull
+  public Stream<OperationItem> streamSliced(@Nonnull GetOperationsByCursorRequest request) {
+    return stream(iteratorSliced(request));
+  }
+
+  /**
+   * Интервалы от поздних к ранним, чтобы порядок операций совпадал с порядком ответа сервера.
+   */
+  List<Instant[]> slice(Instant from, Instant to) {
+    var slices = new ArrayList<Instant[]>();
+    var end = to;
+    do {
+      var start = end.minus(slice);
+      if (start.isBefore(from)) {
+        start = from;
+      }
+      slices.add(new Instant[]{start, end});
+      end = start;
+    } while (end.isAfter(from));
+    return slices;
+  }
+
+  private static GetOperationsByCursorRequest request(String accountId, Instant from, Instant to) {
+    return GetOperationsByCursorRequest.newBuilder()
+      .setAccountId(accountId)
+      .setFrom(DateUtils.instantToTimestamp(from))
+      .setTo(DateUtils.instantToTimestamp(to))
+      .build();
+  }
+
+  private CompletableFuture<GetOperationsByCursorResponse> page(GetOperationsByCursorRequest request,
+                                                                Instant from,
+                                                                Instant to,
+                                                                String cursor) {
+    return operationsService.getOperationByCursor(
+      request.getAccountId(),
+      from,
+      to,
+      cursor,
+      request.getLimit() == 0 ? DEFAULT_LIMIT : request.getLimit(),
+      request.getState(),
+      request.getInstrumentId(),
+      request.getWithoutCommissions(),
+      request.getWithoutTrades(),
+      request.getWithoutOvernights(),
+      request.getOperationTypesList());
+  }
+
+  /**
+   * Асинхронная загрузка всех страниц одного интервала. Операции с датой вне [from, to) отбрасываются,
+   * чтобы операция на границе соседних интервалов не попала в результат дважды.
+   */
+  private CompletableFuture<List<OperationItem>> loadSlice(GetOperationsByCursorRequest request,
+                                                           Instant[] slice,
+                                                           boolean last) {
+    var from = DateUtils.instantToTimestamp(slice[0]);
+    var to = DateUtils.instantToTimestamp(slice[1]);
+    var result = new CompletableFuture<List<OperationItem>>();
+    loadSlice(request, slice, "", new ArrayList<>(), result, item -> {
+      var date = item.getDate();
+      return compare(date, from) >= 0 && (compare(date, to) < 0 || last && compare(date, to) == 0);
+    });
+    return result;
+  }
+
+  private void loadSlice(GetOperationsByCursorRequest request,
+                         Instant[] slice,
+                         String cursor,
+                         List<OperationItem> items,
+                         CompletableFuture<List<OperationItem>> result,
+                         Predicate<OperationItem> inSlice) {
+    page(request, slice[0], slice[1], cursor).whenComplete((page, throwable) -> {
+      if (throwable != null) {
+        result.completeExceptionally(throwable);
+        return;
+      }
+      for (var item : page.getItemsList()) {
+        if (inSlice.test(item)) {
+          items.add(item);
+        }
+      }
+      if (page.getHasNext() && !page.getNextCursor().isEmpty()) {
+        loadSlice(request, slice, page.getNextCursor(), items, result, inSlice);
+      } else {
+        result.complete(items);
+      }
+    });
+  }
+
+  private static int compare(Timestamp left, Timestamp right) {
+    var result = Long.compare(left.getSeconds(), right.getSeconds());
+    return result != 0 ? result : Integer.compare(left.getNanos(), right.getNanos());
+  }
+
+  private static Stream<OperationItem> stream(Iterator<OperationItem> iterator) {
+    return StreamSupport.stream(
+      Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Последовательный обход страниц с запросом следующей страницы до обработки текущей.
+   */
+  private class PageIterator implements Iterator<OperationItem> {
+    private final GetOperationsByCursorRequest request;
+    private final Instant from;
+    private final Instant to;
+    private CompletableFuture<GetOperationsByCursorResponse> next;
+    private Iterator<OperationItem> current = Collections.emptyIterator();
+
+    PageIterator(GetOperationsByCursorRequest request) {
+      this.request = request;
+      this.from = DateUtils.timestampToInstant(request.getFrom());
+      this.to = DateUtils.timestampToInstant(request.getTo());
+      this.next = page(request, from, to, "");
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext()) {
+        if (next == null) {
+          return false;
+        }
+        var page = join(next);
+        next = page.getHasNext() && !page.getNextCursor().isEmpty()
+          ? page(request, from, to, page.getNextCursor())
+          : null;
+        current = page.getItemsList().iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public OperationItem next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+  }
+
+  /**
+   * Обход интервалов по порядку, при котором следующие интервалы загружаются заранее.
+   */
+  private class SlicedIterator implements Iterator<OperationItem> {
+    private final GetOperationsByCursorRequest request;
+    private final List<Instant[]> slices;
+    private final ArrayDeque<CompletableFuture<List<OperationItem>>> loading = new ArrayDeque<>();
+    private Iterator<OperationItem> current = Collections.emptyIterator();
+    private int scheduled;
+
+    SlicedIterator(GetOperationsByCursorRequest request, List<Instant[]> slices) {
+      this.request = request;
+      this.slices = slices;
+      schedule();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext()) {
+        var future = loading.poll();
+        if (future == null) {
+          return false;
+        }
+        schedule();
+        current = join(future).iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public OperationItem next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    private void schedule() {
+      while (loading.size() < parallelism && scheduled < slices.size()) {
+        var slice = slices.get(scheduled);
+        var last = scheduled == 0;
+        loading.add(limiter.submit(() -> loadSlice(request, slice, last)));
+        scheduled++;
+      }
+    }
+  }
+}
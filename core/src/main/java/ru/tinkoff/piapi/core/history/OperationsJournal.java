@@ -0,0 +1,384 @@
+package ru.tinkoff.piapi.core.history;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Timestamp;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorResponse;
+import ru.tinkoff.piapi.contract.v1.OperationItem;
+import ru.tinkoff.piapi.contract.v1.OperationState;
+import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.utils.DateUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ru.tinkoff.piapi.core.utils.ValidationUtils.checkFromTo;
+
+/**
+ * Локальный журнал операций по счетам с инкрементальной синхронизацией.
+ * <p>
+ * Для каждого счёта в каталоге хранятся два файла: журнал операций и состояние синхронизации.
+ * Журнал - последовательность protobuf-сообщений {@link OperationItem}, каждое из которых предваряется
+ * своей длиной. Новые и изменившиеся операции только дописываются в конец; при чтении более поздняя запись
+ * операции заменяет более раннюю. Состояние содержит момент, до которого журнал синхронизирован.
+ * <p>
+ * Синхронизация запрашивает через GetOperationsByCursor только период с момента прошлой синхронизации,
+ * расширенный назад на интервал перекрытия и до самой ранней операции в статусе исполнения,
+ * чтобы получить изменения недавних операций. Запросы за период читаются из памяти без обращения к серверу.
+ */
+public class OperationsJournal {
+  static final String JOURNAL_PREFIX = "operations-";
+  static final String JOURNAL_SUFFIX = ".journal";
+  static final String STATE_SUFFIX = ".state";
+  private static final Duration DEFAULT_OVERLAP = Duration.ofDays(3);
+  private static final int PAGE_LIMIT = 1000;
+  private static final int MIN_COMPACT_RECORDS = 1024;
+
+  private final OperationsService operationsService;
+  private final Path directory;
+  private final Duration overlap;
+  private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+  public OperationsJournal(@Nonnull OperationsService operationsService, @Nonnull Path directory) {
+    this(operationsService, directory, DEFAULT_OVERLAP);
+  }
+
+  public OperationsJournal(@Nonnull OperationsService operationsService,
+                           @Nonnull Path directory,
+                           @Nonnull Duration overlap) {
+    if (overlap.isNegative()) {
+      throw new IllegalArgumentException("Интервал перекрытия не может быть отрицательным.");
+    }
+    this.operationsService = operationsService;
+    this.directory = directory;
+    this.overlap = overlap;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Синхронизация журнала счёта с сервером.
+   *
+   * @param accountId    Идентификатор счёта.
+   * @param historyStart Начало истории, используется только при первой синхронизации счёта.
+   * @return Количество новых и изменившихся операций.
+   */
+  @Nonnull
+  public CompletableFuture<Integer> sync(@Nonnull String accountId, @Nonnull Instant historyStart) {
+    var account = account(accountId);
+    Instant from;
+    synchronized (account) {
+      from = account.syncFrom(historyStart, overlap);
+    }
+    var to = Instant.now();
+    checkFromTo(from, to);
+    var items = new CompletableFuture<List<OperationItem>>();
+    loadPages(accountId, from, to, "", new ArrayList<>(), items);
+    return items.thenApply(loaded -> {
+      synchronized (account) {
+        return account.merge(loaded, to);
+      }
+    });
+  }
+
+  /**
+   * Синхронизация (синхронная) журнала счёта с сервером, см. {@link #sync}.
+   *
+   * @param accountId    Идентификатор счёта.
+   * @param historyStart Начало истории, используется только при первой синхронизации счёта.
+   * @return Количество новых и изменившихся операций.
+   */
+  public int syncSync(@Nonnull String accountId, @Nonnull Instant historyStart) {
+    return sync(accountId, historyStart).join();
+  }
+
+  /**
+   * Операции счёта из журнала за период, от новых к старым, как в ответе сервера.
+   *
+   * @param accountId Идентификатор счёта.
+   * @param from      Начало периода (по UTC).
+   * @param to        Окончание периода (по UTC).
+   * @return Список операций.
+   */
+  @Nonnull
+  public List<OperationItem> getOperations(@Nonnull String accountId, @Nonnull Instant from, @Nonnull Instant to) {
+    checkFromTo(from, to);
+    var account = account(accountId);
+    synchronized (account) {
+      var range = account.operations.subMap(
+        new Key(DateUtils.timestampToEpochNanos(DateUtils.instantToTimestamp(to)), ""), true,
+        new Key(DateUtils.timestampToEpochNanos(DateUtils.instantToTimestamp(from)), "\uffff"), true);
+      return new ArrayList<>(range.values());
+    }
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Момент, до которого журнал синхронизирован, или null, если счёт ещё не синхронизировался.
+   */
+  @Nullable
+  public Instant getSyncedTo(@Nonnull String accountId) {
+    var account = account(accountId);
+    synchronized (account) {
+      return account.syncedTo;
+    }
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Количество операций в журнале.
+   */
+  public int size(@Nonnull String accountId) {
+    var account = account(accountId);
+    synchronized (account) {
+      return account.operations.size();
+    }
+  }
+
+  /**
+   * Перезапись журнала счёта без устаревших записей изменившихся операций.
+   *
+   * @param accountId Идентификатор счёта.
+   */
+  public void compact(@Nonnull String accountId) {
+    var account = account(accountId);
+    synchronized (account) {
+      account.compact();
+    }
+  }
+
+  private Account account(String accountId) {
+    return accounts.computeIfAbsent(accountId, id -> {
+      var account = new Account(
+        directory.resolve(JOURNAL_PREFIX + id + JOURNAL_SUFFIX),
+        directory.resolve(JOURNAL_PREFIX + id + STATE_SUFFIX));
+      account.load();
+      return account;
+    });
+  }
+
+  private void loadPages(String accountId,
+                         Instant from,
+                         Instant to,
+                         String cursor,
+                         List<OperationItem> items,
+                         CompletableFuture<List<OperationItem>> result) {
+    operationsService.getOperationByCursor(accountId, from, to, cursor, PAGE_LIMIT,
+        null, null, false, false, false, null)
+      .whenComplete((GetOperationsByCursorResponse page, Throwable throwable) -> {
+        if (throwable != null) {
+          result.completeExceptionally(throwable);
+          return;
+        }
+        items.addAll(page.getItemsList());
+        if (page.getHasNext() && !page.getNextCursor().isEmpty()) {
+          loadPages(accountId, from, to, page.getNextCursor(), items, result);
+        } else {
+          result.complete(items);
+        }
+      });
+  }
+
+  /**
+   * Позиция операции в журнале: от новых к старым, при равном времени - по идентификатору.
+   */
+  private static final class Key implements Comparable<Key> {
+    private static final Comparator<Key> ORDER = Comparator
+      .comparingLong((Key key) -> key.dateNanos).reversed()
+      .thenComparing(key -> key.id);
+
+    private final long dateNanos;
+    private final String id;
+
+    Key(long dateNanos, String id) {
+      this.dateNanos = dateNanos;
+      this.id = id;
+    }
+
+    static Key of(OperationItem item) {
+      return new Key(DateUtils.timestampToEpochNanos(item.getDate()), item.getId());
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && dateNanos == ((Key) o).dateNanos && id.equals(((Key) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dateNanos, id);
+    }
+  }
+
+  /**
+   * Журнал одного счёта. Все методы вызываются под блокировкой объекта.
+   */
+  private static final class Account {
+    private final Path journal;
+    private final Path state;
+    private final TreeMap<Key, OperationItem> operations = new TreeMap<>();
+    private final Map<String, Key> keys = new HashMap<>();
+    private final TreeSet<Key> inProgress = new TreeSet<>();
+    private Instant syncedTo;
+    private long records;
+
+    Account(Path journal, Path state) {
+      this.journal = journal;
+      this.state = state;
+    }
+
+    Instant syncFrom(Instant historyStart, Duration overlap) {
+      if (syncedTo == null) {
+        return historyStart;
+      }
+      var from = syncedTo.minus(overlap);
+      if (!inProgress.isEmpty()) {
+        var oldest = Instant.ofEpochSecond(0, inProgress.last().dateNanos);
+        if (oldest.isBefore(from)) {
+          from = oldest;
+        }
+      }
+      return from.isBefore(historyStart) ? historyStart : from;
+    }
+
+    int merge(List<OperationItem> items, Instant to) {
+      var changed = new ArrayList<OperationItem>();
+      for (var item : items) {
+        if (put(item)) {
+          changed.add(item);
+        }
+      }
+      append(changed);
+      writeState(to);
+      syncedTo = to;
+      if (records > MIN_COMPACT_RECORDS && records > 2L * operations.size()) {
+        compact();
+      }
+      return changed.size();
+    }
+
+    /**
+     * @return true, если операция новая или изменилась.
+     */
+    private boolean put(OperationItem item) {
+      var key = Key.of(item);
+      var previousKey = keys.put(item.getId(), key);
+      if (previousKey != null) {
+        if (item.equals(operations.get(previousKey))) {
+          return false;
+        }
+        operations.remove(previousKey);
+        inProgress.remove(previousKey);
+      }
+      operations.put(key, item);
+      if (item.getState() == OperationState.OPERATION_STATE_PROGRESS) {
+        inProgress.add(key);
+      }
+      return true;
+    }
+
+    void load() {
+      try {
+        if (Files.exists(state)) {
+          var timestamp = Timestamp.parseFrom(Files.readAllBytes(state));
+          syncedTo = DateUtils.timestampToInstant(timestamp);
+        }
+        if (!Files.exists(journal)) {
+          return;
+        }
+        var bytes = Files.readAllBytes(journal);
+        var input = CodedInputStream.newInstance(bytes);
+        var valid = 0;
+        try {
+          while (!input.isAtEnd()) {
+            var size = input.readRawVarint32();
+            var limit = input.pushLimit(size);
+            var item = OperationItem.parseFrom(input);
+            input.popLimit(limit);
+            put(item);
+            records++;
+            valid = input.getTotalBytesRead();
+          }
+        } catch (IOException e) {
+          // Запись, прерванная при аварийном завершении, отбрасывается вместе с состоянием синхронизации.
+          try (var channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(valid);
+          }
+          syncedTo = null;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void append(List<OperationItem> items) {
+      if (items.isEmpty()) {
+        return;
+      }
+      try (var out = new BufferedOutputStream(Files.newOutputStream(journal,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))) {
+        for (var item : items) {
+          item.writeDelimitedTo(out);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      records += items.size();
+    }
+
+    private void writeState(Instant to) {
+      write(state, DateUtils.instantToTimestamp(to).toByteArray());
+    }
+
+    void compact() {
+      var buffer = new ByteArrayOutputStream();
+      try {
+        for (var item : operations.values()) {
+          item.writeDelimitedTo(buffer);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      write(journal, buffer.toByteArray());
+      records = operations.size();
+    }
+
+    private static void write(Path path, byte[] bytes) {
+      var temp = path.resolveSibling(path.getFileName() + ".tmp");
+      try {
+        Files.write(temp, bytes);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package ru.tinkoff.piapi.core.history;
+
+import ru.tinkoff.piapi.contract.v1.BrokerReport;
+import ru.tinkoff.piapi.contract.v1.BrokerReportResponse;
+import ru.tinkoff.piapi.contract.v1.DividendsForeignIssuerReport;
+import ru.tinkoff.piapi.contract.v1.GetBrokerReportResponse;
+import ru.tinkoff.piapi.contract.v1.GetDividendsForeignIssuerReportResponse;
+import ru.tinkoff.piapi.contract.v1.GetDividendsForeignIssuerResponse;
+import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static ru.tinkoff.piapi.core.utils.ValidationUtils.checkFromTo;
+
+/**
+ * Получение брокерских отчётов и справок о доходах за пределами РФ целиком.
+ * <p>
+ * Отчёт заказывается, затем его готовность проверяется запросом первой страницы с растущей паузой,
+ * пока сервер отвечает ошибкой {@value #TASK_NOT_COMPLETED}. После этого остальные страницы загружаются
+ * параллельно, а записи возвращаются одним списком в порядке страниц. Все запросы, включая запросы
+ * по разным счетам, проходят через общее ограничение количества одновременных вызовов.
+ */
+public class ReportLoader {
+  static final String TASK_NOT_COMPLETED = "30058";
+  private static final Duration DEFAULT_INITIAL_DELAY = Duration.ofSeconds(1);
+  private static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(30);
+  private static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(10);
+
+  private final OperationsService operationsService;
+  private final AsyncLimiter limiter;
+  private final Duration initialDelay;
+  private final Duration maxDelay;
+  private final Duration timeout;
+
+  public ReportLoader(@Nonnull OperationsService operationsService, int parallelism) {
+    this(operationsService, parallelism, DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * @param operationsService Сервис операций.
+   * @param parallelism       Максимальное количество одновременных запросов.
+   * @param initialDelay      Пауза перед повторной проверкой готовности отчёта. Первая проверка выполняется сразу,
+   *                          каждая следующая пауза вдвое длиннее предыдущей.
+   * @param maxDelay          Максимальная пауза между проверками готовности.
+   * @param timeout           Максимальное время ожидания готовности отчёта.
+   */
+  public ReportLoader(@Nonnull OperationsService operationsService,
+                      int parallelism,
+                      @Nonnull Duration initialDelay,
+                      @Nonnull Duration maxDelay,
+                      @Nonnull Duration timeout) {
+    if (initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0 || timeout.isNegative()) {
+      throw new IllegalArgumentException("Некорректные параметры ожидания готовности отчёта.");
+    }
+    this.operationsService = operationsService;
+    this.limiter = new AsyncLimiter(parallelism);
+    this.initialDelay = initialDelay;
+    this.maxDelay = maxDelay;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Получение брокерского отчёта целиком.
+   *
+   * @param accountId Идентификатор счёта.
+   * @param from      Начало периода (по UTC).
+   * @param to        Окончание периода (по UTC).
+   * @return Записи отчёта со всех страниц.
+   */
+  @Nonnull
+  public CompletableFuture<List<BrokerReport>> loadBrokerReport(@Nonnull String accountId,
+                                                                @Nonnull Instant from,
+                                                                @Nonnull Instant to) {
+    checkFromTo(from, to);
+    return load(
+      limiter.submit(() -> operationsService.getBrokerReport(accountId, from, to))
+        .thenApply(response -> response.getPayloadCase() == BrokerReportResponse.PayloadCase.GET_BROKER_REPORT_RESPONSE
+          ? new Generated<>(null, response.getGetBrokerReportResponse())
+          : new Generated<>(response.getGenerateBrokerReportResponse().getTaskId(), null)),
+      operationsService::getBrokerReport,
+      GetBrokerReportResponse::getPagesCount,
+      GetBrokerReportResponse::getBrokerReportList);
+  }
+
+  /**
+   * Получение справки о доходах за пределами РФ целиком.
+   *
+   * @param accountId Идентификатор счёта.
+   * @param from      Начало периода (по UTC).
+   * @param to        Окончание периода (по UTC).
+   * @return Записи справки со всех страниц.
+   */
+  @Nonnull
+  public CompletableFuture<List<DividendsForeignIssuerReport>> loadDividendsForeignIssuer(@Nonnull String accountId,
+                                                                                          @Nonnull Instant from,
+                                                                                          @Nonnull Instant to) {
+    checkFromTo(from, to);
+    return load(
+      limiter.submit(() -> operationsService.getDividendsForeignIssuer(accountId, from, to))
+        .thenApply(response ->
+          response.getPayloadCase() == GetDividendsForeignIssuerResponse.PayloadCase.DIV_FOREIGN_ISSUER_REPORT
+            ? new Generated<>(null, response.getDivForeignIssuerReport())
+            : new Generated<>(response.getGenerateDivForeignIssuerReportResponse().getTaskId(), null)),
+      operationsService::getDividendsForeignIssuer,
+      GetDividendsForeignIssuerReportResponse::getPagesCount,
+      GetDividendsForeignIssuerReportResponse::getDividendsForeignIssuerReportList);
+  }
+
+  /**
+   * Получение брокерских отчётов по нескольким счетам. Ошибка по одному счёту не влияет на остальные.
+   *
+   * @param accountIds Идентификаторы счетов.
+   * @param from       Начало периода (по UTC).
+   * @param to         Окончание периода (по UTC).
+   * @return Записи отчётов по счетам в порядке переданных идентификаторов.
+   */
+  @Nonnull
+  public Map<String, CompletableFuture<List<BrokerReport>>> loadBrokerReports(@Nonnull Collection<String> accountIds,
+                                                                              @Nonnull Instant from,
+                                                                              @Nonnull Instant to) {
+    var result = new LinkedHashMap<String, CompletableFuture<List<BrokerReport>>>();
+    for (var accountId : accountIds) {
+      result.put(accountId, loadBrokerReport(accountId, from, to));
+    }
+    return result;
+  }
+
+  /**
+   * Получение справок о доходах за пределами РФ по нескольким счетам.
+   * Ошибка по одному счёту не влияет на остальные.
+   *
+   * @param accountIds Идентификаторы счетов.
+   * @param from       Начало периода (по UTC).
+   * @param to         Окончание периода (по UTC).
+   * @return Записи справок по счетам в порядке переданных идентификаторов.
+   */
+  @Nonnull
+  public Map<String, CompletableFuture<List<DividendsForeignIssuerReport>>> loadDividendsForeignIssuers(
+    @Nonnull Collection<String> accountIds,
+    @Nonnull Instant from,
+    @Nonnull Instant to) {
+    var result = new LinkedHashMap<String, CompletableFuture<List<DividendsForeignIssuerReport>>>();
+    for (var accountId : accountIds) {
+      result.put(accountId, loadDividendsForeignIssuer(accountId, from, to));
+    }
+    return result;
+  }
+
+  private <P, I> CompletableFuture<List<I>> load(CompletableFuture<Generated<P>> generated,
+                                                 BiFunction<String, Integer, CompletableFuture<P>> page,
+                                                 ToIntFunction<P> pagesCount,
+                                                 Function<P, List<I>> items) {
+    return generated.thenCompose(task -> {
+      if (task.taskId == null) {
+        return loadPages(null, task.report, page, pagesCount, items);
+      }
+      var deadline = System.nanoTime() + timeout.toNanos();
+      return poll(() -> page.apply(task.taskId, 0), initialDelay, deadline)
+        .thenCompose(first -> loadPages(task.taskId, first, page, pagesCount, items));
+    });
+  }
+
+  private <P, I> CompletableFuture<List<I>> loadPages(@Nullable String taskId,
+                                                     P first,
+                                                     BiFunction<String, Integer, CompletableFuture<P>> page,
+                                                     ToIntFunction<P> pagesCount,
+                                                     Function<P, List<I>> items) {
+    var count = pagesCount.applyAsInt(first);
+    if (taskId == null && count > 1) {
+      // Готовый отчёт, полученный сразу при заказе, не содержит идентификатора задачи для запроса остальных страниц.
+      return CompletableFuture.failedFuture(new IllegalStateException(
+        "Сервер вернул готовый отчёт из " + count + " страниц без идентификатора задачи, остальные страницы недоступны."));
+    }
+    var pages = new ArrayList<CompletableFuture<P>>(Math.max(count, 1));
+    pages.add(CompletableFuture.completedFuture(first));
+    for (int i = 1; i < count; i++) {
+      var index = i;
+      pages.add(limiter.submit(() -> page.apply(taskId, index)));
+    }
+    return CompletableFuture.allOf(pages.toArray(new CompletableFuture[0]))
+      .thenApply(ignored -> {
+        var result = new ArrayList<I>();
+        for (var future : pages) {
+          result.addAll(items.apply(future.join()));
+        }
+        return result;
+      });
+  }
+
+  /**
+   * Запрос страницы с повтором, пока отчёт не готов.
+   */
+  private <P> CompletableFuture<P> poll(Supplier<CompletableFuture<P>> request,
+                                        Duration delay,
+                                        long deadline) {
+    return limiter.submit(request)
+      .handle((value, throwable) -> {
+        if (throwable == null) {
+          return CompletableFuture.completedFuture(value);
+        }
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null
+          ? throwable.getCause()
+          : throwable;
+        if (!(cause instanceof ApiRuntimeException)
+          || !TASK_NOT_COMPLETED.equals(((ApiRuntimeException) cause).getCode())
+          || System.nanoTime() + delay.toNanos() > deadline) {
+          return CompletableFuture.<P>failedFuture(cause);
+        }
+        var next = delay.multipliedBy(2);
+        var nextDelay = next.compareTo(maxDelay) > 0 ? maxDelay : next;
+        Executor delayed = CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS);
+        return CompletableFuture.supplyAsync(() -> null, delayed)
+          .thenCompose(ignored -> poll(request, nextDelay, deadline));
+      })
+      .thenCompose(Function.identity());
+  }
+
+  /**
+   * Результат заказа отчёта: идентификатор задачи или сразу готовый отчёт.
+   */
+  private static final class Generated<P> {
+    private final String taskId;
+    private final P report;
+
+    Generated(String taskId, P report) {
+      this.taskId = taskId;
+      this.report = report;
+    }
+  }
+}
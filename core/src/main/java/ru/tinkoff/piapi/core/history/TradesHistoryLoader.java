@@ -0,0 +1,242 @@
+package ru.tinkoff.piapi.core.history;
+
+import com.google.protobuf.Timestamp;
+import ru.tinkoff.piapi.contract.v1.Trade;
+import ru.tinkoff.piapi.core.MarketDataService;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static ru.tinkoff.piapi.core.utils.ValidationUtils.checkFromTo;
+
+/**
+ * Загрузка истории обезличенных сделок за произвольный период.
+ * <p>
+ * Сервер отдаёт сделки через GetLastTrades только в пределах ограниченного окна,
+ * поэтому запрошенный период разбивается на окна допустимой длины, которые загружаются параллельно
+ * с ограничением количества одновременных запросов. Сделки на границах окон дедуплицируются
+ * и передаются получателю строго в порядке времени.
+ */
+public class TradesHistoryLoader {
+  private static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+  private static final Comparator<Trade> BY_TIME = Comparator
+    .comparingLong((Trade trade) -> trade.getTime().getSeconds())
+    .thenComparingInt(trade -> trade.getTime().getNanos());
+
+  private final MarketDataService marketDataService;
+  private final AsyncLimiter limiter;
+  private final Duration window;
+
+  public TradesHistoryLoader(@Nonnull MarketDataService marketDataService, int parallelism) {
+    this(marketDataService, parallelism, DEFAULT_WINDOW);
+  }
+
+  public TradesHistoryLoader(@Nonnull MarketDataService marketDataService, int parallelism, @Nonnull Duration window) {
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Размер окна должен быть положительным.");
+    }
+    this.marketDataService = marketDataService;
+    this.limiter = new AsyncLimiter(parallelism);
+    this.window = window;
+  }
+
+  /**
+   * Загрузка сделок по инструменту с передачей их получателю в порядке времени.
+   * <p>
+   * Получатель вызывается последовательно, но не обязательно из вызывающего потока.
+   *
+   * @param instrumentId FIGI-идентификатор / uid инструмента.
+   * @param from         Начало периода (по UTC).
+   * @param to           Окончание периода (по UTC).
+   * @param consumer     Получатель сделок.
+   * @return Количество переданных получателю сделок.
+   */
+  @Nonnull
+  public CompletableFuture<Long> load(@Nonnull String instrumentId,
+                                      @Nonnull Instant from,
+                                      @Nonnull Instant to,
+                                      @Nonnull Consumer<Trade> consumer) {
+    checkFromTo(from, to);
+
+    var slices = slice(from, to);
+    var emitter = new OrderedEmitter(slices.size(), consumer);
+    for (int i = 0; i < slices.size(); i++) {
+      var index = i;
+      var slice = slices.get(i);
+      limiter.submit(() -> marketDataService.getLastTrades(instrumentId, slice[0], slice[1]))
+        .whenComplete((trades, throwable) -> {
+          if (throwable != null) {
+            emitter.result.completeExceptionally(throwable);
+          } else {
+            emitter.complete(index, trades);
+          }
+        });
+    }
+    return emitter.result;
+  }
+
+  /**
+   * Загрузка сделок по инструменту в файл.
+   * <p>
+   * Сделки записываются в порядке времени в виде последовательности protobuf-сообщений {@link Trade},
+   * каждое из которых предваряется своей длиной. Прочитать файл можно методом {@link #readFile}.
+   *
+   * @param instrumentId FIGI-идентификатор / uid инструмента.
+   * @param from         Начало периода (по UTC).
+   * @param to           Окончание периода (по UTC).
+   * @param file         Путь к файлу. Существующий файл будет перезаписан.
+   * @return Количество записанных сделок.
+   */
+  @Nonnull
+  public CompletableFuture<Long> loadToFile(@Nonnull String instrumentId,
+                                            @Nonnull Instant from,
+                                            @Nonnull Instant to,
+                                            @Nonnull Path file) {
+    OutputStream out;
+    try {
+      out = new BufferedOutputStream(Files.newOutputStream(file));
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(new UncheckedIOException(e));
+    }
+    return load(instrumentId, from, to, trade -> {
+      try {
+        trade.writeDelimitedTo(out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }).whenComplete((count, throwable) -> {
+      try {
+        out.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Чтение сделок из файла, записанного методом {@link #loadToFile}.
+   *
+   * @param file     Путь к файлу.
+   * @param consumer Получатель сделок.
+   * @return Количество прочитанных сделок.
+   */
+  public static long readFile(@Nonnull Path file, @Nonnull Consumer<Trade> consumer) {
+    long count = 0;
+    try (var in = new BufferedInputStream(Files.newInputStream(file))) {
+      Trade trade;
+      while ((trade = Trade.parseDelimitedFrom(in)) != null) {
+        consumer.accept(trade);
+        count++;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return count;
+  }
+
+  List<Instant[]> slice(Instant from, Instant to) {
+    var slices = new ArrayList<Instant[]>();
+    var start = from;
+    do {
+      var end = start.plus(window);
+      if (end.isAfter(to)) {
+        end = to;
+      }
+      slices.add(new Instant[]{start, end});
+      start = end;
+    } while (start.isBefore(to));
+    return slices;
+  }
+
+  private static int compare(Timestamp left, Timestamp right) {
+    var result = Long.compare(left.getSeconds(), right.getSeconds());
+    return result != 0 ? result : Integer.compare(left.getNanos(), right.getNanos());
+  }
+
+  /**
+   * Передача результатов окон получателю в порядке окон, независимо от порядка завершения запросов.
+   */
+  private static class OrderedEmitter {
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private final List<List<Trade>> slices;
+    private final Consumer<Trade> consumer;
+    private final Map<Trade, Integer> lastEmitted = new HashMap<>();
+    private Timestamp lastTime = Timestamp.getDefaultInstance();
+    private int next;
+    private long count;
+
+    OrderedEmitter(int size, Consumer<Trade> consumer) {
+      this.slices = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        slices.add(null);
+      }
+      this.consumer = consumer;
+    }
+
+    synchronized void complete(int index, List<Trade> trades) {
+      if (result.isDone()) {
+        return;
+      }
+      var sorted = new ArrayList<>(trades);
+      sorted.sort(BY_TIME);
+      slices.set(index, sorted);
+      try {
+        while (next < slices.size() && slices.get(next) != null) {
+          emit(slices.get(next));
+          slices.set(next, null);
+          next++;
+        }
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      if (next == slices.size()) {
+        result.complete(count);
+      }
+    }
+
+    /**
+     * Сделки с одинаковым временем сравниваются только с уже переданными сделками предыдущих окон:
+     * у сделки нет идентификатора, и одинаковые сделки внутри одного окна считаются разными.
+     * Для каждой сделки со временем последней переданной сделки хранится, сколько раз она была передана,
+     * и из следующего окна пропускается не больше такого же количества повторов.
+     */
+    private void emit(List<Trade> trades) {
+      var seen = new HashMap<Trade, Integer>();
+      for (var trade : trades) {
+        var cmp = compare(trade.getTime(), lastTime);
+        if (cmp < 0) {
+          continue;
+        }
+        if (cmp > 0) {
+          lastTime = trade.getTime();
+          lastEmitted.clear();
+          seen.clear();
+        }
+        int occurrence = seen.merge(trade, 1, Integer::sum);
+        if (occurrence <= lastEmitted.getOrDefault(trade, 0)) {
+          continue;
+        }
+        lastEmitted.put(trade, occurrence);
+        consumer.accept(trade);
+        count++;
+      }
+    }
+  }
+}
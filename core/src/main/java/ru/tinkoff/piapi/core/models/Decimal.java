@@ -0,0 +1,191 @@
+package ru.tinkoff.piapi.core.models;
+
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+
+import javax.annotation.Nonnull;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Неизменяемое десятичное число с фиксированной точкой: 9 знаков после запятой, как у {@link Quotation}
+ * и {@link MoneyValue}.
+ * <p>
+ * Значение хранится в одном long в миллиардных долях (units * 10^9 + nano), поэтому арифметика
+ * не создаёт промежуточных объектов. Диапазон значений - примерно ±9.2 * 10^9; при выходе за него
+ * операции выбрасывают {@link ArithmeticException}. Для накопления сумм без создания объектов
+ * используйте {@link MutableDecimal}.
+ */
+public final class Decimal implements Comparable<Decimal> {
+  static final long NANOS_PER_UNIT = 1_000_000_000L;
+  static final int SCALE = 9;
+
+  public static final Decimal ZERO = new Decimal(0);
+  public static final Decimal ONE = new Decimal(NANOS_PER_UNIT);
+
+  private final long nanos;
+
+  private Decimal(long nanos) {
+    this.nanos = nanos;
+  }
+
+  @Nonnull
+  public static Decimal ofNanos(long nanos) {
+    return nanos == 0 ? ZERO : new Decimal(nanos);
+  }
+
+  @Nonnull
+  public static Decimal of(long units, int nano) {
+    return ofNanos(toNanos(units, nano));
+  }
+
+  @Nonnull
+  public static Decimal of(long units) {
+    return ofNanos(Math.multiplyExact(units, NANOS_PER_UNIT));
+  }
+
+  @Nonnull
+  public static Decimal fromQuotation(@Nonnull Quotation quotation) {
+    return of(quotation.getUnits(), quotation.getNano());
+  }
+
+  @Nonnull
+  public static Decimal fromMoneyValue(@Nonnull MoneyValue moneyValue) {
+    return of(moneyValue.getUnits(), moneyValue.getNano());
+  }
+
+  /**
+   * Конвертирует BigDecimal в Decimal. Знаки после девятого отбрасываются с округлением HALF_UP.
+   *
+   * @param value значение в формате BigDecimal
+   * @return Значение в формате Decimal
+   * @throws ArithmeticException если значение выходит за допустимый диапазон
+   */
+  @Nonnull
+  public static Decimal fromBigDecimal(@Nonnull BigDecimal value) {
+    return ofNanos(toNanos(value));
+  }
+
+  static long toNanos(long units, int nano) {
+    return Math.addExact(Math.multiplyExact(units, NANOS_PER_UNIT), nano);
+  }
+
+  static long toNanos(BigDecimal value) {
+    return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  static String toString(long nanos) {
+    var units = nanos / NANOS_PER_UNIT;
+    var nano = Math.abs(nanos % NANOS_PER_UNIT);
+    var sb = new StringBuilder(21);
+    if (nanos < 0 && units == 0) {
+      sb.append('-');
+    }
+    sb.append(units);
+    if (nano != 0) {
+      sb.append('.');
+      var digits = Long.toString(nano);
+      for (int i = digits.length(); i < SCALE; i++) {
+        sb.append('0');
+      }
+      var end = digits.length();
+      while (digits.charAt(end - 1) == '0') {
+        end--;
+      }
+      sb.append(digits, 0, end);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return Значение в миллиардных долях.
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * @return Целая часть значения, как в поле units у {@link Quotation}.
+   */
+  public long getUnits() {
+    return nanos / NANOS_PER_UNIT;
+  }
+
+  /**
+   * @return Дробная часть значения в миллиардных долях, как в поле nano у {@link Quotation}.
+   * Знак совпадает со знаком целой части.
+   */
+  public int getNano() {
+    return (int) (nanos % NANOS_PER_UNIT);
+  }
+
+  @Nonnull
+  public Decimal add(@Nonnull Decimal other) {
+    return ofNanos(Math.addExact(nanos, other.nanos));
+  }
+
+  @Nonnull
+  public Decimal subtract(@Nonnull Decimal other) {
+    return ofNanos(Math.subtractExact(nanos, other.nanos));
+  }
+
+  @Nonnull
+  public Decimal multiply(long multiplier) {
+    return ofNanos(Math.multiplyExact(nanos, multiplier));
+  }
+
+  @Nonnull
+  public Decimal negate() {
+    return ofNanos(Math.negateExact(nanos));
+  }
+
+  public int signum() {
+    return Long.signum(nanos);
+  }
+
+  public boolean isZero() {
+    return nanos == 0;
+  }
+
+  @Override
+  public int compareTo(@Nonnull Decimal other) {
+    return Long.compare(nanos, other.nanos);
+  }
+
+  @Nonnull
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(nanos, SCALE);
+  }
+
+  @Nonnull
+  public Quotation toQuotation() {
+    return Quotation.newBuilder()
+      .setUnits(getUnits())
+      .setNano(getNano())
+      .build();
+  }
+
+  @Nonnull
+  public MoneyValue toMoneyValue(@Nonnull String currency) {
+    return MoneyValue.newBuilder()
+      .setUnits(getUnits())
+      .setNano(getNano())
+      .setCurrency(currency.toLowerCase())
+      .build();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof Decimal && nanos == ((Decimal) o).nanos;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(nanos);
+  }
+
+  @Override
+  public String toString() {
+    return toString(nanos);
+  }
+}
@@ -0,0 +1,143 @@
+package ru.tinkoff.piapi.core.models;
+
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+
+import javax.annotation.Nonnull;
+import java.math.BigDecimal;
+
+/**
+ * Изменяемый вариант {@link Decimal} для накопления сумм в циклах без создания объектов.
+ * <p>
+ * Все операции изменяют текущий объект и возвращают его же. Объект не потокобезопасен.
+ */
+public final class MutableDecimal implements Comparable<MutableDecimal> {
+  private long nanos;
+
+  public MutableDecimal() {
+  }
+
+  public MutableDecimal(@Nonnull Decimal value) {
+    this.nanos = value.getNanos();
+  }
+
+  @Nonnull
+  public MutableDecimal setNanos(long nanos) {
+    this.nanos = nanos;
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal set(long units, int nano) {
+    this.nanos = Decimal.toNanos(units, nano);
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal set(@Nonnull Decimal value) {
+    this.nanos = value.getNanos();
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal set(@Nonnull Quotation value) {
+    return set(value.getUnits(), value.getNano());
+  }
+
+  @Nonnull
+  public MutableDecimal set(@Nonnull MoneyValue value) {
+    return set(value.getUnits(), value.getNano());
+  }
+
+  @Nonnull
+  public MutableDecimal set(@Nonnull BigDecimal value) {
+    this.nanos = Decimal.toNanos(value);
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal add(long units, int nano) {
+    this.nanos = Math.addExact(nanos, Decimal.toNanos(units, nano));
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal add(@Nonnull Decimal value) {
+    this.nanos = Math.addExact(nanos, value.getNanos());
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal add(@Nonnull Quotation value) {
+    return add(value.getUnits(), value.getNano());
+  }
+
+  @Nonnull
+  public MutableDecimal add(@Nonnull MoneyValue value) {
+    return add(value.getUnits(), value.getNano());
+  }
+
+  @Nonnull
+  public MutableDecimal subtract(@Nonnull Decimal value) {
+    this.nanos = Math.subtractExact(nanos, value.getNanos());
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal subtract(@Nonnull Quotation value) {
+    this.nanos = Math.subtractExact(nanos, Decimal.toNanos(value.getUnits(), value.getNano()));
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal multiply(long multiplier) {
+    this.nanos = Math.multiplyExact(nanos, multiplier);
+    return this;
+  }
+
+  @Nonnull
+  public MutableDecimal negate() {
+    this.nanos = Math.negateExact(nanos);
+    return this;
+  }
+
+  public long getNanos() {
+    return nanos;
+  }
+
+  public long getUnits() {
+    return nanos / Decimal.NANOS_PER_UNIT;
+  }
+
+  public int getNano() {
+    return (int) (nanos % Decimal.NANOS_PER_UNIT);
+  }
+
+  public int signum() {
+    return Long.signum(nanos);
+  }
+
+  public int compareTo(@Nonnull Decimal other) {
+    return Long.compare(nanos, other.getNanos());
+  }
+
+  @Override
+  public int compareTo(@Nonnull MutableDecimal other) {
+    return Long.compare(nanos, other.nanos);
+  }
+
+  @Nonnull
+  public Decimal toDecimal() {
+    return Decimal.ofNanos(nanos);
+  }
+
+  @Nonnull
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(nanos, Decimal.SCALE);
+  }
+
+  @Override
+  public String toString() {
+    return Decimal.toString(nanos);
+  }
+}
@@ -2,43 +2,186 @@ package ru.tinkoff.piapi.core.models;
 
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
-import lombok.Getter;
 import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
 import ru.tinkoff.piapi.core.utils.MapperUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.util.List;
 
-@Getter
+/**
+ * Портфель по счёту.
+ * <p>
+ * Портфель, полученный из {@link #fromResponse}, конвертирует поля ответа сервера только при первом
+ * обращении к соответствующему геттеру и запоминает результат. Позиции портфеля также конвертируются лениво.
+ */
 @EqualsAndHashCode
-@Builder
 public class Portfolio {
-  private final Money totalAmountShares;
-  private final Money totalAmountBonds;
-  private final Money totalAmountEtfs;
-  private final Money totalAmountCurrencies;
-  private final Money totalAmountFutures;
-  private final Money totalAmountPortfolio;
-  private final BigDecimal expectedYield;
-  private final List<Position> positions;
-  private final Money totalAmountSp;
-  private final Money totalAmountOptions;
-  private final List<VirtualPosition> virtualPositions;
+  @EqualsAndHashCode.Exclude
+  private final PortfolioResponse response;
+  private volatile Money totalAmountShares;
+  private volatile Money totalAmountBonds;
+  private volatile Money totalAmountEtfs;
+  private volatile Money totalAmountCurrencies;
+  private volatile Money totalAmountFutures;
+  private volatile Money totalAmountPortfolio;
+  private volatile BigDecimal expectedYield;
+  private volatile List<Position> positions;
+  private volatile Money totalAmountSp;
+  private volatile Money totalAmountOptions;
+  private volatile List<VirtualPosition> virtualPositions;
 
+  @Builder
+  private Portfolio(Money totalAmountShares,
+                    Money totalAmountBonds,
+                    Money totalAmountEtfs,
+                    Money totalAmountCurrencies,
+                    Money totalAmountFutures,
+                    Money totalAmountPortfolio,
+                    BigDecimal expectedYield,
+                    List<Position> positions,
+                    Money totalAmountSp,
+                    Money totalAmountOptions,
+                    List<VirtualPosition> virtualPositions) {
+    this.response = null;
+    this.totalAmountShares = totalAmountShares;
+    this.totalAmountBonds = totalAmountBonds;
+    this.totalAmountEtfs = totalAmountEtfs;
+    this.totalAmountCurrencies = totalAmountCurrencies;
+    this.totalAmountFutures = totalAmountFutures;
+    this.totalAmountPortfolio = totalAmountPortfolio;
+    this.expectedYield = expectedYield;
+    this.positions = positions;
+    this.totalAmountSp = totalAmountSp;
+    this.totalAmountOptions = totalAmountOptions;
+    this.virtualPositions = virtualPositions;
+  }
+
+  private Portfolio(@Nonnull PortfolioResponse response) {
+    this.response = response;
+  }
+
+  @Nonnull
   public static Portfolio fromResponse(@Nonnull PortfolioResponse portfolioResponse) {
-    return Portfolio.builder()
-      .totalAmountShares(Money.fromResponse(portfolioResponse.getTotalAmountShares()))
-      .totalAmountBonds(Money.fromResponse(portfolioResponse.getTotalAmountBonds()))
-      .totalAmountEtfs(Money.fromResponse(portfolioResponse.getTotalAmountEtf()))
-      .totalAmountCurrencies(Money.fromResponse(portfolioResponse.getTotalAmountCurrencies()))
-      .totalAmountFutures(Money.fromResponse(portfolioResponse.getTotalAmountFutures()))
-      .totalAmountOptions(Money.fromResponse(portfolioResponse.getTotalAmountOptions()))
-      .totalAmountSp(Money.fromResponse(portfolioResponse.getTotalAmountSp()))
-      .totalAmountPortfolio(Money.fromResponse(portfolioResponse.getTotalAmountPortfolio()))
-      .expectedYield(MapperUtils.quotationToBigDecimal(portfolioResponse.getExpectedYield()))
-      .virtualPositions(VirtualPosition.fromResponse(portfolioResponse.getVirtualPositionsList()))
-      .positions(Position.fromResponse(portfolioResponse.getPositionsList()))
-      .build();
+    return new Portfolio(portfolioResponse);
+  }
+
+  /**
+   * @return Исходный ответ сервера или null, если портфель создан через {@link #builder()}.
+   */
+  @Nullable
+  public PortfolioResponse getResponse() {
+    return response;
+  }
+
+  public Money getTotalAmountShares() {
+    var value = totalAmountShares;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountShares());
+      totalAmountShares = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountBonds() {
+    var value = totalAmountBonds;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountBonds());
+      totalAmountBonds = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountEtfs() {
+    var value = totalAmountEtfs;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountEtf());
+      totalAmountEtfs = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountCurrencies() {
+    var value = totalAmountCurrencies;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountCurrencies());
+      totalAmountCurrencies = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountFutures() {
+    var value = totalAmountFutures;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountFutures());
+      totalAmountFutures = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountPortfolio() {
+    var value = totalAmountPortfolio;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountPortfolio());
+      totalAmountPortfolio = value;
+    }
+    return value;
+  }
+
+  public BigDecimal getExpectedYield() {
+    var value = expectedYield;
+    if (value == null && response != null) {
+      value = MapperUtils.quotationToBigDecimal(response.getExpectedYield());
+      expectedYield = value;
+    }
+    return value;
+  }
+
+  /**
+   * @return Текущая относительная доходность портфеля, см. {@link #getExpectedYield()}. Для портфеля
+   * из {@link #fromResponse} читается из ответа без создания {@link BigDecimal}.
+   */
+  @Nonnull
+  public Decimal getExpectedYieldDecimal() {
+    return response != null
+      ? Decimal.fromQuotation(response.getExpectedYield())
+      : Decimal.fromBigDecimal(getExpectedYield());
+  }
+
+  public List<Position> getPositions() {
+    var value = positions;
+    if (value == null && response != null) {
+      value = Position.fromResponse(response.getPositionsList());
+      positions = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountSp() {
+    var value = totalAmountSp;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountSp());
+      totalAmountSp = value;
+    }
+    return value;
+  }
+
+  public Money getTotalAmountOptions() {
+    var value = totalAmountOptions;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getTotalAmountOptions());
+      totalAmountOptions = value;
+    }
+    return value;
+  }
+
+  public List<VirtualPosition> getVirtualPositions() {
+    var value = virtualPositions;
+    if (value == null && response != null) {
+      value = VirtualPosition.fromResponse(response.getVirtualPositionsList());
+      virtualPositions = value;
+    }
+    return value;
   }
 }
@@ -2,7 +2,6 @@ package ru.tinkoff.piapi.core.models;
 
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
-import lombok.Getter;
 import ru.tinkoff.piapi.contract.v1.PortfolioPosition;
 import ru.tinkoff.piapi.core.utils.MapperUtils;
 
@@ -11,21 +10,32 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@Getter
+/**
+ * Позиция портфеля.
+ * <p>
+ * Позиция, полученная из {@link #fromResponse}, конвертирует денежные и числовые поля только при первом
+ * обращении к соответствующему геттеру и запоминает результат.
+ * <p>
+ * Геттеры с суффиксом Decimal возвращают значения в виде {@link Decimal} и для позиции из {@link #fromResponse}
+ * читают поля ответа напрямую, без создания {@link BigDecimal}. Они предназначены для частых расчётов,
+ * например переоценки позиций на каждое изменение цены.
+ */
 @EqualsAndHashCode
-@Builder
 public class Position {
+  @EqualsAndHashCode.Exclude
+  private final PortfolioPosition response;
   private final String figi;
   private final String instrumentType;
-  private final BigDecimal quantity;
-  private final Money averagePositionPrice;
-  private final BigDecimal expectedYield;
-  private final Money currentNkd;
-  private final BigDecimal averagePositionPricePt;
-  private final Money currentPrice;
-  private final Money averagePositionPriceFifo;
-  private final BigDecimal quantityLots;
+  private volatile BigDecimal quantity;
+  private volatile Money averagePositionPrice;
+  private volatile BigDecimal expectedYield;
+  private volatile Money currentNkd;
+  private volatile BigDecimal averagePositionPricePt;
+  private volatile Money currentPrice;
+  private volatile Money averagePositionPriceFifo;
+  private volatile BigDecimal quantityLots;
 
+  @Builder
   private Position(@Nonnull String figi,
                    @Nonnull String instrumentType,
                    @Nonnull BigDecimal quantity,
@@ -36,6 +46,7 @@ public class Position {
                    @Nonnull Money currentPrice,
                    @Nonnull Money averagePositionPriceFifo,
                    @Nonnull BigDecimal quantityLots) {
+    this.response = null;
     this.figi = figi;
     this.instrumentType = instrumentType;
     this.quantity = quantity;
@@ -48,23 +59,136 @@ public class Position {
     this.quantityLots = quantityLots;
   }
 
+  private Position(@Nonnull PortfolioPosition response) {
+    this.response = response;
+    this.figi = response.getFigi();
+    this.instrumentType = response.getInstrumentType();
+  }
+
   @Nonnull
   public static Position fromResponse(@Nonnull PortfolioPosition portfolioPosition) {
-    return new Position(
-      portfolioPosition.getFigi(),
-      portfolioPosition.getInstrumentType(),
-      MapperUtils.quotationToBigDecimal(portfolioPosition.getQuantity()),
-      Money.fromResponse(portfolioPosition.getAveragePositionPrice()),
-      MapperUtils.quotationToBigDecimal(portfolioPosition.getExpectedYield()),
-      Money.fromResponse(portfolioPosition.getCurrentNkd()),
-      MapperUtils.quotationToBigDecimal(portfolioPosition.getAveragePositionPricePt()),
-      Money.fromResponse(portfolioPosition.getCurrentPrice()),
-      Money.fromResponse(portfolioPosition.getAveragePositionPriceFifo()),
-      MapperUtils.quotationToBigDecimal(portfolioPosition.getQuantityLots())
-    );
+    return new Position(portfolioPosition);
   }
 
   public static List<Position> fromResponse(@Nonnull List<PortfolioPosition> portfolioPositions) {
     return portfolioPositions.stream().map(Position::fromResponse).collect(Collectors.toList());
   }
+
+  public String getFigi() {
+    return figi;
+  }
+
+  public String getInstrumentType() {
+    return instrumentType;
+  }
+
+  public BigDecimal getQuantity() {
+    var value = quantity;
+    if (value == null && response != null) {
+      value = MapperUtils.quotationToBigDecimal(response.getQuantity());
+      quantity = value;
+    }
+    return value;
+  }
+
+  public Money getAveragePositionPrice() {
+    var value = averagePositionPrice;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getAveragePositionPrice());
+      averagePositionPrice = value;
+    }
+    return value;
+  }
+
+  public BigDecimal getExpectedYield() {
+    var value = expectedYield;
+    if (value == null && response != null) {
+      value = MapperUtils.quotationToBigDecimal(response.getExpectedYield());
+      expectedYield = value;
+    }
+    return value;
+  }
+
+  public Money getCurrentNkd() {
+    var value = currentNkd;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getCurrentNkd());
+      currentNkd = value;
+    }
+    return value;
+  }
+
+  public BigDecimal getAveragePositionPricePt() {
+    var value = averagePositionPricePt;
+    if (value == null && response != null) {
+      value = MapperUtils.quotationToBigDecimal(response.getAveragePositionPricePt());
+      averagePositionPricePt = value;
+    }
+    return value;
+  }
+
+  public Money getCurrentPrice() {
+    var value = currentPrice;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getCurrentPrice());
+      currentPrice = value;
+    }
+    return value;
+  }
+
+  public Money getAveragePositionPriceFifo() {
+    var value = averagePositionPriceFifo;
+    if (value == null && response != null) {
+      value = Money.fromResponse(response.getAveragePositionPriceFifo());
+      averagePositionPriceFifo = value;
+    }
+    return value;
+  }
+
+  public BigDecimal getQuantityLots() {
+    var value = quantityLots;
+    if (value == null && response != null) {
+      value = MapperUtils.quotationToBigDecimal(response.getQuantityLots());
+      quantityLots = value;
+    }
+    return value;
+  }
+
+  /**
+   * @return Количество инструмента в штуках, см. {@link #getQuantity()}.
+   */
+  @Nonnull
+  public Decimal getQuantityDecimal() {
+    return response != null ? Decimal.fromQuotation(response.getQuantity()) : Decimal.fromBigDecimal(getQuantity());
+  }
+
+  /**
+   * @return Средневзвешенная цена позиции без учёта валюты, см. {@link #getAveragePositionPrice()}.
+   */
+  @Nonnull
+  public Decimal getAveragePositionPriceDecimal() {
+    return response != null
+      ? Decimal.fromMoneyValue(response.getAveragePositionPrice())
+      : Decimal.fromBigDecimal(getAveragePositionPrice().getValue());
+  }
+
+  /**
+   * @return Текущая цена за 1 инструмент без учёта валюты, см. {@link #getCurrentPrice()}.
+   */
+  @Nonnull
+  public Decimal getCurrentPriceDecimal() {
+    return response != null
+      ? Decimal.fromMoneyValue(response.getCurrentPrice())
+      : Decimal.fromBigDecimal(getCurrentPrice().getValue());
+  }
+
+  /**
+   * @return Текущая рассчитанная доходность позиции, см. {@link #getExpectedYield()}.
+   */
+  @Nonnull
+  public Decimal getExpectedYieldDecimal() {
+    return response != null
+      ? Decimal.fromQuotation(response.getExpectedYield())
+      : Decimal.fromBigDecimal(getExpectedYield());
+  }
 }
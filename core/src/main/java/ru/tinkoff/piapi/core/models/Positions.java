@@ -7,49 +7,66 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Позиции по счёту.
+ * <p>
+ * Списки позиций конвертируются из ответа сервера только при первом обращении к соответствующему геттеру,
+ * результат запоминается.
+ */
 public class Positions {
-  private final List<Money> money;
-  private final List<Money> blocked;
-  private final List<SecurityPosition> securities;
+  private final PositionsResponse response;
   private final boolean limitsLoadingInProgress;
-  private final List<FuturePosition> futures;
+  private volatile List<Money> money;
+  private volatile List<Money> blocked;
+  private volatile List<SecurityPosition> securities;
+  private volatile List<FuturePosition> futures;
 
   @Nonnull
   public static Positions fromResponse(@Nonnull PositionsResponse positionsResponse) {
-    return new Positions(
-      positionsResponse.getMoneyList().stream().map(Money::fromResponse).collect(Collectors.toList()),
-      positionsResponse.getBlockedList().stream().map(Money::fromResponse).collect(Collectors.toList()),
-      positionsResponse.getSecuritiesList().stream().map(SecurityPosition::fromResponse).collect(Collectors.toList()),
-      positionsResponse.getLimitsLoadingInProgress(),
-      positionsResponse.getFuturesList().stream().map(FuturePosition::fromResponse).collect(Collectors.toList())
-    );
+    return new Positions(positionsResponse);
   }
 
-  private Positions(@Nonnull List<Money> money,
-            @Nonnull List<Money> blocked,
-            @Nonnull List<SecurityPosition> securities,
-            boolean limitsLoadingInProgress,
-            @Nonnull List<FuturePosition> futures) {
-    this.money = money;
-    this.blocked = blocked;
-    this.securities = securities;
-    this.limitsLoadingInProgress = limitsLoadingInProgress;
-    this.futures = futures;
+  private Positions(@Nonnull PositionsResponse response) {
+    this.response = response;
+    this.limitsLoadingInProgress = response.getLimitsLoadingInProgress();
+  }
+
+  /**
+   * @return Исходный ответ сервера.
+   */
+  @Nonnull
+  public PositionsResponse getResponse() {
+    return response;
   }
 
   @Nonnull
   public List<Money> getMoney() {
-    return money;
+    var value = money;
+    if (value == null) {
+      value = response.getMoneyList().stream().map(Money::fromResponse).collect(Collectors.toList());
+      money = value;
+    }
+    return value;
   }
 
   @Nonnull
   public List<Money> getBlocked() {
-    return blocked;
+    var value = blocked;
+    if (value == null) {
+      value = response.getBlockedList().stream().map(Money::fromResponse).collect(Collectors.toList());
+      blocked = value;
+    }
+    return value;
   }
 
   @Nonnull
   public List<SecurityPosition> getSecurities() {
-    return securities;
+    var value = securities;
+    if (value == null) {
+      value = response.getSecuritiesList().stream().map(SecurityPosition::fromResponse).collect(Collectors.toList());
+      securities = value;
+    }
+    return value;
   }
 
   public boolean isLimitsLoadingInProgress() {
@@ -58,7 +75,12 @@ public class Positions {
 
   @Nonnull
   public List<FuturePosition> getFutures() {
-    return futures;
+    var value = futures;
+    if (value == null) {
+      value = response.getFuturesList().stream().map(FuturePosition::fromResponse).collect(Collectors.toList());
+      futures = value;
+    }
+    return value;
   }
 
   @Override
@@ -66,13 +88,13 @@ public class Positions {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     Positions positions = (Positions) o;
-    return limitsLoadingInProgress == positions.limitsLoadingInProgress && money.equals(positions.money) &&
-      blocked.equals(positions.blocked) && securities.equals(positions.securities) &&
-      futures.equals(positions.futures);
+    return limitsLoadingInProgress == positions.limitsLoadingInProgress && getMoney().equals(positions.getMoney()) &&
+      getBlocked().equals(positions.getBlocked()) && getSecurities().equals(positions.getSecurities()) &&
+      getFutures().equals(positions.getFutures());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(money, blocked, securities, limitsLoadingInProgress, futures);
+    return Objects.hash(getMoney(), getBlocked(), getSecurities(), limitsLoadingInProgress, getFutures());
   }
 }
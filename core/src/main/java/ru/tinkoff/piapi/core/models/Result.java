@@ -0,0 +1,117 @@
+package ru.tinkoff.piapi.core.models;
+
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.utils.Helpers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
+/**
+ * Результат вызова API: значение при успехе или код и описание ошибки при неудаче.
+ * <p>
+ * Предназначен для мест, где ошибки ожидаемы и частотны: неудачный вызов не создаёт исключение,
+ * пока оно явно не запрошено через {@link #toException()} или {@link #getOrThrow()}.
+ *
+ * @param <T> Тип значения.
+ */
+public final class Result<T> {
+  private final T value;
+  private final String code;
+  private final String description;
+  private final Throwable cause;
+
+  private Result(T value, String code, String description, Throwable cause) {
+    this.value = value;
+    this.code = code;
+    this.description = description;
+    this.cause = cause;
+  }
+
+  @Nonnull
+  public static <T> Result<T> success(@Nonnull T value) {
+    return new Result<>(value, null, null, null);
+  }
+
+  @Nonnull
+  public static <T> Result<T> failure(@Nonnull String code, @Nonnull String description, @Nullable Throwable cause) {
+    return new Result<>(null, code, description, cause);
+  }
+
+  public boolean isSuccess() {
+    return code == null;
+  }
+
+  /**
+   * @return Значение или null, если вызов неудачен.
+   */
+  @Nullable
+  public T getValue() {
+    return value;
+  }
+
+  /**
+   * @return Код ошибки API или null, если вызов успешен.
+   */
+  @Nullable
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * @return Описание ошибки или null, если вызов успешен.
+   */
+  @Nullable
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * @return Исходное исключение gRPC или null, если вызов успешен.
+   */
+  @Nullable
+  public Throwable getCause() {
+    return cause;
+  }
+
+  /**
+   * Преобразование значения успешного результата. Неудачный результат возвращается с той же ошибкой.
+   *
+   * @param mapper Функция преобразования значения.
+   * @param <R>    Тип нового значения.
+   * @return Результат с преобразованным значением.
+   */
+  @Nonnull
+  public <R> Result<R> map(@Nonnull Function<? super T, ? extends R> mapper) {
+    return isSuccess() ? success(mapper.apply(value)) : new Result<>(null, code, description, cause);
+  }
+
+  /**
+   * @return Значение при успехе.
+   * @throws ApiRuntimeException если вызов неудачен.
+   */
+  @Nonnull
+  public T getOrThrow() {
+    if (!isSuccess()) {
+      throw toException();
+    }
+    return value;
+  }
+
+  /**
+   * @return Исключение, соответствующее ошибке.
+   * @throws IllegalStateException если вызов успешен.
+   */
+  @Nonnull
+  public ApiRuntimeException toException() {
+    if (isSuccess()) {
+      throw new IllegalStateException("Вызов завершился успешно.");
+    }
+    return new ApiRuntimeException(description, code, cause, !Helpers.isStacklessExceptions());
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "Result{value=" + value + "}" : "Result{code=" + code + ", description=" + description + "}";
+  }
+}
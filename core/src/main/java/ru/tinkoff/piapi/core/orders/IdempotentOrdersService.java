@@ -0,0 +1,277 @@
+package ru.tinkoff.piapi.core.orders;
+
+import com.google.protobuf.Message;
+import io.grpc.Status;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderType;
+import ru.tinkoff.piapi.contract.v1.PostOrderRequest;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.PriceType;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.contract.v1.ReplaceOrderRequest;
+import ru.tinkoff.piapi.core.OrdersService;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.utils.Helpers;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Выставление и замена заявок с защитой от повторной отправки.
+ * <p>
+ * Запросы запоминаются по идентификатору заявки (для PostOrder) или ключу идемпотентности (для ReplaceOrder)
+ * вместе с их {@link CompletableFuture}. Повторный вызов с тем же идентификатором, например после таймаута
+ * или переподключения, не отправляет запрос, а возвращает известный результат или присоединяется
+ * к выполняющемуся вызову. Повтор с тем же идентификатором, но другими параметрами заявки отклоняется.
+ * <p>
+ * Запоминаются успешные ответы и окончательные отказы сервера (например, INVALID_ARGUMENT). После ошибок,
+ * при которых исход запроса неизвестен (UNAVAILABLE, DEADLINE_EXCEEDED и т.п.), запись удаляется, и повторный
+ * вызов отправляет запрос снова; от двойного выставления в этом случае защищает идентификатор заявки на сервере.
+ * Записи хранятся заданное время, количество записей ограничено.
+ */
+public class IdempotentOrdersService {
+  private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+  private static final int DEFAULT_MAX_SIZE = 10_000;
+
+  private final OrdersService ordersService;
+  private final long ttlNanos;
+  private final int maxSize;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+  public IdempotentOrdersService(@Nonnull OrdersService ordersService) {
+    this(ordersService, DEFAULT_TTL, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param ordersService Сервис торговых поручений.
+   * @param ttl           Время хранения записи о запросе.
+   * @param maxSize       Максимальное количество хранимых записей.
+   */
+  public IdempotentOrdersService(@Nonnull OrdersService ordersService, @Nonnull Duration ttl, int maxSize) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("Время жизни записей кэша должно быть положительным.");
+    }
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Размер кэша должен быть положительным числом.");
+    }
+    this.ordersService = ordersService;
+    this.ttlNanos = ttl.toNanos();
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Выставление (асинхронное) заявки, см. {@link OrdersService#postOrder}.
+   *
+   * @param instrumentId figi / instrument_uid инструмента
+   * @param quantity     количество лотов
+   * @param price        цена (для лимитной заявки)
+   * @param direction    покупка/продажа
+   * @param accountId    id аккаунта
+   * @param type         рыночная / лимитная заявка
+   * @param orderId      уникальный идентификатор заявки; для повтора нужно передать тот же идентификатор
+   * @return Информация о выставлении поручения
+   * @throws IllegalArgumentException если идентификатор заявки пустой.
+   */
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> postOrder(@Nonnull String instrumentId,
+                                                        long quantity,
+                                                        @Nonnull Quotation price,
+                                                        @Nonnull OrderDirection direction,
+                                                        @Nonnull String accountId,
+                                                        @Nonnull OrderType type,
+                                                        @Nonnull String orderId) {
+    if (orderId.isBlank()) {
+      throw new IllegalArgumentException("Идентификатор заявки не может быть пустым.");
+    }
+    var finalOrderId = Helpers.preprocessInputOrderId(orderId);
+    var request = PostOrderRequest.newBuilder()
+      .setInstrumentId(instrumentId)
+      .setQuantity(quantity)
+      .setPrice(price)
+      .setDirection(direction)
+      .setAccountId(accountId)
+      .setOrderType(type)
+      .setOrderId(finalOrderId)
+      .build();
+    return call("post:" + accountId + ":" + finalOrderId, request,
+      () -> ordersService.postOrder(instrumentId, quantity, price, direction, accountId, type, finalOrderId));
+  }
+
+  /**
+   * Выставление (синхронное) заявки, см. {@link #postOrder}.
+   */
+  @Nonnull
+  public PostOrderResponse postOrderSync(@Nonnull String instrumentId,
+                                         long quantity,
+                                         @Nonnull Quotation price,
+                                         @Nonnull OrderDirection direction,
+                                         @Nonnull String accountId,
+                                         @Nonnull OrderType type,
+                                         @Nonnull String orderId) {
+    return join(postOrder(instrumentId, quantity, price, direction, accountId, type, orderId));
+  }
+
+  /**
+   * Замена (асинхронная) заявки, см. {@link OrdersService#replaceOrder}.
+   *
+   * @param accountId      Номер счета
+   * @param quantity       Количество лотов
+   * @param price          Цена за 1 инструмент
+   * @param idempotencyKey Новый идентификатор запроса выставления поручения; для повтора нужно передать тот же ключ
+   * @param orderId        Идентификатор заявки на бирже
+   * @param priceType      Тип цены. Пока не используется (можно передавать null)
+   * @return Информация о выставлении поручения
+   * @throws IllegalArgumentException если ключ идемпотентности пустой.
+   */
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> replaceOrder(@Nonnull String accountId,
+                                                           long quantity,
+                                                           @Nonnull Quotation price,
+                                                           @Nonnull String idempotencyKey,
+                                                           @Nonnull String orderId,
+                                                           PriceType priceType) {
+    if (idempotencyKey.isBlank()) {
+      throw new IllegalArgumentException("Ключ идемпотентности не может быть пустым.");
+    }
+    var request = ReplaceOrderRequest.newBuilder()
+      .setAccountId(accountId)
+      .setPrice(price)
+      .setQuantity(quantity)
+      .setIdempotencyKey(idempotencyKey)
+      .setOrderId(orderId)
+      .setPriceType(priceType == null ? PriceType.PRICE_TYPE_UNSPECIFIED : priceType)
+      .build();
+    return call("replace:" + accountId + ":" + idempotencyKey, request,
+      () -> ordersService.replaceOrder(accountId, quantity, price, idempotencyKey, orderId, priceType));
+  }
+
+  /**
+   * Замена (синхронная) заявки, см. {@link #replaceOrder}.
+   */
+  @Nonnull
+  public PostOrderResponse replaceOrderSync(@Nonnull String accountId,
+                                            long quantity,
+                                            @Nonnull Quotation price,
+                                            @Nonnull String idempotencyKey,
+                                            @Nonnull String orderId,
+                                            PriceType priceType) {
+    return join(replaceOrder(accountId, quantity, price, idempotencyKey, orderId, priceType));
+  }
+
+  /**
+   * @return Количество хранимых записей о запросах.
+   */
+  public synchronized int size() {
+    evictExpired(System.nanoTime());
+    return entries.size();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  private CompletableFuture<PostOrderResponse> call(String key,
+                                                    Message request,
+                                                    Supplier<CompletableFuture<PostOrderResponse>> send) {
+    var created = new Entry(request, System.nanoTime());
+    synchronized (this) {
+      evictExpired(created.createdAt);
+      var existing = entries.get(key);
+      if (existing != null) {
+        if (!existing.request.equals(request)) {
+          return CompletableFuture.failedFuture(new IllegalArgumentException(
+            "Идентификатор заявки уже использован для заявки с другими параметрами."));
+        }
+        return existing.result.thenApply(response -> response);
+      }
+      entries.put(key, created);
+      if (entries.size() > maxSize) {
+        var eldest = entries.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    CompletableFuture<PostOrderResponse> call;
+    try {
+      call = send.get();
+    } catch (RuntimeException e) {
+      remove(key, created);
+      throw e;
+    }
+    call.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        if (!isFinal(throwable)) {
+          remove(key, created);
+        }
+        created.result.completeExceptionally(throwable);
+      } else {
+        created.result.complete(response);
+      }
+    });
+    return created.result.thenApply(response -> response);
+  }
+
+  private synchronized void remove(String key, Entry entry) {
+    entries.remove(key, entry);
+  }
+
+  private void evictExpired(long now) {
+    var iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      if (now - entry.createdAt < ttlNanos) {
+        return;
+      }
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Окончательный отказ сервера, после которого повтор того же запроса завершится так же.
+   */
+  private static boolean isFinal(Throwable throwable) {
+    var cause = throwable instanceof CompletionException && throwable.getCause() != null
+      ? throwable.getCause()
+      : throwable;
+    if (!(cause instanceof ApiRuntimeException)) {
+      return false;
+    }
+    switch (Status.fromThrowable(((ApiRuntimeException) cause).getThrowable()).getCode()) {
+      case INVALID_ARGUMENT:
+      case NOT_FOUND:
+      case ALREADY_EXISTS:
+      case PERMISSION_DENIED:
+      case FAILED_PRECONDITION:
+      case OUT_OF_RANGE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static PostOrderResponse join(CompletableFuture<PostOrderResponse> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static final class Entry {
+    private final Message request;
+    private final long createdAt;
+    private final CompletableFuture<PostOrderResponse> result = new CompletableFuture<>();
+
+    Entry(Message request, long createdAt) {
+      this.request = request;
+      this.createdAt = createdAt;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package ru.tinkoff.piapi.core.orders;
+
+import ru.tinkoff.piapi.core.utils.ErrorCatalog;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Результат локальной проверки заявки {@link OrderValidator}.
+ * <p>
+ * Каждому отказу соответствует код ошибки API, которую вернул бы сервер на такую заявку.
+ */
+public enum OrderCheck {
+  OK(null),
+  UNKNOWN_INSTRUMENT("50002"),
+  API_TRADE_NOT_AVAILABLE("30052"),
+  DIRECTION_NOT_AVAILABLE("30079"),
+  TRADING_NOT_AVAILABLE("30079"),
+  ONLY_LIMIT_ORDER_AVAILABLE("30068"),
+  INVALID_QUANTITY("30080"),
+  INVALID_PRICE("30078");
+
+  private final String code;
+
+  OrderCheck(@Nullable String code) {
+    this.code = code;
+  }
+
+  public boolean isOk() {
+    return this == OK;
+  }
+
+  /**
+   * @return Код ошибки API или null для {@link #OK}.
+   */
+  @Nullable
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * @return Описание ошибки из справочника ошибок API.
+   */
+  @Nonnull
+  public String getDescription() {
+    var index = ErrorCatalog.indexOf(code);
+    return index < 0 ? "" : ErrorCatalog.description(index);
+  }
+}
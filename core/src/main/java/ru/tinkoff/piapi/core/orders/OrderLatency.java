@@ -0,0 +1,82 @@
+package ru.tinkoff.piapi.core.orders;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Время выставления одной заявки через {@link OrderSubmitter}.
+ */
+public final class OrderLatency {
+  private final String accountId;
+  private final String instrumentId;
+  private final String orderId;
+  private final long queueNanos;
+  private final long callNanos;
+  private final boolean successful;
+
+  OrderLatency(@Nonnull String accountId,
+               @Nonnull String instrumentId,
+               @Nonnull String orderId,
+               long queueNanos,
+               long callNanos,
+               boolean successful) {
+    this.accountId = accountId;
+    this.instrumentId = instrumentId;
+    this.orderId = orderId;
+    this.queueNanos = queueNanos;
+    this.callNanos = callNanos;
+    this.successful = successful;
+  }
+
+  @Nonnull
+  public String getAccountId() {
+    return accountId;
+  }
+
+  @Nonnull
+  public String getInstrumentId() {
+    return instrumentId;
+  }
+
+  /**
+   * @return Идентификатор заявки, переданный в PostOrder.
+   */
+  @Nonnull
+  public String getOrderId() {
+    return orderId;
+  }
+
+  /**
+   * @return Время ожидания в очереди до отправки запроса.
+   */
+  @Nonnull
+  public Duration getQueueTime() {
+    return Duration.ofNanos(queueNanos);
+  }
+
+  /**
+   * @return Время от отправки запроса до получения ответа.
+   */
+  @Nonnull
+  public Duration getCallTime() {
+    return Duration.ofNanos(callNanos);
+  }
+
+  @Nonnull
+  public Duration getTotalTime() {
+    return Duration.ofNanos(queueNanos + callNanos);
+  }
+
+  /**
+   * @return true, если сервер принял заявку.
+   */
+  public boolean isSuccessful() {
+    return successful;
+  }
+
+  @Override
+  public String toString() {
+    return "OrderLatency{orderId=" + orderId + ", queueTime=" + getQueueTime() + ", callTime=" + getCallTime()
+      + ", successful=" + successful + "}";
+  }
+}
@@ -0,0 +1,262 @@
+package ru.tinkoff.piapi.core.orders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderType;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.OrdersService;
+import ru.tinkoff.piapi.core.models.Decimal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Очереди выставления заявок по счетам с ограничением количества одновременных запросов.
+ * <p>
+ * Для каждого счёта одновременно выполняется не больше заданного количества запросов PostOrder.
+ * Заявки по одному инструменту отправляются строго в порядке постановки в очередь: следующая заявка
+ * по инструменту отправляется только после ответа на предыдущую. Заявки по разным инструментам
+ * отправляются параллельно, инструменты обслуживаются по очереди, поэтому длинная очередь по одному
+ * инструменту не задерживает остальные.
+ * <p>
+ * Ошибка выставления заявки не останавливает очередь: она возвращается через {@link CompletableFuture}
+ * этой заявки, а следующие заявки отправляются как обычно.
+ */
+public class OrderSubmitter {
+  private static final Logger logger = LoggerFactory.getLogger(OrderSubmitter.class);
+
+  private final OrdersService ordersService;
+  private final int window;
+  private final Map<String, AccountQueue> queues = new ConcurrentHashMap<>();
+  private final List<Consumer<OrderLatency>> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param ordersService Сервис торговых поручений.
+   * @param window        Максимальное количество одновременных запросов PostOrder по одному счёту.
+   */
+  public OrderSubmitter(@Nonnull OrdersService ordersService, int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("Количество одновременных запросов должно быть положительным числом.");
+    }
+    this.ordersService = ordersService;
+    this.window = window;
+  }
+
+  /**
+   * Постановка заявки в очередь счёта.
+   *
+   * @param instrumentId figi / instrument_uid инструмента
+   * @param quantity     количество лотов
+   * @param price        цена (для лимитной заявки)
+   * @param direction    покупка/продажа
+   * @param accountId    id аккаунта
+   * @param type         рыночная / лимитная заявка
+   * @param orderId      уникальный идентификатор заявки; если не задан, создаётся при постановке в очередь
+   * @return Информация о выставлении поручения
+   */
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> submit(@Nonnull String instrumentId,
+                                                     long quantity,
+                                                     @Nonnull Quotation price,
+                                                     @Nonnull OrderDirection direction,
+                                                     @Nonnull String accountId,
+                                                     @Nonnull OrderType type,
+                                                     @Nullable String orderId) {
+    var task = new Task(instrumentId, quantity, price, direction, accountId, type,
+      orderId == null ? UUID.randomUUID().toString() : orderId);
+    var queue = queues.computeIfAbsent(accountId, id -> new AccountQueue());
+    queue.add(task);
+    queue.pump();
+    return task.result;
+  }
+
+  /**
+   * Постановка заявки с ценой в формате {@link Decimal} в очередь счёта,
+   * см. {@link #submit(String, long, Quotation, OrderDirection, String, OrderType, String)}.
+   */
+  @Nonnull
+  public CompletableFuture<PostOrderResponse> submit(@Nonnull String instrumentId,
+                                                     long quantity,
+                                                     @Nonnull Decimal price,
+                                                     @Nonnull OrderDirection direction,
+                                                     @Nonnull String accountId,
+                                                     @Nonnull OrderType type,
+                                                     @Nullable String orderId) {
+    return submit(instrumentId, quantity, price.toQuotation(), direction, accountId, type, orderId);
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Количество заявок счёта, ожидающих отправки.
+   */
+  public int queued(@Nonnull String accountId) {
+    var queue = queues.get(accountId);
+    return queue == null ? 0 : queue.queued();
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Количество запросов PostOrder по счёту, ожидающих ответа.
+   */
+  public int inFlight(@Nonnull String accountId) {
+    var queue = queues.get(accountId);
+    return queue == null ? 0 : queue.inFlight();
+  }
+
+  /**
+   * @param listener Слушатель времени выставления заявок. Вызывается после ответа на каждую заявку.
+   */
+  public void addLatencyListener(@Nonnull Consumer<OrderLatency> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeLatencyListener(@Nonnull Consumer<OrderLatency> listener) {
+    listeners.remove(listener);
+  }
+
+  private void publish(OrderLatency latency) {
+    for (var listener : listeners) {
+      try {
+        listener.accept(latency);
+      } catch (RuntimeException e) {
+        logger.warn("Ошибка в слушателе времени выставления заявки {}.", latency.getOrderId(), e);
+      }
+    }
+  }
+
+  /**
+   * Очередь заявок одного счёта.
+   * <p>
+   * Инструмент находится в очереди готовых, если по нему есть ожидающие заявки и нет запроса в полёте.
+   * Заявки отправляются в цикле, а не рекурсивно из обработчиков ответов, чтобы синхронно завершающиеся
+   * запросы не переполняли стек на длинных очередях.
+   */
+  private final class AccountQueue {
+    private final Map<String, ArrayDeque<Task>> pending = new HashMap<>();
+    private final Set<String> busy = new HashSet<>();
+    private final ArrayDeque<String> ready = new ArrayDeque<>();
+    private int queued;
+    private int inFlight;
+    private boolean pumping;
+
+    synchronized void add(Task task) {
+      var tasks = pending.computeIfAbsent(task.instrumentId, id -> new ArrayDeque<>());
+      if (tasks.isEmpty() && !busy.contains(task.instrumentId)) {
+        ready.add(task.instrumentId);
+      }
+      tasks.add(task);
+      queued++;
+    }
+
+    synchronized int queued() {
+      return queued;
+    }
+
+    synchronized int inFlight() {
+      return inFlight;
+    }
+
+    void pump() {
+      synchronized (this) {
+        if (pumping) {
+          return;
+        }
+        pumping = true;
+      }
+      while (true) {
+        Task task;
+        synchronized (this) {
+          task = next();
+          if (task == null) {
+            pumping = false;
+            return;
+          }
+        }
+        start(task);
+      }
+    }
+
+    private Task next() {
+      if (inFlight >= window || ready.isEmpty()) {
+        return null;
+      }
+      var instrumentId = ready.poll();
+      var tasks = pending.get(instrumentId);
+      var task = tasks.poll();
+      if (tasks.isEmpty()) {
+        pending.remove(instrumentId);
+      }
+      busy.add(instrumentId);
+      queued--;
+      inFlight++;
+      return task;
+    }
+
+    private synchronized void release(String instrumentId) {
+      inFlight--;
+      busy.remove(instrumentId);
+      if (pending.containsKey(instrumentId)) {
+        ready.add(instrumentId);
+      }
+    }
+
+    private void start(Task task) {
+      var startedAt = System.nanoTime();
+      CompletableFuture<PostOrderResponse> call;
+      try {
+        call = ordersService.postOrder(task.instrumentId, task.quantity, task.price, task.direction,
+          task.accountId, task.type, task.orderId);
+      } catch (RuntimeException e) {
+        call = CompletableFuture.failedFuture(e);
+      }
+      call.whenComplete((response, throwable) -> {
+        var completedAt = System.nanoTime();
+        release(task.instrumentId);
+        publish(new OrderLatency(task.accountId, task.instrumentId, task.orderId,
+          startedAt - task.enqueuedAt, completedAt - startedAt, throwable == null));
+        if (throwable != null) {
+          task.result.completeExceptionally(throwable);
+        } else {
+          task.result.complete(response);
+        }
+        pump();
+      });
+    }
+  }
+
+  private static final class Task {
+    private final String instrumentId;
+    private final long quantity;
+    private final Quotation price;
+    private final OrderDirection direction;
+    private final String accountId;
+    private final OrderType type;
+    private final String orderId;
+    private final long enqueuedAt = System.nanoTime();
+    private final CompletableFuture<PostOrderResponse> result = new CompletableFuture<>();
+
+    Task(String instrumentId, long quantity, Quotation price, OrderDirection direction, String accountId,
+         OrderType type, String orderId) {
+      this.instrumentId = instrumentId;
+      this.quantity = quantity;
+      this.price = price;
+      this.direction = direction;
+      this.accountId = accountId;
+      this.type = type;
+      this.orderId = orderId;
+    }
+  }
+}
@@ -0,0 +1,361 @@
+package ru.tinkoff.piapi.core.orders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.OrderState;
+import ru.tinkoff.piapi.contract.v1.OrderTrades;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.TradesStreamResponse;
+import ru.tinkoff.piapi.core.OrdersService;
+import ru.tinkoff.piapi.core.stream.OrdersStreamService;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Отслеживание исполнения заявок по стриму сделок вместо периодических запросов GetOrderState.
+ * <p>
+ * Выставленные заявки регистрируются по ответу PostOrder, после чего их состояние обновляется по сделкам
+ * из {@link OrdersStreamService#subscribeTrades}. Сделки, пришедшие в стрим раньше ответа PostOrder,
+ * запоминаются и применяются при регистрации заявки. При ошибке стрима трекер переподписывается через
+ * заданную задержку и один раз сверяет каждую незавершённую заявку запросом GetOrderState, чтобы учесть
+ * сделки, пропущенные за время переподключения.
+ * <p>
+ * Стрим сделок не сообщает об отмене заявки и истечении её срока. Заявки, отменяемые через трекер
+ * методом {@link #cancel(String)}, завершаются после подтверждения отмены. Остальные заявки без изменений дольше
+ * заданного интервала периодически сверяются запросом GetOrderState, поэтому отменённые биржей или через
+ * {@link OrdersService#cancelOrder} заявки завершаются и удаляются из трекера не позже чем через этот интервал.
+ */
+public class OrderTracker implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(OrderTracker.class);
+  private static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(1);
+  private static final Duration DEFAULT_STALE_AFTER = Duration.ofMinutes(1);
+  private static final int RECONCILE_PARALLELISM = 4;
+  private static final int MAX_UNMATCHED_ORDERS = 1024;
+
+  private final OrdersService ordersService;
+  private final OrdersStreamService ordersStreamService;
+  private final Duration reconnectDelay;
+  private final Duration staleAfter;
+  private final Map<String, TrackedOrder> orders = new ConcurrentHashMap<>();
+  private final Map<String, TrackedOrder> ordersByRequestId = new ConcurrentHashMap<>();
+  private final Map<String, List<OrderTrades>> unmatched = new LinkedHashMap<>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, List<OrderTrades>> eldest) {
+      return size() > MAX_UNMATCHED_ORDERS;
+    }
+  };
+  private final List<Consumer<TrackedOrder>> listeners = new CopyOnWriteArrayList<>();
+  private List<String> accountIds = List.of();
+  private String streamKey;
+  private int streamGeneration;
+  private boolean staleCheckScheduled;
+  private boolean closed;
+
+  public OrderTracker(@Nonnull OrdersService ordersService, @Nonnull OrdersStreamService ordersStreamService) {
+    this(ordersService, ordersStreamService, DEFAULT_RECONNECT_DELAY);
+  }
+
+  public OrderTracker(@Nonnull OrdersService ordersService,
+                      @Nonnull OrdersStreamService ordersStreamService,
+                      @Nonnull Duration reconnectDelay) {
+    this(ordersService, ordersStreamService, reconnectDelay, DEFAULT_STALE_AFTER);
+  }
+
+  /**
+   * @param reconnectDelay Задержка переподключения к стриму сделок после ошибки.
+   * @param staleAfter     Интервал, после которого заявка без изменений сверяется запросом GetOrderState.
+   */
+  public OrderTracker(@Nonnull OrdersService ordersService,
+                      @Nonnull OrdersStreamService ordersStreamService,
+                      @Nonnull Duration reconnectDelay,
+                      @Nonnull Duration staleAfter) {
+    if (reconnectDelay.isNegative()) {
+      throw new IllegalArgumentException("Задержка переподключения не может быть отрицательной.");
+    }
+    if (staleAfter.isNegative() || staleAfter.isZero()) {
+      throw new IllegalArgumentException("Интервал сверки заявок должен быть положительным.");
+    }
+    this.ordersService = ordersService;
+    this.ordersStreamService = ordersStreamService;
+    this.reconnectDelay = reconnectDelay;
+    this.staleAfter = staleAfter;
+  }
+
+  /**
+   * Подписка на стрим сделок по счетам.
+   *
+   * @param accountIds Идентификаторы счетов, заявки которых будут отслеживаться.
+   */
+  public synchronized void start(@Nonnull Collection<String> accountIds) {
+    if (closed) {
+      throw new IllegalStateException("Трекер заявок закрыт.");
+    }
+    this.accountIds = List.copyOf(accountIds);
+    subscribe();
+    if (!staleCheckScheduled) {
+      staleCheckScheduled = true;
+      scheduleStaleCheck();
+    }
+  }
+
+  /**
+   * Регистрация выставленной заявки.
+   *
+   * @param accountId      Идентификатор счёта.
+   * @param orderRequestId Идентификатор, переданный при выставлении заявки, или null.
+   * @param response       Ответ на выставление заявки.
+   * @param lot            Лотность инструмента. Количество в сделках стрима указано в штуках.
+   * @return Отслеживаемая заявка.
+   */
+  @Nonnull
+  public TrackedOrder register(@Nonnull String accountId,
+                               @Nullable String orderRequestId,
+                               @Nonnull PostOrderResponse response,
+                               long lot) {
+    if (lot <= 0) {
+      throw new IllegalArgumentException("Лотность инструмента должна быть положительной.");
+    }
+    var order = new TrackedOrder(accountId, response.getOrderId(), orderRequestId, response.getFigi(),
+      response.getDirection(), response.getLotsRequested(), lot, response.getLotsExecuted(),
+      response.getExecutionReportStatus());
+    if (order.isDone()) {
+      return order;
+    }
+    orders.put(order.getOrderId(), order);
+    if (orderRequestId != null) {
+      ordersByRequestId.put(orderRequestId, order);
+    }
+    List<OrderTrades> early;
+    synchronized (unmatched) {
+      early = unmatched.remove(order.getOrderId());
+    }
+    if (early != null) {
+      for (var trades : early) {
+        apply(order, order.applyTrades(trades.getTradesList()));
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Отмена отслеживаемой заявки. После подтверждения отмены состояние заявки сверяется запросом GetOrderState,
+   * поэтому заявка, успевшая исполниться, завершается как исполненная.
+   *
+   * @param orderId Биржевой идентификатор заявки.
+   * @return {@link CompletableFuture} с заявкой после сверки состояния.
+   */
+  @Nonnull
+  public CompletableFuture<TrackedOrder> cancel(@Nonnull String orderId) {
+    var order = orders.get(orderId);
+    if (order == null) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Заявка " + orderId + " не отслеживается."));
+    }
+    return ordersService.cancelOrder(order.getAccountId(), orderId)
+      .thenCompose(time -> ordersService.getOrderState(order.getAccountId(), orderId))
+      .thenApply(state -> {
+        onState(order, state);
+        return order;
+      });
+  }
+
+  /**
+   * @param orderId Биржевой идентификатор заявки.
+   * @return Отслеживаемая незавершённая заявка или null.
+   */
+  @Nullable
+  public TrackedOrder get(@Nonnull String orderId) {
+    return orders.get(orderId);
+  }
+
+  /**
+   * @param orderRequestId Идентификатор, переданный при выставлении заявки.
+   * @return Отслеживаемая незавершённая заявка или null.
+   */
+  @Nullable
+  public TrackedOrder getByOrderRequestId(@Nonnull String orderRequestId) {
+    return ordersByRequestId.get(orderRequestId);
+  }
+
+  /**
+   * @return Количество отслеживаемых незавершённых заявок.
+   */
+  public int size() {
+    return orders.size();
+  }
+
+  /**
+   * @param listener Слушатель изменений состояния заявок: частичного и полного исполнения, отмены.
+   *                 Вызывается на потоке стрима и не должен выполнять долгих операций.
+   */
+  public void addListener(@Nonnull Consumer<TrackedOrder> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(@Nonnull Consumer<TrackedOrder> listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Сверка всех незавершённых заявок запросом GetOrderState.
+   *
+   * @return {@link CompletableFuture}, который завершается после сверки всех заявок.
+   */
+  @Nonnull
+  public CompletableFuture<Void> reconcile() {
+    return reconcile(new ArrayList<>(orders.values()));
+  }
+
+  private CompletableFuture<Void> reconcile(Collection<TrackedOrder> targets) {
+    var limiter = new AsyncLimiter(RECONCILE_PARALLELISM);
+    var calls = new ArrayList<CompletableFuture<Void>>(targets.size());
+    for (var order : targets) {
+      calls.add(limiter.submit(() -> ordersService.getOrderState(order.getAccountId(), order.getOrderId()))
+        .handle((state, throwable) -> {
+          if (throwable != null) {
+            logger.warn("Не удалось сверить состояние заявки {}.", order.getOrderId(), throwable);
+          } else {
+            onState(order, state);
+          }
+          return null;
+        }));
+    }
+    return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]));
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    streamGeneration++;
+    if (streamKey != null) {
+      ordersStreamService.closeStream(streamKey);
+      streamKey = null;
+    }
+  }
+
+  private void subscribe() {
+    // Ошибки закрытых трекером стримов приходят с устаревшим номером и игнорируются.
+    var generation = ++streamGeneration;
+    if (streamKey != null) {
+      ordersStreamService.closeStream(streamKey);
+    }
+    streamKey = ordersStreamService.subscribeTrades(this::onTrades,
+      throwable -> onStreamError(generation, throwable), accountIds);
+  }
+
+  private synchronized void onStreamError(int generation, Throwable throwable) {
+    if (closed || generation != streamGeneration) {
+      return;
+    }
+    logger.warn("Ошибка в стриме сделок, переподключение через {}.", reconnectDelay, throwable);
+    var delayed = CompletableFuture.delayedExecutor(reconnectDelay.toNanos(), TimeUnit.NANOSECONDS);
+    CompletableFuture.runAsync(() -> reconnect(generation), delayed);
+  }
+
+  private void reconnect(int generation) {
+    synchronized (this) {
+      if (closed || generation != streamGeneration) {
+        return;
+      }
+      subscribe();
+    }
+    reconcile();
+  }
+
+  private void scheduleStaleCheck() {
+    var delayed = CompletableFuture.delayedExecutor(staleAfter.toNanos(), TimeUnit.NANOSECONDS);
+    CompletableFuture.runAsync(this::checkStale, delayed);
+  }
+
+  /**
+   * Сверка заявок без изменений дольше {@link #staleAfter}: так учитываются отмены и истечение срока заявок,
+   * о которых стрим сделок не сообщает.
+   */
+  private void checkStale() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+    }
+    var threshold = Instant.now().minus(staleAfter);
+    var stale = new ArrayList<TrackedOrder>();
+    for (var order : orders.values()) {
+      if (order.getUpdatedAt().isBefore(threshold)) {
+        stale.add(order);
+      }
+    }
+    reconcile(stale).whenComplete((ignored, throwable) -> {
+      synchronized (this) {
+        if (!closed) {
+          scheduleStaleCheck();
+        }
+      }
+    });
+  }
+
+  private void onTrades(TradesStreamResponse response) {
+    if (!response.hasOrderTrades()) {
+      return;
+    }
+    var trades = response.getOrderTrades();
+    var order = orders.get(trades.getOrderId());
+    if (order == null) {
+      synchronized (unmatched) {
+        unmatched.computeIfAbsent(trades.getOrderId(), id -> new ArrayList<>()).add(trades);
+      }
+      // Заявка могла быть зарегистрирована между проверкой и сохранением сделок.
+      order = orders.get(trades.getOrderId());
+      if (order == null) {
+        return;
+      }
+      // Вместе с текущими сделками забираются и сохранённые раньше: если их забрала регистрация, она их и применит.
+      List<OrderTrades> early;
+      synchronized (unmatched) {
+        early = unmatched.remove(trades.getOrderId());
+      }
+      if (early != null) {
+        for (var earlyTrades : early) {
+          apply(order, order.applyTrades(earlyTrades.getTradesList()));
+        }
+      }
+      return;
+    }
+    apply(order, order.applyTrades(trades.getTradesList()));
+  }
+
+  private void onState(TrackedOrder order, OrderState state) {
+    apply(order, order.applyState(state));
+  }
+
+  private void apply(TrackedOrder order, boolean changed) {
+    if (!changed) {
+      return;
+    }
+    if (order.isDone()) {
+      orders.remove(order.getOrderId(), order);
+      if (order.getOrderRequestId() != null) {
+        ordersByRequestId.remove(order.getOrderRequestId(), order);
+      }
+    }
+    for (var listener : listeners) {
+      try {
+        listener.accept(order);
+      } catch (RuntimeException e) {
+        logger.warn("Ошибка в слушателе изменений заявки {}.", order.getOrderId(), e);
+      }
+    }
+  }
+}
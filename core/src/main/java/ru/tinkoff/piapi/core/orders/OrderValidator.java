@@ -0,0 +1,273 @@
+package ru.tinkoff.piapi.core.orders;
+
+import ru.tinkoff.piapi.contract.v1.Bond;
+import ru.tinkoff.piapi.contract.v1.Currency;
+import ru.tinkoff.piapi.contract.v1.Etf;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderType;
+import ru.tinkoff.piapi.contract.v1.Option;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.contract.v1.TradingStatus;
+import ru.tinkoff.piapi.core.cache.InstrumentCatalog;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.stream.StreamProcessor;
+import ru.tinkoff.piapi.core.utils.MapperUtils;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Локальная проверка заявок перед отправкой на сервер.
+ * <p>
+ * Проверяет по {@link InstrumentCatalog} доступность инструмента для торговли через API и в нужном направлении,
+ * положительность количества лотов и кратность цены лимитной заявки шагу цены. Правила инструментов
+ * строятся заново при каждом обновлении справочника, сама проверка выполняет один поиск в хэш-таблице
+ * и не создаёт объектов.
+ * <p>
+ * Торговый статус в справочнике соответствует моменту его загрузки, поэтому он не используется.
+ * Доступность торгов проверяется только по статусам из стрима рыночных данных: валидатор можно передать
+ * как {@link StreamProcessor} в стрим с подпиской {@code subscribeInfo} на нужные инструменты.
+ * До получения статуса инструмента из стрима торги по нему считаются доступными.
+ */
+public class OrderValidator implements StreamProcessor<MarketDataResponse> {
+  private final InstrumentCatalog catalog;
+  private volatile RuleSet ruleSet = new RuleSet(null, Map.of());
+
+  public OrderValidator(@Nonnull InstrumentCatalog catalog) {
+    this.catalog = catalog;
+  }
+
+  /**
+   * Проверка заявки.
+   *
+   * @param instrumentId  figi / instrument_uid инструмента.
+   * @param direction     Направление заявки.
+   * @param type          Тип заявки.
+   * @param quantity      Количество лотов.
+   * @param priceNanos    Цена за 1 инструмент в миллиардных долях. Для рыночных заявок не проверяется.
+   * @return Результат проверки.
+   */
+  @Nonnull
+  public OrderCheck check(@Nonnull String instrumentId,
+                          @Nonnull OrderDirection direction,
+                          @Nonnull OrderType type,
+                          long quantity,
+                          long priceNanos) {
+    var rules = rules(instrumentId);
+    if (rules == null) {
+      return OrderCheck.UNKNOWN_INSTRUMENT;
+    }
+    if (!rules.apiTradeAvailable) {
+      return OrderCheck.API_TRADE_NOT_AVAILABLE;
+    }
+    if (direction == OrderDirection.ORDER_DIRECTION_BUY ? !rules.buyAvailable : !rules.sellAvailable) {
+      return OrderCheck.DIRECTION_NOT_AVAILABLE;
+    }
+    if (quantity <= 0) {
+      return OrderCheck.INVALID_QUANTITY;
+    }
+    if (type == OrderType.ORDER_TYPE_MARKET) {
+      if (!rules.marketOrderAvailable) {
+        return rules.limitOrderAvailable ? OrderCheck.ONLY_LIMIT_ORDER_AVAILABLE : OrderCheck.TRADING_NOT_AVAILABLE;
+      }
+      return OrderCheck.OK;
+    }
+    if (!rules.limitOrderAvailable) {
+      return OrderCheck.TRADING_NOT_AVAILABLE;
+    }
+    if (priceNanos <= 0 || rules.minPriceIncrementNanos > 0 && priceNanos % rules.minPriceIncrementNanos != 0) {
+      return OrderCheck.INVALID_PRICE;
+    }
+    return OrderCheck.OK;
+  }
+
+  /**
+   * Проверка заявки, см. {@link #check(String, OrderDirection, OrderType, long, long)}.
+   */
+  @Nonnull
+  public OrderCheck check(@Nonnull String instrumentId,
+                          @Nonnull OrderDirection direction,
+                          @Nonnull OrderType type,
+                          long quantity,
+                          @Nonnull Quotation price) {
+    return check(instrumentId, direction, type, quantity, MapperUtils.quotationToNanos(price));
+  }
+
+  /**
+   * Округление цены до шага цены инструмента в сторону, не ухудшающую цену заявки:
+   * для покупки вниз, для продажи вверх.
+   *
+   * @param instrumentId figi / instrument_uid инструмента.
+   * @param priceNanos   Цена за 1 инструмент в миллиардных долях.
+   * @param direction    Направление заявки.
+   * @return Округлённая цена в миллиардных долях. Для неизвестного инструмента цена не изменяется.
+   */
+  public long roundPrice(@Nonnull String instrumentId, long priceNanos, @Nonnull OrderDirection direction) {
+    var rules = rules(instrumentId);
+    if (rules == null || rules.minPriceIncrementNanos <= 0) {
+      return priceNanos;
+    }
+    var increment = rules.minPriceIncrementNanos;
+    var rounded = Math.floorDiv(priceNanos, increment) * increment;
+    if (rounded != priceNanos && direction == OrderDirection.ORDER_DIRECTION_SELL) {
+      rounded += increment;
+    }
+    return rounded;
+  }
+
+  /**
+   * Округление цены до шага цены инструмента, см. {@link #roundPrice(String, long, OrderDirection)}.
+   */
+  @Nonnull
+  public Decimal roundPrice(@Nonnull String instrumentId, @Nonnull Decimal price, @Nonnull OrderDirection direction) {
+    var rounded = roundPrice(instrumentId, price.getNanos(), direction);
+    return rounded == price.getNanos() ? price : Decimal.ofNanos(rounded);
+  }
+
+  /**
+   * Перевод количества бумаг в лоты с округлением вниз.
+   *
+   * @param instrumentId figi / instrument_uid инструмента.
+   * @param quantity     Количество бумаг в штуках.
+   * @return Количество целых лотов или -1, если инструмент неизвестен.
+   */
+  public long toLots(@Nonnull String instrumentId, long quantity) {
+    var rules = rules(instrumentId);
+    return rules == null ? -1 : quantity / rules.lot;
+  }
+
+  /**
+   * Обработка ответа стрима рыночных данных. Учитываются только торговые статусы.
+   */
+  @Override
+  public void process(@Nonnull MarketDataResponse response) {
+    if (response.hasTradingStatus()) {
+      onTradingStatus(response.getTradingStatus());
+    }
+  }
+
+  public void onTradingStatus(@Nonnull TradingStatus status) {
+    var rules = rules(status.getInstrumentUid().isEmpty() ? status.getFigi() : status.getInstrumentUid());
+    if (rules == null) {
+      rules = rules(status.getFigi());
+    }
+    if (rules != null) {
+      rules.limitOrderAvailable = status.getLimitOrderAvailableFlag();
+      rules.marketOrderAvailable = status.getMarketOrderAvailableFlag();
+    }
+  }
+
+  private Rules rules(String instrumentId) {
+    var current = ruleSet;
+    if (current.loadedAt != catalog.getLoadedAt()) {
+      current = rebuild();
+    }
+    return current.rules.get(instrumentId);
+  }
+
+  private synchronized RuleSet rebuild() {
+    var loadedAt = catalog.getLoadedAt();
+    var previous = ruleSet;
+    if (previous.loadedAt == loadedAt) {
+      return previous;
+    }
+    var rules = new HashMap<String, Rules>();
+    add(rules, previous, catalog.getShares().getAll(), Share::getFigi, Share::getUid, Share::getLot,
+      Share::getMinPriceIncrement, Share::getApiTradeAvailableFlag, Share::getBuyAvailableFlag,
+      Share::getSellAvailableFlag);
+    add(rules, previous, catalog.getBonds().getAll(), Bond::getFigi, Bond::getUid, Bond::getLot,
+      Bond::getMinPriceIncrement, Bond::getApiTradeAvailableFlag, Bond::getBuyAvailableFlag,
+      Bond::getSellAvailableFlag);
+    add(rules, previous, catalog.getEtfs().getAll(), Etf::getFigi, Etf::getUid, Etf::getLot,
+      Etf::getMinPriceIncrement, Etf::getApiTradeAvailableFlag, Etf::getBuyAvailableFlag,
+      Etf::getSellAvailableFlag);
+    add(rules, previous, catalog.getFutures().getAll(), Future::getFigi, Future::getUid, Future::getLot,
+      Future::getMinPriceIncrement, Future::getApiTradeAvailableFlag, Future::getBuyAvailableFlag,
+      Future::getSellAvailableFlag);
+    add(rules, previous, catalog.getCurrencies().getAll(), Currency::getFigi, Currency::getUid, Currency::getLot,
+      Currency::getMinPriceIncrement, Currency::getApiTradeAvailableFlag, Currency::getBuyAvailableFlag,
+      Currency::getSellAvailableFlag);
+    add(rules, previous, catalog.getOptions().getAll(), s -> "", Option::getUid, Option::getLot,
+      Option::getMinPriceIncrement, Option::getApiTradeAvailableFlag, Option::getBuyAvailableFlag,
+      Option::getSellAvailableFlag);
+    var next = new RuleSet(loadedAt, rules);
+    ruleSet = next;
+    return next;
+  }
+
+  private static <T> void add(Map<String, Rules> target,
+                              RuleSet previous,
+                              List<T> instruments,
+                              Function<T, String> figi,
+                              Function<T, String> uid,
+                              ToIntFunction<T> lot,
+                              Function<T, Quotation> minPriceIncrement,
+                              Predicate<T> apiTradeAvailable,
+                              Predicate<T> buyAvailable,
+                              Predicate<T> sellAvailable) {
+    for (var instrument : instruments) {
+      var rules = new Rules(Math.max(1, lot.applyAsInt(instrument)),
+        MapperUtils.quotationToNanos(minPriceIncrement.apply(instrument)),
+        apiTradeAvailable.test(instrument), buyAvailable.test(instrument), sellAvailable.test(instrument));
+      var id = uid.apply(instrument);
+      // Торговые статусы из стрима сохраняются при обновлении справочника.
+      var old = previous.rules.get(id);
+      if (old != null) {
+        rules.limitOrderAvailable = old.limitOrderAvailable;
+        rules.marketOrderAvailable = old.marketOrderAvailable;
+      }
+      put(target, id, rules);
+      put(target, figi.apply(instrument), rules);
+    }
+  }
+
+  private static void put(Map<String, Rules> target, String id, Rules rules) {
+    if (!id.isEmpty()) {
+      target.put(id, rules);
+    }
+  }
+
+  /**
+   * Правила справочника на момент загрузки.
+   */
+  private static final class RuleSet {
+    private final Instant loadedAt;
+    private final Map<String, Rules> rules;
+
+    RuleSet(Instant loadedAt, Map<String, Rules> rules) {
+      this.loadedAt = loadedAt;
+      this.rules = rules;
+    }
+  }
+
+  /**
+   * Ограничения одного инструмента.
+   */
+  private static final class Rules {
+    private final int lot;
+    private final long minPriceIncrementNanos;
+    private final boolean apiTradeAvailable;
+    private final boolean buyAvailable;
+    private final boolean sellAvailable;
+    private volatile boolean limitOrderAvailable = true;
+    private volatile boolean marketOrderAvailable = true;
+
+    Rules(int lot, long minPriceIncrementNanos, boolean apiTradeAvailable, boolean buyAvailable,
+          boolean sellAvailable) {
+      this.lot = lot;
+      this.minPriceIncrementNanos = minPriceIncrementNanos;
+      this.apiTradeAvailable = apiTradeAvailable;
+      this.buyAvailable = buyAvailable;
+      this.sellAvailable = sellAvailable;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package ru.tinkoff.piapi.core.orders;
+
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderExecutionReportStatus;
+import ru.tinkoff.piapi.contract.v1.OrderStage;
+import ru.tinkoff.piapi.contract.v1.OrderState;
+import ru.tinkoff.piapi.contract.v1.OrderTrade;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Заявка, состояние которой отслеживается {@link OrderTracker}.
+ * <p>
+ * Исполненное количество складывается из сделок, учтённых по идентификатору сделки, поэтому
+ * повторная доставка сделки из стрима или её появление в ответе GetOrderState не увеличивают его дважды.
+ */
+public final class TrackedOrder {
+  private final String accountId;
+  private final String orderId;
+  private final String orderRequestId;
+  private final String figi;
+  private final OrderDirection direction;
+  private final long lotsRequested;
+  private final long lot;
+  private final Map<String, Long> tradeLots = new HashMap<>();
+  private final CompletableFuture<TrackedOrder> done = new CompletableFuture<>();
+  private volatile long lotsExecuted;
+  private volatile OrderExecutionReportStatus status;
+  private volatile Instant updatedAt;
+
+  TrackedOrder(@Nonnull String accountId,
+               @Nonnull String orderId,
+               @Nullable String orderRequestId,
+               @Nonnull String figi,
+               @Nonnull OrderDirection direction,
+               long lotsRequested,
+               long lot,
+               long lotsExecuted,
+               @Nonnull OrderExecutionReportStatus status) {
+    this.accountId = accountId;
+    this.orderId = orderId;
+    this.orderRequestId = orderRequestId;
+    this.figi = figi;
+    this.direction = direction;
+    this.lotsRequested = lotsRequested;
+    this.lot = lot;
+    this.lotsExecuted = lotsExecuted;
+    this.status = status;
+    this.updatedAt = Instant.now();
+    if (isTerminal(status)) {
+      done.complete(this);
+    }
+  }
+
+  @Nonnull
+  public String getAccountId() {
+    return accountId;
+  }
+
+  @Nonnull
+  public String getOrderId() {
+    return orderId;
+  }
+
+  /**
+   * @return Идентификатор, переданный при выставлении заявки, или null, если он не был указан при регистрации.
+   */
+  @Nullable
+  public String getOrderRequestId() {
+    return orderRequestId;
+  }
+
+  @Nonnull
+  public String getFigi() {
+    return figi;
+  }
+
+  @Nonnull
+  public OrderDirection getDirection() {
+    return direction;
+  }
+
+  public long getLotsRequested() {
+    return lotsRequested;
+  }
+
+  public long getLotsExecuted() {
+    return lotsExecuted;
+  }
+
+  @Nonnull
+  public OrderExecutionReportStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * @return Момент последнего изменения состояния заявки.
+   */
+  @Nonnull
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  /**
+   * @return true, если заявка исполнена, отклонена или отменена.
+   */
+  public boolean isDone() {
+    return done.isDone();
+  }
+
+  /**
+   * @return {@link CompletableFuture}, который завершается при полном исполнении, отклонении или отмене заявки.
+   */
+  @Nonnull
+  public CompletableFuture<TrackedOrder> onDone() {
+    return done.thenApply(order -> order);
+  }
+
+  /**
+   * Учёт сделок из стрима. Количество в сделках стрима указано в штуках.
+   *
+   * @return true, если состояние заявки изменилось.
+   */
+  synchronized boolean applyTrades(@Nonnull Iterable<OrderTrade> trades) {
+    var changed = false;
+    for (var trade : trades) {
+      changed |= tradeLots.putIfAbsent(trade.getTradeId(), trade.getQuantity() / lot) == null;
+    }
+    return changed && update(executedFromTrades(), status);
+  }
+
+  /**
+   * Сверка с ответом GetOrderState. Количество в стадиях исполнения указано в лотах.
+   *
+   * @return true, если состояние заявки изменилось.
+   */
+  synchronized boolean applyState(@Nonnull OrderState state) {
+    for (OrderStage stage : state.getStagesList()) {
+      tradeLots.putIfAbsent(stage.getTradeId(), stage.getQuantity());
+    }
+    return update(Math.max(executedFromTrades(), state.getLotsExecuted()), state.getExecutionReportStatus());
+  }
+
+  private boolean update(long executed, OrderExecutionReportStatus reportedStatus) {
+    if (isDone()) {
+      return false;
+    }
+    executed = Math.max(executed, lotsExecuted);
+    var next = reportedStatus;
+    if (executed >= lotsRequested) {
+      next = OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_FILL;
+    } else if (executed > 0 && !isTerminal(reportedStatus)) {
+      next = OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_PARTIALLYFILL;
+    }
+    if (executed == lotsExecuted && next == status) {
+      return false;
+    }
+    lotsExecuted = executed;
+    status = next;
+    updatedAt = Instant.now();
+    if (isTerminal(next)) {
+      done.complete(this);
+    }
+    return true;
+  }
+
+  private long executedFromTrades() {
+    var executed = 0L;
+    for (var lots : tradeLots.values()) {
+      executed += lots;
+    }
+    return executed;
+  }
+
+  static boolean isTerminal(OrderExecutionReportStatus status) {
+    return status == OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_FILL
+      || status == OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_REJECTED
+      || status == OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_CANCELLED;
+  }
+
+  @Override
+  public String toString() {
+    return "TrackedOrder{orderId=" + orderId + ", status=" + status + ", lotsExecuted=" + lotsExecuted
+      + "/" + lotsRequested + "}";
+  }
+}
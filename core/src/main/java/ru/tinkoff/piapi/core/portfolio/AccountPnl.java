@@ -0,0 +1,57 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import ru.tinkoff.piapi.core.models.Decimal;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Неизменяемый суммарный нереализованный результат позиций одного счёта в {@link PnlEngine} по валютам.
+ * <p>
+ * Суммы хранятся в миллиардных долях и конвертируются в {@link Decimal} только при первом обращении к {@link #getPnl()}.
+ */
+public final class AccountPnl {
+  private final String accountId;
+  private final Map<String, Long> pnlNanos;
+  private volatile Map<String, Decimal> pnl;
+
+  AccountPnl(@Nonnull String accountId, @Nonnull Map<String, Long> pnlNanos) {
+    this.accountId = accountId;
+    this.pnlNanos = pnlNanos;
+  }
+
+  @Nonnull
+  public String getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return Суммарный нереализованный результат по валютам.
+   */
+  @Nonnull
+  public Map<String, Decimal> getPnl() {
+    var value = pnl;
+    if (value == null) {
+      var result = new LinkedHashMap<String, Decimal>();
+      pnlNanos.forEach((currency, nanos) -> result.put(currency, Decimal.ofNanos(nanos)));
+      value = Collections.unmodifiableMap(result);
+      pnl = value;
+    }
+    return value;
+  }
+
+  /**
+   * @param currency Валюта.
+   * @return Суммарный результат в валюте в миллиардных долях или 0, если позиций в этой валюте нет.
+   */
+  public long getPnlNanos(@Nonnull String currency) {
+    return pnlNanos.getOrDefault(currency, 0L);
+  }
+
+  @Override
+  public String toString() {
+    return "AccountPnl{accountId=" + accountId + ", pnl=" + getPnl() + "}";
+  }
+}
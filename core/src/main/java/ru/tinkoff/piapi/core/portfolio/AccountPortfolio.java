@@ -0,0 +1,116 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsResponse;
+import ru.tinkoff.piapi.core.models.Portfolio;
+import ru.tinkoff.piapi.core.models.Positions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+
+/**
+ * Неизменяемое состояние портфеля и позиций одного счёта в {@link PortfolioTracker}.
+ * <p>
+ * Каждое изменение состояния создаёт новый объект с увеличенным номером версии,
+ * поэтому прочитанный объект можно использовать без блокировок и он не изменится.
+ */
+public final class AccountPortfolio {
+  private final String accountId;
+  private final long version;
+  private final Instant updatedAt;
+  private final PortfolioResponse portfolioResponse;
+  private final PositionsResponse positionsResponse;
+  private final boolean stale;
+  private volatile Portfolio portfolio;
+  private volatile Positions positions;
+
+  AccountPortfolio(@Nonnull String accountId,
+                   long version,
+                   @Nonnull Instant updatedAt,
+                   @Nullable PortfolioResponse portfolioResponse,
+                   @Nullable PositionsResponse positionsResponse,
+                   boolean stale) {
+    this.accountId = accountId;
+    this.version = version;
+    this.updatedAt = updatedAt;
+    this.portfolioResponse = portfolioResponse;
+    this.positionsResponse = positionsResponse;
+    this.stale = stale;
+  }
+
+  @Nonnull
+  public String getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return Номер версии состояния. Увеличивается на единицу при каждом изменении.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return Момент последнего изменения состояния.
+   */
+  @Nonnull
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  /**
+   * @return true, если стрим прервался или начальное состояние ещё не получено и состояние может не совпадать
+   * с текущим. Признак снимается, когда после переподключения получено новое начальное состояние.
+   */
+  public boolean isStale() {
+    return stale;
+  }
+
+  /**
+   * @return Последний полученный портфель или null, если он ещё не получен.
+   */
+  @Nullable
+  public PortfolioResponse getPortfolioResponse() {
+    return portfolioResponse;
+  }
+
+  /**
+   * @return Текущие позиции или null, если они ещё не получены.
+   */
+  @Nullable
+  public PositionsResponse getPositionsResponse() {
+    return positionsResponse;
+  }
+
+  /**
+   * @return Портфель, см. {@link #getPortfolioResponse()}.
+   */
+  @Nullable
+  public Portfolio getPortfolio() {
+    var value = portfolio;
+    if (value == null && portfolioResponse != null) {
+      value = Portfolio.fromResponse(portfolioResponse);
+      portfolio = value;
+    }
+    return value;
+  }
+
+  /**
+   * @return Позиции, см. {@link #getPositionsResponse()}.
+   */
+  @Nullable
+  public Positions getPositions() {
+    var value = positions;
+    if (value == null && positionsResponse != null) {
+      value = Positions.fromResponse(positionsResponse);
+      positions = value;
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "AccountPortfolio{accountId=" + accountId + ", version=" + version + ", updatedAt=" + updatedAt + ", stale=" + stale + "}";
+  }
+}
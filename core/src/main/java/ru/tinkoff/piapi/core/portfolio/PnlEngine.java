@@ -0,0 +1,406 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginResponse;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.OrderBook;
+import ru.tinkoff.piapi.contract.v1.PortfolioPosition;
+import ru.tinkoff.piapi.core.cache.FuturesMarginCache;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.stream.StreamProcessor;
+import ru.tinkoff.piapi.core.utils.MapperUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Переоценка позиций счетов по ценам из стрима рыночных данных.
+ * <p>
+ * Позиции и средние цены берутся из портфелей {@link PortfolioTracker}, цены - из последних цен сделок
+ * и середины спреда стаканов, которые передаются в {@link #process(MarketDataResponse)}. Движок можно
+ * передать как {@link StreamProcessor} в {@link ru.tinkoff.piapi.core.stream.MarketDataStreamService#newStream};
+ * подписки на последние цены или стаканы нужных инструментов остаются на стороне вызывающего кода.
+ * <p>
+ * При изменении цены инструмента пересчитываются только позиции по этому инструменту, результат по каждой
+ * позиции передаётся слушателям. Когда позиция пропадает из портфеля, слушателям передаётся результат
+ * с нулевым количеством и нулевым результатом. Суммарный результат счёта по валютам поддерживается
+ * инкрементально и после каждого изменения передаётся слушателям счетов как {@link AccountPnl}. Цены фьючерсов переводятся из пунктов в деньги по стоимости шага цены
+ * из {@link FuturesMarginCache}; до её загрузки и получения первой цены позиции по фьючерсу не переоцениваются.
+ * Цены облигаций в стриме указаны в процентах от номинала, поэтому облигации переоцениваются только
+ * по текущей цене из портфеля.
+ */
+public class PnlEngine implements StreamProcessor<MarketDataResponse>, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(PnlEngine.class);
+  private static final long NANOS_PER_UNIT = 1_000_000_000L;
+  private static final long NO_PRICE = Long.MIN_VALUE;
+  private static final String FUTURES = "futures";
+  private static final String BOND = "bond";
+
+  private final PortfolioTracker tracker;
+  private final FuturesMarginCache marginCache;
+  private final Consumer<AccountPortfolio> trackerListener = this::onAccount;
+  private final Map<String, Instrument> instruments = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Holding>> accounts = new ConcurrentHashMap<>();
+  private final Map<String, Long> versions = new HashMap<>();
+  private final Map<String, Map<String, Long>> totals = new HashMap<>();
+  private final Map<String, AccountPnl> accountsPnl = new ConcurrentHashMap<>();
+  private final List<Consumer<PositionPnl>> listeners = new CopyOnWriteArrayList<>();
+  private final List<Consumer<AccountPnl>> accountListeners = new CopyOnWriteArrayList<>();
+
+  public PnlEngine(@Nonnull PortfolioTracker tracker, @Nonnull FuturesMarginCache marginCache) {
+    this.tracker = tracker;
+    this.marginCache = marginCache;
+    tracker.addListener(trackerListener);
+    tracker.getAll().values().forEach(this::onAccount);
+  }
+
+  /**
+   * Обработка ответа стрима рыночных данных. Учитываются последние цены и стаканы.
+   */
+  @Override
+  public void process(@Nonnull MarketDataResponse response) {
+    if (response.hasLastPrice()) {
+      onLastPrice(response.getLastPrice());
+    } else if (response.hasOrderbook()) {
+      onOrderBook(response.getOrderbook());
+    }
+  }
+
+  public void onLastPrice(@Nonnull LastPrice lastPrice) {
+    if (lastPrice.hasPrice()) {
+      onPrice(lastPrice.getFigi(), MapperUtils.quotationToNanos(lastPrice.getPrice()));
+    }
+  }
+
+  /**
+   * Переоценка по середине спреда. Стаканы без заявок с одной из сторон пропускаются.
+   */
+  public void onOrderBook(@Nonnull OrderBook orderBook) {
+    if (orderBook.getBidsCount() == 0 || orderBook.getAsksCount() == 0) {
+      return;
+    }
+    var bid = MapperUtils.quotationToNanos(orderBook.getBids(0).getPrice());
+    var ask = MapperUtils.quotationToNanos(orderBook.getAsks(0).getPrice());
+    onPrice(orderBook.getFigi(), bid + (ask - bid) / 2);
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @param figi      FIGI-идентификатор инструмента.
+   * @return Последний результат переоценки позиции или null, если позиции нет или цена ещё не известна.
+   */
+  @Nullable
+  public PositionPnl getPositionPnl(@Nonnull String accountId, @Nonnull String figi) {
+    var holdings = accounts.get(accountId);
+    var holding = holdings == null ? null : holdings.get(figi);
+    return holding == null ? null : holding.pnl;
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Последние результаты переоценки всех позиций счёта с известной ценой.
+   */
+  @Nonnull
+  public List<PositionPnl> getPositionsPnl(@Nonnull String accountId) {
+    var holdings = accounts.get(accountId);
+    if (holdings == null) {
+      return List.of();
+    }
+    var result = new ArrayList<PositionPnl>(holdings.size());
+    for (var holding : holdings.values()) {
+      var pnl = holding.pnl;
+      if (pnl != null) {
+        result.add(pnl);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Суммарный нереализованный результат позиций счёта по валютам.
+   */
+  @Nonnull
+  public Map<String, Decimal> getAccountPnl(@Nonnull String accountId) {
+    var pnl = accountsPnl.get(accountId);
+    return pnl == null ? Map.of() : pnl.getPnl();
+  }
+
+  /**
+   * @param listener Слушатель результатов переоценки позиций. Вызывается на потоке, доставившем цену
+   *                 или портфель, и не должен выполнять долгих операций.
+   */
+  public void addListener(@Nonnull Consumer<PositionPnl> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(@Nonnull Consumer<PositionPnl> listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * @param listener Слушатель изменений суммарного результата счетов. Вызывается после слушателей позиций
+   *                 на том же потоке и не должен выполнять долгих операций.
+   */
+  public void addAccountListener(@Nonnull Consumer<AccountPnl> listener) {
+    accountListeners.add(listener);
+  }
+
+  public void removeAccountListener(@Nonnull Consumer<AccountPnl> listener) {
+    accountListeners.remove(listener);
+  }
+
+  @Override
+  public void close() {
+    tracker.removeListener(trackerListener);
+  }
+
+  private void onPrice(String figi, long pricePointsNanos) {
+    var instrument = instruments.get(figi);
+    if (instrument == null || instrument.bond) {
+      return;
+    }
+    synchronized (this) {
+      if (instrument.pricePointsNanos == pricePointsNanos) {
+        return;
+      }
+      instrument.pricePointsNanos = pricePointsNanos;
+      reprice(instrument);
+    }
+  }
+
+  private void reprice(Instrument instrument) {
+    long price;
+    if (instrument.futures) {
+      if (instrument.minPriceIncrementNanos <= 0) {
+        return;
+      }
+      price = MapperUtils.futuresPriceNanos(instrument.pricePointsNanos,
+        instrument.minPriceIncrementAmountNanos, instrument.minPriceIncrementNanos);
+    } else {
+      price = instrument.pricePointsNanos;
+    }
+    instrument.priceNanos = price;
+    // У инструмента не больше одной позиции на счёт, поэтому итог каждого счёта публикуется один раз.
+    for (var holding : instrument.holdings) {
+      reprice(holding, price);
+      publishAccount(holding.accountId);
+    }
+  }
+
+  private void reprice(Holding holding, long priceNanos) {
+    var previous = holding.pnl;
+    var next = holding.reprice(priceNanos);
+    addTotal(holding, next.getPnlNanos() - (previous == null ? 0 : previous.getPnlNanos()));
+    publish(next);
+  }
+
+  private void addTotal(Holding holding, long deltaNanos) {
+    totals.computeIfAbsent(holding.accountId, id -> new LinkedHashMap<>())
+      .merge(holding.currency, deltaNanos, Math::addExact);
+  }
+
+  private synchronized void onAccount(AccountPortfolio state) {
+    var portfolio = state.getPortfolioResponse();
+    var seen = versions.get(state.getAccountId());
+    if (portfolio == null || seen != null && seen >= state.getVersion()) {
+      return;
+    }
+    versions.put(state.getAccountId(), state.getVersion());
+
+    var previous = accounts.get(state.getAccountId());
+    if (previous != null) {
+      for (var holding : previous.values()) {
+        instruments.get(holding.figi).holdings.remove(holding);
+      }
+    }
+    // Итог счёта складывается заново из новых позиций.
+    totals.remove(state.getAccountId());
+
+    var holdings = new LinkedHashMap<String, Holding>();
+    for (var position : portfolio.getPositionsList()) {
+      var quantity = MapperUtils.quotationToNanos(position.getQuantity());
+      if (quantity == 0) {
+        continue;
+      }
+      var instrument = instruments.computeIfAbsent(position.getFigi(),
+        figi -> new Instrument(figi, position.getInstrumentType()));
+      if (!instrument.futures && (instrument.bond || instrument.pricePointsNanos == NO_PRICE)) {
+        instrument.priceNanos = moneyNanos(position.getCurrentPrice());
+      }
+      var holding = new Holding(state.getAccountId(), position, quantity);
+      instrument.holdings.add(holding);
+      holdings.put(position.getFigi(), holding);
+      if (instrument.priceNanos != NO_PRICE) {
+        reprice(holding, instrument.priceNanos);
+      }
+      if (instrument.futures && !instrument.marginRequested) {
+        instrument.marginRequested = true;
+        loadMargin(instrument);
+      }
+    }
+    accounts.put(state.getAccountId(), Collections.unmodifiableMap(holdings));
+    // Инструменты удаляются после добавления новых позиций, чтобы не терять цену инструмента, оставшегося в портфеле.
+    if (previous != null) {
+      for (var figi : previous.keySet()) {
+        if (!holdings.containsKey(figi)) {
+          var closed = previous.get(figi).close();
+          if (closed != null) {
+            publish(closed);
+          }
+        }
+        var instrument = instruments.get(figi);
+        if (instrument != null && instrument.holdings.isEmpty()) {
+          instruments.remove(figi);
+        }
+      }
+    }
+    publishAccount(state.getAccountId());
+  }
+
+  private void loadMargin(Instrument instrument) {
+    marginCache.getFuturesMargin(instrument.figi).whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        logger.warn("Не удалось получить стоимость шага цены фьючерса {}.", instrument.figi, throwable);
+        synchronized (this) {
+          instrument.marginRequested = false;
+        }
+        return;
+      }
+      synchronized (this) {
+        instrument.setMargin(response);
+        if (instrument.pricePointsNanos != NO_PRICE) {
+          reprice(instrument);
+        }
+      }
+    });
+  }
+
+  private void publishAccount(String accountId) {
+    var accountTotals = totals.get(accountId);
+    var pnl = new AccountPnl(accountId, accountTotals == null ? Map.of() : new LinkedHashMap<>(accountTotals));
+    accountsPnl.put(accountId, pnl);
+    for (var listener : accountListeners) {
+      try {
+        listener.accept(pnl);
+      } catch (RuntimeException e) {
+        logger.warn("Ошибка в слушателе результата по счёту {}.", accountId, e);
+      }
+    }
+  }
+
+  private void publish(PositionPnl pnl) {
+    for (var listener : listeners) {
+      try {
+        listener.accept(pnl);
+      } catch (RuntimeException e) {
+        logger.warn("Ошибка в слушателе переоценки позиции {} по счёту {}.", pnl.getFigi(), pnl.getAccountId(), e);
+      }
+    }
+  }
+
+  private static long moneyNanos(MoneyValue value) {
+    return Math.addExact(Math.multiplyExact(value.getUnits(), NANOS_PER_UNIT), value.getNano());
+  }
+
+  /**
+   * Произведение двух чисел в миллиардных долях. Для целого количества обходится без создания объектов.
+   */
+  static long multiplyNanos(long valueNanos, long quantityNanos) {
+    if (quantityNanos % NANOS_PER_UNIT == 0) {
+      return Math.multiplyExact(valueNanos, quantityNanos / NANOS_PER_UNIT);
+    }
+    return BigDecimal.valueOf(valueNanos, 9)
+      .multiply(BigDecimal.valueOf(quantityNanos, 9))
+      .setScale(9, RoundingMode.HALF_UP)
+      .unscaledValue()
+      .longValueExact();
+  }
+
+  /**
+   * Цена и позиции одного инструмента. Изменяется только под блокировкой движка.
+   */
+  private static final class Instrument {
+    private final String figi;
+    private final boolean futures;
+    private final boolean bond;
+    private final List<Holding> holdings = new ArrayList<>();
+    private long pricePointsNanos = NO_PRICE;
+    private long priceNanos = NO_PRICE;
+    private long minPriceIncrementNanos;
+    private long minPriceIncrementAmountNanos;
+    private boolean marginRequested;
+
+    Instrument(String figi, String instrumentType) {
+      this.figi = figi;
+      this.futures = FUTURES.equals(instrumentType);
+      this.bond = BOND.equals(instrumentType);
+    }
+
+    void setMargin(GetFuturesMarginResponse response) {
+      minPriceIncrementNanos = MapperUtils.quotationToNanos(response.getMinPriceIncrement());
+      minPriceIncrementAmountNanos = MapperUtils.quotationToNanos(response.getMinPriceIncrementAmount());
+    }
+  }
+
+  /**
+   * Позиция счёта по инструменту. Результат переоценки читается без блокировок через volatile-ссылку.
+   */
+  private static final class Holding {
+    private final String accountId;
+    private final String figi;
+    private final String instrumentType;
+    private final String currency;
+    private final long quantityNanos;
+    private final long averagePriceNanos;
+    private volatile PositionPnl pnl;
+
+    Holding(String accountId, PortfolioPosition position, long quantityNanos) {
+      this.accountId = accountId;
+      this.figi = position.getFigi();
+      this.instrumentType = position.getInstrumentType();
+      this.currency = position.getAveragePositionPrice().getCurrency().isEmpty()
+        ? position.getCurrentPrice().getCurrency()
+        : position.getAveragePositionPrice().getCurrency();
+      this.quantityNanos = quantityNanos;
+      this.averagePriceNanos = moneyNanos(position.getAveragePositionPrice());
+    }
+
+    PositionPnl reprice(long priceNanos) {
+      var value = multiplyNanos(Math.subtractExact(priceNanos, averagePriceNanos), quantityNanos);
+      var next = new PositionPnl(accountId, figi, instrumentType, currency, quantityNanos, averagePriceNanos,
+        priceNanos, value);
+      pnl = next;
+      return next;
+    }
+
+    /**
+     * @return Результат закрытой позиции или null, если позиция ещё не переоценивалась.
+     */
+    @Nullable
+    PositionPnl close() {
+      var last = pnl;
+      if (last == null) {
+        return null;
+      }
+      var closed = new PositionPnl(accountId, figi, instrumentType, currency, 0, averagePriceNanos,
+        last.getPriceNanos(), 0);
+      pnl = closed;
+      return closed;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import ru.tinkoff.piapi.core.models.Money;
+import ru.tinkoff.piapi.core.models.Portfolio;
+import ru.tinkoff.piapi.core.models.Positions;
+import ru.tinkoff.piapi.core.models.Result;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемый снимок портфелей и позиций по нескольким счетам.
+ * <p>
+ * Для каждого счёта хранятся результаты получения портфеля и позиций. Ошибка по одному счёту
+ * не делает недействительным весь снимок: счёт попадает в {@link #getFailedAccountIds()},
+ * а данные по остальным счетам доступны как обычно.
+ */
+public final class PortfolioSnapshot {
+  private final Instant createdAt;
+  private final Map<String, Result<Portfolio>> portfolios;
+  private final Map<String, Result<Positions>> positions;
+  private final Set<String> failedAccountIds;
+  private volatile Map<String, BigDecimal> totalAmountPortfolio;
+
+  PortfolioSnapshot(@Nonnull Instant createdAt,
+                    @Nonnull Map<String, Result<Portfolio>> portfolios,
+                    @Nonnull Map<String, Result<Positions>> positions) {
+    this.createdAt = createdAt;
+    this.portfolios = Collections.unmodifiableMap(new LinkedHashMap<>(portfolios));
+    this.positions = Collections.unmodifiableMap(new LinkedHashMap<>(positions));
+    var failed = new LinkedHashMap<String, Boolean>();
+    portfolios.forEach((accountId, result) -> {
+      if (!result.isSuccess()) {
+        failed.put(accountId, true);
+      }
+    });
+    positions.forEach((accountId, result) -> {
+      if (!result.isSuccess()) {
+        failed.put(accountId, true);
+      }
+    });
+    this.failedAccountIds = Collections.unmodifiableSet(failed.keySet());
+  }
+
+  /**
+   * @return Момент начала получения снимка.
+   */
+  @Nonnull
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  /**
+   * @return Идентификаторы счетов снимка в порядке запроса.
+   */
+  @Nonnull
+  public Set<String> getAccountIds() {
+    return portfolios.keySet();
+  }
+
+  /**
+   * @return Счета, по которым не удалось получить портфель или позиции.
+   */
+  @Nonnull
+  public Set<String> getFailedAccountIds() {
+    return failedAccountIds;
+  }
+
+  /**
+   * @return true, если данные получены по всем счетам.
+   */
+  public boolean isComplete() {
+    return failedAccountIds.isEmpty();
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Портфель или null, если счёта нет в снимке или портфель получить не удалось.
+   */
+  @Nullable
+  public Portfolio getPortfolio(@Nonnull String accountId) {
+    var result = portfolios.get(accountId);
+    return result == null ? null : result.getValue();
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Позиции или null, если счёта нет в снимке или позиции получить не удалось.
+   */
+  @Nullable
+  public Positions getPositions(@Nonnull String accountId) {
+    var result = positions.get(accountId);
+    return result == null ? null : result.getValue();
+  }
+
+  /**
+   * @return Результаты получения портфелей по счетам, включая ошибки.
+   */
+  @Nonnull
+  public Map<String, Result<Portfolio>> getPortfolioResults() {
+    return portfolios;
+  }
+
+  /**
+   * @return Результаты получения позиций по счетам, включая ошибки.
+   */
+  @Nonnull
+  public Map<String, Result<Positions>> getPositionsResults() {
+    return positions;
+  }
+
+  /**
+   * Суммарная стоимость портфелей по всем успешно полученным счетам.
+   *
+   * @return Стоимость в разрезе валют.
+   */
+  @Nonnull
+  public Map<String, BigDecimal> getTotalAmountPortfolio() {
+    var value = totalAmountPortfolio;
+    if (value == null) {
+      var totals = new TreeMap<String, BigDecimal>();
+      for (var result : portfolios.values()) {
+        if (result.isSuccess()) {
+          Money amount = result.getValue().getTotalAmountPortfolio();
+          if (amount != null && !amount.getCurrency().isEmpty()) {
+            totals.merge(amount.getCurrency(), amount.getValue(), BigDecimal::add);
+          }
+        }
+      }
+      value = Collections.unmodifiableMap(totals);
+      totalAmountPortfolio = value;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,73 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.models.Portfolio;
+import ru.tinkoff.piapi.core.models.Positions;
+import ru.tinkoff.piapi.core.models.Result;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+
+import javax.annotation.Nonnull;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Получение портфелей и позиций по множеству счетов одним снимком.
+ * <p>
+ * Запросы по всем счетам выполняются параллельно с ограничением количества одновременных вызовов,
+ * чтобы не выходить за лимиты тарифа. Ошибки возвращаются через {@link Result} без исключений,
+ * поэтому неудача по части счетов не прерывает получение остальных.
+ */
+public class PortfolioSnapshotLoader {
+  private final OperationsService operationsService;
+  private final AsyncLimiter limiter;
+
+  public PortfolioSnapshotLoader(@Nonnull OperationsService operationsService, int parallelism) {
+    this.operationsService = operationsService;
+    this.limiter = new AsyncLimiter(parallelism);
+  }
+
+  /**
+   * Получение (асинхронное) снимка портфелей и позиций по счетам.
+   *
+   * @param accountIds Идентификаторы счетов. Повторяющиеся идентификаторы запрашиваются один раз.
+   * @return Снимок по всем счетам.
+   */
+  @Nonnull
+  public CompletableFuture<PortfolioSnapshot> load(@Nonnull Collection<String> accountIds) {
+    var createdAt = Instant.now();
+    var ids = new ArrayList<>(new LinkedHashSet<>(accountIds));
+    var portfolios = new ArrayList<CompletableFuture<Result<Portfolio>>>(ids.size());
+    var positions = new ArrayList<CompletableFuture<Result<Positions>>>(ids.size());
+    for (var accountId : ids) {
+      portfolios.add(limiter.submit(() -> operationsService.getPortfolioResult(accountId)));
+      positions.add(limiter.submit(() -> operationsService.getPositionsResult(accountId)));
+    }
+    var all = new ArrayList<CompletableFuture<?>>(portfolios);
+    all.addAll(positions);
+    return CompletableFuture.allOf(all.toArray(new CompletableFuture[0]))
+      .thenApply(ignored -> {
+        var portfolioResults = new LinkedHashMap<String, Result<Portfolio>>();
+        var positionsResults = new LinkedHashMap<String, Result<Positions>>();
+        for (int i = 0; i < ids.size(); i++) {
+          portfolioResults.put(ids.get(i), portfolios.get(i).join());
+          positionsResults.put(ids.get(i), positions.get(i).join());
+        }
+        return new PortfolioSnapshot(createdAt, portfolioResults, positionsResults);
+      });
+  }
+
+  /**
+   * Получение (синхронное) снимка портфелей и позиций по счетам.
+   *
+   * @param accountIds Идентификаторы счетов. Повторяющиеся идентификаторы запрашиваются один раз.
+   * @return Снимок по всем счетам.
+   */
+  @Nonnull
+  public PortfolioSnapshot loadSync(@Nonnull Collection<String> accountIds) {
+    return load(accountIds).join();
+  }
+}
@@ -0,0 +1,405 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
+import ru.tinkoff.piapi.contract.v1.PortfolioStreamResponse;
+import ru.tinkoff.piapi.contract.v1.PositionData;
+import ru.tinkoff.piapi.contract.v1.PositionsFutures;
+import ru.tinkoff.piapi.contract.v1.PositionsOptions;
+import ru.tinkoff.piapi.contract.v1.PositionsResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsSecurities;
+import ru.tinkoff.piapi.contract.v1.PositionsStreamResponse;
+import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.stream.OperationsStreamService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Актуальное состояние портфелей и позиций по счетам, поддерживаемое стримами.
+ * <p>
+ * При запуске трекер подписывается на PortfolioStream и PositionsStream, затем один раз получает
+ * портфель и позиции каждого счёта унарными запросами. Дальше состояние обновляется только из стримов:
+ * портфель заменяется целиком, а позиции из PositionsStream применяются к текущим позициям по ключу позиции.
+ * Изменения позиций, пришедшие до получения начального снимка, применяются поверх него. Если начальный снимок
+ * не удалось получить или до его получения накопилось слишком много изменений, накопленные изменения
+ * сбрасываются, а снимок запрашивается заново через задержку.
+ * <p>
+ * При ошибке в стриме состояние всех счетов помечается устаревшим ({@link AccountPortfolio#isStale()}), слушатели
+ * получают устаревшее состояние, а через задержку трекер заново подписывается на стримы и запрашивает начальное
+ * состояние счетов. Повторный {@link #start(Collection)} добавляет счета: подписки пересоздаются для всех
+ * отслеживаемых счетов, а их состояние запрашивается заново.
+ * <p>
+ * Чтение состояния не требует блокировок: каждый счёт хранит ссылку на неизменяемый {@link AccountPortfolio},
+ * которая заменяется при каждом изменении. Слушатели вызываются после каждого изменения, последовательно
+ * для одного счёта, на потоке стрима; они не должны выполнять долгих операций.
+ * <p>
+ * Трекер использует подписки на портфель и позиции переданного {@link OperationsStreamService},
+ * поэтому другие подписки этого сервиса на те же стримы будут отменены.
+ */
+public class PortfolioTracker implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(PortfolioTracker.class);
+  private static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+  private static final int MAX_PENDING_POSITIONS = 1024;
+
+  private final OperationsService operationsService;
+  private final OperationsStreamService operationsStreamService;
+  private final Duration retryDelay;
+  private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+  private final List<Consumer<AccountPortfolio>> listeners = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+  private int streamGeneration;
+
+  public PortfolioTracker(@Nonnull OperationsService operationsService,
+                          @Nonnull OperationsStreamService operationsStreamService) {
+    this(operationsService, operationsStreamService, DEFAULT_RETRY_DELAY);
+  }
+
+  /**
+   * @param retryDelay Задержка перед повторным запросом начального состояния и переподключением к стримам.
+   */
+  public PortfolioTracker(@Nonnull OperationsService operationsService,
+                          @Nonnull OperationsStreamService operationsStreamService,
+                          @Nonnull Duration retryDelay) {
+    if (retryDelay.isNegative()) {
+      throw new IllegalArgumentException("Задержка повторного запроса не может быть отрицательной.");
+    }
+    this.operationsService = operationsService;
+    this.operationsStreamService = operationsStreamService;
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * Подписка на стримы и получение начального состояния счетов. Счета добавляются к уже отслеживаемым.
+   *
+   * @param accountIds Идентификаторы счетов.
+   * @return {@link CompletableFuture}, который завершается после получения начального состояния всех
+   * отслеживаемых счетов. Если начальное состояние счёта получить не удалось, future завершается ошибкой,
+   * а состояние счёта запрашивается повторно в фоне.
+   */
+  @Nonnull
+  public synchronized CompletableFuture<Void> start(@Nonnull Collection<String> accountIds) {
+    if (closed) {
+      throw new IllegalStateException("Трекер портфелей закрыт.");
+    }
+    var ids = new LinkedHashSet<>(accountIds);
+    if (ids.isEmpty()) {
+      throw new IllegalArgumentException("Нужно указать хотя бы один счёт.");
+    }
+    for (var accountId : ids) {
+      accounts.computeIfAbsent(accountId, Account::new);
+    }
+    return subscribe();
+  }
+
+  /**
+   * Синхронный вариант {@link #start(Collection)}.
+   *
+   * @param accountIds Идентификаторы счетов.
+   */
+  public void startSync(@Nonnull Collection<String> accountIds) {
+    start(accountIds).join();
+  }
+
+  /**
+   * @param accountId Идентификатор счёта.
+   * @return Текущее состояние счёта или null, если счёт не отслеживается.
+   */
+  @Nullable
+  public AccountPortfolio get(@Nonnull String accountId) {
+    var account = accounts.get(accountId);
+    return account == null ? null : account.state;
+  }
+
+  /**
+   * @return Текущие состояния всех отслеживаемых счетов.
+   */
+  @Nonnull
+  public Map<String, AccountPortfolio> getAll() {
+    var result = new LinkedHashMap<String, AccountPortfolio>();
+    accounts.forEach((accountId, account) -> result.put(accountId, account.state));
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * @param listener Слушатель изменений состояния счетов.
+   */
+  public void addListener(@Nonnull Consumer<AccountPortfolio> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(@Nonnull Consumer<AccountPortfolio> listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    streamGeneration++;
+    operationsStreamService.cancelPortfolioSubscription();
+    operationsStreamService.cancelPositionSubscription();
+  }
+
+  private void onPortfolio(PortfolioStreamResponse response) {
+    if (!response.hasPortfolio()) {
+      return;
+    }
+    var account = accounts.get(response.getPortfolio().getAccountId());
+    if (account != null) {
+      account.onPortfolio(response.getPortfolio());
+    }
+  }
+
+  private void onPositions(PositionsStreamResponse response) {
+    if (!response.hasPosition()) {
+      return;
+    }
+    var account = accounts.get(response.getPosition().getAccountId());
+    if (account != null && !account.onPositions(response.getPosition())) {
+      logger.warn("По счёту {} накопилось слишком много изменений позиций до получения начального состояния, " +
+        "начальное состояние будет запрошено заново.", account.accountId);
+      seed(account);
+    }
+  }
+
+  private CompletableFuture<Void> seed(Account account) {
+    var generation = account.resetPending();
+    return operationsService.getPortfolio(account.accountId)
+      .thenCombine(operationsService.getPositions(account.accountId),
+        (portfolio, positions) -> {
+          account.seed(generation, portfolio.getResponse(), positions.getResponse());
+          return (Void) null;
+        })
+      .whenComplete((ignored, throwable) -> {
+        if (throwable != null && !closed && account.isSeeding(generation)) {
+          logger.warn("Не удалось получить начальное состояние счёта {}, повтор через {}.",
+            account.accountId, retryDelay, throwable);
+          var delayed = CompletableFuture.delayedExecutor(retryDelay.toNanos(), TimeUnit.NANOSECONDS);
+          CompletableFuture.runAsync(() -> retrySeed(account, generation), delayed);
+        }
+      });
+  }
+
+  private void retrySeed(Account account, int generation) {
+    if (!closed && account.isSeeding(generation)) {
+      seed(account);
+    }
+  }
+
+  /**
+   * Подписка на стримы по всем отслеживаемым счетам и запрос их начального состояния. Вызывается под блокировкой
+   * трекера. Изменения позиций копятся с момента подписки, поэтому счета помечаются устаревшими до неё.
+   */
+  private CompletableFuture<Void> subscribe() {
+    var generation = ++streamGeneration;
+    var ids = new ArrayList<>(accounts.keySet());
+    for (var account : accounts.values()) {
+      account.invalidate();
+    }
+    // Ошибки отменённых трекером подписок приходят с устаревшим номером и игнорируются.
+    operationsStreamService.subscribePortfolio(this::onPortfolio, throwable -> onError(generation, throwable), ids);
+    operationsStreamService.subscribePositions(this::onPositions, throwable -> onError(generation, throwable), ids);
+
+    var seeds = new ArrayList<CompletableFuture<Void>>(ids.size());
+    for (var accountId : ids) {
+      seeds.add(seed(accounts.get(accountId)));
+    }
+    return CompletableFuture.allOf(seeds.toArray(new CompletableFuture[0]));
+  }
+
+  private synchronized void onError(int generation, Throwable throwable) {
+    if (closed || generation != streamGeneration) {
+      return;
+    }
+    // Ошибка второго стрима этой же подписки уже не нужна: переподключаются оба стрима.
+    var expected = ++streamGeneration;
+    logger.warn("Ошибка в стриме портфеля или позиций, переподключение через {}.", retryDelay, throwable);
+    for (var account : accounts.values()) {
+      account.invalidate();
+    }
+    var delayed = CompletableFuture.delayedExecutor(retryDelay.toNanos(), TimeUnit.NANOSECONDS);
+    CompletableFuture.runAsync(() -> reconnect(expected), delayed);
+  }
+
+  private synchronized void reconnect(int generation) {
+    if (!closed && generation == streamGeneration) {
+      subscribe();
+    }
+  }
+
+  /**
+   * Применение изменения позиций из PositionsStream к позициям счёта.
+   */
+  static PositionsResponse merge(@Nonnull PositionsResponse positions, @Nonnull PositionData data) {
+    var builder = positions.toBuilder();
+    if (data.getMoneyCount() > 0) {
+      var money = byKey(positions.getMoneyList(), MoneyValue::getCurrency);
+      var blocked = byKey(positions.getBlockedList(), MoneyValue::getCurrency);
+      for (var value : data.getMoneyList()) {
+        put(money, value.getAvailableValue());
+        put(blocked, value.getBlockedValue());
+      }
+      builder.clearMoney().addAllMoney(money.values()).clearBlocked().addAllBlocked(blocked.values());
+    }
+    if (data.getSecuritiesCount() > 0) {
+      var securities = byKey(positions.getSecuritiesList(), PortfolioTracker::key);
+      for (var security : data.getSecuritiesList()) {
+        securities.remove(key(security));
+        if (security.getBalance() != 0 || security.getBlocked() != 0) {
+          securities.put(key(security), security);
+        }
+      }
+      builder.clearSecurities().addAllSecurities(securities.values());
+    }
+    if (data.getFuturesCount() > 0) {
+      var futures = byKey(positions.getFuturesList(), PortfolioTracker::key);
+      for (var future : data.getFuturesList()) {
+        futures.remove(key(future));
+        if (future.getBalance() != 0 || future.getBlocked() != 0) {
+          futures.put(key(future), future);
+        }
+      }
+      builder.clearFutures().addAllFutures(futures.values());
+    }
+    if (data.getOptionsCount() > 0) {
+      var options = byKey(positions.getOptionsList(), PositionsOptions::getPositionUid);
+      for (var option : data.getOptionsList()) {
+        options.remove(option.getPositionUid());
+        if (option.getBalance() != 0 || option.getBlocked() != 0) {
+          options.put(option.getPositionUid(), option);
+        }
+      }
+      builder.clearOptions().addAllOptions(options.values());
+    }
+    return builder.build();
+  }
+
+  private static <T> Map<String, T> byKey(List<T> values, Function<T, String> key) {
+    var result = new LinkedHashMap<String, T>();
+    for (var value : values) {
+      result.put(key.apply(value), value);
+    }
+    return result;
+  }
+
+  private static void put(Map<String, MoneyValue> money, MoneyValue value) {
+    if (!value.getCurrency().isEmpty()) {
+      money.put(value.getCurrency(), value);
+    }
+  }
+
+  private static String key(PositionsSecurities security) {
+    return security.getPositionUid().isEmpty() ? security.getFigi() : security.getPositionUid();
+  }
+
+  private static String key(PositionsFutures future) {
+    return future.getPositionUid().isEmpty() ? future.getFigi() : future.getPositionUid();
+  }
+
+  /**
+   * Состояние одного счёта. Запись выполняется под блокировкой объекта, чтение - через volatile-ссылку.
+   */
+  private final class Account {
+    private final String accountId;
+    private volatile AccountPortfolio state;
+    private List<PositionData> pending = new ArrayList<>();
+    private int generation;
+
+    Account(String accountId) {
+      this.accountId = accountId;
+      this.state = new AccountPortfolio(accountId, 0, Instant.now(), null, null, true);
+    }
+
+    /**
+     * Пометка состояния устаревшим до получения нового начального состояния. Изменения позиций с этого момента
+     * копятся, а слушатели получают состояние с признаком {@link AccountPortfolio#isStale()}.
+     */
+    synchronized void invalidate() {
+      if (pending == null) {
+        pending = new ArrayList<>();
+        publish(state.getPortfolioResponse(), state.getPositionsResponse());
+      }
+    }
+
+    /**
+     * Начало нового запроса начального состояния. Накопленные изменения сбрасываются: новый снимок
+     * запрашивается после них и уже их учитывает.
+     *
+     * @return Номер запроса, ответы на более ранние запросы игнорируются.
+     */
+    synchronized int resetPending() {
+      if (pending != null) {
+        pending.clear();
+      }
+      return ++generation;
+    }
+
+    synchronized boolean isSeeding(int generation) {
+      return pending != null && this.generation == generation;
+    }
+
+    synchronized void seed(int generation, PortfolioResponse portfolio, PositionsResponse positions) {
+      if (!isSeeding(generation)) {
+        return;
+      }
+      var current = state;
+      // Портфель из стрима новее портфеля из унарного запроса, отправленного до его получения.
+      var seededPortfolio = current.getPortfolioResponse() != null ? current.getPortfolioResponse() : portfolio;
+      var seededPositions = positions;
+      for (var data : pending) {
+        seededPositions = merge(seededPositions, data);
+      }
+      pending = null;
+      publish(seededPortfolio, seededPositions);
+    }
+
+    synchronized void onPortfolio(PortfolioResponse portfolio) {
+      publish(portfolio, state.getPositionsResponse());
+    }
+
+    /**
+     * @return false, если изменение не поместилось в буфер и начальное состояние нужно запросить заново.
+     */
+    synchronized boolean onPositions(PositionData data) {
+      if (pending != null) {
+        if (pending.size() >= MAX_PENDING_POSITIONS) {
+          return false;
+        }
+        pending.add(data);
+        return true;
+      }
+      publish(state.getPortfolioResponse(), merge(state.getPositionsResponse(), data));
+      return true;
+    }
+
+    private void publish(PortfolioResponse portfolio, PositionsResponse positions) {
+      var next = new AccountPortfolio(accountId, state.getVersion() + 1, Instant.now(), portfolio, positions,
+        pending != null);
+      state = next;
+      for (var listener : listeners) {
+        try {
+          listener.accept(next);
+        } catch (RuntimeException e) {
+          logger.warn("Ошибка в слушателе изменений портфеля по счёту {}.", accountId, e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package ru.tinkoff.piapi.core.portfolio;
+
+import ru.tinkoff.piapi.core.models.Decimal;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Неизменяемый результат переоценки одной позиции счёта в {@link PnlEngine}.
+ * <p>
+ * Денежные значения хранятся в миллиардных долях и конвертируются в {@link Decimal} только при обращении
+ * к геттерам, поэтому создание объекта при каждом изменении цены обходится без лишних аллокаций.
+ */
+public final class PositionPnl {
+  private final String accountId;
+  private final String figi;
+  private final String instrumentType;
+  private final String currency;
+  private final long quantityNanos;
+  private final long averagePriceNanos;
+  private final long priceNanos;
+  private final long pnlNanos;
+
+  PositionPnl(@Nonnull String accountId,
+              @Nonnull String figi,
+              @Nonnull String instrumentType,
+              @Nonnull String currency,
+              long quantityNanos,
+              long averagePriceNanos,
+              long priceNanos,
+              long pnlNanos) {
+    this.accountId = accountId;
+    this.figi = figi;
+    this.instrumentType = instrumentType;
+    this.currency = currency;
+    this.quantityNanos = quantityNanos;
+    this.averagePriceNanos = averagePriceNanos;
+    this.priceNanos = priceNanos;
+    this.pnlNanos = pnlNanos;
+  }
+
+  @Nonnull
+  public String getAccountId() {
+    return accountId;
+  }
+
+  @Nonnull
+  public String getFigi() {
+    return figi;
+  }
+
+  @Nonnull
+  public String getInstrumentType() {
+    return instrumentType;
+  }
+
+  /**
+   * @return Валюта средней цены, текущей цены и результата.
+   */
+  @Nonnull
+  public String getCurrency() {
+    return currency;
+  }
+
+  /**
+   * @return Количество инструмента в штуках. Для коротких позиций отрицательное, для закрытых - ноль.
+   */
+  @Nonnull
+  public Decimal getQuantity() {
+    return Decimal.ofNanos(quantityNanos);
+  }
+
+  /**
+   * @return Средневзвешенная цена позиции.
+   */
+  @Nonnull
+  public Decimal getAveragePrice() {
+    return Decimal.ofNanos(averagePriceNanos);
+  }
+
+  /**
+   * @return Цена за 1 инструмент, по которой переоценена позиция.
+   */
+  @Nonnull
+  public Decimal getPrice() {
+    return Decimal.ofNanos(priceNanos);
+  }
+
+  /**
+   * @return Нереализованный результат позиции: (цена - средняя цена) * количество.
+   */
+  @Nonnull
+  public Decimal getPnl() {
+    return Decimal.ofNanos(pnlNanos);
+  }
+
+  public long getPnlNanos() {
+    return pnlNanos;
+  }
+
+  long getPriceNanos() {
+    return priceNanos;
+  }
+
+  /**
+   * @return true, если позиция закрыта и пропала из портфеля.
+   */
+  public boolean isClosed() {
+    return quantityNanos == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "PositionPnl{accountId=" + accountId + ", figi=" + figi + ", price=" + getPrice()
+      + ", pnl=" + getPnl() + " " + currency + "}";
+  }
+}
@@ -0,0 +1,131 @@
+package ru.tinkoff.piapi.core.stream;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Маршаллеры ответов стрима рыночных данных, которые не разбирают сообщение целиком.
+ * <p>
+ * Каждое сообщение {@link MarketDataResponse} содержит ровно одну полезную нагрузку, поэтому её тип
+ * определяется по первому тегу, без разбора остальных байтов.
+ */
+public final class MarketDataMarshallers {
+  private static final MethodDescriptor.Marshaller<MarketDataResponse> DEFAULT_MARSHALLER =
+    ProtoUtils.marshaller(MarketDataResponse.getDefaultInstance());
+
+  private MarketDataMarshallers() {
+  }
+
+  /**
+   * Маршаллер, который разбирает только сообщения с заданными типами полезной нагрузки.
+   * Остальные сообщения пропускаются без разбора и возвращаются как
+   * {@link MarketDataResponse#getDefaultInstance()} с типом {@link MarketDataResponse.PayloadCase#PAYLOAD_NOT_SET}.
+   *
+   * @param payloadCases Типы полезной нагрузки, которые нужно разбирать.
+   * @return Маршаллер ответов стрима.
+   */
+  @Nonnull
+  public static MethodDescriptor.Marshaller<MarketDataResponse> filtering(
+    @Nonnull Set<MarketDataResponse.PayloadCase> payloadCases) {
+    if (payloadCases.isEmpty()) {
+      throw new IllegalArgumentException("Нужно указать хотя бы один тип сообщений.");
+    }
+    var accepted = EnumSet.copyOf(payloadCases);
+    return new BytesMarshaller<>() {
+      @Override
+      MarketDataResponse parse(byte[] bytes) throws IOException {
+        if (!accepted.contains(payloadCase(bytes))) {
+          return MarketDataResponse.getDefaultInstance();
+        }
+        var input = CodedInputStream.newInstance(bytes);
+        input.enableAliasing(true);
+        return MarketDataResponse.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+      }
+    };
+  }
+
+  /**
+   * Маршаллер, который не разбирает сообщения, а отдаёт их байты. Сообщение копируется из сетевого буфера
+   * в массив один раз, полезная нагрузка ссылается на тот же массив без дополнительного копирования.
+   *
+   * @return Маршаллер неразобранных ответов стрима.
+   */
+  @Nonnull
+  public static MethodDescriptor.Marshaller<RawMarketDataResponse> raw() {
+    return new BytesMarshaller<>() {
+      @Override
+      RawMarketDataResponse parse(byte[] bytes) throws IOException {
+        var message = UnsafeByteOperations.unsafeWrap(bytes);
+        var input = CodedInputStream.newInstance(bytes);
+        input.enableAliasing(true);
+        var tag = input.readTag();
+        var payloadCase = MarketDataResponse.PayloadCase.forNumber(WireFormat.getTagFieldNumber(tag));
+        if (tag == 0 || payloadCase == null
+          || WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          return new RawMarketDataResponse(MarketDataResponse.PayloadCase.PAYLOAD_NOT_SET, message, ByteString.EMPTY);
+        }
+        return new RawMarketDataResponse(payloadCase, message, input.readBytes());
+      }
+    };
+  }
+
+  /**
+   * Тип полезной нагрузки сообщения по его первому тегу.
+   */
+  static MarketDataResponse.PayloadCase payloadCase(byte[] bytes) throws IOException {
+    var tag = CodedInputStream.newInstance(bytes).readTag();
+    var payloadCase = MarketDataResponse.PayloadCase.forNumber(WireFormat.getTagFieldNumber(tag));
+    return payloadCase == null ? MarketDataResponse.PayloadCase.PAYLOAD_NOT_SET : payloadCase;
+  }
+
+  private abstract static class BytesMarshaller<T> implements MethodDescriptor.Marshaller<T> {
+
+    abstract T parse(byte[] bytes) throws IOException;
+
+    @Override
+    public InputStream stream(T value) {
+      if (value instanceof MarketDataResponse) {
+        return DEFAULT_MARSHALLER.stream((MarketDataResponse) value);
+      }
+      return ((RawMarketDataResponse) value).getMessage().newInput();
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+      try {
+        return parse(readBytes(stream));
+      } catch (IOException e) {
+        throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+      }
+    }
+
+    /**
+     * Чтение сообщения в массив. Если размер сообщения известен заранее, массив выделяется сразу нужного размера,
+     * без промежуточных буферов.
+     */
+    private static byte[] readBytes(InputStream stream) throws IOException {
+      if (!(stream instanceof KnownLength)) {
+        return stream.readAllBytes();
+      }
+      var bytes = new byte[stream.available()];
+      if (stream.readNBytes(bytes, 0, bytes.length) != bytes.length) {
+        throw new IOException("Неожиданный конец сообщения.");
+      }
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package ru.tinkoff.piapi.core.stream;
+
+import com.google.protobuf.CodedOutputStream;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Запись сообщений {@link MarketDataResponse} в журнал на диске.
+ * <p>
+ * Журнал состоит из сегментов фиксированного размера, отображённых в память.
+ * Каждая запись содержит длину сообщения, время получения (наносекунды от начала эпохи)
+ * и сериализованное сообщение. Незаполненный остаток сегмента состоит из нулей,
+ * поэтому нулевое время получения означает конец данных в сегменте. Время получения записывается
+ * последним и служит признаком завершённой записи: запись, прерванная на середине, не читается.
+ * Сообщение пишется прямо в отображённый буфер, так что запись не требует
+ * промежуточных копий и системных вызовов на потоке gRPC.
+ * <p>
+ * Для воспроизведения журнала используется {@link MarketDataReplay}.
+ */
+public class MarketDataRecorder implements StreamProcessor<MarketDataResponse>, AutoCloseable {
+  static final String SEGMENT_PREFIX = "marketdata-";
+  static final String SEGMENT_SUFFIX = ".journal";
+  static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+  private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long baseEpochNanos;
+  private final long baseNanoTime;
+  private MappedByteBuffer segment;
+  private int segmentIndex;
+  private boolean closed;
+
+  public MarketDataRecorder(@Nonnull Path directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public MarketDataRecorder(@Nonnull Path directory, int segmentSize) {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("Размер сегмента слишком мал.");
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.baseEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    this.baseNanoTime = System.nanoTime();
+    try {
+      Files.createDirectories(directory);
+      this.segmentIndex = nextSegmentIndex(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Обёртка над обработчиком стрима, которая записывает каждое сообщение в журнал перед передачей обработчику.
+   *
+   * @param delegate обработчик пришедших сообщений в стриме
+   * @return обработчик для передачи в {@link MarketDataStreamService#newStream}
+   */
+  @Nonnull
+  public StreamProcessor<MarketDataResponse> wrap(@Nonnull StreamProcessor<MarketDataResponse> delegate) {
+    return response -> {
+      process(response);
+      delegate.process(response);
+    };
+  }
+
+  /**
+   * Запись сообщения в журнал. Пустые сообщения пропускаются.
+   */
+  @Override
+  public void process(MarketDataResponse response) {
+    if (response.getSerializedSize() == 0) {
+      return;
+    }
+    append(response, baseEpochNanos + (System.nanoTime() - baseNanoTime));
+  }
+
+  /**
+   * Запись сообщения в журнал с указанным временем получения.
+   *
+   * @param response   сообщение стрима
+   * @param epochNanos время получения в наносекундах от начала эпохи. Должно быть положительным
+   * @throws IllegalArgumentException если сообщение пустое или не помещается в сегмент.
+   */
+  public synchronized void append(@Nonnull MarketDataResponse response, long epochNanos) {
+    if (closed) {
+      throw new IllegalStateException("Журнал закрыт.");
+    }
+    if (epochNanos <= 0) {
+      throw new IllegalArgumentException("Время получения должно быть положительным.");
+    }
+    var size = response.getSerializedSize();
+    if (size == 0) {
+      throw new IllegalArgumentException("Пустое сообщение не записывается в журнал.");
+    }
+    if (HEADER_SIZE + size > segmentSize) {
+      throw new IllegalArgumentException("Сообщение не помещается в сегмент журнала.");
+    }
+    if (segment == null || segment.remaining() < HEADER_SIZE + size) {
+      roll();
+    }
+    var position = segment.position();
+    segment.putInt(position, size);
+    segment.position(position + HEADER_SIZE);
+    var payload = segment.slice();
+    payload.limit(size);
+    try {
+      var output = CodedOutputStream.newInstance(payload);
+      response.writeTo(output);
+      output.flush();
+    } catch (IOException e) {
+      segment.putInt(position, 0);
+      segment.position(position);
+      throw new UncheckedIOException(e);
+    }
+    // Время получения пишется после сообщения и завершает запись.
+    segment.putLong(position + Integer.BYTES, epochNanos);
+    segment.position(position + HEADER_SIZE + size);
+  }
+
+  /**
+   * Сброс записанных данных на диск.
+   */
+  public synchronized void flush() {
+    if (segment != null) {
+      segment.force();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    flush();
+    segment = null;
+    closed = true;
+  }
+
+  private void roll() {
+    var path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex++, SEGMENT_SUFFIX));
+    try (var channel = FileChannel.open(path,
+      StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Номер следующего сегмента: на единицу больше наибольшего номера существующих сегментов, поскольку
+   * старые сегменты могут быть удалены и нумерация может содержать пропуски.
+   */
+  private static int nextSegmentIndex(Path directory) throws IOException {
+    var next = 0;
+    for (var path : segments(directory)) {
+      var name = path.getFileName().toString();
+      try {
+        var number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        next = Math.max(next, Integer.parseInt(number) + 1);
+      } catch (NumberFormatException e) {
+        // Файл с похожим именем, но без номера, не является сегментом журнала.
+      }
+    }
+    return next;
+  }
+
+  static List<Path> segments(Path directory) throws IOException {
+    try (var files = Files.list(directory)) {
+      return files
+        .filter(path -> {
+          var name = path.getFileName().toString();
+          return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+        })
+        .sorted()
+        .collect(Collectors.toCollection(ArrayList::new));
+    }
+  }
+}
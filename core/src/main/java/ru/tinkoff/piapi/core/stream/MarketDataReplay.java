@@ -0,0 +1,106 @@
+package ru.tinkoff.piapi.core.stream;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+import static ru.tinkoff.piapi.core.stream.MarketDataRecorder.HEADER_SIZE;
+
+/**
+ * Воспроизведение журнала, записанного {@link MarketDataRecorder}.
+ * <p>
+ * Сообщения передаются тому же {@link StreamProcessor}, который используется с живым стримом,
+ * либо с максимальной скоростью, либо с сохранением интервалов между сообщениями.
+ * Незавершённая или повреждённая запись (например, после аварийного завершения записи) считается концом
+ * данных сегмента, и воспроизведение продолжается со следующего сегмента.
+ */
+public class MarketDataReplay {
+  private final Path directory;
+
+  public MarketDataReplay(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Воспроизведение журнала с максимальной скоростью.
+   *
+   * @param streamProcessor обработчик сообщений
+   * @return количество воспроизведённых сообщений
+   */
+  public long replay(@Nonnull StreamProcessor<MarketDataResponse> streamProcessor) {
+    return replay(streamProcessor, 0);
+  }
+
+  /**
+   * Воспроизведение журнала с сохранением интервалов между сообщениями.
+   *
+   * @param streamProcessor обработчик сообщений
+   * @param speed           множитель скорости: 1 - скорость записи, 2 - вдвое быстрее.
+   *                        Значение 0 - максимальная скорость без задержек
+   * @return количество воспроизведённых сообщений
+   */
+  public long replay(@Nonnull StreamProcessor<MarketDataResponse> streamProcessor, double speed) {
+    if (speed < 0) {
+      throw new IllegalArgumentException("Множитель скорости не может быть отрицательным.");
+    }
+    long count = 0;
+    long firstRecorded = 0;
+    long startedAt = 0;
+    try {
+      for (var path : MarketDataRecorder.segments(directory)) {
+        var segment = map(path);
+        while (segment.remaining() >= HEADER_SIZE) {
+          var size = segment.getInt();
+          var epochNanos = segment.getLong();
+          if (epochNanos <= 0 || size <= 0 || size > segment.remaining()) {
+            break;
+          }
+          var payload = segment.slice();
+          payload.limit(size);
+          segment.position(segment.position() + size);
+          var response = MarketDataResponse.parseFrom(payload);
+
+          if (speed > 0) {
+            if (count == 0) {
+              firstRecorded = epochNanos;
+              startedAt = System.nanoTime();
+            } else {
+              waitUntil(startedAt + (long) ((epochNanos - firstRecorded) / speed));
+            }
+          }
+          streamProcessor.process(response);
+          count++;
+        }
+      }
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException("Журнал повреждён.", e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return count;
+  }
+
+  private static ByteBuffer map(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private static void waitUntil(long nanoTime) {
+    long delay;
+    while ((delay = nanoTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(delay);
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+}
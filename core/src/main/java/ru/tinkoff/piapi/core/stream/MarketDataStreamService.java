@@ -1,13 +1,17 @@
 package ru.tinkoff.piapi.core.stream;
 
+import io.grpc.MethodDescriptor;
+import ru.tinkoff.piapi.contract.v1.MarketDataRequest;
 import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
 import ru.tinkoff.piapi.contract.v1.MarketDataStreamServiceGrpc;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class MarketDataStreamService {
 
@@ -33,11 +37,65 @@ public class MarketDataStreamService {
   public MarketDataSubscriptionService newStream(@Nonnull String id,
                                                  @Nonnull StreamProcessor<MarketDataResponse> streamProcessor,
                                                  @Nullable Consumer<Throwable> onErrorCallback) {
-    if (streamMap.containsKey(id)) {
-      var existSubscriptionService = streamMap.get(id);
-      existSubscriptionService.cancel();
+    return putStream(id, () -> new MarketDataSubscriptionService(stub, streamProcessor, onErrorCallback));
+  }
+
+  /**
+   * Стрим, в котором разбираются только сообщения с заданными типами полезной нагрузки.
+   * Остальные сообщения пропускаются на уровне protobuf без создания объектов и не передаются в обработчик.
+   * Существующий стрим с тем же идентификатором отменяется, как и в {@link #newStream(String, StreamProcessor, Consumer)}.
+   *
+   * @param id              Идентификатор стрима.
+   * @param payloadCases    Типы сообщений, которые нужно получать, например {@code EnumSet.of(LAST_PRICE, PING)}.
+   * @param streamProcessor Обработчик ответов.
+   * @param onErrorCallback Обработчик ошибок.
+   * @return Сервис подписок стрима.
+   */
+  public MarketDataSubscriptionService newStream(@Nonnull String id,
+                                                 @Nonnull Set<MarketDataResponse.PayloadCase> payloadCases,
+                                                 @Nonnull StreamProcessor<MarketDataResponse> streamProcessor,
+                                                 @Nullable Consumer<Throwable> onErrorCallback) {
+    var method = marketDataStreamMethod(MarketDataMarshallers.filtering(payloadCases));
+    StreamProcessor<MarketDataResponse> filtered = response -> {
+      if (response.getPayloadCase() != MarketDataResponse.PayloadCase.PAYLOAD_NOT_SET) {
+        streamProcessor.process(response);
+      }
+    };
+    return putStream(id, () -> new MarketDataSubscriptionService(stub, method, filtered, onErrorCallback));
+  }
+
+  /**
+   * Стрим неразобранных сообщений для потребителей, которые сами читают нужные поля.
+   * Байты сообщения копируются из сетевого буфера один раз и дальше не копируются, см. {@link RawMarketDataResponse}.
+   * Существующий стрим с тем же идентификатором отменяется, как и в {@link #newStream(String, StreamProcessor, Consumer)}.
+   *
+   * @param id              Идентификатор стрима.
+   * @param streamProcessor Обработчик ответов.
+   * @param onErrorCallback Обработчик ошибок.
+   * @return Сервис подписок стрима.
+   */
+  public MarketDataSubscriptionService newRawStream(@Nonnull String id,
+                                                    @Nonnull StreamProcessor<RawMarketDataResponse> streamProcessor,
+                                                    @Nullable Consumer<Throwable> onErrorCallback) {
+    var method = marketDataStreamMethod(MarketDataMarshallers.raw());
+    return putStream(id, () -> new MarketDataSubscriptionService(stub, method, streamProcessor, onErrorCallback));
+  }
+
+  private static <T> MethodDescriptor<MarketDataRequest, T> marketDataStreamMethod(
+    MethodDescriptor.Marshaller<T> responseMarshaller) {
+    var method = MarketDataStreamServiceGrpc.getMarketDataStreamMethod();
+    return method.toBuilder(method.getRequestMarshaller(), responseMarshaller).build();
+  }
+
+  /**
+   * Регистрация стрима под идентификатором: существующий стрим с тем же идентификатором отменяется до открытия нового.
+   */
+  private MarketDataSubscriptionService putStream(String id, Supplier<MarketDataSubscriptionService> factory) {
+    var existing = streamMap.get(id);
+    if (existing != null) {
+      existing.cancel();
     }
-    var subscriptionService = new MarketDataSubscriptionService(stub, streamProcessor, onErrorCallback);
+    var subscriptionService = factory.get();
     streamMap.put(id, subscriptionService);
     return subscriptionService;
   }
@@ -1,7 +1,8 @@
 package ru.tinkoff.piapi.core.stream;
 
 import io.grpc.Context;
-import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.ClientCalls;
 import io.grpc.stub.StreamObserver;
 import ru.tinkoff.piapi.contract.v1.*;
 
@@ -29,6 +30,31 @@ public class MarketDataSubscriptionService {
     }
   }
 
+  /**
+   * Стрим с собственным описанием метода, например с маршаллером из {@link MarketDataMarshallers}.
+   *
+   * @param stub            Стаб, канал и параметры вызова которого используются для стрима.
+   * @param method          Описание метода MarketDataStream с нужным маршаллером ответов.
+   * @param streamProcessor Обработчик ответов.
+   * @param onErrorCallback Обработчик ошибок.
+   */
+  public <T> MarketDataSubscriptionService(
+    @Nonnull MarketDataStreamServiceGrpc.MarketDataStreamServiceStub stub,
+    @Nonnull MethodDescriptor<MarketDataRequest, T> method,
+    @Nonnull StreamProcessor<T> streamProcessor,
+    @Nullable Consumer<Throwable> onErrorCallback) {
+    var context = Context.current().fork().withCancellation();
+    var ctx = context.attach();
+    try {
+      var call = stub.getChannel().newCall(method, stub.getCallOptions());
+      this.observer = ClientCalls.asyncBidiStreamingCall(call,
+        new StreamObserverWithProcessor<>(streamProcessor, onErrorCallback));
+      contextRef.set(context);
+    } finally {
+      context.detach(ctx);
+    }
+  }
+
   public void subscribeTrades(@Nonnull List<String> instrumentIds) {
     tradesStream(instrumentIds, SubscriptionAction.SUBSCRIPTION_ACTION_SUBSCRIBE);
   }
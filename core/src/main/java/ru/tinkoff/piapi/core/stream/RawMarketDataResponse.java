@@ -0,0 +1,80 @@
+package ru.tinkoff.piapi.core.stream;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Неразобранное сообщение стрима рыночных данных.
+ * <p>
+ * Содержит тип полезной нагрузки и её байты в формате protobuf. Сообщение копируется из сетевого буфера
+ * в массив один раз, после чего {@link #getMessage()}, {@link #getPayload()} и {@link #newPayloadInput()}
+ * ссылаются на этот массив без дополнительного копирования. Подходит для потребителей,
+ * которые сами читают только нужные поля, например цену из {@link ru.tinkoff.piapi.contract.v1.LastPrice}.
+ * <p>
+ * Полезная нагрузка удерживает в памяти весь массив сообщения, пока на неё есть ссылки.
+ */
+public final class RawMarketDataResponse {
+  private final MarketDataResponse.PayloadCase payloadCase;
+  private final ByteString message;
+  private final ByteString payload;
+
+  RawMarketDataResponse(@Nonnull MarketDataResponse.PayloadCase payloadCase,
+                        @Nonnull ByteString message,
+                        @Nonnull ByteString payload) {
+    this.payloadCase = payloadCase;
+    this.message = message;
+    this.payload = payload;
+  }
+
+  /**
+   * @return Тип полезной нагрузки сообщения.
+   */
+  @Nonnull
+  public MarketDataResponse.PayloadCase getPayloadCase() {
+    return payloadCase;
+  }
+
+  /**
+   * @return Сообщение {@link MarketDataResponse} целиком в формате protobuf.
+   */
+  @Nonnull
+  public ByteString getMessage() {
+    return message;
+  }
+
+  /**
+   * @return Полезная нагрузка (например, {@link ru.tinkoff.piapi.contract.v1.Candle}) в формате protobuf.
+   */
+  @Nonnull
+  public ByteString getPayload() {
+    return payload;
+  }
+
+  /**
+   * @return Новый поток чтения полей полезной нагрузки без копирования байтов.
+   */
+  @Nonnull
+  public CodedInputStream newPayloadInput() {
+    var input = payload.newCodedInput();
+    input.enableAliasing(true);
+    return input;
+  }
+
+  /**
+   * Полный разбор сообщения, например для редких типов сообщений, которые потребитель не читает сам.
+   *
+   * @return Разобранное сообщение.
+   */
+  @Nonnull
+  public MarketDataResponse parse() {
+    try {
+      return MarketDataResponse.parseFrom(message);
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
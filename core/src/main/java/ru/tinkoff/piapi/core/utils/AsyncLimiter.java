@@ -0,0 +1,107 @@
+package ru.tinkoff.piapi.core.utils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Ограничение количества одновременно выполняемых асинхронных вызовов.
+ * <p>
+ * Вызовы сверх лимита не блокируют вызывающий поток, а ставятся в очередь
+ * и запускаются по мере завершения уже выполняющихся.
+ */
+public class AsyncLimiter {
+  private final int maxInFlight;
+  private final Queue<Runnable> pending = new ArrayDeque<>();
+  private int inFlight;
+  private boolean draining;
+
+  public AsyncLimiter(int maxInFlight) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("Количество одновременных вызовов должно быть положительным числом.");
+    }
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Постановка асинхронного вызова в очередь.
+   *
+   * @param call Асинхронный вызов.
+   * @param <T>  Тип результата вызова.
+   * @return {@link CompletableFuture} с результатом вызова.
+   */
+  @Nonnull
+  public <T> CompletableFuture<T> submit(@Nonnull Supplier<CompletableFuture<T>> call) {
+    var result = new CompletableFuture<T>();
+    Runnable task = () -> {
+      CompletableFuture<T> future;
+      try {
+        future = call.get();
+      } catch (Exception e) {
+        future = CompletableFuture.failedFuture(e);
+      }
+      future.whenComplete((value, throwable) -> {
+        release();
+        if (throwable != null) {
+          result.completeExceptionally(throwable);
+        } else {
+          result.complete(value);
+        }
+      });
+    };
+
+    synchronized (this) {
+      pending.add(task);
+    }
+    drain();
+    return result;
+  }
+
+  /**
+   * @return Количество выполняющихся в данный момент вызовов.
+   */
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return Количество вызовов, ожидающих запуска.
+   */
+  public synchronized int queued() {
+    return pending.size();
+  }
+
+  private void release() {
+    synchronized (this) {
+      inFlight--;
+    }
+    drain();
+  }
+
+  /**
+   * Запуск ожидающих вызовов в цикле, а не рекурсивно из обработчиков завершения,
+   * чтобы синхронно завершающиеся вызовы не переполняли стек на длинной очереди.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    while (true) {
+      Runnable next;
+      synchronized (this) {
+        if (inFlight >= maxInFlight || pending.isEmpty()) {
+          draining = false;
+          return;
+        }
+        next = pending.poll();
+        inFlight++;
+      }
+      next.run();
+    }
+  }
+}
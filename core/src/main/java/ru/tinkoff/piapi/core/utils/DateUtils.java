@@ -14,6 +14,12 @@ public class DateUtils {
   private static final ZoneId DEFAULT_ZONE_ID = ZoneId.of("Etc/GMT");
   private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
   private static final ZoneOffset DEFAULT_ZONE_OFFSET = ZoneOffset.UTC;
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN).withZone(DEFAULT_ZONE_ID);
+  private static final long SECONDS_PER_DAY = 86_400;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  // 0001-01-01T00:00:00Z и 9999-12-31T23:59:59Z: в этом диапазоне год всегда записывается четырьмя цифрами.
+  private static final long MIN_FAST_EPOCH_SECOND = -62_135_596_800L;
+  private static final long MAX_FAST_EPOCH_SECOND = 253_402_300_799L;
 
   /**
    * Преобразование java {@link Long} в google {@link Timestamp}.
@@ -94,8 +100,9 @@ public class DateUtils {
    * @return текстовое представление даты в виде 2021-09-27T11:05:27Z
    */
   public static String epochMillisToString(long epochMillis) {
-    var zonedDateTime = Instant.ofEpochMilli(epochMillis).atZone(DEFAULT_ZONE_ID);
-    return zonedDateTime.format(DateTimeFormatter.ofPattern(PATTERN));
+    var sb = new StringBuilder(20);
+    appendEpochSeconds(sb, Math.floorDiv(epochMillis, 1_000));
+    return sb.toString();
   }
 
   /**
@@ -104,6 +111,138 @@ public class DateUtils {
    * @return текстовое представление даты в виде 2021-09-27T11:05:27Z
    */
   public static String timestampToString(Timestamp timestamp) {
-    return epochMillisToString(timestamp.getSeconds() * 1_000);
+    var sb = new StringBuilder(20);
+    appendEpochSeconds(sb, timestamp.getSeconds());
+    return sb.toString();
+  }
+
+  /**
+   * Запись текстового представления даты в виде 2021-09-27T11:05:27Z (GMT) в переданный {@link StringBuilder}.
+   * Не создаёт промежуточных объектов, поэтому подходит для логирования каждого сообщения
+   * с переиспользованием одного {@link StringBuilder}.
+   *
+   * @param sb           Буфер, в конец которого дописывается дата.
+   * @param epochSeconds Время в секундах в epoch формате
+   * @return Переданный буфер.
+   */
+  public static StringBuilder appendEpochSeconds(StringBuilder sb, long epochSeconds) {
+    if (epochSeconds < MIN_FAST_EPOCH_SECOND || epochSeconds > MAX_FAST_EPOCH_SECOND) {
+      return sb.append(FORMATTER.format(Instant.ofEpochSecond(epochSeconds)));
+    }
+    appendDateTime(sb, epochSeconds);
+    return sb.append('Z');
+  }
+
+  /**
+   * Запись даты в формате ISO-8601, как у {@link Instant#toString()}, например 2021-09-27T11:05:27.123Z,
+   * в переданный {@link StringBuilder} без создания промежуточных объектов.
+   *
+   * @param sb           Буфер, в конец которого дописывается дата.
+   * @param epochSeconds Секунды в epoch формате.
+   * @param nanos        Наносекунды внутри секунды.
+   * @return Переданный буфер.
+   */
+  public static StringBuilder appendIsoInstant(StringBuilder sb, long epochSeconds, int nanos) {
+    if (epochSeconds < MIN_FAST_EPOCH_SECOND || epochSeconds > MAX_FAST_EPOCH_SECOND) {
+      return sb.append(Instant.ofEpochSecond(epochSeconds, nanos));
+    }
+    appendDateTime(sb, epochSeconds);
+    if (nanos > 0) {
+      sb.append('.');
+      if (nanos % 1_000_000 == 0) {
+        appendPadded(sb, nanos / 1_000_000, 3);
+      } else if (nanos % 1_000 == 0) {
+        appendPadded(sb, nanos / 1_000, 6);
+      } else {
+        appendPadded(sb, nanos, 9);
+      }
+    }
+    return sb.append('Z');
+  }
+
+  /**
+   * Запись google {@link Timestamp} в формате ISO-8601 в переданный {@link StringBuilder},
+   * см. {@link #appendIsoInstant(StringBuilder, long, int)}.
+   *
+   * @param sb        Буфер, в конец которого дописывается дата.
+   * @param timestamp Экземпляр {@link Timestamp}.
+   * @return Переданный буфер.
+   */
+  public static StringBuilder appendIsoInstant(StringBuilder sb, Timestamp timestamp) {
+    return appendIsoInstant(sb, timestamp.getSeconds(), timestamp.getNanos());
+  }
+
+  /**
+   * Преобразование google {@link Timestamp} в количество наносекунд в epoch формате без создания объектов.
+   *
+   * @param t Экземпляр {@link Timestamp}.
+   * @return Количество наносекунд с начала эпохи.
+   * @throws ArithmeticException если значение не помещается в long (после 2262 года).
+   */
+  public static long timestampToEpochNanos(Timestamp t) {
+    return Math.addExact(Math.multiplyExact(t.getSeconds(), NANOS_PER_SECOND), t.getNanos());
+  }
+
+  /**
+   * Преобразование google {@link Timestamp} в количество миллисекунд в epoch формате без создания объектов.
+   *
+   * @param t Экземпляр {@link Timestamp}.
+   * @return Количество миллисекунд с начала эпохи.
+   */
+  public static long timestampToEpochMillis(Timestamp t) {
+    return Math.addExact(Math.multiplyExact(t.getSeconds(), 1_000L), t.getNanos() / 1_000_000);
+  }
+
+  /**
+   * Преобразование количества наносекунд в epoch формате в google {@link Timestamp}.
+   *
+   * @param epochNanos Количество наносекунд с начала эпохи.
+   * @return Эквивалентный {@link Timestamp}.
+   */
+  public static Timestamp epochNanosToTimestamp(long epochNanos) {
+    return Timestamp.newBuilder()
+      .setSeconds(Math.floorDiv(epochNanos, NANOS_PER_SECOND))
+      .setNanos((int) Math.floorMod(epochNanos, NANOS_PER_SECOND))
+      .build();
+  }
+
+  /**
+   * Запись даты и времени вида 2021-09-27T11:05:27 по алгоритму перевода дней эпохи в григорианскую дату.
+   */
+  private static void appendDateTime(StringBuilder sb, long epochSeconds) {
+    var days = Math.floorDiv(epochSeconds, SECONDS_PER_DAY);
+    var secondOfDay = (int) Math.floorMod(epochSeconds, SECONDS_PER_DAY);
+
+    // http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+    var z = days + 719_468;
+    var era = Math.floorDiv(z, 146_097);
+    var dayOfEra = z - era * 146_097;
+    var yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    var dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    var mp = (5 * dayOfYear + 2) / 153;
+    var day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+    var month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    var year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+    appendPadded(sb, year, 4);
+    sb.append('-');
+    appendPadded(sb, month, 2);
+    sb.append('-');
+    appendPadded(sb, day, 2);
+    sb.append('T');
+    appendPadded(sb, secondOfDay / 3_600, 2);
+    sb.append(':');
+    appendPadded(sb, secondOfDay / 60 % 60, 2);
+    sb.append(':');
+    appendPadded(sb, secondOfDay % 60, 2);
+  }
+
+  private static void appendPadded(StringBuilder sb, int value, int width) {
+    for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+      if (value < limit) {
+        sb.append('0');
+      }
+    }
+    sb.append(value);
   }
 }
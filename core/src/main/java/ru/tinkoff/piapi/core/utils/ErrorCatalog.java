@@ -0,0 +1,522 @@
+package ru.tinkoff.piapi.core.utils;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Справочник ошибок API.
+ * <p>
+ * Сгенерирован из errors.json; при изменении файла справочник нужно обновить, соответствие проверяется тестом.
+ * Коды ошибок хранятся в отсортированном массиве, поиск описания выполняется двоичным поиском
+ * без разбора JSON и без создания объектов.
+ */
+public final class ErrorCatalog {
+  private static final int[] CODES = {
+    12001,
+    30001,
+    30002,
+    30003,
+    30004,
+    30005,
+    30006,
+    30007,
+    30008,
+    30009,
+    30010,
+    30011,
+    30012,
+    30013,
+    30014,
+    30015,
+    30016,
+    30017,
+    30018,
+    30019,
+    30020,
+    30021,
+    30022,
+    30023,
+    30025,
+    30026,
+    30027,
+    30028,
+    30029,
+    30030,
+    30031,
+    30032,
+    30033,
+    30034,
+    30036,
+    30037,
+    30038,
+    30040,
+    30041,
+    30042,
+    30043,
+    30044,
+    30045,
+    30047,
+    30048,
+    30049,
+    30050,
+    30051,
+    30052,
+    30053,
+    30054,
+    30055,
+    30056,
+    30057,
+    30058,
+    30059,
+    30060,
+    30061,
+    30062,
+    30063,
+    30064,
+    30065,
+    30066,
+    30067,
+    30068,
+    30069,
+    30070,
+    30077,
+    30078,
+    30079,
+    30080,
+    30081,
+    30082,
+    30083,
+    30084,
+    30085,
+    30086,
+    30087,
+    30088,
+    30089,
+    30090,
+    30091,
+    30092,
+    30093,
+    30094,
+    30095,
+    30096,
+    30097,
+    30098,
+    30099,
+    30100,
+    30101,
+    40002,
+    40003,
+    40004,
+    50001,
+    50002,
+    50004,
+    50005,
+    50006,
+    50007,
+    50008,
+    50009,
+    50010,
+    70001,
+    70002,
+    70003,
+    80001,
+    80002,
+    80003,
+    90001,
+    90002
+  };
+
+  private static final String[] MESSAGES = {
+    "Method is unimplemented",
+    "missing parameter: 'from'",
+    "the required period should not exceed 7 days",
+    "'from' can't be less than the current date",
+    "missing parameter: 'to'",
+    "'id_type' is invalid",
+    "missing parameter: 'id_type'",
+    "missing parameter: 'id'",
+    "missing parameter: 'figi'",
+    "'from' is invalid",
+    "'to' is invalid",
+    "interval is invalid",
+    "'to' can't be less than 'from'",
+    "'class_code' require for 'id_type' = 'ticker'",
+    "the maximum request period for the given candle interval has been exceeded",
+    "parameter 'quantity' is missing or equal to 0",
+    "'quantity' is invalid",
+    "missing parameter: 'price'",
+    "price is invalid",
+    "missing parameter: 'direction'",
+    "'direction' is invalid",
+    "missing parameter: 'account_id'",
+    "missing parameter: 'state'",
+    "invalid parameter: 'state'",
+    "missing parameter: 'order_type'",
+    "invalid parameter: 'order_type'",
+    "missing parameter: 'order_id'",
+    "'order id' is invalid",
+    "missing parameter: 'idempotency_key'",
+    "'idempotency_key' is invalid",
+    "missing parameter: 'depth'",
+    "depth is invalid",
+    "missing parameter: 'trade_clearing_account' or 'class_code'",
+    "not enough balance",
+    "missing parameter: 'stop_price'",
+    "missing parameter: 'stop_order_type'",
+    "'stop_order_type' is invalid",
+    "'expire_date' is invalid",
+    "the method is available only for futures",
+    "not enough assets for a margin trade",
+    "missing parameter: 'expiration_type'",
+    "'expiration_type' is invalid",
+    "missing parameter: 'ticker'",
+    "price currency does not match the settlement currency",
+    "instrument type is not bond",
+    "post order error: %s",
+    "'instrument_status' is invalid",
+    "account margin status is disabled",
+    "instrument forbidden for trading by API",
+    "post stop_order error: %s",
+    "instrument type is not a share or etf",
+    "order_id cannot be longer than 36 characters",
+    "stop order settlement currency is not supported",
+    "the order is a duplicate, but the order report was not found",
+    "task not completed yet, please try again later",
+    "cancel order error: %s",
+    "cancel stop-order error: %s",
+    "'from' value out of range",
+    "'to' value out of range",
+    "'expire_date' value out of range",
+    "the required period should not exceed 31 days",
+    "missing parameter: 'task_id'",
+    "missing parameter: 'payload'",
+    "'action_type' is invalid",
+    "Only limit order is allowed",
+    "Invalid parameter: 'limit'",
+    "'from' can't be more than the current date",
+    "not available for OTC instruments",
+    "Incorrect minimum price increment",
+    "instrument is not available for trading",
+    "quantity must be positive",
+    "account status is closed",
+    "account status is blocked",
+    "order_type is invalid",
+    "maximum request period has been exceeded",
+    "price in points is available only for futures and bonds",
+    "year is invalid",
+    "missing parameter: query",
+    "'from' and 'to' must have the same year",
+    "'to' must not be later than %s",
+    "missing parameter: 'siebel_id'",
+    "quantity of instruments can't be more than 100",
+    "trading unavailable on weekends",
+    "missing parameter: 'figi' or 'instrument_id'",
+    "options trading is not available at the moment",
+    "the request was not executed by the exchange",
+    "the order was rejected, try again later",
+    "inappropriate trading session",
+    "currently, there is no trading on this financial instrument",
+    "the price is outside the limits for this instrument",
+    "the price must be positive",
+    "to trade this financial instrument, pass the test",
+    "insufficient privileges",
+    "authentication token is missing or invalid",
+    "Working with orders is not available with this account",
+    "exchange not found",
+    "instrument not found",
+    "account not found",
+    "order not found",
+    "stop-order not found",
+    "task not found",
+    "no orderbook provider",
+    "asset not found",
+    "brand not found",
+    "internal error",
+    "internal network error",
+    "internal error, please try again later",
+    "limit of open streams exceeded",
+    "request limit exceeded",
+    "The limit on SMS sending has been exceeded, try again in a minute",
+    "need confirmation: %s",
+    "only for qualified investors"
+  };
+
+  private static final String[] TYPES = {
+    "UNIMPLEMENTED",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "INVALID_ARGUMENT",
+    "PERMISSION_DENIED",
+    "UNAUTHENTICATED",
+    "PERMISSION_DENIED",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "NOT_FOUND",
+    "INTERNAL",
+    "INTERNAL",
+    "INTERNAL",
+    "RESOURCE_EXHAUSTED",
+    "RESOURCE_EXHAUSTED",
+    "RESOURCE_EXHAUSTED",
+    "FAILED_PRECONDITION",
+    "FAILED_PRECONDITION"
+  };
+
+  private static final String[] DESCRIPTIONS = {
+    "Метод не реализован.",
+    "Входной параметр from является обязательным.  Укажите корректный параметр from.",
+    "Запрошенный период не может превышать 7 дней.  Укажите корректный период.",
+    "Входной параметр from не может быть меньше текущей даты.  Укажите корректный параметр from.",
+    "Входной параметр to является обязательным.  Укажите корректный параметр to.",
+    "Входной параметр id_type имеет некорректное значение.Список доступных значений: [id_type](https://tinkoff.github.io/investAPI/instruments#instrumentidtype).",
+    "Входной параметр id_type является обязательным.  Укажите корректный параметр id_type.",
+    "Входной параметр id является обязательным.  Укажите корректный параметр id.",
+    "Входной параметр figi является обязательным.  Укажите корректный параметр figi.",
+    "Входной параметр from имеет некорректное значение.Укажите корректный параметр from.",
+    "Входной параметр to имеет некорректное значение.Укажите корректный параметр to.",
+    "Входной параметр interval имеет некорректное значение.Список доступных значений: [interval](https://tinkoff.github.io/investAPI/marketdata#subscriptioninterval).",
+    "Входной параметр to не может быть меньше параметра from. Укажите корректные параметры from и to.",
+    "Входной параметр class_code не может быть пустым при поиске по тикеру. Укажите корректный параметр class_code. Подробнее: [Идентификация инструментов](https://tinkoff.github.io/investAPI/faq_identification/).",
+    "Превышен максимальный период запроса для данного интервала свечи. Укажите корректный интервал.",
+    "Входной параметр quantity является обязательным.  Укажите корректный параметр quantity.",
+    "Входной параметр quantity имеет некорректное значение.Укажите корректный параметр quantity.",
+    "Входной параметр price является обязательным.  Укажите корректный параметр price.",
+    "Входной параметр price имеет некорректное значение.Укажите корректный параметр price.",
+    "Входной параметр direction является обязательным.  Укажите корректный параметр direction.",
+    "Входной параметр direction имеет некорректное значение.",
+    "Входной параметр account_id является обязательным.  Укажите корректный параметр account_id.",
+    "Входной параметр state является обязательным.  Укажите корректный параметр state.Список доступных значений: [direction](https://tinkoff.github.io/investAPI/operations/#operationstate).",
+    "Входной параметр state имеет некорректное значение.  Укажите корректный параметр state.Список доступных значений: [direction](https://tinkoff.github.io/investAPI/operations/#operationstate).",
+    "Входной параметр order_type является обязательным.  Укажите корректный параметр order_type.",
+    "Входной параметр order_type имеет некорректное значение.  Укажите корректный параметр order_type.",
+    "Входной параметр order_id является обязательным.  Укажите корректный параметр order_id.",
+    "Входной параметр order_id имеет некорректное значение.Укажите корректный параметр order_id.",
+    "Входной параметр idempotency_key является обязательным.  Укажите корректный параметр idempotency_key.",
+    "Входной параметр idempotency_key имеет некорректное значение.Укажите корректный параметр idempotency_key.",
+    "Входной параметр depth является обязательным. Укажите корректный параметр depth.",
+    "Входной параметр depth имеет некорректное значение.Укажите корректный параметр depth.",
+    "Параметр trade_clearing_account или class_code не может быть пустым.",
+    "Недостаточно средств для совершения сделки (ошибка песочницы). Пополните баланс нужной валюты.",
+    "Входной параметр stop_price является обязательным. Укажите корректный параметр stop_price.",
+    "Входной параметр stop_order_type является обязательным. Укажите корректный параметр stop_order_type.",
+    "Входной параметр stop_order_type имеет некорректное значение.Список доступных значений: [stop_order_type](https://tinkoff.github.io/investAPI/stoporders/#stopordertype).",
+    "Входной параметр expire_date имеет некорректное значение.Укажите корректный параметр expire_date.",
+    "Метод предназначен только для работы с фьючерсами. Передайте во входные параметры метода идентификатор фьючерса.",
+    "Недостаточно активов для маржинальной сделки. Проверьте маржинальные показатели счёта.",
+    "Входной параметр expiration_type является обязательным.  Укажите корректный параметр expiration_type.",
+    "Входной параметр expiration_type имеет некорректное значение.Список доступных значений: [expiration_type](https://tinkoff.github.io/investAPI/stoporders/#stoporderexpirationtype).",
+    "Входной параметр ticker является обязательным. Укажите корректный параметр ticker.",
+    "Валюта цены не совпадает с валютой расчётов по инструменту. Укажите корректную валюту цены.",
+    "Метод предназначен только для запроса информации по облигации. Передайте во входные параметры метода идентификатор облигации.",
+    "Ошибка метода выставления торгового поручения. Подробнее в тексте ошибки.",
+    "Входной параметр instrument_status имеет некорректное значение.Список доступных значений: [instrument_status](https://tinkoff.github.io/investAPI/instruments#instrumentstatus).",
+    "Для данного договора недоступна маржинальная торговля.",
+    "Для данного инструмента недоступна торговля через API.",
+    "Ошибка метода выставления стоп-заявки. Подробнее в тексте ошибки.",
+    "Тип инструмента не инвестиционный фонд или акция",
+    "order_id не может быть длиннее 36 символов",
+    "Валюта выставления стоп-заявки не поддерживается",
+    "Заявка является дублем, но отчет по заявке не найден",
+    "Выполнение задачи еще не завершено, попробуйте позже.",
+    "Ошибка метода отмены заявки. Подробнее в тексте ошибки.",
+    "Ошибка метода отмены стоп-заявки. Подробнее в тексте ошибки.",
+    "Входной параметр from имеет некорректное значение.Укажите значение в пределах от 1970-01-01T00:00:00Z до 2099-12-31T23:59:59.999999999Z включительно.",
+    "Входной параметр to имеет некорректное значение.Укажите значение в пределах от 1970-01-01T00:00:00Z до 2099-12-31T23:59:59.999999999Z включительно.",
+    "Входной параметр expire_date имеет некорректное значение.Дата должна быть не ранее текущей и не позднее 2099-12-31T23:59:59.999999999Z.",
+    "Запрошенный период не может превышать 31 дня.  Укажите корректный период.",
+    "Входной параметр task_id является обязательным.  Укажите корректный параметр task_id.",
+    "Входной параметр payload является обязательным.  Укажите корректный параметр payload.",
+    "Некорректное значение action_type.  Выберите допустимое значение.",
+    "В настоящий момент возможно выставление только лимитного торгового поручения.",
+    "Входной параметр limit имеет некорректное значение.Значение должно быть меньше или равно 1000.",
+    "Входной параметр from имеет некорректное значение.Укажите корректный параметр.",
+    "Метод недоступен для внебиржевых инструментов.",
+    "Некорректный шаг изменения цены.",
+    "Инструмент недоступен для торгов.",
+    "Количество лотов должно быть положительным числом.",
+    "Аккаунт закрыт.",
+    "Аккаунт заблокирован.",
+    "Некорректный тип заявки.",
+    "Превышен лимит запрашиваемого периода.",
+    "Тип цены в пунктах доступен только для фьючерсов и облигаций.",
+    "Некорректный год.",
+    "Входной параметр query является обязательным. Укажите не пустой параметр query.",
+    "Запрашиваемые даты должны быть в рамках одного года.",
+    "Поле to не должно быть позднее даты, указанной в тексте ошибки. Дата указана в формате ISO 8601.",
+    "Входной параметр siebel_id является обязательным.  Укажите корректный параметр siebel_id.",
+    "Количество инструментов не может превышать 100.",
+    "Торги недоступны по нерабочим дням.",
+    "Один из параметров figi или instrument_id является обязательным.",
+    "Выставление заявок по опционам недоступно.",
+    "Заявка не исполнена биржей.",
+    "Заявка отклонена, попробуйте повторить позже.",
+    "Сейчас эта сессия не идёт.",
+    "Торги по этому финансовому инструменту сейчас не проводятся.",
+    "Цена вне лимитов по инструменту или цена сделки вне лимита.",
+    "Цена должна быть положительной.",
+    "Для торговли этим инструментом пройдите тестирование.",
+    "Недостаточно прав для совершения операции. Токен доступа имеет уровень прав read-only, либо у токена нет доступа к указанному счету.Подробнее: [Виды токенов](https://tinkoff.github.io/investAPI/index#_2)",
+    "Токен доступа не найден или не активен. Вы можете выпустить новый токен по ссылке [Настройки](https://www.tinkoff.ru/invest/settings/)",
+    "Выставление заявок недоступно с текущего аккаунта.",
+    "Биржа не найдена по переданному exchange_id.Укажите корректный exchange_id.",
+    "Инструмент не найден.Укажите корректный идентификатор инструмента.",
+    "Счёт не найден по переданному account_id.Укажите корректный account_id.",
+    "Торговое поручение не найдено по переданному order_id.Укажите корректный order_id.",
+    "Стоп-заявка не найдена по переданному stop_order_id.Укажите корректный stop_order_id.",
+    "Задача не найдена.",
+    "Отсутствует источник данных по стаканам.",
+    "Актив не найден.Укажите корректный идентификатор актива.",
+    "Бренд не найден.Укажите корректный идентификатор бренда.",
+    "Внутренняя ошибка сервиса.Если ошибка повторяется, обратитесь в службу технической поддержки.",
+    "Неизвестная сетевая ошибка, попробуйте выполнить запрос позднее.Если ошибка повторяется, обратитесь в службу технической поддержки.",
+    "Внутренняя ошибка сервиса, попробуйте выполнить запрос позднее.Если ошибка повторяется, обратитесь в службу технической поддержки.",
+    "Превышен лимит одновременных открытых stream-соединений. Подробнее: [Лимитная политика](https://tinkoff.github.io/investAPI/limits/)",
+    "Превышен лимит запросов в минуту. Подробнее: [Лимитная политика](https://tinkoff.github.io/investAPI/limits/)",
+    "Превышен лимит на отправку СМС, попробуйте через минуту.",
+    "Требуется подтверждение операции. Подробнее в тексте ошибки.",
+    "Торговля этим инструментом доступна только квалифицированным инвесторам."
+  };
+
+  private ErrorCatalog() {
+  }
+
+  /**
+   * @return Количество ошибок в справочнике.
+   */
+  public static int size() {
+    return CODES.length;
+  }
+
+  /**
+   * @return Код ошибки с заданным порядковым номером.
+   */
+  public static String code(int index) {
+    return Integer.toString(CODES[index]);
+  }
+
+  /**
+   * @param code Код ошибки, например "30001".
+   * @return Порядковый номер ошибки в справочнике или -1, если такой ошибки нет.
+   */
+  public static int indexOf(@Nullable String code) {
+    if (code == null || code.length() != 5) {
+      return -1;
+    }
+    var value = 0;
+    for (int i = 0; i < 5; i++) {
+      var digit = code.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    var index = Arrays.binarySearch(CODES, value);
+    return index >= 0 ? index : -1;
+  }
+
+  public static String message(int index) {
+    return MESSAGES[index];
+  }
+
+  public static String type(int index) {
+    return TYPES[index];
+  }
+
+  public static String description(int index) {
+    return DESCRIPTIONS[index];
+  }
+}
@@ -1,18 +1,13 @@
 package ru.tinkoff.piapi.core.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.grpc.Metadata;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 import io.smallrye.mutiny.subscription.MultiEmitter;
 import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.models.Result;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -20,24 +15,45 @@ import java.util.function.Supplier;
 
 public class Helpers {
 
-  private static final Map<String, HashMap<String, String>> errorsMap = new HashMap<>();
   private static final String DEFAULT_ERROR_ID = "70001";
   private static final String DEFAULT_ERROR_DESCRIPTION = "unknown error";
 
-  static {
-    try {
-      var resourceAsStream = Helpers.class.getClassLoader().getResourceAsStream("errors.json");
-      if (resourceAsStream == null) {
-        throw new RuntimeException("Не найден файл errors.json");
-      }
-      var json = new String(resourceAsStream.readAllBytes(), StandardCharsets.UTF_8);
-      errorsMap.putAll(new ObjectMapper().readValue(json, new TypeReference<Map<String, HashMap<String, String>>>() {
-      }));
-    } catch (IOException e) {
-      throw new RuntimeException("Не найден файл errors.json");
+  private static volatile boolean stacklessExceptions;
+  private static boolean stacklessExceptionsSet;
+
+  /**
+   * Включение режима исключений без стека вызовов.
+   * <p>
+   * В этом режиме {@link ApiRuntimeException} создаются без заполнения стека вызовов, что заметно дешевле
+   * при большом потоке ошибок (например, во время недоступности сервера). Исходное исключение gRPC
+   * по-прежнему доступно через {@link Throwable#getCause()}.
+   *
+   * Значение, заданное этим методом, не переопределяется настройкой из окружения или config.properties,
+   * даже если {@code InvestApi} загружен позже.
+   *
+   * @param stackless true, чтобы не заполнять стек вызовов.
+   */
+  public static synchronized void setStacklessExceptions(boolean stackless) {
+    stacklessExceptions = stackless;
+    stacklessExceptionsSet = true;
+  }
+
+  /**
+   * Режим исключений без стека вызовов из настроек окружения или config.properties. Применяется,
+   * только если режим не был задан через {@link #setStacklessExceptions(boolean)}.
+   *
+   * @param stackless true, чтобы не заполнять стек вызовов.
+   */
+  public static synchronized void setDefaultStacklessExceptions(boolean stackless) {
+    if (!stacklessExceptionsSet) {
+      stacklessExceptions = stackless;
     }
   }
 
+  public static boolean isStacklessExceptions() {
+    return stacklessExceptions;
+  }
+
   public static <T> T unaryCall(Supplier<T> supplier) {
     try {
       return supplier.get();
@@ -47,12 +63,20 @@ public class Helpers {
   }
 
   private static ApiRuntimeException apiRuntimeException(Throwable exception) {
-    var status = Status.fromThrowable(exception);
-    var code = getErrorId(status);
-    var description = getErrorDescription(code);
-    var metadata = getMetadata(exception);
-    var trackingId = getHeader("x-tracking-id", metadata);
-    return new ApiRuntimeException(description, code, trackingId, exception, metadata);
+    var code = getErrorId(status(exception));
+    // Метаданные и tracking id извлекаются из исходного исключения только при обращении к ним.
+    return new ApiRuntimeException(getErrorDescription(code), code, exception, !stacklessExceptions);
+  }
+
+  private static <T> Result<T> failure(Throwable exception) {
+    var code = getErrorId(status(exception));
+    return Result.failure(code, getErrorDescription(code), exception);
+  }
+
+  private static Status status(Throwable exception) {
+    return exception instanceof StatusRuntimeException
+      ? ((StatusRuntimeException) exception).getStatus()
+      : Status.fromThrowable(exception);
   }
 
   public static String getHeader(String headerName, Metadata metadata) {
@@ -68,14 +92,14 @@ public class Helpers {
   }
 
   private static String getErrorId(Status status) {
-    if ("RESOURCE_EXHAUSTED".equals(status.getCode().name())) {
-      return "80002";
-    }
-    if ("UNAUTHENTICATED".equals(status.getCode().name())) {
-      return "40003";
+    switch (status.getCode()) {
+      case RESOURCE_EXHAUSTED:
+        return "80002";
+      case UNAUTHENTICATED:
+        return "40003";
+      default:
+        return Objects.requireNonNullElse(status.getDescription(), DEFAULT_ERROR_ID);
     }
-    var error = status.getDescription();
-    return Objects.requireNonNullElse(error, DEFAULT_ERROR_ID);
   }
 
   /**
@@ -91,6 +115,34 @@ public class Helpers {
     return cf;
   }
 
+  /**
+   * Связывание асинхронного Unary-вызова с {@link CompletableFuture}, который не завершается исключением:
+   * ошибка вызова возвращается как неудачный {@link Result} без создания {@link ApiRuntimeException}.
+   *
+   * @param callPerformer Асинхронный Unary-вызов.
+   * @param <T>           Тип результата вызова.
+   * @return {@link CompletableFuture} с результатом вызова.
+   */
+  public static <T> CompletableFuture<Result<T>> unaryAsyncResultCall(Consumer<StreamObserver<T>> callPerformer) {
+    var cf = new CompletableFuture<Result<T>>();
+    callPerformer.accept(new StreamObserver<>() {
+      @Override
+      public void onNext(T value) {
+        cf.complete(Result.success(value));
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        cf.complete(failure(t));
+      }
+
+      @Override
+      public void onCompleted() {
+      }
+    });
+    return cf;
+  }
+
   /**
    * Создание StreamObserver, который связывает свой результат с CompletableFuture.
    * <p>
@@ -153,10 +205,10 @@ public class Helpers {
   }
 
   private static String getErrorDescription(String id) {
-    var error = errorsMap.get(id);
-    if (error == null) {
+    var index = ErrorCatalog.indexOf(id);
+    if (index < 0) {
       return DEFAULT_ERROR_DESCRIPTION;
     }
-    return error.get("description");
+    return ErrorCatalog.description(index);
   }
 }
@@ -8,6 +8,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 public class MapperUtils {
+  private static final long MAX_FIXED_POINT_UNITS = Long.MAX_VALUE / 1_000_000_000L;
+  private static final BigDecimal NANOS_PER_UNIT = BigDecimal.valueOf(1_000_000_000L);
 
   /**
    * Расчет реальной стоимости фьючерса. <a href='https://tinkoff.github.io/investAPI/head-marketdata/#_1'>Подробнее в документации</a>
@@ -35,6 +37,66 @@ public class MapperUtils {
     return pricePoints.multiply(minPriceIncrementAmount).divide(minPriceIncrement, RoundingMode.HALF_UP) ;
   }
 
+  /**
+   * Расчет реальной стоимости фьючерса в целочисленном виде, без создания промежуточных объектов.
+   * Все значения передаются в миллиардных долях (units * 10^9 + nano), результат округляется
+   * до миллиардных долей по правилу HALF_UP.
+   *
+   * @param pricePointsNanos              цена в пунктах для инструмента с типом Futures
+   * @param minPriceIncrementAmountNanos стоимость шага цены
+   * @param minPriceIncrementNanos        шаг цены
+   * @return реальная стоимость фьючерса в миллиардных долях
+   * @throws ArithmeticException если результат не помещается в long
+   */
+  public static long futuresPriceNanos(long pricePointsNanos,
+                                       long minPriceIncrementAmountNanos,
+                                       long minPriceIncrementNanos) {
+    if (minPriceIncrementNanos <= 0) {
+      throw new ArithmeticException("Шаг цены должен быть положительным.");
+    }
+    // Дробь стоимость шага / шаг сокращается, чтобы промежуточные произведения оставались в пределах long.
+    var gcd = gcd(Math.abs(minPriceIncrementAmountNanos), minPriceIncrementNanos);
+    var numerator = minPriceIncrementAmountNanos / gcd;
+    var denominator = minPriceIncrementNanos / gcd;
+
+    var quotient = pricePointsNanos / denominator;
+    var remainder = pricePointsNanos % denominator;
+    var fraction = Math.multiplyHigh(remainder, numerator) == (remainder * numerator >> 63)
+      ? roundHalfUp(remainder * numerator, denominator)
+      : new BigDecimal(remainder).multiply(new BigDecimal(numerator))
+        .divide(new BigDecimal(denominator), 0, RoundingMode.HALF_UP).longValueExact();
+    return Math.addExact(Math.multiplyExact(quotient, numerator), fraction);
+  }
+
+  /**
+   * Конвертирует Quotation в миллиардные доли. Например {units: 10, nanos: 900000000} -&gt; 10900000000
+   *
+   * @param value значение в формате Quotation
+   * @return Значение в миллиардных долях
+   * @throws ArithmeticException если значение не помещается в long
+   */
+  public static long quotationToNanos(Quotation value) {
+    return Math.addExact(Math.multiplyExact(value.getUnits(), 1_000_000_000L), value.getNano());
+  }
+
+  private static long roundHalfUp(long dividend, long divisor) {
+    var quotient = dividend / divisor;
+    var remainder = dividend % divisor;
+    if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+      quotient += Long.signum(dividend);
+    }
+    return quotient;
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      var t = a % b;
+      a = b;
+      b = t;
+    }
+    return a == 0 ? 1 : a;
+  }
+
   public static Quotation bigDecimalToQuotation(BigDecimal value) {
     return Quotation.newBuilder()
       .setUnits(getUnits(value))
@@ -55,7 +117,7 @@ public class MapperUtils {
   }
 
   public static int getNano(BigDecimal value) {
-    return value != null ? value.remainder(BigDecimal.ONE).multiply(BigDecimal.valueOf(1_000_000_000L)).intValue() : 0;
+    return value != null ? value.remainder(BigDecimal.ONE).multiply(NANOS_PER_UNIT).intValue() : 0;
   }
 
   private static String toLowerCaseNullable(String value) {
@@ -96,6 +158,10 @@ public class MapperUtils {
     if (units == 0 && nanos == 0) {
       return BigDecimal.ZERO;
     }
+    if (units > -MAX_FIXED_POINT_UNITS && units < MAX_FIXED_POINT_UNITS) {
+      // Значение помещается в long: один объект вместо трёх.
+      return BigDecimal.valueOf(units * 1_000_000_000L + nanos, 9);
+    }
     return BigDecimal.valueOf(units).add(BigDecimal.valueOf(nanos, 9));
   }
 }
@@ -0,0 +1,34 @@
+package ru.tinkoff.piapi.core;
+
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.core.utils.AsyncLimiter;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class AsyncLimiterTest {
+
+  @Test
+  void longQueueOfSynchronousCalls_Test() {
+    var limiter = new AsyncLimiter(1);
+    var first = new CompletableFuture<Integer>();
+    var results = new ArrayList<CompletableFuture<Integer>>();
+    results.add(limiter.submit(() -> first));
+    for (int i = 1; i <= 100_000; i++) {
+      var value = i;
+      results.add(limiter.submit(() -> CompletableFuture.completedFuture(value)));
+    }
+    assertEquals(1, limiter.inFlight());
+    assertEquals(100_000, limiter.queued());
+    assertFalse(results.get(1).isDone());
+
+    first.complete(0);
+
+    assertEquals(100_000, results.get(100_000).join());
+    assertEquals(0, limiter.inFlight());
+    assertEquals(0, limiter.queued());
+  }
+}
@@ -0,0 +1,163 @@
+package ru.tinkoff.piapi.core;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+import ru.tinkoff.piapi.contract.v1.GetCandlesRequest;
+import ru.tinkoff.piapi.contract.v1.GetCandlesResponse;
+import ru.tinkoff.piapi.contract.v1.HistoricCandle;
+import ru.tinkoff.piapi.contract.v1.MarketDataServiceGrpc;
+import ru.tinkoff.piapi.core.cache.CandleCache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CandleCacheTest extends GrpcClientTester<MarketDataService> {
+
+  private static final Instant START = Instant.parse("2023-01-10T10:00:00Z");
+
+  private final List<GetCandlesRequest> requests = new ArrayList<>();
+  private Instant incompleteFrom = Instant.MAX;
+  private Runnable duringRequest = () -> {
+  };
+
+  @Override
+  protected MarketDataService createClient(Channel channel) {
+    return new MarketDataService(
+      MarketDataServiceGrpc.newBlockingStub(channel),
+      MarketDataServiceGrpc.newStub(channel));
+  }
+
+  private MarketDataService minuteCandlesServer() {
+    return mkClientBasedOnServer(new MarketDataServiceGrpc.MarketDataServiceImplBase() {
+      @Override
+      public void getCandles(GetCandlesRequest request, StreamObserver<GetCandlesResponse> responseObserver) {
+        requests.add(request);
+        var action = duringRequest;
+        duringRequest = () -> {
+        };
+        action.run();
+        var response = GetCandlesResponse.newBuilder();
+        for (var time = request.getFrom().getSeconds(); time < request.getTo().getSeconds(); time += 60) {
+          response.addCandles(HistoricCandle.newBuilder()
+            .setTime(Timestamp.newBuilder().setSeconds(time).build())
+            .setVolume(requests.size())
+            .setIsComplete(time < incompleteFrom.getEpochSecond())
+            .build());
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  @Test
+  void fetchesOnlyMissingRanges_Test() {
+    var cache = new CandleCache(minuteCandlesServer(), 10_000);
+    var interval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+    var first = cache.getCandlesSync("figi", START, START.plus(1, ChronoUnit.HOURS), interval);
+    var second = cache.getCandles("figi", START.plus(30, ChronoUnit.MINUTES),
+      START.plus(90, ChronoUnit.MINUTES), interval).join();
+
+    assertEquals(60, first.size());
+    assertEquals(60, second.size());
+    assertEquals(2, requests.size());
+    assertEquals(START.plus(1, ChronoUnit.HOURS).getEpochSecond(), requests.get(1).getFrom().getSeconds());
+    assertEquals(START.plus(90, ChronoUnit.MINUTES).getEpochSecond(), requests.get(1).getTo().getSeconds());
+
+    cache.getCandlesSync("figi", START.plus(10, ChronoUnit.MINUTES), START.plus(80, ChronoUnit.MINUTES), interval);
+    assertEquals(2, requests.size());
+  }
+
+  @Test
+  void refreshesIncompleteCandle_Test() {
+    var cache = new CandleCache(minuteCandlesServer(), 10_000);
+    var interval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+    var to = START.plus(10, ChronoUnit.MINUTES);
+    incompleteFrom = START.plus(9, ChronoUnit.MINUTES);
+
+    cache.getCandlesSync("figi", START, to, interval);
+    var refreshed = cache.getCandlesSync("figi", START, to, interval);
+
+    assertEquals(2, requests.size());
+    assertEquals(incompleteFrom.getEpochSecond(), requests.get(1).getFrom().getSeconds());
+    assertEquals(10, refreshed.size());
+    assertEquals(2, refreshed.get(9).getVolume());
+    assertEquals(List.of(1L), refreshed.subList(0, 9).stream()
+      .map(HistoricCandle::getVolume).distinct().collect(Collectors.toList()));
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedInstrument_Test() {
+    var cache = new CandleCache(minuteCandlesServer(), 25);
+    var interval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+    var to = START.plus(10, ChronoUnit.MINUTES);
+
+    cache.getCandlesSync("figi1", START, to, interval);
+    cache.getCandlesSync("figi2", START, to, interval);
+    cache.getCandlesSync("figi1", START, to, interval);
+    cache.getCandlesSync("figi3", START, to, interval);
+
+    assertEquals(20, cache.size());
+    assertEquals(3, requests.size());
+
+    cache.getCandlesSync("figi1", START, to, interval);
+    assertEquals(3, requests.size());
+    cache.getCandlesSync("figi2", START, to, interval);
+    assertEquals(4, requests.size());
+  }
+
+  @Test
+  void evictionDuringLoadDoesNotTruncateResult_Test() {
+    var cache = new CandleCache(minuteCandlesServer(), 15);
+    var interval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+    cache.getCandlesSync("figi1", START, START.plus(10, ChronoUnit.MINUTES), interval);
+
+    // Пока догружается хвост диапазона, параллельный запрос по другому инструменту вытесняет figi1.
+    duringRequest = () -> cache.getCandlesSync("figi2", START, START.plus(10, ChronoUnit.MINUTES), interval);
+    var candles = cache.getCandles("figi1", START, START.plus(20, ChronoUnit.MINUTES), interval).join();
+
+    assertEquals(20, candles.size());
+    assertEquals(4, requests.size());
+    assertEquals(START.getEpochSecond(), requests.get(3).getFrom().getSeconds());
+  }
+
+  @Test
+  void currentIntervalWithoutCandleIsNotCached_Test() {
+    // Свечи за текущий час ещё нет: сделок в этом часе не было.
+    var cache = new CandleCache(mkClientBasedOnServer(new MarketDataServiceGrpc.MarketDataServiceImplBase() {
+      @Override
+      public void getCandles(GetCandlesRequest request, StreamObserver<GetCandlesResponse> responseObserver) {
+        requests.add(request);
+        var currentHour = Instant.now().truncatedTo(ChronoUnit.HOURS).getEpochSecond();
+        var response = GetCandlesResponse.newBuilder();
+        for (var time = request.getFrom().getSeconds(); time < currentHour; time += 3600) {
+          response.addCandles(HistoricCandle.newBuilder()
+            .setTime(Timestamp.newBuilder().setSeconds(time).build())
+            .setIsComplete(true)
+            .build());
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+    }), 10_000);
+    var interval = CandleInterval.CANDLE_INTERVAL_HOUR;
+    var currentHour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+    var from = currentHour.minus(3, ChronoUnit.HOURS);
+    var to = currentHour.plus(1, ChronoUnit.HOURS);
+
+    assertEquals(3, cache.getCandlesSync("figi", from, to, interval).size());
+    cache.getCandlesSync("figi", from, to, interval);
+
+    assertEquals(2, requests.size());
+    assertEquals(currentHour.getEpochSecond(), requests.get(1).getFrom().getSeconds());
+  }
+}
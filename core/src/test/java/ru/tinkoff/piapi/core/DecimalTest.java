@@ -0,0 +1,55 @@
+package ru.tinkoff.piapi.core;
+
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.models.MutableDecimal;
+import ru.tinkoff.piapi.core.utils.MapperUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecimalTest {
+
+  @Test
+  public void conversionTest() {
+    var quotation = Quotation.newBuilder().setUnits(-10).setNano(-900_000_000).build();
+    var decimal = Decimal.fromQuotation(quotation);
+
+    assertEquals(-10_900_000_000L, decimal.getNanos());
+    assertEquals(quotation, decimal.toQuotation());
+    assertEquals("-10.9", decimal.toString());
+    assertEquals("-0.000000001", Decimal.ofNanos(-1).toString());
+    assertEquals("123", Decimal.of(123).toString());
+    assertEquals(0, new BigDecimal("-10.9").compareTo(decimal.toBigDecimal()));
+    assertEquals(decimal, Decimal.fromBigDecimal(new BigDecimal("-10.9000000001")));
+    assertEquals(MapperUtils.quotationToBigDecimal(quotation), decimal.toBigDecimal());
+
+    var money = MoneyValue.newBuilder().setUnits(5).setNano(50_000_000).setCurrency("rub").build();
+    assertEquals(money, Decimal.fromMoneyValue(money).toMoneyValue("RUB"));
+  }
+
+  @Test
+  public void arithmeticTest() {
+    var price = Decimal.of(10, 250_000_000);
+
+    assertEquals(Decimal.of(30, 750_000_000), price.multiply(3));
+    assertEquals(Decimal.ZERO, price.subtract(price));
+    assertEquals(Decimal.of(-10, -250_000_000), price.negate());
+    assertTrue(price.compareTo(Decimal.ONE) > 0);
+    assertThrows(ArithmeticException.class, () -> Decimal.of(Long.MAX_VALUE / 1_000_000_000L).add(Decimal.ONE));
+
+    var sum = new MutableDecimal();
+    for (int i = 0; i < 4; i++) {
+      sum.add(Quotation.newBuilder().setUnits(1).setNano(500_000_000).build());
+    }
+    sum.subtract(Decimal.ONE).multiply(2);
+    assertEquals(Decimal.of(10), sum.toDecimal());
+    assertEquals(10, sum.getUnits());
+    assertEquals(0, sum.compareTo(Decimal.of(10)));
+  }
+}
@@ -0,0 +1,46 @@
+package ru.tinkoff.piapi.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.core.utils.ErrorCatalog;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ErrorCatalogTest {
+
+  @Test
+  public void catalogMatchesErrorsJsonTest() throws IOException {
+    Map<String, Map<String, String>> errors;
+    try (var resource = getClass().getClassLoader().getResourceAsStream("errors.json")) {
+      assertNotNull(resource);
+      errors = new ObjectMapper().readValue(resource, new TypeReference<HashMap<String, Map<String, String>>>() {
+      });
+    }
+
+    assertEquals(errors.size(), ErrorCatalog.size(), "ErrorCatalog не соответствует errors.json");
+    for (var entry : errors.entrySet()) {
+      var index = ErrorCatalog.indexOf(entry.getKey());
+      assertTrue(index >= 0, "В ErrorCatalog нет ошибки " + entry.getKey());
+      assertEquals(entry.getKey(), ErrorCatalog.code(index));
+      assertEquals(entry.getValue().get("message"), ErrorCatalog.message(index));
+      assertEquals(entry.getValue().get("type"), ErrorCatalog.type(index));
+      assertEquals(entry.getValue().get("description"), ErrorCatalog.description(index));
+    }
+  }
+
+  @Test
+  public void unknownCodeTest() {
+    assertEquals(-1, ErrorCatalog.indexOf(null));
+    assertEquals(-1, ErrorCatalog.indexOf("1"));
+    assertEquals(-1, ErrorCatalog.indexOf("3000a"));
+    assertEquals(-1, ErrorCatalog.indexOf("99999"));
+    assertEquals(-1, ErrorCatalog.indexOf("unknown error text"));
+  }
+}
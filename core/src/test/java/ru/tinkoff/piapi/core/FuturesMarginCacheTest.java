@@ -0,0 +1,97 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.FuturesResponse;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginRequest;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentsRequest;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.cache.FuturesMarginCache;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FuturesMarginCacheTest extends GrpcClientTester<InstrumentsService> {
+
+  private final Map<String, AtomicInteger> marginCalls = new ConcurrentHashMap<>();
+
+  @Override
+  protected InstrumentsService createClient(Channel channel) {
+    return new InstrumentsService(
+      InstrumentsServiceGrpc.newBlockingStub(channel),
+      InstrumentsServiceGrpc.newStub(channel));
+  }
+
+  private InstrumentsService futuresServer() {
+    return mkClientBasedOnServer(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+      @Override
+      public void futures(InstrumentsRequest request, StreamObserver<FuturesResponse> responseObserver) {
+        responseObserver.onNext(FuturesResponse.newBuilder()
+          .addInstruments(Future.newBuilder().setFigi("si").setApiTradeAvailableFlag(true).build())
+          .addInstruments(Future.newBuilder().setFigi("br").setApiTradeAvailableFlag(true).build())
+          .addInstruments(Future.newBuilder().setFigi("closed").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void getFuturesMargin(GetFuturesMarginRequest request,
+                                   StreamObserver<GetFuturesMarginResponse> responseObserver) {
+        marginCalls.computeIfAbsent(request.getFigi(), figi -> new AtomicInteger()).incrementAndGet();
+        responseObserver.onNext(GetFuturesMarginResponse.newBuilder()
+          .setMinPriceIncrement(Quotation.newBuilder().setUnits(1).build())
+          .setMinPriceIncrementAmount(Quotation.newBuilder().setUnits(1).setNano(500_000_000).build())
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  @Test
+  void cachedConversion_Test() {
+    var cache = new FuturesMarginCache(futuresServer(), Duration.ofMinutes(10));
+    assertNull(cache.getIfPresent("si"));
+
+    assertEquals(0, new BigDecimal("15.75").compareTo(
+      cache.futuresPrice("si", Quotation.newBuilder().setUnits(10).setNano(500_000_000).build())));
+    assertEquals(150_000_000_000L, cache.futuresPriceNanos("si", 100, 0));
+    assertNotNull(cache.getIfPresent("si"));
+    cache.getFuturesMargin("si").join();
+    assertEquals(1, marginCalls.get("si").get());
+
+    // Без загруженных данных быстрый пересчёт не обращается к серверу синхронно, а запускает загрузку.
+    assertThrows(IllegalStateException.class, () -> cache.futuresPriceNanos("br", 1, 0));
+    cache.getFuturesMargin("br").join();
+    assertEquals(1, marginCalls.get("br").get());
+    assertEquals(1_500_000_000L, cache.futuresPriceNanos("br", 1, 0));
+
+    cache.invalidate("si");
+    cache.getFuturesMarginSync("si");
+    assertEquals(2, marginCalls.get("si").get());
+  }
+
+  @Test
+  void prewarm_Test() {
+    var cache = new FuturesMarginCache(futuresServer(), Duration.ofMinutes(10));
+    cache.prewarm().join();
+
+    assertEquals(2, cache.size());
+    assertEquals(List.of("br", "si"), marginCalls.keySet().stream().sorted().collect(Collectors.toList()));
+    cache.futuresPriceNanos("br", 1, 0);
+    assertEquals(1, marginCalls.get("br").get());
+  }
+}
@@ -3,8 +3,12 @@ package ru.tinkoff.piapi.core;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
 import com.google.protobuf.Timestamp;
@@ -14,7 +18,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import io.grpc.Metadata;
+import io.grpc.Status;
 import io.smallrye.mutiny.Multi;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
 import ru.tinkoff.piapi.core.utils.DateUtils;
 import ru.tinkoff.piapi.core.utils.Helpers;
 
@@ -32,6 +39,56 @@ public class HelpersTest {
     assertEquals(expected, future.join());
   }
 
+  @Test
+  void unaryAsyncCallError_Test() {
+    var trailers = new Metadata();
+    trailers.put(Metadata.Key.of("x-tracking-id", Metadata.ASCII_STRING_MARSHALLER), "tracking");
+    var error = Status.INVALID_ARGUMENT.withDescription("30001").asRuntimeException(trailers);
+
+    var thrown = assertThrows(CompletionException.class, () -> Helpers.<String>unaryAsyncCall(observer ->
+      observer.onError(error)).join());
+    var exception = (ApiRuntimeException) thrown.getCause();
+    assertEquals("30001", exception.getCode());
+    assertEquals("Входной параметр from является обязательным.  Укажите корректный параметр from.",
+      exception.getMessage());
+    assertEquals("tracking", exception.getTrackingId());
+    assertSame(error, exception.getThrowable());
+    assertTrue(exception.getStackTrace().length > 0);
+
+    Helpers.setStacklessExceptions(true);
+    try {
+      var stackless = assertThrows(ApiRuntimeException.class, () -> Helpers.unaryCall(() -> {
+        throw Status.RESOURCE_EXHAUSTED.asRuntimeException();
+      }));
+      assertEquals("80002", stackless.getCode());
+      assertEquals(0, stackless.getStackTrace().length);
+      assertNull(stackless.getTrackingId());
+
+      // Настройка из окружения или config.properties не переопределяет заданный явно режим.
+      Helpers.setDefaultStacklessExceptions(false);
+      assertTrue(Helpers.isStacklessExceptions());
+    } finally {
+      Helpers.setStacklessExceptions(false);
+    }
+  }
+
+  @Test
+  void unaryAsyncResultCall_Test() {
+    var success = Helpers.<String>unaryAsyncResultCall(observer -> {
+      observer.onNext("sample");
+      observer.onCompleted();
+    }).join();
+    assertTrue(success.isSuccess());
+    assertEquals("sample", success.getOrThrow());
+
+    var failure = Helpers.<String>unaryAsyncResultCall(observer ->
+      observer.onError(Status.UNAUTHENTICATED.asRuntimeException())).join();
+    assertFalse(failure.isSuccess());
+    assertNull(failure.getValue());
+    assertEquals("40003", failure.getCode());
+    assertEquals("40003", assertThrows(ApiRuntimeException.class, failure::getOrThrow).getCode());
+  }
+
   @Test
   void instantToTimestamp_Test() {
     var input = Instant.ofEpochSecond(1234567890, 111222333);
@@ -58,6 +115,43 @@ public class HelpersTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  void timestampToEpochNanos_Test() {
+    var input = Timestamp.newBuilder()
+      .setSeconds(1234567890)
+      .setNanos(111222333)
+      .build();
+
+    var nanos = DateUtils.timestampToEpochNanos(input);
+
+    assertEquals(1234567890111222333L, nanos);
+    assertEquals(1234567890111L, DateUtils.timestampToEpochMillis(input));
+    assertEquals(input, DateUtils.epochNanosToTimestamp(nanos));
+    assertEquals(Timestamp.newBuilder().setSeconds(-1).setNanos(999_999_999).build(),
+      DateUtils.epochNanosToTimestamp(-1));
+  }
+
+  @Test
+  void appendIso_Test() {
+    var formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+      .withZone(ZoneOffset.UTC);
+    var random = new Random(42);
+    var sb = new StringBuilder();
+    long[] seconds = {0, -1, 951782400, 1632740727, 4107542400L, -62135596800L, 253402300799L};
+    for (int i = 0; i < 10_000 + seconds.length; i++) {
+      var second = i < seconds.length ? seconds[i] : random.nextLong() % 253402300799L;
+      var nanos = i % 4 == 0 ? 0 : i % 4 == 1 ? 123_000_000 : i % 4 == 2 ? 123_456_000 : random.nextInt(1_000_000_000);
+      var instant = Instant.ofEpochSecond(second, nanos);
+
+      sb.setLength(0);
+      assertEquals(formatter.format(instant), DateUtils.appendEpochSeconds(sb, second).toString());
+      sb.setLength(0);
+      assertEquals(instant.toString(), DateUtils.appendIsoInstant(sb, second, nanos).toString());
+    }
+    assertEquals("2021-09-27T11:05:27Z", DateUtils.timestampToString(Timestamp.newBuilder().setSeconds(1632740727).build()));
+    assertEquals("2021-09-27T11:05:27Z", DateUtils.epochMillisToString(1632740727999L));
+  }
+
   @Test
   void wrapEmitterWithStreamObserver_Test() {
     var expected = List.of("sample");
@@ -0,0 +1,180 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderType;
+import ru.tinkoff.piapi.contract.v1.OrdersServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.PostOrderRequest;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.contract.v1.ReplaceOrderRequest;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.orders.IdempotentOrdersService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotentOrdersServiceTest extends GrpcClientTester<OrdersService> {
+
+  private static final String ACCOUNT_ID = "accountId";
+  private static final Quotation PRICE = Quotation.newBuilder().setUnits(100).build();
+
+  @Override
+  protected OrdersService createClient(Channel channel) {
+    return new OrdersService(
+      OrdersServiceGrpc.newBlockingStub(channel),
+      OrdersServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void inFlightAndCompletedDuplicates_Test() {
+    var observers = new CopyOnWriteArrayList<StreamObserver<PostOrderResponse>>();
+    var service = new IdempotentOrdersService(mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        observers.add(responseObserver);
+      }
+    }));
+
+    var first = post(service, "order1", 1);
+    var retry = post(service, "order1", 1);
+    assertEquals(1, observers.size());
+    assertFalse(retry.isDone());
+
+    observers.get(0).onNext(PostOrderResponse.newBuilder().setOrderId("exchange1").build());
+    observers.get(0).onCompleted();
+    assertEquals("exchange1", first.join().getOrderId());
+    assertEquals("exchange1", retry.join().getOrderId());
+
+    var afterCompletion = service.postOrderSync("figi", 1, PRICE, OrderDirection.ORDER_DIRECTION_BUY, ACCOUNT_ID,
+      OrderType.ORDER_TYPE_LIMIT, "order1");
+    assertEquals("exchange1", afterCompletion.getOrderId());
+    assertEquals(1, observers.size());
+
+    var conflict = post(service, "order1", 2);
+    var thrown = assertThrows(CompletionException.class, conflict::join);
+    assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+    assertEquals(1, observers.size());
+  }
+
+  @Test
+  void transientErrorIsRetriedAndFinalErrorIsKept_Test() {
+    var calls = new AtomicInteger();
+    var service = new IdempotentOrdersService(mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        if (calls.incrementAndGet() == 1) {
+          responseObserver.onError(Status.UNAVAILABLE.withDescription("70001").asRuntimeException());
+        } else if (request.getOrderId().equals("rejected")) {
+          responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("30079").asRuntimeException());
+        } else {
+          responseObserver.onNext(PostOrderResponse.newBuilder().setOrderId("exchange1").build());
+          responseObserver.onCompleted();
+        }
+      }
+    }));
+
+    assertThrows(CompletionException.class, () -> post(service, "order1", 1).join());
+    assertEquals(0, service.size());
+    assertEquals("exchange1", post(service, "order1", 1).join().getOrderId());
+    assertEquals(2, calls.get());
+
+    var thrown = assertThrows(ApiRuntimeException.class, () -> service.postOrderSync("figi", 1, PRICE,
+      OrderDirection.ORDER_DIRECTION_BUY, ACCOUNT_ID, OrderType.ORDER_TYPE_LIMIT, "rejected"));
+    assertEquals("30079", thrown.getCode());
+    assertThrows(CompletionException.class, () -> post(service, "rejected", 1).join());
+    assertEquals(3, calls.get());
+    assertEquals(2, service.size());
+  }
+
+  @Test
+  void replaceOrderDuplicate_Test() {
+    var calls = new AtomicInteger();
+    var service = new IdempotentOrdersService(mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void replaceOrder(ReplaceOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        calls.incrementAndGet();
+        responseObserver.onNext(PostOrderResponse.newBuilder().setOrderId("replaced").build());
+        responseObserver.onCompleted();
+      }
+    }));
+
+    assertEquals("replaced", service.replaceOrderSync(ACCOUNT_ID, 1, PRICE, "key1", "exchange1", null).getOrderId());
+    assertEquals("replaced", service.replaceOrderSync(ACCOUNT_ID, 1, PRICE, "key1", "exchange1", null).getOrderId());
+    assertEquals(1, calls.get());
+    service.replaceOrderSync(ACCOUNT_ID, 1, PRICE, "key2", "exchange1", null);
+    assertEquals(2, calls.get());
+
+    assertThrows(IllegalArgumentException.class,
+      () -> service.replaceOrder(ACCOUNT_ID, 1, PRICE, " ", "exchange1", null));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void blankOrderIdIsRejected_Test() {
+    var calls = new AtomicInteger();
+    var service = new IdempotentOrdersService(mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        calls.incrementAndGet();
+        responseObserver.onNext(PostOrderResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+    }));
+
+    assertThrows(IllegalArgumentException.class, () -> post(service, "", 1));
+    assertThrows(IllegalArgumentException.class, () -> post(service, "  ", 2));
+    assertEquals(0, calls.get());
+    assertEquals(0, service.size());
+  }
+
+  @Test
+  void expiredAndEvictedEntries_Test() throws InterruptedException {
+    var calls = new AtomicInteger();
+    var ordersService = mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        calls.incrementAndGet();
+        responseObserver.onNext(PostOrderResponse.newBuilder().setOrderId(request.getOrderId()).build());
+        responseObserver.onCompleted();
+      }
+    });
+
+    var bounded = new IdempotentOrdersService(ordersService, Duration.ofMinutes(1), 2);
+    post(bounded, "order1", 1).join();
+    post(bounded, "order2", 1).join();
+    post(bounded, "order3", 1).join();
+    assertEquals(2, bounded.size());
+    post(bounded, "order1", 1).join();
+    assertEquals(4, calls.get());
+
+    var expiring = new IdempotentOrdersService(ordersService, Duration.ofMillis(20), 10);
+    post(expiring, "order1", 1).join();
+    Thread.sleep(50);
+    assertEquals(0, expiring.size());
+    post(expiring, "order1", 1).join();
+    assertEquals(6, calls.get());
+
+    assertThrows(IllegalArgumentException.class, () -> new IdempotentOrdersService(ordersService, Duration.ZERO, 1));
+    assertThrows(IllegalArgumentException.class,
+      () -> new IdempotentOrdersService(ordersService, Duration.ofMinutes(1), 0));
+  }
+
+  private static CompletableFuture<PostOrderResponse> post(IdempotentOrdersService service, String orderId,
+                                                           long quantity) {
+    return service.postOrder("figi", quantity, PRICE, OrderDirection.ORDER_DIRECTION_BUY, ACCOUNT_ID,
+      OrderType.ORDER_TYPE_LIMIT, orderId);
+  }
+}
@@ -0,0 +1,197 @@
+package ru.tinkoff.piapi.core;
+
+import com.google.protobuf.CodedOutputStream;
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.tinkoff.piapi.contract.v1.Bond;
+import ru.tinkoff.piapi.contract.v1.BondsResponse;
+import ru.tinkoff.piapi.contract.v1.CurrenciesResponse;
+import ru.tinkoff.piapi.contract.v1.Currency;
+import ru.tinkoff.piapi.contract.v1.EtfsResponse;
+import ru.tinkoff.piapi.contract.v1.Future;
+import ru.tinkoff.piapi.contract.v1.FuturesResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentStatus;
+import ru.tinkoff.piapi.contract.v1.InstrumentsRequest;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.Option;
+import ru.tinkoff.piapi.contract.v1.OptionsResponse;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.contract.v1.SharesResponse;
+import ru.tinkoff.piapi.core.cache.InstrumentCatalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentCatalogTest extends GrpcClientTester<InstrumentsService> {
+
+  private final AtomicBoolean failShares = new AtomicBoolean();
+
+  @Override
+  protected InstrumentsService createClient(Channel channel) {
+    return new InstrumentsService(
+      InstrumentsServiceGrpc.newBlockingStub(channel),
+      InstrumentsServiceGrpc.newStub(channel));
+  }
+
+  private InstrumentsService instrumentsServer() {
+    return mkClientBasedOnServer(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+      @Override
+      public void shares(InstrumentsRequest request, StreamObserver<SharesResponse> responseObserver) {
+        assertEquals(InstrumentStatus.INSTRUMENT_STATUS_ALL, request.getInstrumentStatus());
+        if (failShares.get()) {
+          responseObserver.onError(Status.INTERNAL.asRuntimeException());
+          return;
+        }
+        responseObserver.onNext(SharesResponse.newBuilder()
+          .addInstruments(Share.newBuilder().setFigi("BBG004730N88").setTicker("SBER").setClassCode("TQBR")
+            .setUid("sber_uid").setPositionUid("sber_position").setIsin("RU0009029540").build())
+          .addInstruments(Share.newBuilder().setFigi("BBG000B9XRY4").setTicker("AAPL").setClassCode("SPBXM")
+            .setUid("aapl_uid").setPositionUid("aapl_position").setIsin("US0378331005").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void bonds(InstrumentsRequest request, StreamObserver<BondsResponse> responseObserver) {
+        responseObserver.onNext(BondsResponse.newBuilder()
+          .addInstruments(Bond.newBuilder().setFigi("bond_figi").setTicker("SU26238RMFS4").setClassCode("TQOB")
+            .setUid("bond_uid").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void etfs(InstrumentsRequest request, StreamObserver<EtfsResponse> responseObserver) {
+        responseObserver.onNext(EtfsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void futures(InstrumentsRequest request, StreamObserver<FuturesResponse> responseObserver) {
+        responseObserver.onNext(FuturesResponse.newBuilder()
+          .addInstruments(Future.newBuilder().setFigi("fut_figi").setTicker("SiH3").setClassCode("SPBFUT")
+            .setUid("fut_uid").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void currencies(InstrumentsRequest request, StreamObserver<CurrenciesResponse> responseObserver) {
+        responseObserver.onNext(CurrenciesResponse.newBuilder()
+          .addInstruments(Currency.newBuilder().setFigi("BBG0013HGFT4").setTicker("USD000UTSTOM")
+            .setClassCode("CETS").setUid("usd_uid").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void options(InstrumentsRequest request, StreamObserver<OptionsResponse> responseObserver) {
+        responseObserver.onNext(OptionsResponse.newBuilder()
+          .addInstruments(Option.newBuilder().setUid("opt_uid").setTicker("Si75000BC3").setClassCode("SPBOPT")
+            .build())
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  @Test
+  void lookups_Test() {
+    var catalog = new InstrumentCatalog(instrumentsServer());
+    assertNull(catalog.getLoadedAt());
+    assertNull(catalog.getShares().getByFigi("BBG004730N88"));
+
+    catalog.refreshSync();
+
+    var sber = catalog.getShares().getByFigi("BBG004730N88");
+    assertNotNull(sber);
+    assertSame(sber, catalog.getShares().getByTicker("SBER", "TQBR"));
+    assertSame(sber, catalog.getShares().getByUid("sber_uid"));
+    assertSame(sber, catalog.getShares().getByPositionUid("sber_position"));
+    assertSame(sber, catalog.getShares().getByIsin("RU0009029540"));
+    assertSame(sber, catalog.getShares().getByInstrumentId("sber_uid"));
+    assertSame(sber, catalog.getShares().getByInstrumentId("BBG004730N88"));
+    assertNull(catalog.getShares().getByTicker("SBER", "SPBXM"));
+    assertEquals(2, catalog.getShares().size());
+    assertEquals(1, catalog.getBonds().size());
+    assertEquals(0, catalog.getEtfs().size());
+    assertNotNull(catalog.getFutures().getByTicker("SiH3", "SPBFUT"));
+    assertNotNull(catalog.getCurrencies().getByUid("usd_uid"));
+    assertNotNull(catalog.getOptions().getByUid("opt_uid"));
+    assertNotNull(catalog.getLoadedAt());
+  }
+
+  @Test
+  void failedRefreshKeepsPreviousState_Test() {
+    var catalog = new InstrumentCatalog(instrumentsServer());
+    catalog.refreshSync();
+    var loadedAt = catalog.getLoadedAt();
+
+    failShares.set(true);
+    assertThrows(Exception.class, catalog::refreshSync);
+
+    assertEquals(loadedAt, catalog.getLoadedAt());
+    assertNotNull(catalog.getShares().getByTicker("AAPL", "SPBXM"));
+  }
+
+  @Test
+  void snapshot_Test(@TempDir Path dir) {
+    var file = dir.resolve("catalog.bin");
+    var catalog = new InstrumentCatalog(instrumentsServer());
+    assertFalse(catalog.loadSnapshot(file));
+    catalog.startFromSnapshot(file).join();
+
+    failShares.set(true);
+    var restored = new InstrumentCatalog(instrumentsServer());
+    var reconciliation = restored.startFromSnapshot(file);
+
+    assertEquals(catalog.getLoadedAt(), restored.getLoadedAt());
+    assertEquals(catalog.getShares().getAll(), restored.getShares().getAll());
+    assertEquals(catalog.getOptions().getAll(), restored.getOptions().getAll());
+    assertSame(restored.getShares().getByIsin("US0378331005"), restored.getShares().getByTicker("AAPL", "SPBXM"));
+    assertThrows(Exception.class, reconciliation::join);
+    assertEquals(catalog.getFutures().getAll(), restored.getFutures().getAll());
+  }
+
+  @Test
+  void corruptSnapshot_Test(@TempDir Path dir) throws IOException {
+    var file = dir.resolve("catalog.bin");
+    var catalog = new InstrumentCatalog(instrumentsServer());
+    catalog.refreshSync();
+    catalog.saveSnapshot(file);
+    var valid = Files.readAllBytes(file);
+
+    var truncated = dir.resolve("truncated.bin");
+    Files.write(truncated, Arrays.copyOf(valid, valid.length / 2));
+    var hugeCount = dir.resolve("huge.bin");
+    try (var out = Files.newOutputStream(hugeCount)) {
+      var output = CodedOutputStream.newInstance(out);
+      output.writeFixed32NoTag(0x50494943);
+      output.writeUInt32NoTag(1);
+      output.writeInt64NoTag(0);
+      output.writeUInt32NoTag(0);
+      output.writeUInt32NoTag(0xFFFFFFF0);
+      output.flush();
+    }
+
+    var restored = new InstrumentCatalog(instrumentsServer());
+    assertFalse(restored.loadSnapshot(truncated));
+    assertFalse(restored.loadSnapshot(hugeCount));
+    assertNull(restored.getLoadedAt());
+    assertTrue(restored.loadSnapshot(file));
+  }
+}
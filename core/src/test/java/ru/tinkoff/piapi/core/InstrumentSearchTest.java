@@ -0,0 +1,136 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.BondsResponse;
+import ru.tinkoff.piapi.contract.v1.CurrenciesResponse;
+import ru.tinkoff.piapi.contract.v1.EtfsResponse;
+import ru.tinkoff.piapi.contract.v1.FindInstrumentRequest;
+import ru.tinkoff.piapi.contract.v1.FindInstrumentResponse;
+import ru.tinkoff.piapi.contract.v1.FuturesResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentShort;
+import ru.tinkoff.piapi.contract.v1.InstrumentType;
+import ru.tinkoff.piapi.contract.v1.InstrumentsRequest;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.OptionsResponse;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.contract.v1.SharesResponse;
+import ru.tinkoff.piapi.core.cache.InstrumentCatalog;
+import ru.tinkoff.piapi.core.cache.InstrumentSearch;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentSearchTest extends GrpcClientTester<InstrumentsService> {
+
+  private final AtomicInteger findCalls = new AtomicInteger();
+
+  @Override
+  protected InstrumentsService createClient(Channel channel) {
+    return new InstrumentsService(
+      InstrumentsServiceGrpc.newBlockingStub(channel),
+      InstrumentsServiceGrpc.newStub(channel));
+  }
+
+  private InstrumentsService instrumentsServer() {
+    return mkClientBasedOnServer(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+      @Override
+      public void shares(InstrumentsRequest request, StreamObserver<SharesResponse> responseObserver) {
+        responseObserver.onNext(SharesResponse.newBuilder()
+          .addInstruments(Share.newBuilder().setFigi("BBG004730N88").setTicker("SBER").setClassCode("TQBR")
+            .setName("Сбер Банк").setUid("sber_uid").setIsin("RU0009029540").setApiTradeAvailableFlag(true).build())
+          .addInstruments(Share.newBuilder().setFigi("BBG0047315Y7").setTicker("SBERP").setClassCode("TQBR")
+            .setName("Сбер Банк - привилегированные акции").setUid("sberp_uid").setIsin("RU0009029557")
+            .setApiTradeAvailableFlag(true).build())
+          .addInstruments(Share.newBuilder().setFigi("BBG000B9XRY4").setTicker("AAPL").setClassCode("SPBXM")
+            .setName("Apple").setUid("aapl_uid").setIsin("US0378331005").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void bonds(InstrumentsRequest request, StreamObserver<BondsResponse> responseObserver) {
+        responseObserver.onNext(BondsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void etfs(InstrumentsRequest request, StreamObserver<EtfsResponse> responseObserver) {
+        responseObserver.onNext(EtfsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void futures(InstrumentsRequest request, StreamObserver<FuturesResponse> responseObserver) {
+        responseObserver.onNext(FuturesResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void currencies(InstrumentsRequest request, StreamObserver<CurrenciesResponse> responseObserver) {
+        responseObserver.onNext(CurrenciesResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void options(InstrumentsRequest request, StreamObserver<OptionsResponse> responseObserver) {
+        responseObserver.onNext(OptionsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void findInstrument(FindInstrumentRequest request,
+                                 StreamObserver<FindInstrumentResponse> responseObserver) {
+        findCalls.incrementAndGet();
+        responseObserver.onNext(FindInstrumentResponse.newBuilder()
+          .addInstruments(InstrumentShort.newBuilder().setTicker("REMOTE").build())
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  private static List<String> tickers(List<InstrumentShort> instruments) {
+    return instruments.stream().map(InstrumentShort::getTicker).collect(Collectors.toList());
+  }
+
+  @Test
+  void localSearch_Test() {
+    var instrumentsService = instrumentsServer();
+    var catalog = new InstrumentCatalog(instrumentsService);
+    catalog.refreshSync();
+    var search = new InstrumentSearch(catalog, instrumentsService);
+
+    assertEquals(List.of("SBER", "SBERP"), tickers(search.findInstrumentSync("sber")));
+    assertEquals(List.of("SBERP"), tickers(search.findInstrumentSync("привилег")));
+    assertEquals(List.of("AAPL"), tickers(search.findInstrumentSync("us0378331005")));
+    assertEquals(List.of("SBERP"), tickers(search.findInstrumentSync("sberp_uid")));
+    assertEquals(List.of("SBER"), tickers(search.search("sb", 1)));
+    assertEquals(InstrumentType.INSTRUMENT_TYPE_SHARE, search.search("aapl", 1).get(0).getInstrumentKind());
+    assertTrue(search.search("", 10).isEmpty());
+    assertEquals(0, findCalls.get());
+  }
+
+  @Test
+  void remoteFallback_Test() {
+    var instrumentsService = instrumentsServer();
+    var catalog = new InstrumentCatalog(instrumentsService);
+    var search = new InstrumentSearch(catalog, instrumentsService);
+    var closed = new InstrumentSearch(catalog, instrumentsService);
+    closed.close();
+
+    assertEquals(List.of("REMOTE"), tickers(search.findInstrument("sber").join()));
+    assertEquals(1, findCalls.get());
+
+    catalog.refreshSync();
+    assertEquals(List.of("SBER", "SBERP"), tickers(search.findInstrument("sber").join()));
+    assertEquals(1, findCalls.get());
+    // Закрытый поиск больше не получает обновлений справочника.
+    assertTrue(closed.search("sber", 10).isEmpty());
+  }
+}
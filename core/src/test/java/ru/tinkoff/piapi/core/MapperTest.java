@@ -3,12 +3,21 @@ package ru.tinkoff.piapi.core;
 import org.junit.jupiter.api.Test;
 import ru.tinkoff.piapi.contract.v1.GetFuturesMarginResponse;
 import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.PortfolioPosition;
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
 import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.models.Money;
+import ru.tinkoff.piapi.core.models.Portfolio;
+import ru.tinkoff.piapi.core.models.Position;
 import ru.tinkoff.piapi.core.utils.MapperUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class MapperTest {
 
@@ -77,4 +86,69 @@ public class MapperTest {
     var expectedValue = BigDecimal.valueOf(60); //30 / 10 * 20
     assertEquals(0, actualValue.compareTo(expectedValue));
   }
+
+  @Test
+  public void futuresPriceNanosTest() {
+    var response = GetFuturesMarginResponse
+      .newBuilder()
+      .setMinPriceIncrement(Quotation.newBuilder().setUnits(0).setNano(10_000_000).build())
+      .setMinPriceIncrementAmount(Quotation.newBuilder().setUnits(0).setNano(7_654_321).build())
+      .build();
+    var increment = MapperUtils.quotationToNanos(response.getMinPriceIncrement());
+    var incrementAmount = MapperUtils.quotationToNanos(response.getMinPriceIncrementAmount());
+    var random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      var price = Quotation.newBuilder().setUnits(random.nextInt(1_000_000)).setNano(random.nextInt(100) * 10_000_000)
+        .build();
+      var expected = MapperUtils.futuresPrice(price, response).setScale(9, RoundingMode.HALF_UP);
+      var actual = MapperUtils.futuresPriceNanos(MapperUtils.quotationToNanos(price), incrementAmount, increment);
+      assertEquals(expected, BigDecimal.valueOf(actual, 9));
+    }
+    assertEquals(-60_000_000_000L, MapperUtils.futuresPriceNanos(-30_000_000_000L, 20_000_000_000L, 10_000_000_000L));
+  }
+
+  @Test
+  public void lazyPortfolioTest() {
+    var price = MoneyValue.newBuilder().setUnits(100).setNano(500_000_000).setCurrency("rub").build();
+    var response = PortfolioResponse.newBuilder()
+      .setTotalAmountShares(price)
+      .setExpectedYield(Quotation.newBuilder().setUnits(-3).build())
+      .addPositions(PortfolioPosition.newBuilder()
+        .setFigi("figi")
+        .setInstrumentType("share")
+        .setQuantity(Quotation.newBuilder().setUnits(10).build())
+        .setCurrentPrice(price)
+        .build())
+      .build();
+    var portfolio = Portfolio.fromResponse(response);
+
+    assertSame(portfolio.getTotalAmountShares(), portfolio.getTotalAmountShares());
+    assertSame(portfolio.getPositions(), portfolio.getPositions());
+    var position = portfolio.getPositions().get(0);
+    assertSame(position.getCurrentPrice(), position.getCurrentPrice());
+    assertEquals(0, BigDecimal.valueOf(100.5).compareTo(position.getCurrentPrice().getValue()));
+    assertEquals(BigDecimal.TEN.setScale(9), position.getQuantity());
+
+    var expectedPosition = Position.builder()
+      .figi("figi")
+      .instrumentType("share")
+      .quantity(MapperUtils.quotationToBigDecimal(Quotation.newBuilder().setUnits(10).build()))
+      .averagePositionPrice(Money.fromResponse(MoneyValue.getDefaultInstance()))
+      .expectedYield(BigDecimal.ZERO)
+      .currentNkd(Money.fromResponse(MoneyValue.getDefaultInstance()))
+      .averagePositionPricePt(BigDecimal.ZERO)
+      .currentPrice(Money.fromResponse(price))
+      .averagePositionPriceFifo(Money.fromResponse(MoneyValue.getDefaultInstance()))
+      .quantityLots(BigDecimal.ZERO)
+      .build();
+    assertEquals(expectedPosition, position);
+    assertEquals(expectedPosition.hashCode(), position.hashCode());
+    assertEquals(Decimal.of(10), position.getQuantityDecimal());
+    assertEquals(Decimal.of(100, 500_000_000), position.getCurrentPriceDecimal());
+    assertEquals(expectedPosition.getQuantityDecimal(), position.getQuantityDecimal());
+    assertEquals(expectedPosition.getCurrentPriceDecimal(), position.getCurrentPriceDecimal());
+    assertEquals(Decimal.ZERO, expectedPosition.getAveragePositionPriceDecimal());
+    assertEquals(Decimal.of(-3), portfolio.getExpectedYieldDecimal());
+    assertEquals(Portfolio.fromResponse(response), portfolio);
+  }
 }
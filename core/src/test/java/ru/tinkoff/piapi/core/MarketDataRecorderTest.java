@@ -0,0 +1,119 @@
+package ru.tinkoff.piapi.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.stream.MarketDataRecorder;
+import ru.tinkoff.piapi.core.stream.MarketDataReplay;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MarketDataRecorderTest {
+
+  @Test
+  void recordAndReplay_Test(@TempDir Path dir) {
+    var expected = new ArrayList<MarketDataResponse>();
+    for (int i = 0; i < 100; i++) {
+      expected.add(MarketDataResponse.newBuilder()
+        .setLastPrice(LastPrice.newBuilder()
+          .setFigi("figi" + i)
+          .setPrice(Quotation.newBuilder().setUnits(i).build()))
+        .build());
+    }
+    var forwarded = new ArrayList<MarketDataResponse>();
+
+    try (var recorder = new MarketDataRecorder(dir, 256)) {
+      var processor = recorder.wrap(forwarded::add);
+      expected.forEach(processor::process);
+    }
+
+    List<MarketDataResponse> replayed = new ArrayList<>();
+    var count = new MarketDataReplay(dir).replay(replayed::add);
+
+    assertIterableEquals(expected, forwarded);
+    assertEquals(expected.size(), count);
+    assertIterableEquals(expected, replayed);
+  }
+
+  @Test
+  void replayKeepsRecordedPace_Test(@TempDir Path dir) {
+    var message = lastPrice(1);
+    try (var recorder = new MarketDataRecorder(dir)) {
+      recorder.append(message, 1_000_000_000L);
+      recorder.append(message, 1_050_000_000L);
+    }
+
+    var start = System.nanoTime();
+    var count = new MarketDataReplay(dir).replay(response -> {
+    }, 1);
+
+    assertEquals(2, count);
+    assertTrue(System.nanoTime() - start >= 50_000_000L);
+  }
+
+  @Test
+  void tornRecordEndsSegment_Test(@TempDir Path dir) throws Exception {
+    try (var recorder = new MarketDataRecorder(dir, 1024)) {
+      recorder.append(lastPrice(1), 1_000L);
+      recorder.append(lastPrice(2), 2_000L);
+    }
+    var segment = dir.resolve("marketdata-000000.journal");
+    var recordSize = Integer.BYTES + Long.BYTES + lastPrice(1).getSerializedSize();
+    try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // Запись прервана до записи времени получения.
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, lastPrice(3).getSerializedSize()), 2L * recordSize);
+    }
+    assertEquals(2, new MarketDataReplay(dir).replay(response -> {
+    }));
+
+    try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // Повреждённая длина сообщения выходит за границу сегмента.
+      channel.write(ByteBuffer.allocate(Integer.BYTES + Long.BYTES).putInt(0, 1 << 20).putLong(4, 3_000L),
+        2L * recordSize);
+    }
+    var replayed = new ArrayList<MarketDataResponse>();
+    assertEquals(2, new MarketDataReplay(dir).replay(replayed::add));
+    assertEquals(List.of(lastPrice(1), lastPrice(2)), replayed);
+  }
+
+  @Test
+  void nextSegmentAfterDeletedOldest_Test(@TempDir Path dir) throws Exception {
+    try (var recorder = new MarketDataRecorder(dir)) {
+      recorder.append(lastPrice(1), 1_000L);
+    }
+    try (var recorder = new MarketDataRecorder(dir)) {
+      recorder.append(lastPrice(2), 2_000L);
+    }
+    Files.delete(dir.resolve("marketdata-000000.journal"));
+
+    try (var recorder = new MarketDataRecorder(dir)) {
+      recorder.append(lastPrice(3), 3_000L);
+      assertThrows(IllegalArgumentException.class,
+        () -> recorder.append(MarketDataResponse.getDefaultInstance(), 4_000L));
+    }
+
+    assertTrue(Files.exists(dir.resolve("marketdata-000002.journal")));
+    var replayed = new ArrayList<MarketDataResponse>();
+    new MarketDataReplay(dir).replay(replayed::add);
+    assertEquals(List.of(lastPrice(2), lastPrice(3)), replayed);
+  }
+
+  private static MarketDataResponse lastPrice(long price) {
+    return MarketDataResponse.newBuilder()
+      .setLastPrice(LastPrice.newBuilder().setFigi("figi").setPrice(Quotation.newBuilder().setUnits(price)))
+      .build();
+  }
+}
@@ -0,0 +1,114 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.Candle;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.contract.v1.MarketDataRequest;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.MarketDataStreamServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.Ping;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.stream.MarketDataMarshallers;
+import ru.tinkoff.piapi.core.stream.MarketDataStreamService;
+import ru.tinkoff.piapi.core.stream.RawMarketDataResponse;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MarketDataStreamServiceTest extends GrpcClientTester<MarketDataStreamService> {
+
+  private static final List<MarketDataResponse> RESPONSES = List.of(
+    MarketDataResponse.newBuilder().setPing(Ping.getDefaultInstance()).build(),
+    MarketDataResponse.newBuilder()
+      .setCandle(Candle.newBuilder().setFigi("figi").setVolume(10))
+      .build(),
+    MarketDataResponse.newBuilder()
+      .setLastPrice(LastPrice.newBuilder()
+        .setFigi("figi")
+        .setPrice(Quotation.newBuilder().setUnits(100).setNano(500_000_000)))
+      .build());
+
+  @Override
+  protected MarketDataStreamService createClient(Channel channel) {
+    return new MarketDataStreamService(MarketDataStreamServiceGrpc.newStub(channel));
+  }
+
+  @Test
+  void filteringMarshaller_Test() {
+    var marshaller = MarketDataMarshallers.filtering(EnumSet.of(MarketDataResponse.PayloadCase.LAST_PRICE));
+
+    var skipped = marshaller.parse(RESPONSES.get(1).toByteString().newInput());
+    var parsed = marshaller.parse(RESPONSES.get(2).toByteString().newInput());
+
+    assertSame(MarketDataResponse.getDefaultInstance(), skipped);
+    assertEquals(RESPONSES.get(2), parsed);
+  }
+
+  @Test
+  void rawMarshaller_Test() throws Exception {
+    var raw = MarketDataMarshallers.raw().parse(RESPONSES.get(2).toByteString().newInput());
+
+    assertEquals(MarketDataResponse.PayloadCase.LAST_PRICE, raw.getPayloadCase());
+    assertEquals(RESPONSES.get(2).getLastPrice(), LastPrice.parseFrom(raw.newPayloadInput()));
+    assertEquals(RESPONSES.get(2).getLastPrice().toByteString(), raw.getPayload());
+    assertEquals(RESPONSES.get(2), raw.parse());
+  }
+
+  @Test
+  void filteredStream_Test() {
+    var service = mkClientBasedOnServer(grpcService());
+    var received = new ArrayList<MarketDataResponse>();
+
+    var stream = service.newStream("filtered",
+      EnumSet.of(MarketDataResponse.PayloadCase.LAST_PRICE, MarketDataResponse.PayloadCase.PING),
+      received::add, null);
+    stream.subscribeLastPrices(List.of("figi"));
+
+    assertEquals(List.of(RESPONSES.get(0), RESPONSES.get(2)), received);
+    assertEquals(1, service.streamCount());
+  }
+
+  @Test
+  void rawStream_Test() {
+    var service = mkClientBasedOnServer(grpcService());
+    var received = new ArrayList<RawMarketDataResponse>();
+
+    var stream = service.newRawStream("raw", received::add, null);
+    stream.subscribeLastPrices(List.of("figi"));
+
+    assertEquals(RESPONSES.size(), received.size());
+    for (int i = 0; i < RESPONSES.size(); i++) {
+      assertEquals(RESPONSES.get(i).getPayloadCase(), received.get(i).getPayloadCase());
+      assertEquals(RESPONSES.get(i), received.get(i).parse());
+    }
+  }
+
+  private static MarketDataStreamServiceGrpc.MarketDataStreamServiceImplBase grpcService() {
+    return new MarketDataStreamServiceGrpc.MarketDataStreamServiceImplBase() {
+      @Override
+      public StreamObserver<MarketDataRequest> marketDataStream(StreamObserver<MarketDataResponse> responseObserver) {
+        return new StreamObserver<>() {
+          @Override
+          public void onNext(MarketDataRequest value) {
+            RESPONSES.forEach(responseObserver::onNext);
+          }
+
+          @Override
+          public void onError(Throwable t) {
+          }
+
+          @Override
+          public void onCompleted() {
+            responseObserver.onCompleted();
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,105 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorRequest;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorResponse;
+import ru.tinkoff.piapi.contract.v1.OperationItem;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.core.history.OperationsHistoryLoader;
+import ru.tinkoff.piapi.core.utils.DateUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OperationsHistoryLoaderTest extends GrpcClientTester<OperationsService> {
+
+  private static final Instant FROM = Instant.parse("2023-01-01T00:00:00Z");
+  private static final Instant TO = Instant.parse("2023-01-11T00:00:00Z");
+
+  @Override
+  protected OperationsService createClient(Channel channel) {
+    return new OperationsService(
+      OperationsServiceGrpc.newBlockingStub(channel),
+      OperationsServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void iterator_Test() {
+    var operations = operations();
+    var requests = new AtomicInteger();
+    var loader = new OperationsHistoryLoader(mkClientBasedOnServer(grpcService(operations, requests)), 4);
+
+    var request = GetOperationsByCursorRequest.newBuilder()
+      .setAccountId("accountId")
+      .setFrom(DateUtils.instantToTimestamp(FROM))
+      .setTo(DateUtils.instantToTimestamp(TO))
+      .setLimit(7)
+      .build();
+    var actual = loader.stream(request).collect(Collectors.toList());
+
+    assertEquals(operations, actual);
+    assertEquals((operations.size() + 6) / 7, requests.get());
+  }
+
+  @Test
+  void slicedIterator_Test() {
+    var operations = operations();
+    var loader = new OperationsHistoryLoader(
+      mkClientBasedOnServer(grpcService(operations, new AtomicInteger())), 3, Duration.ofHours(25));
+
+    var actual = new ArrayList<OperationItem>();
+    loader.iteratorSliced("accountId", FROM, TO).forEachRemaining(actual::add);
+
+    assertEquals(operations, actual);
+  }
+
+  /**
+   * Операции каждые 6 часов, включая границы периода и границы интервалов, от новых к старым.
+   */
+  private static List<OperationItem> operations() {
+    var operations = new ArrayList<OperationItem>();
+    for (var time = TO; !time.isBefore(FROM); time = time.minus(Duration.ofHours(6))) {
+      operations.add(OperationItem.newBuilder()
+        .setId(time.toString())
+        .setDate(DateUtils.instantToTimestamp(time))
+        .build());
+    }
+    return operations;
+  }
+
+  private static OperationsServiceGrpc.OperationsServiceImplBase grpcService(List<OperationItem> operations,
+                                                                             AtomicInteger requests) {
+    return new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getOperationsByCursor(GetOperationsByCursorRequest request,
+                                        StreamObserver<GetOperationsByCursorResponse> responseObserver) {
+        requests.incrementAndGet();
+        var from = DateUtils.timestampToInstant(request.getFrom());
+        var to = DateUtils.timestampToInstant(request.getTo());
+        var matching = operations.stream()
+          .filter(item -> {
+            var date = DateUtils.timestampToInstant(item.getDate());
+            return !date.isBefore(from) && !date.isAfter(to);
+          })
+          .collect(Collectors.toList());
+        var start = request.getCursor().isEmpty() ? 0 : Integer.parseInt(request.getCursor());
+        var end = Math.min(matching.size(), start + request.getLimit());
+        responseObserver.onNext(GetOperationsByCursorResponse.newBuilder()
+          .addAllItems(matching.subList(start, end))
+          .setHasNext(end < matching.size())
+          .setNextCursor(end < matching.size() ? String.valueOf(end) : "")
+          .build());
+        responseObserver.onCompleted();
+      }
+    };
+  }
+}
@@ -0,0 +1,134 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorRequest;
+import ru.tinkoff.piapi.contract.v1.GetOperationsByCursorResponse;
+import ru.tinkoff.piapi.contract.v1.OperationItem;
+import ru.tinkoff.piapi.contract.v1.OperationState;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.core.history.OperationsJournal;
+import ru.tinkoff.piapi.core.utils.DateUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OperationsJournalTest extends GrpcClientTester<OperationsService> {
+
+  private static final String ACCOUNT_ID = "accountId";
+  private static final Instant HISTORY_START = Instant.parse("2020-01-01T00:00:00Z");
+
+  @Override
+  protected OperationsService createClient(Channel channel) {
+    return new OperationsService(
+      OperationsServiceGrpc.newBlockingStub(channel),
+      OperationsServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void incrementalSync_Test(@TempDir Path dir) {
+    var now = Instant.now();
+    var operations = new CopyOnWriteArrayList<OperationItem>();
+    operations.add(operation("1", now.minus(Duration.ofDays(400)), OperationState.OPERATION_STATE_EXECUTED));
+    operations.add(operation("2", now.minus(Duration.ofDays(10)), OperationState.OPERATION_STATE_PROGRESS));
+    operations.add(operation("3", now.minus(Duration.ofHours(1)), OperationState.OPERATION_STATE_EXECUTED));
+    var requests = new CopyOnWriteArrayList<GetOperationsByCursorRequest>();
+    var service = mkClientBasedOnServer(grpcService(operations, requests));
+    var journal = new OperationsJournal(service, dir);
+
+    assertEquals(3, journal.syncSync(ACCOUNT_ID, HISTORY_START));
+    assertEquals(0, journal.syncSync(ACCOUNT_ID, HISTORY_START));
+
+    operations.set(1, operation("2", now.minus(Duration.ofDays(10)), OperationState.OPERATION_STATE_EXECUTED));
+    operations.add(operation("4", Instant.now(), OperationState.OPERATION_STATE_EXECUTED));
+    assertEquals(2, journal.syncSync(ACCOUNT_ID, HISTORY_START));
+
+    // Повторная синхронизация начинается с самой ранней операции в статусе исполнения, а не с начала истории.
+    var secondFrom = DateUtils.timestampToInstant(requests.get(1).getFrom());
+    assertEquals(now.minus(Duration.ofDays(10)), secondFrom);
+    assertEquals(0, journal.syncSync(ACCOUNT_ID, HISTORY_START));
+    var fourthFrom = DateUtils.timestampToInstant(requests.get(3).getFrom());
+    assertTrue(fourthFrom.isAfter(now.minus(Duration.ofDays(4))));
+
+    var expected = operations.stream()
+      .sorted((left, right) -> right.getDate().getSeconds() != left.getDate().getSeconds()
+        ? Long.compare(right.getDate().getSeconds(), left.getDate().getSeconds())
+        : Integer.compare(right.getDate().getNanos(), left.getDate().getNanos()))
+      .collect(Collectors.toList());
+    assertEquals(expected, journal.getOperations(ACCOUNT_ID, HISTORY_START, Instant.now()));
+    assertEquals(expected.subList(1, 3),
+      journal.getOperations(ACCOUNT_ID, now.minus(Duration.ofDays(30)), now.minus(Duration.ofMinutes(1))));
+
+    var reopened = new OperationsJournal(service, dir);
+    assertEquals(expected, reopened.getOperations(ACCOUNT_ID, HISTORY_START, Instant.now()));
+    assertEquals(journal.getSyncedTo(ACCOUNT_ID), reopened.getSyncedTo(ACCOUNT_ID));
+
+    reopened.compact(ACCOUNT_ID);
+    assertEquals(expected, new OperationsJournal(service, dir).getOperations(ACCOUNT_ID, HISTORY_START, Instant.now()));
+  }
+
+  @Test
+  void truncatedJournal_Test(@TempDir Path dir) throws Exception {
+    var operations = List.of(
+      operation("1", Instant.now().minus(Duration.ofDays(1)), OperationState.OPERATION_STATE_EXECUTED));
+    var service = mkClientBasedOnServer(grpcService(operations, new ArrayList<>()));
+    var journal = new OperationsJournal(service, dir);
+    journal.syncSync(ACCOUNT_ID, HISTORY_START);
+    assertNotNull(journal.getSyncedTo(ACCOUNT_ID));
+
+    Files.write(dir.resolve("operations-" + ACCOUNT_ID + ".journal"), new byte[]{100, 1, 2},
+      StandardOpenOption.APPEND);
+    var reopened = new OperationsJournal(service, dir);
+
+    assertEquals(1, reopened.size(ACCOUNT_ID));
+    assertNull(reopened.getSyncedTo(ACCOUNT_ID));
+    assertEquals(0, reopened.syncSync(ACCOUNT_ID, HISTORY_START));
+  }
+
+  private static OperationItem operation(String id, Instant date, OperationState state) {
+    return OperationItem.newBuilder()
+      .setId(id)
+      .setCursor(id)
+      .setDate(DateUtils.instantToTimestamp(date))
+      .setState(state)
+      .build();
+  }
+
+  private static OperationsServiceGrpc.OperationsServiceImplBase grpcService(
+    List<OperationItem> operations,
+    List<GetOperationsByCursorRequest> requests) {
+    return new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getOperationsByCursor(GetOperationsByCursorRequest request,
+                                        StreamObserver<GetOperationsByCursorResponse> responseObserver) {
+        requests.add(request);
+        var from = DateUtils.timestampToInstant(request.getFrom());
+        var to = DateUtils.timestampToInstant(request.getTo());
+        responseObserver.onNext(GetOperationsByCursorResponse.newBuilder()
+          .addAllItems(operations.stream()
+            .filter(item -> {
+              var date = DateUtils.timestampToInstant(item.getDate());
+              return !date.isBefore(from) && !date.isAfter(to);
+            })
+            .collect(Collectors.toList()))
+          .build());
+        responseObserver.onCompleted();
+      }
+    };
+  }
+}
@@ -0,0 +1,130 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderType;
+import ru.tinkoff.piapi.contract.v1.OrdersServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.PostOrderRequest;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.orders.OrderLatency;
+import ru.tinkoff.piapi.core.orders.OrderSubmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderSubmitterTest extends GrpcClientTester<OrdersService> {
+
+  private static final String ACCOUNT_ID = "accountId";
+
+  @Override
+  protected OrdersService createClient(Channel channel) {
+    return new OrdersService(
+      OrdersServiceGrpc.newBlockingStub(channel),
+      OrdersServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void windowAndPerInstrumentOrder_Test() {
+    var requests = new CopyOnWriteArrayList<PostOrderRequest>();
+    var observers = new CopyOnWriteArrayList<StreamObserver<PostOrderResponse>>();
+    var service = mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        requests.add(request);
+        observers.add(responseObserver);
+      }
+    });
+    var submitter = new OrderSubmitter(service, 2);
+    var latencies = new CopyOnWriteArrayList<OrderLatency>();
+    submitter.addLatencyListener(latencies::add);
+
+    var a1 = submit(submitter, "A", "a1");
+    var a2 = submit(submitter, "A", "a2");
+    var b1 = submit(submitter, "B", "b1");
+    var c1 = submit(submitter, "C", "c1");
+
+    assertEquals(List.of("a1", "b1"), orderIds(requests));
+    assertEquals(2, submitter.inFlight(ACCOUNT_ID));
+    assertEquals(2, submitter.queued(ACCOUNT_ID));
+
+    respond(observers.get(0), "a1");
+    assertEquals("a1", a1.join().getOrderId());
+    // Следующая заявка по A ждёт своей очереди за C.
+    assertEquals(List.of("a1", "b1", "c1"), orderIds(requests));
+
+    observers.get(1).onError(Status.INVALID_ARGUMENT.withDescription("30079").asRuntimeException());
+    var thrown = assertThrows(CompletionException.class, b1::join);
+    assertInstanceOf(ApiRuntimeException.class, thrown.getCause());
+    assertEquals(List.of("a1", "b1", "c1", "a2"), orderIds(requests));
+    assertFalse(a2.isDone());
+
+    respond(observers.get(2), "c1");
+    respond(observers.get(3), "a2");
+    assertEquals("a2", a2.join().getOrderId());
+    assertEquals("c1", c1.join().getOrderId());
+    assertEquals(0, submitter.inFlight(ACCOUNT_ID));
+    assertEquals(0, submitter.queued(ACCOUNT_ID));
+    assertEquals(List.of("a1", "b1", "c1", "a2"),
+      latencies.stream().map(OrderLatency::getOrderId).collect(Collectors.toList()));
+    assertFalse(latencies.get(1).isSuccessful());
+    assertTrue(latencies.get(3).getQueueTime().compareTo(latencies.get(0).getQueueTime()) >= 0);
+  }
+
+  @Test
+  void longQueueOfSynchronousResponses_Test() {
+    var service = mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+      @Override
+      public void postOrder(PostOrderRequest request, StreamObserver<PostOrderResponse> responseObserver) {
+        respond(responseObserver, request.getOrderId());
+      }
+    });
+    var submitter = new OrderSubmitter(service, 4);
+
+    var results = new ArrayList<CompletableFuture<PostOrderResponse>>();
+    for (int i = 0; i < 2000; i++) {
+      results.add(submit(submitter, "instrument" + i % 3, "order" + i));
+    }
+
+    CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+    assertEquals("order1999", results.get(1999).join().getOrderId());
+    assertEquals(0, submitter.queued(ACCOUNT_ID));
+  }
+
+  @Test
+  void invalidWindow_Test() {
+    var service = mkClientBasedOnServer(new OrdersServiceGrpc.OrdersServiceImplBase() {
+    });
+    assertThrows(IllegalArgumentException.class, () -> new OrderSubmitter(service, 0));
+  }
+
+  private static CompletableFuture<PostOrderResponse> submit(OrderSubmitter submitter, String instrumentId,
+                                                             String orderId) {
+    return submitter.submit(instrumentId, 1, Quotation.newBuilder().setUnits(100).build(),
+      OrderDirection.ORDER_DIRECTION_BUY, ACCOUNT_ID, OrderType.ORDER_TYPE_LIMIT, orderId);
+  }
+
+  private static void respond(StreamObserver<PostOrderResponse> observer, String orderId) {
+    observer.onNext(PostOrderResponse.newBuilder().setOrderId(orderId).build());
+    observer.onCompleted();
+  }
+
+  private static List<String> orderIds(List<PostOrderRequest> requests) {
+    return requests.stream().map(PostOrderRequest::getOrderId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,307 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.CancelOrderRequest;
+import ru.tinkoff.piapi.contract.v1.CancelOrderResponse;
+import ru.tinkoff.piapi.contract.v1.GetOrderStateRequest;
+import ru.tinkoff.piapi.contract.v1.OrderDirection;
+import ru.tinkoff.piapi.contract.v1.OrderExecutionReportStatus;
+import ru.tinkoff.piapi.contract.v1.OrderStage;
+import ru.tinkoff.piapi.contract.v1.OrderState;
+import ru.tinkoff.piapi.contract.v1.OrderTrade;
+import ru.tinkoff.piapi.contract.v1.OrderTrades;
+import ru.tinkoff.piapi.contract.v1.OrdersServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.OrdersStreamServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
+import ru.tinkoff.piapi.contract.v1.TradesStreamRequest;
+import ru.tinkoff.piapi.contract.v1.TradesStreamResponse;
+import ru.tinkoff.piapi.core.orders.OrderTracker;
+import ru.tinkoff.piapi.core.orders.TrackedOrder;
+import ru.tinkoff.piapi.core.stream.OrdersStreamService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrderTrackerTest {
+
+  private static final String ACCOUNT_ID = "accountId";
+  private static final String ORDER_ID = "orderId";
+
+  @Test
+  void fillsFromStreamAndReconcilesAfterReconnect_Test() throws Exception {
+    var tradesStream = new AtomicReference<StreamObserver<TradesStreamResponse>>();
+    var subscriptions = new AtomicInteger();
+    var reconciled = new CountDownLatch(1);
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OrdersServiceGrpc.OrdersServiceImplBase() {
+        @Override
+        public void getOrderState(GetOrderStateRequest request, StreamObserver<OrderState> responseObserver) {
+          // Сделка t2 прошла, пока стрим был недоступен.
+          responseObserver.onNext(OrderState.newBuilder()
+            .setOrderId(request.getOrderId())
+            .setLotsRequested(3)
+            .setLotsExecuted(2)
+            .setExecutionReportStatus(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_PARTIALLYFILL)
+            .addStages(OrderStage.newBuilder().setTradeId("t1").setQuantity(1))
+            .addStages(OrderStage.newBuilder().setTradeId("t2").setQuantity(1))
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OrdersStreamServiceGrpc.OrdersStreamServiceImplBase() {
+        @Override
+        public void tradesStream(TradesStreamRequest request, StreamObserver<TradesStreamResponse> responseObserver) {
+          assertEquals(List.of(ACCOUNT_ID), request.getAccountsList());
+          subscriptions.incrementAndGet();
+          tradesStream.set(responseObserver);
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new OrderTracker(
+      new OrdersService(OrdersServiceGrpc.newBlockingStub(channel), OrdersServiceGrpc.newStub(channel), false),
+      new OrdersStreamService(OrdersStreamServiceGrpc.newStub(channel)),
+      Duration.ZERO)) {
+      var updates = new CopyOnWriteArrayList<Long>();
+      tracker.addListener(order -> {
+        updates.add(order.getLotsExecuted());
+        if (order.getLotsExecuted() == 2) {
+          reconciled.countDown();
+        }
+      });
+      tracker.start(List.of(ACCOUNT_ID));
+
+      // Сделка пришла в стрим раньше ответа на выставление заявки.
+      tradesStream.get().onNext(trade("t1", 10));
+      var order = tracker.register(ACCOUNT_ID, "requestId", PostOrderResponse.newBuilder()
+        .setOrderId(ORDER_ID)
+        .setFigi("figi")
+        .setDirection(OrderDirection.ORDER_DIRECTION_BUY)
+        .setLotsRequested(3)
+        .setExecutionReportStatus(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_NEW)
+        .build(), 10);
+
+      assertEquals(1, order.getLotsExecuted());
+      assertEquals(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_PARTIALLYFILL, order.getStatus());
+      assertSame(order, tracker.getByOrderRequestId("requestId"));
+
+      tradesStream.get().onNext(trade("t1", 10));
+      assertEquals(List.of(1L), updates);
+
+      tradesStream.get().onError(Status.UNAVAILABLE.asRuntimeException());
+      assertTrue(reconciled.await(5, TimeUnit.SECONDS));
+      assertEquals(2, subscriptions.get());
+      assertEquals(2, order.getLotsExecuted());
+      assertFalse(order.isDone());
+
+      tradesStream.get().onNext(trade("t2", 10));
+      tradesStream.get().onNext(trade("t3", 10));
+
+      TrackedOrder done = order.onDone().get(5, TimeUnit.SECONDS);
+      assertEquals(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_FILL, done.getStatus());
+      assertEquals(3, done.getLotsExecuted());
+      assertEquals(List.of(1L, 2L, 3L), updates);
+      assertNull(tracker.get(ORDER_ID));
+      assertEquals(0, tracker.size());
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  @Test
+  void registerValidatesLot_Test() {
+    var channel = InProcessChannelBuilder.forName(InProcessServerBuilder.generateName()).build();
+    var tracker = new OrderTracker(
+      new OrdersService(OrdersServiceGrpc.newBlockingStub(channel), OrdersServiceGrpc.newStub(channel), false),
+      new OrdersStreamService(OrdersStreamServiceGrpc.newStub(channel)));
+
+    assertThrows(IllegalArgumentException.class,
+      () -> tracker.register(ACCOUNT_ID, null, PostOrderResponse.getDefaultInstance(), 0));
+    var rejected = tracker.register(ACCOUNT_ID, null, PostOrderResponse.newBuilder()
+      .setOrderId(ORDER_ID)
+      .setExecutionReportStatus(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_REJECTED)
+      .build(), 1);
+    assertTrue(rejected.isDone());
+    assertEquals(0, tracker.size());
+    channel.shutdownNow();
+  }
+
+  @Test
+  void registerConcurrentWithEarlyTrades_Test() throws Exception {
+    var tradesStream = new AtomicReference<StreamObserver<TradesStreamResponse>>();
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OrdersStreamServiceGrpc.OrdersStreamServiceImplBase() {
+        @Override
+        public void tradesStream(TradesStreamRequest request, StreamObserver<TradesStreamResponse> responseObserver) {
+          tradesStream.set(responseObserver);
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    var executor = Executors.newSingleThreadExecutor();
+    try (var tracker = new OrderTracker(
+      new OrdersService(OrdersServiceGrpc.newBlockingStub(channel), OrdersServiceGrpc.newStub(channel), false),
+      new OrdersStreamService(OrdersStreamServiceGrpc.newStub(channel)))) {
+      tracker.start(List.of(ACCOUNT_ID));
+      var orders = new ArrayList<TrackedOrder>();
+      for (int i = 0; i < 2000; i++) {
+        var orderId = ORDER_ID + i;
+        var barrier = new CyclicBarrier(2);
+        // Обе сделки приходят в стрим примерно одновременно с регистрацией заявки.
+        var streamed = executor.submit(() -> {
+          barrier.await();
+          tradesStream.get().onNext(trade(orderId, "t1", 1));
+          tradesStream.get().onNext(trade(orderId, "t2", 1));
+          return null;
+        });
+        barrier.await();
+        orders.add(tracker.register(ACCOUNT_ID, null, PostOrderResponse.newBuilder()
+          .setOrderId(orderId)
+          .setLotsRequested(2)
+          .setExecutionReportStatus(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_NEW)
+          .build(), 1));
+        streamed.get(5, TimeUnit.SECONDS);
+      }
+
+      for (var order : orders) {
+        assertEquals(2, order.getLotsExecuted(), order.getOrderId());
+        assertEquals(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_FILL, order.getStatus());
+      }
+      assertEquals(0, tracker.size());
+    } finally {
+      executor.shutdownNow();
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  @Test
+  void cancelAndStaleOrdersAreCompleted_Test() throws Exception {
+    var subscriptions = new AtomicInteger();
+    var cancelled = ConcurrentHashMap.<String>newKeySet();
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OrdersServiceGrpc.OrdersServiceImplBase() {
+        @Override
+        public void cancelOrder(CancelOrderRequest request, StreamObserver<CancelOrderResponse> responseObserver) {
+          cancelled.add(request.getOrderId());
+          responseObserver.onNext(CancelOrderResponse.getDefaultInstance());
+          responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getOrderState(GetOrderStateRequest request, StreamObserver<OrderState> responseObserver) {
+          // Заявка "expired" снята биржей, о чём стрим сделок не сообщает.
+          var done = cancelled.contains(request.getOrderId()) || request.getOrderId().equals("expired");
+          responseObserver.onNext(OrderState.newBuilder()
+            .setOrderId(request.getOrderId())
+            .setLotsRequested(1)
+            .setExecutionReportStatus(done
+              ? OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_CANCELLED
+              : OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_NEW)
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OrdersStreamServiceGrpc.OrdersStreamServiceImplBase() {
+        @Override
+        public void tradesStream(TradesStreamRequest request, StreamObserver<TradesStreamResponse> responseObserver) {
+          subscriptions.incrementAndGet();
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new OrderTracker(
+      new OrdersService(OrdersServiceGrpc.newBlockingStub(channel), OrdersServiceGrpc.newStub(channel), false),
+      new OrdersStreamService(OrdersStreamServiceGrpc.newStub(channel)),
+      Duration.ZERO,
+      Duration.ofMillis(50))) {
+      var updates = new CopyOnWriteArrayList<TrackedOrder>();
+      // onDone завершается до вызова слушателей, поэтому сверка ожидает уведомления слушателя.
+      var expiredNotified = new CompletableFuture<TrackedOrder>();
+      tracker.addListener(order -> {
+        updates.add(order);
+        if (order.getOrderId().equals("expired")) {
+          expiredNotified.complete(order);
+        }
+      });
+      tracker.start(List.of(ACCOUNT_ID));
+      // Закрытие прежнего стрима при повторном запуске не вызывает переподключения.
+      tracker.start(List.of(ACCOUNT_ID));
+
+      var cancelledOrder = tracker.register(ACCOUNT_ID, "requestId", newOrder("manual"), 1);
+      var expiredOrder = tracker.register(ACCOUNT_ID, null, newOrder("expired"), 1);
+
+      assertSame(cancelledOrder, tracker.cancel("manual").get(5, TimeUnit.SECONDS));
+      assertEquals(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_CANCELLED, cancelledOrder.getStatus());
+      assertNull(tracker.getByOrderRequestId("requestId"));
+      assertEquals(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_CANCELLED,
+        expiredOrder.onDone().get(5, TimeUnit.SECONDS).getStatus());
+      assertSame(expiredOrder, expiredNotified.get(5, TimeUnit.SECONDS));
+      assertEquals(List.of(cancelledOrder, expiredOrder), updates);
+      assertEquals(0, tracker.size());
+
+      var thrown = assertThrows(ExecutionException.class, () -> tracker.cancel("unknown").get(5, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+      assertEquals(2, subscriptions.get());
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  private static PostOrderResponse newOrder(String orderId) {
+    return PostOrderResponse.newBuilder()
+      .setOrderId(orderId)
+      .setLotsRequested(1)
+      .setExecutionReportStatus(OrderExecutionReportStatus.EXECUTION_REPORT_STATUS_NEW)
+      .build();
+  }
+
+  private static TradesStreamResponse trade(String tradeId, long quantity) {
+    return trade(ORDER_ID, tradeId, quantity);
+  }
+
+  private static TradesStreamResponse trade(String orderId, String tradeId, long quantity) {
+    return TradesStreamResponse.newBuilder()
+      .setOrderTrades(OrderTrades.newBuilder()
+        .setOrderId(orderId)
+        .setAccountId(ACCOUNT_ID)
+        .addTrades(OrderTrade.newBuilder().setTradeId(tradeId).setQuantity(quantity)))
+      .build();
+  }
+}
@@ -0,0 +1,137 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.BondsResponse;
+import ru.tinkoff.piapi.contract.v1.CurrenciesResponse;
+import ru.tinkoff.piapi.contract.v1.EtfsResponse;
+import ru.tinkoff.piapi.contract.v1.FuturesResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentsRequest;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.OptionsResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.contract.v1.Share;
+import ru.tinkoff.piapi.contract.v1.SharesResponse;
+import ru.tinkoff.piapi.contract.v1.TradingStatus;
+import ru.tinkoff.piapi.core.cache.InstrumentCatalog;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.orders.OrderCheck;
+import ru.tinkoff.piapi.core.orders.OrderValidator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.tinkoff.piapi.contract.v1.OrderDirection.ORDER_DIRECTION_BUY;
+import static ru.tinkoff.piapi.contract.v1.OrderDirection.ORDER_DIRECTION_SELL;
+import static ru.tinkoff.piapi.contract.v1.OrderType.ORDER_TYPE_LIMIT;
+import static ru.tinkoff.piapi.contract.v1.OrderType.ORDER_TYPE_MARKET;
+
+public class OrderValidatorTest extends GrpcClientTester<InstrumentsService> {
+
+  @Override
+  protected InstrumentsService createClient(Channel channel) {
+    return new InstrumentsService(
+      InstrumentsServiceGrpc.newBlockingStub(channel),
+      InstrumentsServiceGrpc.newStub(channel));
+  }
+
+  private OrderValidator validator() {
+    var catalog = new InstrumentCatalog(mkClientBasedOnServer(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+      @Override
+      public void shares(InstrumentsRequest request, StreamObserver<SharesResponse> responseObserver) {
+        responseObserver.onNext(SharesResponse.newBuilder()
+          .addInstruments(Share.newBuilder().setFigi("sber").setUid("sber_uid").setLot(10)
+            .setMinPriceIncrement(Quotation.newBuilder().setNano(10_000_000))
+            .setApiTradeAvailableFlag(true).setBuyAvailableFlag(true).setSellAvailableFlag(true))
+          .addInstruments(Share.newBuilder().setFigi("otc").setUid("otc_uid").setLot(1)
+            .setApiTradeAvailableFlag(false).setBuyAvailableFlag(true).setSellAvailableFlag(true))
+          .addInstruments(Share.newBuilder().setFigi("sell_only").setUid("sell_only_uid").setLot(1)
+            .setApiTradeAvailableFlag(true).setSellAvailableFlag(true))
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void bonds(InstrumentsRequest request, StreamObserver<BondsResponse> responseObserver) {
+        responseObserver.onNext(BondsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void etfs(InstrumentsRequest request, StreamObserver<EtfsResponse> responseObserver) {
+        responseObserver.onNext(EtfsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void futures(InstrumentsRequest request, StreamObserver<FuturesResponse> responseObserver) {
+        responseObserver.onNext(FuturesResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void currencies(InstrumentsRequest request, StreamObserver<CurrenciesResponse> responseObserver) {
+        responseObserver.onNext(CurrenciesResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void options(InstrumentsRequest request, StreamObserver<OptionsResponse> responseObserver) {
+        responseObserver.onNext(OptionsResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+    }));
+    catalog.refreshSync();
+    return new OrderValidator(catalog);
+  }
+
+  @Test
+  void check_Test() {
+    var validator = validator();
+
+    assertEquals(OrderCheck.OK, validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_LIMIT, 1,
+      Quotation.newBuilder().setUnits(250).setNano(120_000_000).build()));
+    assertEquals(OrderCheck.OK, validator.check("sber_uid", ORDER_DIRECTION_SELL, ORDER_TYPE_MARKET, 1, 0));
+    assertEquals(OrderCheck.INVALID_PRICE, validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_LIMIT, 1,
+      Quotation.newBuilder().setUnits(250).setNano(125_000_000).build()));
+    assertEquals(OrderCheck.INVALID_PRICE, validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_LIMIT, 1, 0));
+    assertEquals(OrderCheck.INVALID_QUANTITY, validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_MARKET, 0, 0));
+    assertEquals(OrderCheck.UNKNOWN_INSTRUMENT, validator.check("unknown", ORDER_DIRECTION_BUY, ORDER_TYPE_MARKET, 1, 0));
+    assertEquals(OrderCheck.API_TRADE_NOT_AVAILABLE,
+      validator.check("otc", ORDER_DIRECTION_BUY, ORDER_TYPE_MARKET, 1, 0));
+    assertEquals(OrderCheck.DIRECTION_NOT_AVAILABLE,
+      validator.check("sell_only", ORDER_DIRECTION_BUY, ORDER_TYPE_MARKET, 1, 0));
+    assertEquals("30052", OrderCheck.API_TRADE_NOT_AVAILABLE.getCode());
+    assertEquals("Некорректный шаг изменения цены.", OrderCheck.INVALID_PRICE.getDescription());
+  }
+
+  @Test
+  void tradingStatusFromStream_Test() {
+    var validator = validator();
+
+    validator.process(MarketDataResponse.newBuilder()
+      .setTradingStatus(TradingStatus.newBuilder().setFigi("sber").setLimitOrderAvailableFlag(true))
+      .build());
+    assertEquals(OrderCheck.ONLY_LIMIT_ORDER_AVAILABLE,
+      validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_MARKET, 1, 0));
+    assertEquals(OrderCheck.OK, validator.check("sber", ORDER_DIRECTION_BUY, ORDER_TYPE_LIMIT, 1, 1_000_000_000L));
+
+    validator.onTradingStatus(TradingStatus.newBuilder().setFigi("sber").setInstrumentUid("sber_uid").build());
+    assertEquals(OrderCheck.TRADING_NOT_AVAILABLE,
+      validator.check("sber_uid", ORDER_DIRECTION_BUY, ORDER_TYPE_LIMIT, 1, 1_000_000_000L));
+  }
+
+  @Test
+  void roundPriceAndLots_Test() {
+    var validator = validator();
+
+    assertEquals(250_120_000_000L, validator.roundPrice("sber", 250_125_000_000L, ORDER_DIRECTION_BUY));
+    assertEquals(250_130_000_000L, validator.roundPrice("sber", 250_125_000_000L, ORDER_DIRECTION_SELL));
+    assertEquals(250_120_000_000L, validator.roundPrice("sber", 250_120_000_000L, ORDER_DIRECTION_SELL));
+    assertEquals(Decimal.of(250, 130_000_000),
+      validator.roundPrice("sber", Decimal.of(250, 121_000_000), ORDER_DIRECTION_SELL));
+    assertEquals(123, validator.roundPrice("unknown", 123, ORDER_DIRECTION_BUY));
+    assertEquals(2, validator.toLots("sber", 25));
+    assertEquals(-1, validator.toLots("unknown", 25));
+  }
+}
@@ -20,6 +20,7 @@ import ru.tinkoff.piapi.contract.v1.PostOrderRequest;
 import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
 import ru.tinkoff.piapi.contract.v1.Quotation;
 import ru.tinkoff.piapi.core.exception.ReadonlyModeViolationException;
+import ru.tinkoff.piapi.core.models.Decimal;
 import ru.tinkoff.piapi.core.utils.DateUtils;
 
 import java.util.concurrent.CompletionException;
@@ -86,6 +87,47 @@ public class OrdersServiceTest extends GrpcClientTester<OrdersService> {
     verify(grpcService, times(2)).postOrder(eq(inArg), any());
   }
 
+  @Test
+  void postOrderDecimal_Test() {
+    var expected = PostOrderResponse.newBuilder()
+      .setOrderId("orderId")
+      .setFigi("figi")
+      .build();
+    var grpcService = mock(OrdersServiceGrpc.OrdersServiceImplBase.class, delegatesTo(
+      new OrdersServiceGrpc.OrdersServiceImplBase() {
+        @Override
+        public void postOrder(PostOrderRequest request,
+                              StreamObserver<PostOrderResponse> responseObserver) {
+          responseObserver.onNext(expected);
+          responseObserver.onCompleted();
+        }
+      }));
+    var service = mkClientBasedOnServer(grpcService);
+
+    var inArg = PostOrderRequest.newBuilder()
+      .setAccountId("accountId")
+      .setInstrumentId(expected.getFigi())
+      .setQuantity(1)
+      .setDirection(OrderDirection.ORDER_DIRECTION_SELL)
+      .setPrice(Quotation.newBuilder().setUnits(12).setNano(340_000_000).build())
+      .setOrderType(OrderType.ORDER_TYPE_LIMIT)
+      .setOrderId("orderId")
+      .build();
+    var price = Decimal.of(12, 340_000_000);
+    var actualSync = service.postOrderSync(
+      inArg.getInstrumentId(), inArg.getQuantity(), price, inArg.getDirection(),
+      inArg.getAccountId(), inArg.getOrderType(), inArg.getOrderId());
+    var actualAsync = service.postOrder(
+        inArg.getInstrumentId(), inArg.getQuantity(), price, inArg.getDirection(),
+        inArg.getAccountId(), inArg.getOrderType(), inArg.getOrderId())
+      .join();
+
+    assertEquals(expected, actualSync);
+    assertEquals(expected, actualAsync);
+
+    verify(grpcService, times(2)).postOrder(eq(inArg), any());
+  }
+
   @Test
   void postOrder_forbiddenInReadonly_Test() {
     var grpcService = mock(OrdersServiceGrpc.OrdersServiceImplBase.class);
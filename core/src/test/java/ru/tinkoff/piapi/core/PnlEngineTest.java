@@ -0,0 +1,186 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginRequest;
+import ru.tinkoff.piapi.contract.v1.GetFuturesMarginResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.contract.v1.MarketDataResponse;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.OperationsStreamServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.Order;
+import ru.tinkoff.piapi.contract.v1.OrderBook;
+import ru.tinkoff.piapi.contract.v1.PortfolioPosition;
+import ru.tinkoff.piapi.contract.v1.PortfolioRequest;
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
+import ru.tinkoff.piapi.contract.v1.PortfolioStreamRequest;
+import ru.tinkoff.piapi.contract.v1.PortfolioStreamResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsRequest;
+import ru.tinkoff.piapi.contract.v1.PositionsResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsStreamRequest;
+import ru.tinkoff.piapi.contract.v1.PositionsStreamResponse;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.cache.FuturesMarginCache;
+import ru.tinkoff.piapi.core.models.Decimal;
+import ru.tinkoff.piapi.core.portfolio.AccountPnl;
+import ru.tinkoff.piapi.core.portfolio.PnlEngine;
+import ru.tinkoff.piapi.core.portfolio.PortfolioTracker;
+import ru.tinkoff.piapi.core.portfolio.PositionPnl;
+import ru.tinkoff.piapi.core.stream.OperationsStreamService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PnlEngineTest {
+
+  private static final String ACCOUNT_ID = "accountId";
+
+  @Test
+  void repricesOnlyChangedInstruments_Test() throws Exception {
+    var portfolioStream = new AtomicReference<StreamObserver<PortfolioStreamResponse>>();
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OperationsServiceGrpc.OperationsServiceImplBase() {
+        @Override
+        public void getPortfolio(PortfolioRequest request, StreamObserver<PortfolioResponse> responseObserver) {
+          responseObserver.onNext(PortfolioResponse.newBuilder()
+            .setAccountId(ACCOUNT_ID)
+            .addPositions(position("share", "share", 10, 100, 105))
+            .addPositions(position("future", "futures", 2, 1500, 1500))
+            .addPositions(position("bond", "bond", 1, 990, 1000))
+            .build());
+          responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getPositions(PositionsRequest request, StreamObserver<PositionsResponse> responseObserver) {
+          responseObserver.onNext(PositionsResponse.getDefaultInstance());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OperationsStreamServiceGrpc.OperationsStreamServiceImplBase() {
+        @Override
+        public void portfolioStream(PortfolioStreamRequest request,
+                                    StreamObserver<PortfolioStreamResponse> responseObserver) {
+          portfolioStream.set(responseObserver);
+        }
+
+        @Override
+        public void positionsStream(PositionsStreamRequest request,
+                                    StreamObserver<PositionsStreamResponse> responseObserver) {
+        }
+      })
+      .addService(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+        @Override
+        public void getFuturesMargin(GetFuturesMarginRequest request,
+                                     StreamObserver<GetFuturesMarginResponse> responseObserver) {
+          // Шаг цены 10 пунктов стоит 15 рублей.
+          responseObserver.onNext(GetFuturesMarginResponse.newBuilder()
+            .setMinPriceIncrement(Quotation.newBuilder().setUnits(10).build())
+            .setMinPriceIncrementAmount(Quotation.newBuilder().setUnits(15).build())
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new PortfolioTracker(
+      new OperationsService(OperationsServiceGrpc.newBlockingStub(channel), OperationsServiceGrpc.newStub(channel), false),
+      new OperationsStreamService(OperationsStreamServiceGrpc.newStub(channel)))) {
+      tracker.startSync(List.of(ACCOUNT_ID));
+      var marginCache = new FuturesMarginCache(
+        new InstrumentsService(InstrumentsServiceGrpc.newBlockingStub(channel), InstrumentsServiceGrpc.newStub(channel)),
+        Duration.ofHours(1));
+
+      try (var engine = new PnlEngine(tracker, marginCache)) {
+        var updates = new CopyOnWriteArrayList<PositionPnl>();
+        engine.addListener(updates::add);
+        var accountUpdates = new CopyOnWriteArrayList<AccountPnl>();
+        engine.addAccountListener(accountUpdates::add);
+
+        assertEquals(Decimal.of(50), engine.getPositionPnl(ACCOUNT_ID, "share").getPnl());
+        assertEquals(Decimal.of(10), engine.getPositionPnl(ACCOUNT_ID, "bond").getPnl());
+        assertNull(engine.getPositionPnl(ACCOUNT_ID, "future"));
+
+        engine.process(lastPrice("share", 110));
+        engine.process(lastPrice("share", 110));
+        engine.process(lastPrice("bond", 50));
+        engine.process(MarketDataResponse.newBuilder()
+          .setOrderbook(OrderBook.newBuilder()
+            .setFigi("future")
+            .addBids(Order.newBuilder().setPrice(Quotation.newBuilder().setUnits(1010)))
+            .addAsks(Order.newBuilder().setPrice(Quotation.newBuilder().setUnits(1030))))
+          .build());
+
+        assertEquals(2, updates.size());
+        assertEquals(Decimal.of(100), updates.get(0).getPnl());
+        // Середина спреда 1020 пунктов = 1530 рублей, (1530 - 1500) * 2 = 60.
+        assertEquals("future", updates.get(1).getFigi());
+        assertEquals(Decimal.of(1530), updates.get(1).getPrice());
+        assertEquals(Decimal.of(60), updates.get(1).getPnl());
+        assertEquals(Map.of("rub", Decimal.of(170)), engine.getAccountPnl(ACCOUNT_ID));
+        assertEquals(2, accountUpdates.size());
+        assertEquals(Map.of("rub", Decimal.of(110)), accountUpdates.get(0).getPnl());
+        assertEquals(170_000_000_000L, accountUpdates.get(1).getPnlNanos("rub"));
+
+        // Продажа облигации приходит новым портфелем из стрима.
+        updates.clear();
+        accountUpdates.clear();
+        portfolioStream.get().onNext(PortfolioStreamResponse.newBuilder()
+          .setPortfolio(PortfolioResponse.newBuilder()
+            .setAccountId(ACCOUNT_ID)
+            .addPositions(position("share", "share", 20, 105, 105)))
+          .build());
+
+        assertNull(engine.getPositionPnl(ACCOUNT_ID, "bond"));
+        assertEquals(Decimal.of(100), engine.getPositionPnl(ACCOUNT_ID, "share").getPnl());
+        // Закрытые позиции по облигации и фьючерсу передаются слушателям с нулевым количеством.
+        assertEquals(3, updates.size());
+        assertEquals("share", updates.get(0).getFigi());
+        for (var closed : updates.subList(1, 3)) {
+          assertTrue(closed.isClosed());
+          assertEquals(Decimal.ZERO, closed.getQuantity());
+          assertEquals(Decimal.ZERO, closed.getPnl());
+        }
+        assertEquals(List.of("future", "bond"), List.of(updates.get(1).getFigi(), updates.get(2).getFigi()));
+        assertEquals(Map.of("rub", Decimal.of(100)), engine.getAccountPnl(ACCOUNT_ID));
+        assertEquals(1, accountUpdates.size());
+        assertEquals(Map.of("rub", Decimal.of(100)), accountUpdates.get(0).getPnl());
+      }
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  private static MarketDataResponse lastPrice(String figi, long price) {
+    return MarketDataResponse.newBuilder()
+      .setLastPrice(LastPrice.newBuilder().setFigi(figi).setPrice(Quotation.newBuilder().setUnits(price)))
+      .build();
+  }
+
+  private static PortfolioPosition position(String figi, String type, long quantity, long average, long current) {
+    return PortfolioPosition.newBuilder()
+      .setFigi(figi)
+      .setInstrumentType(type)
+      .setQuantity(Quotation.newBuilder().setUnits(quantity))
+      .setAveragePositionPrice(MoneyValue.newBuilder().setCurrency("rub").setUnits(average))
+      .setCurrentPrice(MoneyValue.newBuilder().setCurrency("rub").setUnits(current))
+      .build();
+  }
+}
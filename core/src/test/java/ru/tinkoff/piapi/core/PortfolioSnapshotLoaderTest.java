@@ -0,0 +1,85 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.PortfolioRequest;
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsRequest;
+import ru.tinkoff.piapi.contract.v1.PositionsResponse;
+import ru.tinkoff.piapi.core.portfolio.PortfolioSnapshotLoader;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PortfolioSnapshotLoaderTest extends GrpcClientTester<OperationsService> {
+
+  @Override
+  protected OperationsService createClient(Channel channel) {
+    return new OperationsService(
+      OperationsServiceGrpc.newBlockingStub(channel),
+      OperationsServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void loadWithPartialFailure_Test() {
+    var service = mkClientBasedOnServer(new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getPortfolio(PortfolioRequest request, StreamObserver<PortfolioResponse> responseObserver) {
+        if (request.getAccountId().equals("broken")) {
+          responseObserver.onError(Status.NOT_FOUND.withDescription("50004").asRuntimeException());
+          return;
+        }
+        responseObserver.onNext(PortfolioResponse.newBuilder()
+          .setAccountId(request.getAccountId())
+          .setTotalAmountPortfolio(MoneyValue.newBuilder().setCurrency("rub").setUnits(100).build())
+          .build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void getPositions(PositionsRequest request, StreamObserver<PositionsResponse> responseObserver) {
+        responseObserver.onNext(PositionsResponse.newBuilder()
+          .addMoney(MoneyValue.newBuilder().setCurrency("rub").setUnits(10).build())
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+    var loader = new PortfolioSnapshotLoader(service, 2);
+
+    var snapshot = loader.loadSync(List.of("first", "broken", "second", "first"));
+
+    assertEquals(List.of("first", "broken", "second"), List.copyOf(snapshot.getAccountIds()));
+    assertEquals(Set.of("broken"), snapshot.getFailedAccountIds());
+    assertFalse(snapshot.isComplete());
+    assertNull(snapshot.getPortfolio("broken"));
+    assertEquals("50004", snapshot.getPortfolioResults().get("broken").getCode());
+    assertNotNull(snapshot.getPositions("broken"));
+    assertEquals("second", snapshot.getPortfolio("second").getResponse().getAccountId());
+    assertEquals(0, new BigDecimal(200).compareTo(snapshot.getTotalAmountPortfolio().get("rub")));
+    assertEquals(Set.of("rub"), snapshot.getTotalAmountPortfolio().keySet());
+  }
+
+  @Test
+  void loadEmpty_Test() {
+    var loader = new PortfolioSnapshotLoader(
+      mkClientBasedOnServer(new OperationsServiceGrpc.OperationsServiceImplBase() {
+      }), 2);
+
+    var snapshot = loader.loadSync(List.of());
+
+    assertEquals(Map.of(), snapshot.getTotalAmountPortfolio());
+    assertEquals(Set.of(), snapshot.getAccountIds());
+  }
+}
@@ -0,0 +1,279 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.MoneyValue;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.OperationsStreamServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.PortfolioRequest;
+import ru.tinkoff.piapi.contract.v1.PortfolioResponse;
+import ru.tinkoff.piapi.contract.v1.PortfolioStreamRequest;
+import ru.tinkoff.piapi.contract.v1.PortfolioStreamResponse;
+import ru.tinkoff.piapi.contract.v1.PositionData;
+import ru.tinkoff.piapi.contract.v1.PositionsMoney;
+import ru.tinkoff.piapi.contract.v1.PositionsRequest;
+import ru.tinkoff.piapi.contract.v1.PositionsResponse;
+import ru.tinkoff.piapi.contract.v1.PositionsSecurities;
+import ru.tinkoff.piapi.contract.v1.PositionsStreamRequest;
+import ru.tinkoff.piapi.contract.v1.PositionsStreamResponse;
+import ru.tinkoff.piapi.core.portfolio.AccountPortfolio;
+import ru.tinkoff.piapi.core.portfolio.PortfolioTracker;
+import ru.tinkoff.piapi.core.stream.OperationsStreamService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PortfolioTrackerTest {
+
+  private static final String ACCOUNT_ID = "accountId";
+
+  @Test
+  void seedAndStreamUpdates_Test() throws Exception {
+    var portfolioStream = new AtomicReference<StreamObserver<PortfolioStreamResponse>>();
+    var positionsStream = new AtomicReference<StreamObserver<PositionsStreamResponse>>();
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OperationsServiceGrpc.OperationsServiceImplBase() {
+        @Override
+        public void getPortfolio(PortfolioRequest request, StreamObserver<PortfolioResponse> responseObserver) {
+          responseObserver.onNext(portfolio(100));
+          responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getPositions(PositionsRequest request, StreamObserver<PositionsResponse> responseObserver) {
+          // Изменение позиций, пришедшее в стрим до ответа на унарный запрос.
+          positionsStream.get().onNext(PositionsStreamResponse.newBuilder()
+            .setPosition(PositionData.newBuilder()
+              .setAccountId(ACCOUNT_ID)
+              .addSecurities(security("figi2", 5)))
+            .build());
+          responseObserver.onNext(PositionsResponse.newBuilder()
+            .addMoney(rub(1000))
+            .addSecurities(security("figi1", 10))
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OperationsStreamServiceGrpc.OperationsStreamServiceImplBase() {
+        @Override
+        public void portfolioStream(PortfolioStreamRequest request,
+                                    StreamObserver<PortfolioStreamResponse> responseObserver) {
+          portfolioStream.set(responseObserver);
+        }
+
+        @Override
+        public void positionsStream(PositionsStreamRequest request,
+                                    StreamObserver<PositionsStreamResponse> responseObserver) {
+          positionsStream.set(responseObserver);
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new PortfolioTracker(
+      new OperationsService(OperationsServiceGrpc.newBlockingStub(channel), OperationsServiceGrpc.newStub(channel), false),
+      new OperationsStreamService(OperationsStreamServiceGrpc.newStub(channel)))) {
+      var updates = new CopyOnWriteArrayList<AccountPortfolio>();
+      tracker.addListener(updates::add);
+
+      tracker.startSync(List.of(ACCOUNT_ID));
+
+      var seeded = tracker.get(ACCOUNT_ID);
+      assertEquals(1, seeded.getVersion());
+      assertEquals(List.of(security("figi1", 10), security("figi2", 5)), seeded.getPositionsResponse().getSecuritiesList());
+      assertEquals(portfolio(100), seeded.getPortfolioResponse());
+
+      positionsStream.get().onNext(PositionsStreamResponse.newBuilder()
+        .setPosition(PositionData.newBuilder()
+          .setAccountId(ACCOUNT_ID)
+          .addMoney(PositionsMoney.newBuilder().setAvailableValue(rub(900)).setBlockedValue(rub(100)))
+          .addSecurities(security("figi1", 0)))
+        .build());
+      portfolioStream.get().onNext(PortfolioStreamResponse.newBuilder().setPortfolio(portfolio(200)).build());
+
+      var current = tracker.get(ACCOUNT_ID);
+      assertEquals(3, current.getVersion());
+      assertEquals(List.of(rub(900)), current.getPositionsResponse().getMoneyList());
+      assertEquals(List.of(rub(100)), current.getPositionsResponse().getBlockedList());
+      assertEquals(List.of(security("figi2", 5)), current.getPositionsResponse().getSecuritiesList());
+      assertEquals(portfolio(200), current.getPortfolioResponse());
+      assertEquals(List.of(1L, 2L, 3L), updates.stream().map(AccountPortfolio::getVersion).collect(Collectors.toList()));
+      assertEquals(1, seeded.getVersion());
+      assertNull(tracker.get("unknown"));
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  @Test
+  void retriesFailedSeed_Test() throws Exception {
+    var positionsRequests = new AtomicInteger();
+    var seeded = new CountDownLatch(1);
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OperationsServiceGrpc.OperationsServiceImplBase() {
+        @Override
+        public void getPortfolio(PortfolioRequest request, StreamObserver<PortfolioResponse> responseObserver) {
+          responseObserver.onNext(portfolio(100));
+          responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getPositions(PositionsRequest request, StreamObserver<PositionsResponse> responseObserver) {
+          if (positionsRequests.incrementAndGet() == 1) {
+            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+            return;
+          }
+          responseObserver.onNext(PositionsResponse.newBuilder()
+            .addSecurities(security("figi1", 10))
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OperationsStreamServiceGrpc.OperationsStreamServiceImplBase() {
+        @Override
+        public void portfolioStream(PortfolioStreamRequest request,
+                                    StreamObserver<PortfolioStreamResponse> responseObserver) {
+        }
+
+        @Override
+        public void positionsStream(PositionsStreamRequest request,
+                                    StreamObserver<PositionsStreamResponse> responseObserver) {
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new PortfolioTracker(
+      new OperationsService(OperationsServiceGrpc.newBlockingStub(channel), OperationsServiceGrpc.newStub(channel), false),
+      new OperationsStreamService(OperationsStreamServiceGrpc.newStub(channel)),
+      Duration.ZERO)) {
+      tracker.addListener(portfolio -> seeded.countDown());
+
+      assertThrows(CompletionException.class, () -> tracker.startSync(List.of(ACCOUNT_ID)));
+
+      assertTrue(seeded.await(5, TimeUnit.SECONDS));
+      var current = tracker.get(ACCOUNT_ID);
+      assertEquals(1, current.getVersion());
+      assertEquals(2, positionsRequests.get());
+      assertEquals(List.of(security("figi1", 10)), current.getPositionsResponse().getSecuritiesList());
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  @Test
+  void resubscribesAfterStreamErrorAndAddsAccounts_Test() throws Exception {
+    var positionsStream = new AtomicReference<StreamObserver<PositionsStreamResponse>>();
+    var subscriptions = new CopyOnWriteArrayList<List<String>>();
+    var positionsRequests = new AtomicInteger();
+    var serverName = InProcessServerBuilder.generateName();
+    Server server = InProcessServerBuilder.forName(serverName)
+      .directExecutor()
+      .addService(new OperationsServiceGrpc.OperationsServiceImplBase() {
+        @Override
+        public void getPortfolio(PortfolioRequest request, StreamObserver<PortfolioResponse> responseObserver) {
+          responseObserver.onNext(PortfolioResponse.newBuilder().setAccountId(request.getAccountId()).build());
+          responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getPositions(PositionsRequest request, StreamObserver<PositionsResponse> responseObserver) {
+          responseObserver.onNext(PositionsResponse.newBuilder()
+            .addSecurities(security("figi1", positionsRequests.incrementAndGet()))
+            .build());
+          responseObserver.onCompleted();
+        }
+      })
+      .addService(new OperationsStreamServiceGrpc.OperationsStreamServiceImplBase() {
+        @Override
+        public void portfolioStream(PortfolioStreamRequest request,
+                                    StreamObserver<PortfolioStreamResponse> responseObserver) {
+        }
+
+        @Override
+        public void positionsStream(PositionsStreamRequest request,
+                                    StreamObserver<PositionsStreamResponse> responseObserver) {
+          subscriptions.add(request.getAccountsList());
+          positionsStream.set(responseObserver);
+        }
+      })
+      .build()
+      .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try (var tracker = new PortfolioTracker(
+      new OperationsService(OperationsServiceGrpc.newBlockingStub(channel), OperationsServiceGrpc.newStub(channel), false),
+      new OperationsStreamService(OperationsStreamServiceGrpc.newStub(channel)),
+      Duration.ZERO)) {
+      var updates = new CopyOnWriteArrayList<AccountPortfolio>();
+      tracker.addListener(updates::add);
+
+      tracker.startSync(List.of("first"));
+      assertFalse(tracker.get("first").isStale());
+
+      // Второй запуск подписывается на все отслеживаемые счета, отмена прежней подписки не вызывает переподключения.
+      tracker.startSync(List.of("second"));
+      assertEquals(2, subscriptions.size());
+      assertEquals(Set.of("first", "second"), Set.copyOf(subscriptions.get(1)));
+      assertFalse(tracker.get("first").isStale());
+      assertFalse(tracker.get("second").isStale());
+
+      updates.clear();
+      positionsStream.get().onError(Status.UNAVAILABLE.asRuntimeException());
+      var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while ((tracker.get("first").isStale() || tracker.get("second").isStale()) && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertFalse(tracker.get("first").isStale());
+      assertFalse(tracker.get("second").isStale());
+      assertTrue(updates.stream().anyMatch(AccountPortfolio::isStale));
+      assertEquals(3, subscriptions.size());
+      assertEquals(Set.of("first", "second"), Set.copyOf(subscriptions.get(2)));
+      Thread.sleep(50);
+      assertEquals(3, subscriptions.size());
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+    }
+  }
+
+  private static PortfolioResponse portfolio(long total) {
+    return PortfolioResponse.newBuilder()
+      .setAccountId(ACCOUNT_ID)
+      .setTotalAmountPortfolio(rub(total))
+      .build();
+  }
+
+  private static MoneyValue rub(long units) {
+    return MoneyValue.newBuilder().setCurrency("rub").setUnits(units).build();
+  }
+
+  private static PositionsSecurities security(String figi, long balance) {
+    return PositionsSecurities.newBuilder().setFigi(figi).setPositionUid(figi).setBalance(balance).build();
+  }
+}
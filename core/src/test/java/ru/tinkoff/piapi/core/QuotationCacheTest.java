@@ -0,0 +1,54 @@
+package ru.tinkoff.piapi.core;
+
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.Quotation;
+import ru.tinkoff.piapi.core.cache.QuotationCache;
+import ru.tinkoff.piapi.core.models.Decimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QuotationCacheTest {
+
+  @Test
+  public void gridTest() {
+    var cache = new QuotationCache(100);
+    cache.register("figi",
+      Quotation.newBuilder().setNano(10_000_000).build(),
+      Quotation.newBuilder().setUnits(250).setNano(15_000_000).build());
+
+    var price = cache.get("figi", 250, 500_000_000);
+    assertEquals(Quotation.newBuilder().setUnits(250).setNano(500_000_000).build(), price);
+    assertSame(price, cache.get("figi", Decimal.of(250, 500_000_000)));
+    assertSame(cache.get("figi", 249, 10_000_000), cache.get("figi", 249, 10_000_000));
+
+    // Вне сетки и не кратно шагу цены.
+    var outside = cache.get("figi", 252, 0);
+    assertEquals(Quotation.newBuilder().setUnits(252).build(), outside);
+    assertNotSame(outside, cache.get("figi", 252, 0));
+    assertNotSame(cache.get("figi", 250, 5_000_000), cache.get("figi", 250, 5_000_000));
+    assertEquals(Quotation.newBuilder().setUnits(1).build(), cache.get("other", Decimal.ONE));
+  }
+
+  @Test
+  public void negativeGridTest() {
+    var cache = new QuotationCache(100);
+    cache.register("spread",
+      Quotation.newBuilder().setNano(10_000_000).build(),
+      Quotation.newBuilder().setUnits(-1).setNano(-5_000_000).build());
+
+    var negative = cache.get("spread", -1, -500_000_000);
+    assertEquals(Quotation.newBuilder().setUnits(-1).setNano(-500_000_000).build(), negative);
+    assertSame(negative, cache.get("spread", Decimal.of(-1, -500_000_000)));
+    assertSame(cache.get("spread", -2, 0), cache.get("spread", -2, 0));
+    assertNotSame(cache.get("spread", 0, 0), cache.get("spread", 0, 0));
+    assertSame(cache.get("spread", 0, -10_000_000), cache.get("spread", 0, -10_000_000));
+    assertEquals(Quotation.newBuilder().setNano(-10_000_000).build(), cache.get("spread", 0, -10_000_000));
+
+    assertThrows(ArithmeticException.class, () -> cache.register("overflow",
+      Quotation.newBuilder().setUnits(1).build(),
+      Quotation.newBuilder().setUnits(Long.MAX_VALUE / 1_000_000_000L).build()));
+  }
+}
@@ -0,0 +1,138 @@
+package ru.tinkoff.piapi.core;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.BrokerReport;
+import ru.tinkoff.piapi.contract.v1.BrokerReportRequest;
+import ru.tinkoff.piapi.contract.v1.BrokerReportResponse;
+import ru.tinkoff.piapi.contract.v1.GenerateBrokerReportResponse;
+import ru.tinkoff.piapi.contract.v1.GetBrokerReportResponse;
+import ru.tinkoff.piapi.contract.v1.OperationsServiceGrpc;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+import ru.tinkoff.piapi.core.history.ReportLoader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReportLoaderTest extends GrpcClientTester<OperationsService> {
+
+  private static final int PAGES = 5;
+  private static final Instant FROM = Instant.parse("2023-01-01T00:00:00Z");
+  private static final Instant TO = Instant.parse("2024-01-01T00:00:00Z");
+
+  @Override
+  protected OperationsService createClient(Channel channel) {
+    return new OperationsService(
+      OperationsServiceGrpc.newBlockingStub(channel),
+      OperationsServiceGrpc.newStub(channel),
+      false);
+  }
+
+  @Test
+  void loadBrokerReports_Test() {
+    var polls = new ConcurrentHashMap<String, AtomicInteger>();
+    var service = mkClientBasedOnServer(new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getBrokerReport(BrokerReportRequest request, StreamObserver<BrokerReportResponse> responseObserver) {
+        if (request.hasGenerateBrokerReportRequest()) {
+          var accountId = request.getGenerateBrokerReportRequest().getAccountId();
+          if (accountId.equals("broken")) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("30052").asRuntimeException());
+            return;
+          }
+          responseObserver.onNext(BrokerReportResponse.newBuilder()
+            .setGenerateBrokerReportResponse(GenerateBrokerReportResponse.newBuilder().setTaskId(accountId))
+            .build());
+          responseObserver.onCompleted();
+          return;
+        }
+        var taskId = request.getGetBrokerReportRequest().getTaskId();
+        var page = request.getGetBrokerReportRequest().getPage();
+        // Отчёт готов только с третьей проверки.
+        if (page == 0 && polls.computeIfAbsent(taskId, key -> new AtomicInteger()).incrementAndGet() < 3) {
+          responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("30058").asRuntimeException());
+          return;
+        }
+        responseObserver.onNext(BrokerReportResponse.newBuilder()
+          .setGetBrokerReportResponse(GetBrokerReportResponse.newBuilder()
+            .setPage(page)
+            .setPagesCount(PAGES)
+            .addBrokerReport(report(taskId, page)))
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+    var loader = new ReportLoader(service, 4, Duration.ofMillis(1), Duration.ofMillis(4), Duration.ofSeconds(10));
+
+    var reports = loader.loadBrokerReports(List.of("first", "second", "broken"), FROM, TO);
+
+    for (var accountId : List.of("first", "second")) {
+      var expected = new ArrayList<BrokerReport>();
+      for (int page = 0; page < PAGES; page++) {
+        expected.add(report(accountId, page));
+      }
+      assertEquals(expected, reports.get(accountId).join());
+      assertEquals(3, polls.get(accountId).get());
+    }
+    var thrown = assertThrows(CompletionException.class, () -> reports.get("broken").join());
+    assertInstanceOf(ApiRuntimeException.class, thrown.getCause());
+    assertEquals("30052", ((ApiRuntimeException) thrown.getCause()).getCode());
+  }
+
+  @Test
+  void pollTimeout_Test() {
+    var service = mkClientBasedOnServer(new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getBrokerReport(BrokerReportRequest request, StreamObserver<BrokerReportResponse> responseObserver) {
+        if (request.hasGenerateBrokerReportRequest()) {
+          responseObserver.onNext(BrokerReportResponse.newBuilder()
+            .setGenerateBrokerReportResponse(GenerateBrokerReportResponse.newBuilder().setTaskId("task"))
+            .build());
+          responseObserver.onCompleted();
+        } else {
+          responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("30058").asRuntimeException());
+        }
+      }
+    });
+    var loader = new ReportLoader(service, 1, Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(50));
+
+    var thrown = assertThrows(CompletionException.class, () -> loader.loadBrokerReport("account", FROM, TO).join());
+    assertEquals("30058", ((ApiRuntimeException) thrown.getCause()).getCode());
+  }
+
+  @Test
+  void readyReport_Test() {
+    var service = mkClientBasedOnServer(new OperationsServiceGrpc.OperationsServiceImplBase() {
+      @Override
+      public void getBrokerReport(BrokerReportRequest request, StreamObserver<BrokerReportResponse> responseObserver) {
+        var accountId = request.getGenerateBrokerReportRequest().getAccountId();
+        responseObserver.onNext(BrokerReportResponse.newBuilder()
+          .setGetBrokerReportResponse(GetBrokerReportResponse.newBuilder()
+            .setPagesCount(accountId.equals("single") ? 1 : PAGES)
+            .addBrokerReport(report(accountId, 0)))
+          .build());
+        responseObserver.onCompleted();
+      }
+    });
+    var loader = new ReportLoader(service, 1);
+
+    assertEquals(List.of(report("single", 0)), loader.loadBrokerReport("single", FROM, TO).join());
+    var thrown = assertThrows(CompletionException.class, () -> loader.loadBrokerReport("paged", FROM, TO).join());
+    assertInstanceOf(IllegalStateException.class, thrown.getCause());
+  }
+
+  private static BrokerReport report(String accountId, int page) {
+    return BrokerReport.newBuilder().setTradeId(accountId + "-" + page).build();
+  }
+}
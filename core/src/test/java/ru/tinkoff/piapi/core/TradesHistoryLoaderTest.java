@@ -0,0 +1,126 @@
+package ru.tinkoff.piapi.core;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.tinkoff.piapi.contract.v1.GetLastTradesRequest;
+import ru.tinkoff.piapi.contract.v1.GetLastTradesResponse;
+import ru.tinkoff.piapi.contract.v1.MarketDataServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.Trade;
+import ru.tinkoff.piapi.core.history.TradesHistoryLoader;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+
+public class TradesHistoryLoaderTest extends GrpcClientTester<MarketDataService> {
+
+  private static final Instant START = Instant.parse("2023-01-10T07:00:00Z");
+
+  private final List<GetLastTradesRequest> requests = new ArrayList<>();
+
+  @Override
+  protected MarketDataService createClient(Channel channel) {
+    return new MarketDataService(
+      MarketDataServiceGrpc.newBlockingStub(channel),
+      MarketDataServiceGrpc.newStub(channel));
+  }
+
+  /**
+   * Сервер отдаёт по сделке каждые 10 минут, включая обе границы окна, в обратном порядке.
+   */
+  private MarketDataService tradesServer() {
+    return mkClientBasedOnServer(new MarketDataServiceGrpc.MarketDataServiceImplBase() {
+      @Override
+      public void getLastTrades(GetLastTradesRequest request, StreamObserver<GetLastTradesResponse> responseObserver) {
+        requests.add(request);
+        var response = GetLastTradesResponse.newBuilder();
+        for (var time = request.getTo().getSeconds(); time >= request.getFrom().getSeconds(); time -= 600) {
+          response.addTrades(trade(time));
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  private static Trade trade(long seconds) {
+    return Trade.newBuilder()
+      .setFigi("figi")
+      .setQuantity(1)
+      .setTime(Timestamp.newBuilder().setSeconds(seconds).build())
+      .build();
+  }
+
+  private static List<Trade> expectedTrades(Instant from, Instant to) {
+    var expected = new ArrayList<Trade>();
+    for (var time = from.getEpochSecond(); time <= to.getEpochSecond(); time += 600) {
+      expected.add(trade(time));
+    }
+    return expected;
+  }
+
+  @Test
+  void load_Test() {
+    var loader = new TradesHistoryLoader(tradesServer(), 2);
+    var to = START.plus(Duration.ofMinutes(150));
+    var actual = new ArrayList<Trade>();
+
+    var count = loader.load("figi", START, to, actual::add).join();
+
+    assertEquals(3, requests.size());
+    assertEquals(16, count);
+    assertIterableEquals(expectedTrades(START, to), actual);
+  }
+
+  @Test
+  void loadToFile_Test(@TempDir Path dir) {
+    var loader = new TradesHistoryLoader(tradesServer(), 4, Duration.ofMinutes(30));
+    var to = START.plus(Duration.ofHours(2));
+    var file = dir.resolve("trades.bin");
+
+    var written = loader.loadToFile("figi", START, to, file).join();
+    var actual = new ArrayList<Trade>();
+    var read = TradesHistoryLoader.readFile(file, actual::add);
+
+    assertEquals(4, requests.size());
+    assertEquals(written, read);
+    assertIterableEquals(expectedTrades(START, to), actual);
+  }
+
+  @Test
+  void identicalTradesInWindow_Test() {
+    // В каждом окне по две одинаковые сделки на обеих границах и в середине окна.
+    var loader = new TradesHistoryLoader(mkClientBasedOnServer(new MarketDataServiceGrpc.MarketDataServiceImplBase() {
+      @Override
+      public void getLastTrades(GetLastTradesRequest request, StreamObserver<GetLastTradesResponse> responseObserver) {
+        var from = request.getFrom().getSeconds();
+        var to = request.getTo().getSeconds();
+        var response = GetLastTradesResponse.newBuilder();
+        for (var time : new long[]{to, (from + to) / 2, from}) {
+          response.addTrades(trade(time)).addTrades(trade(time));
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+    }), 2);
+    var actual = new ArrayList<Trade>();
+
+    var count = loader.load("figi", START, START.plus(Duration.ofHours(2)), actual::add).join();
+
+    var expected = new ArrayList<Trade>();
+    for (var time = START.getEpochSecond(); time <= START.plus(Duration.ofHours(2)).getEpochSecond(); time += 1800) {
+      expected.add(trade(time));
+      expected.add(trade(time));
+    }
+    assertEquals(10, count);
+    assertIterableEquals(expected, actual);
+  }
+}
@@ -0,0 +1,100 @@
+package ru.tinkoff.piapi.core;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.TradingDay;
+import ru.tinkoff.piapi.contract.v1.TradingSchedule;
+import ru.tinkoff.piapi.contract.v1.TradingSchedulesRequest;
+import ru.tinkoff.piapi.contract.v1.TradingSchedulesResponse;
+import ru.tinkoff.piapi.core.cache.TradingScheduleCache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradingScheduleCacheTest extends GrpcClientTester<InstrumentsService> {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Override
+  protected InstrumentsService createClient(Channel channel) {
+    return new InstrumentsService(
+      InstrumentsServiceGrpc.newBlockingStub(channel),
+      InstrumentsServiceGrpc.newStub(channel));
+  }
+
+  private static Timestamp at(Instant day, int hour) {
+    return Timestamp.newBuilder().setSeconds(day.plus(hour, ChronoUnit.HOURS).getEpochSecond()).build();
+  }
+
+  private InstrumentsService schedulesServer() {
+    return mkClientBasedOnServer(new InstrumentsServiceGrpc.InstrumentsServiceImplBase() {
+      @Override
+      public void tradingSchedules(TradingSchedulesRequest request,
+                                   StreamObserver<TradingSchedulesResponse> responseObserver) {
+        calls.incrementAndGet();
+        assertTrue(request.getExchange().isEmpty());
+        var moex = TradingSchedule.newBuilder().setExchange("MOEX");
+        var from = Instant.ofEpochSecond(request.getFrom().getSeconds());
+        for (var day = from; day.isBefore(Instant.ofEpochSecond(request.getTo().getSeconds()));
+             day = day.plus(1, ChronoUnit.DAYS)) {
+          // Каждые третьи сутки - неторговые.
+          var tradingDay = (day.getEpochSecond() / 86400) % 3 != 0;
+          moex.addDays(TradingDay.newBuilder()
+            .setDate(at(day, 0))
+            .setIsTradingDay(tradingDay)
+            .setStartTime(at(day, 7))
+            .setEndTime(at(day, 16))
+            .setEveningStartTime(at(day, 16))
+            .setEveningEndTime(at(day, 21)));
+        }
+        responseObserver.onNext(TradingSchedulesResponse.newBuilder().addExchanges(moex).build());
+        responseObserver.onCompleted();
+      }
+    });
+  }
+
+  @Test
+  void sessions_Test() {
+    var cache = new TradingScheduleCache(schedulesServer());
+    assertFalse(cache.isTradingNow("MOEX"));
+    assertNull(cache.getLoadedTo());
+
+    cache.refreshSync();
+    assertEquals(1, calls.get());
+    assertEquals(Set.of("MOEX"), cache.getExchanges());
+
+    var today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+    var tradingDay = (today.getEpochSecond() / 86400) % 3 != 0
+      ? today
+      : today.plus(1, ChronoUnit.DAYS);
+    var nextTradingDay = (tradingDay.getEpochSecond() / 86400 + 1) % 3 != 0
+      ? tradingDay.plus(1, ChronoUnit.DAYS)
+      : tradingDay.plus(2, ChronoUnit.DAYS);
+
+    assertFalse(cache.isTrading("MOEX", tradingDay.plus(6, ChronoUnit.HOURS)));
+    assertTrue(cache.isTrading("MOEX", tradingDay.plus(7, ChronoUnit.HOURS)));
+    assertTrue(cache.isTrading("MOEX", tradingDay.plus(18, ChronoUnit.HOURS)));
+    assertFalse(cache.isTrading("MOEX", tradingDay.plus(21, ChronoUnit.HOURS)));
+    assertFalse(cache.isTrading("SPB", tradingDay.plus(12, ChronoUnit.HOURS)));
+
+    // Основная и вечерняя сессии объединены в одну.
+    assertEquals(tradingDay.plus(21, ChronoUnit.HOURS),
+      cache.currentClose("MOEX", tradingDay.plus(12, ChronoUnit.HOURS)));
+    assertEquals(tradingDay.plus(7, ChronoUnit.HOURS),
+      cache.nextOpen("MOEX", tradingDay.plus(1, ChronoUnit.HOURS)));
+    assertEquals(nextTradingDay.plus(7, ChronoUnit.HOURS),
+      cache.nextOpen("MOEX", tradingDay.plus(12, ChronoUnit.HOURS)));
+    assertNull(cache.nextOpen("MOEX", cache.getLoadedTo()));
+    assertEquals(1, calls.get());
+  }
+}